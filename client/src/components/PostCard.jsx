@@ -33,11 +33,12 @@ import {
     postImage,
     postId,
     userId,
+    liked,
   }) {
     const likeService = new LikeService();
     const postService = new PostService();
     const { user } = useContext(AuthContext);
-    const [isLiked, setIsLiked] = useState(false);
+    const [isLiked, setIsLiked] = useState(liked);
     const [likes, setLikes] = useState([]);
 
     debugger
@@ -47,7 +48,8 @@ import {
 
     const handleLike = async () => {
       try {
-        await likeService.add(user.id, postId, localStorage.getItem("token"));
+        const result = await likeService.add(user.id, postId, localStorage.getItem("token"));
+        setIsLiked(result.data.liked);
         getLikes();
       } catch (error) {
         console.log(error);
@@ -56,7 +58,8 @@ import {
 
     const handleUnlike = async () => {
       try {
-        await likeService.delete(user.id, postId, localStorage.getItem("token"));
+        const result = await likeService.delete(user.id, postId, localStorage.getItem("token"));
+        setIsLiked(result.data.liked);
         getLikes();
       } catch (error) {
         console.log(error);
@@ -73,18 +76,9 @@ import {
       }
     };
 
-    const checkIsLiked = useCallback(async () => {
-      try {
-        const result = await likeService.isLiked(
-          user.id,
-          postId,
-          localStorage.getItem("token")
-        );
-        setIsLiked(result.data);
-      } catch (error) {
-        console.log(error);
-      }
-    }, [user.id, postId, likes.length]);
+    useEffect(() => {
+      setIsLiked(liked);
+    }, [liked]);
 
     const getLikes = useCallback(async () => {
       try {
@@ -99,9 +93,8 @@ import {
     }, [postId]);
 
     useEffect(() => {
-      checkIsLiked();
       getLikes();
-    }, [checkIsLiked, getLikes]);
+    }, [getLikes]);
 
     return (
       <Card maxW="lg">
@@ -1,8 +1,23 @@
 import { Center, VStack } from '@chakra-ui/react'
-import React from 'react'
+import React, { useContext, useEffect, useState } from 'react'
+import AuthContext from '../context/AuthContext'
+import LikeService from '../services/LikeService'
 import PostCard from './PostCard'
 
 function Posts({posts}) {
+    const { user } = useContext(AuthContext)
+    const [likedIds, setLikedIds] = useState([])
+
+    // One request for the whole page instead of one per card.
+    useEffect(() => {
+        if (user.id === undefined || posts.length === 0) {
+            return
+        }
+        const likeService = new LikeService()
+        likeService.getLikedPostIds(user.id, posts.map(post => post.id), localStorage.getItem("token"))
+            .then(result => setLikedIds(result.data))
+            .catch(error => console.log(error))
+    }, [user.id, posts])
 
     const imageUrl = process.env.REACT_APP_API + "postimages/download/"
     console.log("image url",imageUrl)
@@ -21,6 +36,7 @@ function Posts({posts}) {
                                 postImage={imageUrl + post.id}
                                 postId={post.id}
                                 userId={post.userId}
+                                liked={likedIds.includes(post.id)}
                             />
                         ))
                     }
@@ -4,6 +4,7 @@ import Nav from '../components/Nav'
 import Posts from '../components/Posts'
 import ProfileCard from '../components/ProfileCard'
 import AuthContext from '../context/AuthContext'
+import EventService from '../services/EventService'
 import PostService from '../services/PostService'
 import svg from '../svgs/undraw_no_data_re_kwbl.svg'
 
@@ -30,6 +31,18 @@ function Home() {
         debugger
     }, [getData])
 
+    useEffect(() => {
+        if (user.id === undefined) {
+            return
+        }
+        const eventService = new EventService()
+        const source = eventService.subscribe([], localStorage.getItem("token"), {
+            post: () => getData(),
+            resync: () => getData()
+        })
+        return () => source.close()
+    }, [user.id, getData])
+
 
     return (
         <>
@@ -15,8 +15,6 @@ function Profile() {
     const { user } = useContext(AuthContext)
     const [posts, setPosts] = useState([])
     const [viewedUser, setViewedUser] = useState({})
-    const [followers, setFollowers] = useState([])
-    const [following, setFollowing] = useState([])
     const [isOwner,setIsOwner] = useState(false)
     const [isFollowing, setIsFollowing] = useState(false)
 
@@ -37,8 +35,6 @@ function Profile() {
         try {
             const result = await userService.getById(userId, localStorage.getItem("token"))
             setViewedUser(result.data)
-            setFollowing(result.data.following)
-            setFollowers(result.data.followers)
         } catch (error) {
             console.log(error.message)
         }
@@ -75,8 +71,8 @@ function Profile() {
             <Nav />
             <UserCard
                 fullName={viewedUser.name + " " + viewedUser.lastName}
-                following={following.length}
-                followers={followers.length}
+                following={viewedUser.followingCount}
+                followers={viewedUser.followerCount}
                 isFollowing={isFollowing}
                 isOwner = {isOwner}
                 userId={userId}
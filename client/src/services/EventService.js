@@ -0,0 +1,15 @@
+export default class EventService{
+    // EventSource cannot send an Authorization header, so the token goes in the query string.
+    // The stream is the token's user's; the server takes the id from it.
+    subscribe(postIds,token,handlers){
+        const params = new URLSearchParams({access_token:token})
+        if (postIds.length > 0) {
+            params.append("postIds",postIds.join(","))
+        }
+        const source = new EventSource(process.env.REACT_APP_API+"events/subscribe?"+params.toString())
+        Object.entries(handlers).forEach(([name,handler]) =>
+            source.addEventListener(name,event => handler(event.data ? JSON.parse(event.data) : null))
+        )
+        return source
+    }
+}
@@ -27,6 +27,14 @@ export default class LikeService{
         })
     }
 
+    getLikedPostIds(userId,postIds,token){
+        return axios.get(process.env.REACT_APP_API+`likes/isliked/batch?userId=${userId}&postIds=${postIds.join(",")}`,{
+            headers:{
+                'Authorization':"Bearer "+token
+            }
+        })
+    }
+
     getLikesByPost(postId,token){
         return axios.get(process.env.REACT_APP_API+"likes/getallbypost/"+postId,{
             headers:{
@@ -10,6 +10,22 @@ export default class UserService{
         });
     }
 
+    getByIds(ids,token){
+        return axios.get(process.env.REACT_APP_API+`users/getbyids?ids=${ids.join(",")}`,{
+            headers:{
+                'Authorization':"Bearer "+token
+            }
+        });
+    }
+
+    getFollowedIds(userId,followingIds,token){
+        return axios.get(process.env.REACT_APP_API+`users/isfollowing/batch?userId=${userId}&followingIds=${followingIds.join(",")}`,{
+            headers:{
+                'Authorization':"Bearer "+token
+            }
+        });
+    }
+
     isFollowing(userId,followingId,token){
         return axios.get(process.env.REACT_APP_API+`users/isfollowing?userId=${userId}&followingId=${followingId}`,{
             headers:{
@@ -1,79 +1,100 @@
 package socialMediaApp.api;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
-import socialMediaApp.models.User;
-import socialMediaApp.repositories.UserRepository;
+import org.springframework.web.bind.annotation.*;
 import socialMediaApp.requests.LoginRequest;
 import socialMediaApp.requests.RegisterRequest;
-import socialMediaApp.security.JwtUtil;
+import socialMediaApp.responses.auth.LoginStatsResponse;
+import socialMediaApp.security.IssuedTokens;
+import socialMediaApp.security.LoginService;
+import socialMediaApp.security.RefreshTokenService;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
-    private final AuthenticationManager authenticationManager;
-    private final JwtUtil jwtUtil;
-    private final PasswordEncoder passwordEncoder;
-    private final UserRepository userRepository;
+    /** Sent back only to these endpoints, and never readable by scripts. */
+    private static final String REFRESH_COOKIE = "refresh_token";
+
+    private final LoginService loginService;
+    private final RefreshTokenService refreshTokenService;
 
-    public AuthController(AuthenticationManager authenticationManager,  JwtUtil jwtUtil, PasswordEncoder passwordEncoder, UserRepository userRepository) {
-        this.authenticationManager = authenticationManager;
-        this.jwtUtil = jwtUtil;
-        this.passwordEncoder = passwordEncoder;
-        this.userRepository = userRepository;
+    public AuthController(LoginService loginService, RefreshTokenService refreshTokenService) {
+        this.loginService = loginService;
+        this.refreshTokenService = refreshTokenService;
     }
 
+    // Hashing runs on the login pool; the servlet thread is released while it waits.
     @PostMapping("/login")
-    public ResponseEntity<String> login(@RequestBody LoginRequest loginRequest)  {
-
-          try {
-              authenticationManager.authenticate(
-                      new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())
-              );
-              return new ResponseEntity<>(jwtUtil.generateToken(
-                      loginRequest.getEmail(),
-                      userRepository.findByEmail(loginRequest.getEmail()).getId(),
-                      userRepository.findByEmail(loginRequest.getEmail()).getName()+
-                              " "+ userRepository.findByEmail(loginRequest.getEmail()).getLastName()
-                        )
-                      ,HttpStatus.OK
-              );
-          }catch (Exception e){
-              return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
-          }
+    public CompletableFuture<ResponseEntity<String>> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request)  {
+        if (!loginService.tryAcquire(loginRequest.getEmail(), request.getRemoteAddr())){
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.TOO_MANY_REQUESTS));
+        }
+        try {
+            return loginService.login(loginRequest).thenApply(tokens -> tokens == null
+                    ? new ResponseEntity<>(HttpStatus.UNAUTHORIZED)
+                    : withRefreshCookie(tokens));
+        }catch (RejectedExecutionException e){
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE));
+        }
     }
 
     @PostMapping("/register")
-    public ResponseEntity<String> register(@RequestBody RegisterRequest registerRequest){
+    public CompletableFuture<ResponseEntity<String>> register(@RequestBody RegisterRequest registerRequest, HttpServletRequest request){
+        if (!loginService.tryAcquire(registerRequest.getEmail(), request.getRemoteAddr())){
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.TOO_MANY_REQUESTS));
+        }
+        try {
+            return loginService.register(registerRequest).thenApply(tokens -> tokens == null
+                    ? new ResponseEntity<>("Email already exist",HttpStatus.BAD_REQUEST)
+                    : withRefreshCookie(tokens));
+        }catch (RejectedExecutionException e){
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE));
+        }
+    }
 
-        if (userRepository.findByEmail(registerRequest.getEmail())!=null){
-            return new ResponseEntity<>("Email already exist",HttpStatus.BAD_REQUEST);
+    // A refresh token works once: the response carries its replacement.
+    @PostMapping("/refresh")
+    public ResponseEntity<String> refresh(@CookieValue(name = REFRESH_COOKIE, required = false) String refreshToken){
+        IssuedTokens tokens = refreshToken == null ? null : refreshTokenService.rotate(refreshToken);
+        if (tokens == null){
+            return new ResponseEntity<>(refreshCookie("", Duration.ZERO), HttpStatus.UNAUTHORIZED);
         }
-       User user = new User();
-       user.setEmail(registerRequest.getEmail());
-       user.setName(registerRequest.getName());
-       user.setLastName(registerRequest.getLastName());
-       user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
-       userRepository.save(user);
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(registerRequest.getEmail(), registerRequest.getPassword())
-        );
-        return new ResponseEntity<>(jwtUtil.generateToken(
-                registerRequest.getEmail(),
-                userRepository.findByEmail(registerRequest.getEmail()).getId(),
-                registerRequest.getName() +" "+registerRequest.getLastName()
-        )
-                ,HttpStatus.OK
-        );
+        return withRefreshCookie(tokens);
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                       @CookieValue(name = REFRESH_COOKIE, required = false) String refreshToken){
+        String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        refreshTokenService.logout(accessToken, refreshToken);
+        return new ResponseEntity<>(refreshCookie("", Duration.ZERO), HttpStatus.NO_CONTENT);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<LoginStatsResponse> getStats(){
+        return new ResponseEntity<>(loginService.getStats(),HttpStatus.OK);
+    }
+
+    private static ResponseEntity<String> withRefreshCookie(IssuedTokens tokens){
+        Duration maxAge = Duration.ofMillis(tokens.getRefreshExpiresAt() - System.currentTimeMillis());
+        return new ResponseEntity<>(tokens.getAccessToken(), refreshCookie(tokens.getRefreshToken(), maxAge), HttpStatus.OK);
+    }
+
+    private static HttpHeaders refreshCookie(String value, Duration maxAge){
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.SET_COOKIE, ResponseCookie.from(REFRESH_COOKIE, value)
+                .httpOnly(true).secure(true).sameSite("Strict").path("/api/auth").maxAge(maxAge).build().toString());
+        return headers;
     }
 
 }
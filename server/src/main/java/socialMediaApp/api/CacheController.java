@@ -0,0 +1,27 @@
+package socialMediaApp.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import socialMediaApp.responses.cache.CacheRegionStatsResponse;
+import socialMediaApp.services.CacheStatsService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final CacheStatsService cacheStatsService;
+
+    public CacheController(CacheStatsService cacheStatsService) {
+        this.cacheStatsService = cacheStatsService;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheRegionStatsResponse>> getStats(){
+        return new ResponseEntity<>(cacheStatsService.getRegionStats(),HttpStatus.OK);
+    }
+}
@@ -1,11 +1,18 @@
 package socialMediaApp.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import socialMediaApp.requests.CommentAddRequest;
 import socialMediaApp.responses.comment.CommentGetResponse;
 import socialMediaApp.services.CommentService;
+import socialMediaApp.services.VersionService;
+import socialMediaApp.utils.ConditionalGets;
+import socialMediaApp.utils.JsonStreams;
 
 import java.util.List;
 
@@ -14,19 +21,24 @@ import java.util.List;
 public class CommentsController {
 
     private final CommentService commentService;
+    private final VersionService versionService;
+    private final ObjectMapper objectMapper;
 
-    public CommentsController(CommentService commentService){
+    public CommentsController(CommentService commentService, VersionService versionService, ObjectMapper objectMapper){
         this.commentService = commentService;
+        this.versionService = versionService;
+        this.objectMapper = objectMapper;
     }
 
+    /** Streams every comment as a JSON array, or as NDJSON when the client accepts application/x-ndjson. */
     @GetMapping("/getall")
-    public ResponseEntity<List<CommentGetResponse>> getAll(){
-        return new ResponseEntity<>(commentService.getAll(), HttpStatus.OK);
+    public ResponseEntity<StreamingResponseBody> getAll(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept){
+        return JsonStreams.<CommentGetResponse>stream(objectMapper, accept, commentService::streamAll);
     }
 
     @GetMapping("/getallbypost/{postId}")
-    public ResponseEntity<List<CommentGetResponse>> getAllByPost(@PathVariable int postId){
-        return new ResponseEntity<>(commentService.getAllByPost(postId),HttpStatus.OK);
+    public ResponseEntity<List<CommentGetResponse>> getAllByPost(@PathVariable int postId, WebRequest request){
+        return ConditionalGets.respond(request, versionService.commentsEtag(postId), () -> commentService.getAllByPost(postId));
     }
 
     @GetMapping("/getallbyuser/{userId}")
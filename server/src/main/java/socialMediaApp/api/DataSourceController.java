@@ -0,0 +1,27 @@
+package socialMediaApp.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import socialMediaApp.config.ReplicaRoutingDataSource;
+import socialMediaApp.responses.datasource.DataSourcePoolStatsResponse;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/datasource")
+public class DataSourceController {
+
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    public DataSourceController(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        this.replicaRoutingDataSource = replicaRoutingDataSource;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<DataSourcePoolStatsResponse>> getStats(){
+        return new ResponseEntity<>(replicaRoutingDataSource.getPoolStats(),HttpStatus.OK);
+    }
+}
@@ -0,0 +1,37 @@
+package socialMediaApp.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import socialMediaApp.responses.deletion.PurgeJobResponse;
+import socialMediaApp.services.DeletionService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/deletions")
+public class DeletionsController {
+
+    private final DeletionService deletionService;
+
+    public DeletionsController(DeletionService deletionService) {
+        this.deletionService = deletionService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<PurgeJobResponse>> getAll(){
+        return new ResponseEntity<>(deletionService.getJobs(),HttpStatus.OK);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<PurgeJobResponse> getById(@PathVariable long id){
+        PurgeJobResponse job = deletionService.getJob(id);
+        if (job == null){
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(job,HttpStatus.OK);
+    }
+}
@@ -0,0 +1,42 @@
+package socialMediaApp.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import socialMediaApp.security.JwtPrincipal;
+import socialMediaApp.services.PushService;
+
+import java.util.Collections;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/events")
+public class EventsController {
+
+    private final PushService pushService;
+
+    public EventsController(PushService pushService) {
+        this.pushService = pushService;
+    }
+
+    /**
+     * Server-Sent Events stream: {@code post} for new posts of followed users, {@code likes} and
+     * {@code comment} for the watched posts. Browsers' EventSource cannot set headers, so the token may be
+     * passed as {@code access_token}. The stream belongs to the token's user.
+     */
+    @GetMapping(value = "/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(@AuthenticationPrincipal JwtPrincipal principal,
+                                                @RequestParam(required = false) List<Integer> postIds){
+        return new ResponseEntity<>(pushService.subscribe(principal.getId(), postIds == null ? Collections.emptyList() : postIds),HttpStatus.OK);
+    }
+
+    @PutMapping("/watch")
+    public ResponseEntity<Void> watch(@RequestParam String connectionId,
+                                      @RequestParam(required = false) List<Integer> postIds){
+        boolean found = pushService.watch(connectionId, postIds == null ? Collections.emptyList() : postIds);
+        return new ResponseEntity<>(found ? HttpStatus.OK : HttpStatus.NOT_FOUND);
+    }
+}
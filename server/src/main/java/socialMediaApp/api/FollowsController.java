@@ -4,6 +4,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import socialMediaApp.requests.FollowRequest;
+import socialMediaApp.responses.follow.FollowStateResponse;
 import socialMediaApp.services.FollowService;
 
 @RestController
@@ -17,14 +18,12 @@ public class FollowsController {
     }
 
     @PostMapping("/add")
-    public ResponseEntity<String> add(@RequestBody FollowRequest followRequest){
-        followService.add(followRequest);
-        return new ResponseEntity<>("Followed", HttpStatus.OK);
+    public ResponseEntity<FollowStateResponse> add(@RequestBody FollowRequest followRequest){
+        return new ResponseEntity<>(followService.add(followRequest), HttpStatus.OK);
     }
 
     @PostMapping("/delete")
-    public ResponseEntity<String> delete(@RequestBody FollowRequest  followRequest){
-        followService.delete(followRequest);
-        return new ResponseEntity<>("Unfollowed",HttpStatus.OK);
+    public ResponseEntity<FollowStateResponse> delete(@RequestBody FollowRequest  followRequest){
+        return new ResponseEntity<>(followService.delete(followRequest),HttpStatus.OK);
     }
 }
@@ -0,0 +1,55 @@
+package socialMediaApp.api;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import socialMediaApp.requests.CommentAddRequest;
+import socialMediaApp.requests.FollowRequest;
+import socialMediaApp.requests.LikeRequest;
+import socialMediaApp.responses.ingest.BulkIngestResponse;
+import socialMediaApp.services.BulkIngestService;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Bulk writes. Each endpoint takes either a JSON array or NDJSON (one object per line) and reads it as it
+ * arrives, so the body can be far larger than memory.
+ */
+@RestController
+@RequestMapping("/api/ingest")
+public class IngestController {
+
+    private final BulkIngestService bulkIngestService;
+    private final ObjectMapper objectMapper;
+
+    public IngestController(BulkIngestService bulkIngestService, ObjectMapper objectMapper) {
+        this.bulkIngestService = bulkIngestService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostMapping("/likes")
+    public ResponseEntity<BulkIngestResponse> likes(InputStream body) throws IOException {
+        try (MappingIterator<LikeRequest> rows = objectMapper.readerFor(LikeRequest.class).readValues(body)) {
+            return new ResponseEntity<>(bulkIngestService.ingestLikes(rows),HttpStatus.OK);
+        }
+    }
+
+    @PostMapping("/comments")
+    public ResponseEntity<BulkIngestResponse> comments(InputStream body) throws IOException {
+        try (MappingIterator<CommentAddRequest> rows = objectMapper.readerFor(CommentAddRequest.class).readValues(body)) {
+            return new ResponseEntity<>(bulkIngestService.ingestComments(rows),HttpStatus.OK);
+        }
+    }
+
+    @PostMapping("/follows")
+    public ResponseEntity<BulkIngestResponse> follows(InputStream body) throws IOException {
+        try (MappingIterator<FollowRequest> rows = objectMapper.readerFor(FollowRequest.class).readValues(body)) {
+            return new ResponseEntity<>(bulkIngestService.ingestFollows(rows),HttpStatus.OK);
+        }
+    }
+}
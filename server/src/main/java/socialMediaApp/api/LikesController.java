@@ -3,9 +3,13 @@ package socialMediaApp.api;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import socialMediaApp.requests.LikeRequest;
 import socialMediaApp.responses.like.LikeResponse;
+import socialMediaApp.responses.like.LikeStateResponse;
 import socialMediaApp.services.LikeService;
+import socialMediaApp.services.VersionService;
+import socialMediaApp.utils.ConditionalGets;
 
 import java.util.List;
 
@@ -14,20 +18,21 @@ import java.util.List;
 public class LikesController {
 
     private final LikeService likeService;
+    private final VersionService versionService;
 
-    public LikesController(LikeService likeService) {
+    public LikesController(LikeService likeService, VersionService versionService) {
         this.likeService = likeService;
+        this.versionService = versionService;
     }
 
     @PostMapping("/add")
-    public ResponseEntity<String> add(@RequestBody LikeRequest likeRequest){
-        likeService.add(likeRequest);
-        return new ResponseEntity<>("Added", HttpStatus.OK);
+    public ResponseEntity<LikeStateResponse> add(@RequestBody LikeRequest likeRequest){
+        return new ResponseEntity<>(likeService.add(likeRequest), HttpStatus.OK);
     }
 
     @GetMapping("/getallbypost/{postId}")
-    public ResponseEntity<List<LikeResponse>> getAllByPost(@PathVariable int postId){
-        return new ResponseEntity<>(likeService.getAllByPost(postId),HttpStatus.OK);
+    public ResponseEntity<List<LikeResponse>> getAllByPost(@PathVariable int postId, WebRequest request){
+        return ConditionalGets.respond(request, versionService.likesEtag(postId), () -> likeService.getAllByPost(postId));
     }
 
     @GetMapping("/getallbyuser/{userId}")
@@ -40,9 +45,18 @@ public class LikesController {
         return new ResponseEntity<>(likeService.isLiked(userId,postId),HttpStatus.OK);
     }
 
+    @GetMapping("/isliked/batch")
+    public ResponseEntity<List<Integer>> getLikedPostIds(@RequestParam int userId,@RequestParam List<Integer> postIds){
+        return new ResponseEntity<>(likeService.getLikedPostIds(userId,postIds),HttpStatus.OK);
+    }
+
+    @GetMapping("/count/{postId}")
+    public ResponseEntity<Long> countByPost(@PathVariable int postId){
+        return new ResponseEntity<>(likeService.countByPost(postId),HttpStatus.OK);
+    }
+
     @PostMapping("/delete")
-    public ResponseEntity<String> delete(@RequestBody LikeRequest likeRequest){
-        likeService.delete(likeRequest);
-        return new ResponseEntity<>("Deleted",HttpStatus.OK);
+    public ResponseEntity<LikeStateResponse> delete(@RequestBody LikeRequest likeRequest){
+        return new ResponseEntity<>(likeService.delete(likeRequest),HttpStatus.OK);
     }
 }
@@ -0,0 +1,24 @@
+package socialMediaApp.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import socialMediaApp.metrics.MetricsRegistry;
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    private final MetricsRegistry metricsRegistry;
+
+    public MetricsController(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @GetMapping(produces = "text/plain; version=0.0.4; charset=utf-8")
+    public ResponseEntity<String> scrape(){
+        return new ResponseEntity<>(metricsRegistry.scrape(),HttpStatus.OK);
+    }
+}
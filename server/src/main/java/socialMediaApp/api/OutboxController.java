@@ -0,0 +1,25 @@
+package socialMediaApp.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import socialMediaApp.responses.outbox.OutboxStatsResponse;
+import socialMediaApp.services.OutboxDispatcher;
+
+@RestController
+@RequestMapping("/api/outbox")
+public class OutboxController {
+
+    private final OutboxDispatcher outboxDispatcher;
+
+    public OutboxController(OutboxDispatcher outboxDispatcher) {
+        this.outboxDispatcher = outboxDispatcher;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<OutboxStatsResponse> getStats(){
+        return new ResponseEntity<>(outboxDispatcher.getStats(),HttpStatus.OK);
+    }
+}
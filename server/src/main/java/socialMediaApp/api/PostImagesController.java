@@ -5,11 +5,11 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import socialMediaApp.responses.postImage.PostImageResponse;
 import socialMediaApp.services.PostImageService;
 
-import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/postimages")
@@ -21,16 +21,18 @@ public class PostImagesController {
         this.postImageService = postImageService;
     }
 
+    // The servlet thread is released while Flask checks the image.
     @PostMapping("/upload")
-    public ResponseEntity<?> upload(@RequestParam("image") MultipartFile file, @RequestParam int postId) {
-        try {
-            PostImageResponse response = postImageService.upload(file, postId);
-            return new ResponseEntity<>(response, HttpStatus.OK);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
-        } catch (IOException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "File processing error."));
-        }
+    public CompletableFuture<ResponseEntity<?>> upload(@RequestParam("image") MultipartFile file, @RequestParam int postId) {
+        return postImageService.upload(file, postId)
+                .<ResponseEntity<?>>thenApply(response -> new ResponseEntity<>(response, HttpStatus.OK))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof IllegalArgumentException) {
+                        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", cause.getMessage()));
+                    }
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "File processing error."));
+                });
     }
 
 
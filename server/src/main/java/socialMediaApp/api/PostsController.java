@@ -1,11 +1,18 @@
 package socialMediaApp.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import socialMediaApp.requests.PostAddRequest;
 import socialMediaApp.responses.post.PostGetResponse;
 import socialMediaApp.services.PostService;
+import socialMediaApp.services.VersionService;
+import socialMediaApp.utils.ConditionalGets;
+import socialMediaApp.utils.JsonStreams;
 
 import java.util.List;
 
@@ -13,19 +20,29 @@ import java.util.List;
 @RequestMapping("/api/posts")
 public class PostsController {
     private final PostService postService;
+    private final VersionService versionService;
+    private final ObjectMapper objectMapper;
 
-    public PostsController(PostService postService) {
+    public PostsController(PostService postService, VersionService versionService, ObjectMapper objectMapper) {
         this.postService = postService;
+        this.versionService = versionService;
+        this.objectMapper = objectMapper;
     }
 
+    /** Streams every post as a JSON array, or as NDJSON when the client accepts application/x-ndjson. */
     @GetMapping("/getall")
-    public ResponseEntity<List<PostGetResponse>> getAll(){
-        return new ResponseEntity<>(postService.getAll(), HttpStatus.OK);
+    public ResponseEntity<StreamingResponseBody> getAll(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept){
+        return JsonStreams.<PostGetResponse>stream(objectMapper, accept, postService::streamAll);
     }
 
     @GetMapping("/getbyid/{id}")
-    public ResponseEntity<PostGetResponse> getById(@PathVariable int id){
-        return new ResponseEntity<>(postService.getResponseById(id),HttpStatus.OK);
+    public ResponseEntity<PostGetResponse> getById(@PathVariable int id, WebRequest request){
+        return ConditionalGets.respond(request, versionService.postEtag(id), () -> postService.getResponseById(id));
+    }
+
+    @GetMapping("/getbyids")
+    public ResponseEntity<List<PostGetResponse>> getByIds(@RequestParam List<Integer> ids){
+        return new ResponseEntity<>(postService.getResponsesByIds(ids),HttpStatus.OK);
     }
 
     @GetMapping("/getallbyuser/{userId}")
@@ -33,9 +50,16 @@ public class PostsController {
         return new ResponseEntity<>(postService.getAllByUser(userId),HttpStatus.OK);
     }
 
+    /** Answers 304 while the user's follows are unchanged and no followed user has added or deleted a post. */
     @GetMapping("/getbyuserfollowing/{userId}")
-    public ResponseEntity<List<PostGetResponse>> getAllByUserFollowing(@PathVariable int userId){
-        return new ResponseEntity<>(postService.getByUserFollowing(userId),HttpStatus.OK);
+    public ResponseEntity<List<PostGetResponse>> getAllByUserFollowing(@PathVariable int userId, WebRequest request){
+        return ConditionalGets.respond(request, versionService.feedEtag(userId), () -> postService.getByUserFollowing(userId));
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<PostGetResponse>> getTrending(@RequestParam(defaultValue = "0") int page,
+                                                             @RequestParam(defaultValue = "20") int size){
+        return new ResponseEntity<>(postService.getTrending(page,size),HttpStatus.OK);
     }
 
     @PostMapping("/add")
@@ -0,0 +1,39 @@
+package socialMediaApp.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import socialMediaApp.responses.search.SearchResponse;
+import socialMediaApp.responses.search.SearchStatsResponse;
+import socialMediaApp.services.SearchService;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private final SearchService searchService;
+
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    @GetMapping
+    public ResponseEntity<SearchResponse> search(@RequestParam String q,
+                                                 @RequestParam(required = false) String type,
+                                                 @RequestParam(defaultValue = "0") int page,
+                                                 @RequestParam(defaultValue = "20") int size){
+        if (page < 0 || size < 1 || size > 100){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            return new ResponseEntity<>(searchService.search(q,type,page,size),HttpStatus.OK);
+        }catch (IllegalArgumentException e){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<SearchStatsResponse> getStats(){
+        return new ResponseEntity<>(searchService.getStats(),HttpStatus.OK);
+    }
+}
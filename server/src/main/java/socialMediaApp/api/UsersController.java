@@ -1,11 +1,22 @@
 package socialMediaApp.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import socialMediaApp.requests.UserAddRequest;
+import socialMediaApp.responses.user.UserFollowerResponse;
+import socialMediaApp.responses.user.UserFollowingResponse;
 import socialMediaApp.responses.user.UserResponse;
+import socialMediaApp.responses.user.UserSuggestionResponse;
+import socialMediaApp.responses.user.UserTypeaheadResponse;
 import socialMediaApp.services.UserService;
+import socialMediaApp.services.VersionService;
+import socialMediaApp.utils.ConditionalGets;
+import socialMediaApp.utils.JsonStreams;
 
 import java.util.List;
 
@@ -13,19 +24,29 @@ import java.util.List;
 @RequestMapping("/api/users")
 public class UsersController {
     private final UserService userService;
+    private final VersionService versionService;
+    private final ObjectMapper objectMapper;
 
-    public UsersController(UserService userService) {
+    public UsersController(UserService userService, VersionService versionService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.versionService = versionService;
+        this.objectMapper = objectMapper;
     }
 
+    /** Streams every user as a JSON array, or as NDJSON when the client accepts application/x-ndjson. */
     @GetMapping("/getall")
-    public ResponseEntity<List<UserResponse>> getAll(){
-        return new ResponseEntity<>(userService.getAll(),HttpStatus.OK);
+    public ResponseEntity<StreamingResponseBody> getAll(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept){
+        return JsonStreams.<UserResponse>stream(objectMapper, accept, userService::streamAll);
     }
 
     @GetMapping("/getbyid/{id}")
-    public ResponseEntity<UserResponse> getById(@PathVariable int id){
-        return new ResponseEntity<>(userService.getResponseById(id),HttpStatus.OK);
+    public ResponseEntity<UserResponse> getById(@PathVariable int id, WebRequest request){
+        return ConditionalGets.respond(request, versionService.userEtag(id), () -> userService.getResponseById(id));
+    }
+
+    @GetMapping("/getbyids")
+    public ResponseEntity<List<UserResponse>> getByIds(@RequestParam List<Integer> ids){
+        return new ResponseEntity<>(userService.getResponsesByIds(ids),HttpStatus.OK);
     }
 
     @GetMapping("/isfollowing")
@@ -33,6 +54,45 @@ public class UsersController {
         return new ResponseEntity<>(userService.isFollowing(userId,followingId),HttpStatus.OK);
     }
 
+    @GetMapping("/isfollowing/batch")
+    public ResponseEntity<List<Integer>> getFollowedIds(@RequestParam int userId,@RequestParam List<Integer> followingIds){
+        return new ResponseEntity<>(userService.getFollowedAmong(userId,followingIds),HttpStatus.OK);
+    }
+
+    @GetMapping("/getfollowers/{userId}")
+    public ResponseEntity<List<UserFollowerResponse>> getFollowers(@PathVariable int userId,
+                                                                   @RequestParam(defaultValue = "0") int page,
+                                                                   @RequestParam(defaultValue = "20") int size){
+        return new ResponseEntity<>(userService.getFollowersPage(userId,page,size),HttpStatus.OK);
+    }
+
+    @GetMapping("/getfollowing/{userId}")
+    public ResponseEntity<List<UserFollowingResponse>> getFollowing(@PathVariable int userId,
+                                                                    @RequestParam(defaultValue = "0") int page,
+                                                                    @RequestParam(defaultValue = "20") int size){
+        return new ResponseEntity<>(userService.getFollowingPage(userId,page,size),HttpStatus.OK);
+    }
+
+    @GetMapping("/getmutuals/{userId}")
+    public ResponseEntity<List<UserFollowingResponse>> getMutuals(@PathVariable int userId){
+        return new ResponseEntity<>(userService.getMutuals(userId),HttpStatus.OK);
+    }
+
+    @GetMapping("/{userId}/suggestions")
+    public ResponseEntity<List<UserSuggestionResponse>> getSuggestions(@PathVariable int userId,
+                                                                       @RequestParam(defaultValue = "10") int limit){
+        if (limit < 1 || limit > 100){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(userService.getSuggestions(userId,limit),HttpStatus.OK);
+    }
+
+    @GetMapping("/typeahead")
+    public ResponseEntity<List<UserTypeaheadResponse>> typeahead(@RequestParam String q,
+                                                                 @RequestParam(defaultValue = "10") int limit){
+        return new ResponseEntity<>(userService.typeahead(q,limit),HttpStatus.OK);
+    }
+
     @PostMapping("/add")
     public ResponseEntity<String> add(@RequestBody UserAddRequest userAddRequest){
         userService.add(userAddRequest);
@@ -0,0 +1,76 @@
+package socialMediaApp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The primary pool comes from {@code spring.datasource.*}. Each URL in {@code app.datasource.replica.urls}
+ * adds a read-only replica pool with the same credentials. With no replicas configured, every
+ * connection comes from the primary.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    /** Zero while the replica has replayed everything it received, otherwise the age of the last replayed commit. */
+    private static final String DEFAULT_LAG_QUERY = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource, DataSourceProperties properties,
+            @Value("${app.datasource.replica.urls:}") String[] replicaUrls,
+            @Value("${app.datasource.replica.pool-size:10}") int replicaPoolSize,
+            @Value("${app.datasource.replica.lag-query:" + DEFAULT_LAG_QUERY + "}") String lagQuery,
+            @Value("${app.datasource.replica.max-lag-ms:1000}") long maxLagMillis,
+            @Value("${app.datasource.replica.read-your-writes-ms:5000}") long readYourWritesMillis) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class).url(url.trim()).build();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, lagQuery, maxLagMillis, readYourWritesMillis);
+    }
+
+    /**
+     * Defers picking a pool until the first statement, when the transaction's read-only flag is known. With
+     * virtual threads, connections are also handed out through {@code app.threads.db-permits} permits (0:
+     * as many as the pools hold).
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource, HikariDataSource primaryDataSource,
+                                 @Value("${app.threads.virtual:false}") boolean virtualThreads,
+                                 @Value("${app.threads.db-permits:0}") int dbPermits) {
+        if (!virtualThreads) {
+            return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+        }
+        int permits = dbPermits > 0 ? dbPermits : replicaRoutingDataSource.getMaximumPoolSize();
+        return new LazyConnectionDataSourceProxy(new ConnectionLimitingDataSource(replicaRoutingDataSource, permits,
+                primaryDataSource.getConnectionTimeout()));
+    }
+}
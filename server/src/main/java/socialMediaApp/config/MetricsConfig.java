@@ -0,0 +1,49 @@
+package socialMediaApp.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.BeanUtils;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+import socialMediaApp.metrics.MetricsRegistry;
+import socialMediaApp.metrics.RequestStatements;
+import socialMediaApp.metrics.ServiceMetricsInterceptor;
+
+/**
+ * Wires the metrics in {@code socialMediaApp.metrics} into the application: a timer around every public
+ * method of the {@code @Service} classes in {@code socialMediaApp.services}, and a statement count per
+ * request ahead of any statement inspector already configured.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public Advisor serviceMetricsAdvisor(MetricsRegistry metricsRegistry) {
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setExpression("within(socialMediaApp.services..*) && @within(org.springframework.stereotype.Service)"
+                + " && execution(public * *(..))");
+        return new DefaultPointcutAdvisor(pointcut, new ServiceMetricsInterceptor(metricsRegistry));
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer requestStatementCounting() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                new RequestStatements(configuredInspector(properties.get(AvailableSettings.STATEMENT_INSPECTOR))));
+    }
+
+    /** The inspector the properties name, as Hibernate would take it: an instance, a class or a class name. */
+    private static StatementInspector configuredInspector(Object configured) {
+        if (configured == null || configured instanceof StatementInspector) {
+            return (StatementInspector) configured;
+        }
+        Class<?> type = configured instanceof Class
+                ? (Class<?>) configured
+                : ClassUtils.resolveClassName(configured.toString().trim(), MetricsConfig.class.getClassLoader());
+        return (StatementInspector) BeanUtils.instantiateClass(type);
+    }
+}
@@ -0,0 +1,196 @@
+package socialMediaApp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import socialMediaApp.responses.datasource.DataSourcePoolStatsResponse;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary. The choice is made
+ * when a transaction runs its first statement, so this sits behind a lazy connection proxy.
+ * <p>
+ * A replica takes reads only while its last lag probe succeeded and stayed under the allowed lag;
+ * replicas start out unavailable until the first probe. After a signed-in user commits a write, that
+ * user's reads stay on the primary for the read-your-writes window so they see their own changes.
+ * Other users' reads still go to a replica, except inside {@link #readFromPrimary}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final String PRIMARY = "primary";
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private final HikariDataSource primary;
+    private final LongAdder primaryRouted = new LongAdder();
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Map<String, Long> lastWriteByUser = new ConcurrentHashMap<>();
+    private final String lagQuery;
+    private final long maxLagMillis;
+    private final long readYourWritesMillis;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicaPools,
+                                    String lagQuery, long maxLagMillis, long readYourWritesMillis) {
+        this.primary = primary;
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLagMillis;
+        this.readYourWritesMillis = readYourWritesMillis;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (HikariDataSource pool : replicaPools) {
+            replicas.add(new Replica(pool));
+            targets.put(pool.getPoolName(), pool);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String user = currentUser();
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            Replica replica = PRIMARY_ONLY.get() == null && (user == null || !wroteRecently(user)) ? pickReplica() : null;
+            if (replica != null) {
+                replica.routed.increment();
+                return replica.pool.getPoolName();
+            }
+        } else if (user != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lastWriteByUser.put(user, System.currentTimeMillis());
+                }
+            });
+        }
+        primaryRouted.increment();
+        return PRIMARY;
+    }
+
+    /**
+     * Runs {@code reads} with read-only transactions on the primary, for bodies that must be at least as new
+     * as a version the application already holds in memory: a lagging replica could serve older data under it.
+     */
+    public static <T> T readFromPrimary(Supplier<T> reads) {
+        boolean outermost = PRIMARY_ONLY.get() == null;
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            if (outermost) {
+                PRIMARY_ONLY.remove();
+            }
+        }
+    }
+
+    /** Measures every replica's lag with {@code app.datasource.replica.lag-query}, in milliseconds. */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.check-interval-ms:2000}",
+            initialDelayString = "${app.datasource.replica.check-interval-ms:2000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                replica.lagMillis = resultSet.next() ? resultSet.getLong(1) : 0;
+                replica.available = replica.lagMillis <= maxLagMillis;
+            } catch (SQLException e) {
+                if (replica.available) {
+                    log.warn("Replica {} stopped answering its lag probe", replica.pool.getPoolName(), e);
+                }
+                replica.lagMillis = -1;
+                replica.available = false;
+            }
+        }
+        long expired = System.currentTimeMillis() - readYourWritesMillis;
+        lastWriteByUser.values().removeIf(writtenAt -> writtenAt < expired);
+    }
+
+    public List<DataSourcePoolStatsResponse> getPoolStats() {
+        List<DataSourcePoolStatsResponse> stats = new ArrayList<>(replicas.size() + 1);
+        stats.add(poolStats(primary, "primary", true, null, primaryRouted.sum()));
+        for (Replica replica : replicas) {
+            stats.add(poolStats(replica.pool, "replica", replica.available,
+                    replica.lagMillis < 0 ? null : replica.lagMillis, replica.routed.sum()));
+        }
+        return stats;
+    }
+
+    /** Connections all pools together may hold. */
+    public int getMaximumPoolSize() {
+        int size = primary.getMaximumPoolSize();
+        for (Replica replica : replicas) {
+            size += replica.pool.getMaximumPoolSize();
+        }
+        return size;
+    }
+
+    @Override
+    public void destroy() {
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+
+    private Replica pickReplica() {
+        int size = replicas.size();
+        int start = nextReplica.getAndIncrement();
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, size));
+            if (replica.available) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private boolean wroteRecently(String user) {
+        Long writtenAt = lastWriteByUser.get(user);
+        return writtenAt != null && System.currentTimeMillis() - writtenAt < readYourWritesMillis;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || authentication instanceof AnonymousAuthenticationToken
+                ? null : authentication.getName();
+    }
+
+    private static DataSourcePoolStatsResponse poolStats(HikariDataSource pool, String role, boolean available,
+                                                         Long lagMillis, long routed) {
+        // The pool starts on its first connection; until then there is nothing to report.
+        HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+        return new DataSourcePoolStatsResponse(pool.getPoolName(), role, available, lagMillis, routed,
+                mxBean == null ? 0 : mxBean.getActiveConnections(),
+                mxBean == null ? 0 : mxBean.getIdleConnections(),
+                mxBean == null ? 0 : mxBean.getTotalConnections(),
+                mxBean == null ? 0 : mxBean.getThreadsAwaitingConnection());
+    }
+
+    private static final class Replica {
+        private final HikariDataSource pool;
+        private final LongAdder routed = new LongAdder();
+        private volatile boolean available;
+        private volatile long lagMillis = -1;
+
+        Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+    }
+}
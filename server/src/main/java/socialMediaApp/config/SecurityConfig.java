@@ -18,7 +18,9 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import socialMediaApp.security.CustomUserDetailsService;
+import socialMediaApp.security.IngestTokenFilter;
 import socialMediaApp.security.JwtAuthFilter;
+import socialMediaApp.security.MetricsScrapeFilter;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -33,13 +35,21 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthFilter jwtFilter;
 
+    @Autowired
+    private MetricsScrapeFilter metricsScrapeFilter;
+
+    @Autowired
+    private IngestTokenFilter ingestTokenFilter;
+
     @Bean
     UrlBasedCorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:3000", "http://localhost:3001", "http://localhost:3002"));
         configuration.setAllowedMethods(Arrays.asList("GET","POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
-        configuration.setExposedHeaders(Arrays.asList("Authorization", "content-type"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "content-type"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "content-type", "ETag"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "content-type", "If-None-Match"));
+        // The refresh token travels in a cookie.
+        configuration.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
         return source;
@@ -71,12 +81,18 @@ public class SecurityConfig {
                 .csrf().disable()
                 .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS).and()
                 .authorizeRequests()
-                .antMatchers("/api/auth/**")
+                .antMatchers(HttpMethod.POST,"/api/auth/**")
                 .permitAll()
                 .antMatchers(HttpMethod.GET,"/api/postimages/**")
                 .permitAll()
+                .antMatchers(HttpMethod.GET,"/api/metrics")
+                .hasAuthority(MetricsScrapeFilter.SCRAPE_AUTHORITY)
+                .antMatchers("/api/ingest/**")
+                .hasAuthority(IngestTokenFilter.INGEST_AUTHORITY)
                 .anyRequest().authenticated();
         http.addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+        http.addFilterBefore(metricsScrapeFilter, JwtAuthFilter.class);
+        http.addFilterBefore(ingestTokenFilter, JwtAuthFilter.class);
         return http.build();
     }
 
@@ -0,0 +1,33 @@
+package socialMediaApp.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import socialMediaApp.utils.VirtualThreads;
+
+/**
+ * With {@code app.threads.virtual=true}, Tomcat runs each request on a virtual thread of its own instead
+ * of its worker pool, so a request blocked on JDBC or on Flask holds no platform thread and
+ * {@code server.tomcat.threads.max} no longer caps concurrency. Needs a Java 21 runtime; on an older one
+ * the setting is ignored with a warning.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadRequests() {
+        if (!VirtualThreads.isSupported()) {
+            log.warn("app.threads.virtual is set, but Java {} has no virtual threads; requests stay on Tomcat's pool",
+                    Runtime.version().feature());
+            return protocolHandler -> { };
+        }
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newPerTaskExecutor("request-"));
+    }
+}
@@ -0,0 +1,32 @@
+package socialMediaApp.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DomainEvent {
+    /** Outbox row id: increasing in commit order for each aggregate, and the same on redelivery. */
+    private long id;
+    private DomainEventType type;
+    /** Id of the post or user the event belongs to, see {@link DomainEventType#getAggregateType()}. */
+    private int aggregateId;
+    private Map<String, Object> payload;
+    private Instant createdAt;
+    /** Failed deliveries so far; above zero this is a retry. */
+    private int attempts;
+
+    public int getInt(String name) {
+        return ((Number) payload.get(name)).intValue();
+    }
+
+    public String getString(String name) {
+        Object value = payload.get(name);
+        return value == null ? null : value.toString();
+    }
+}
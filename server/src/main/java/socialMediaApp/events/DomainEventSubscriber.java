@@ -0,0 +1,12 @@
+package socialMediaApp.events;
+
+/**
+ * Receives every domain event after the write that produced it has committed. Delivery is at least
+ * once: an event comes again when any subscriber throws or the application stops before it is
+ * acknowledged, so handling one must be idempotent. Events of one aggregate arrive one at a time and in
+ * order; different aggregates are delivered in parallel, so shared state needs to be thread-safe.
+ */
+public interface DomainEventSubscriber {
+
+    void onEvent(DomainEvent event);
+}
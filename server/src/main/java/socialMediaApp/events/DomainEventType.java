@@ -0,0 +1,35 @@
+package socialMediaApp.events;
+
+/**
+ * What happened, and to which kind of aggregate. Events are ordered per aggregate, so everything that
+ * changes a post's counters (likes, comments, its image) belongs to the post, and follows belong to the
+ * follower.
+ */
+public enum DomainEventType {
+    POST_CREATED(AggregateType.POST),
+    POST_DELETED(AggregateType.POST),
+    POST_IMAGE_UPLOADED(AggregateType.POST),
+    LIKE_ADDED(AggregateType.POST),
+    LIKE_REMOVED(AggregateType.POST),
+    COMMENT_ADDED(AggregateType.POST),
+    COMMENT_UPDATED(AggregateType.POST),
+    COMMENT_DELETED(AggregateType.POST),
+    FOLLOW_ADDED(AggregateType.USER),
+    FOLLOW_REMOVED(AggregateType.USER),
+    USER_IMAGE_UPLOADED(AggregateType.USER),
+    USER_DELETED(AggregateType.USER);
+
+    private final AggregateType aggregateType;
+
+    DomainEventType(AggregateType aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+
+    public AggregateType getAggregateType() {
+        return aggregateType;
+    }
+
+    public enum AggregateType {
+        POST, USER
+    }
+}
@@ -18,5 +18,6 @@ public interface CommentMapper {
     List<CommentGetResponse> commentsToResponses(List<Comment> comments);
     @Mapping(source = "userId",target = "user.id")
     @Mapping(source = "postId",target = "post.id")
+    @Mapping(target = "createdAt", ignore = true)
     Comment addRequestToComment(CommentAddRequest commentAddRequest);
 }
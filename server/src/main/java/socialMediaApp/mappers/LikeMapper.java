@@ -18,6 +18,7 @@ public interface LikeMapper {
 
     @Mapping(source = "postId",target = "post.id")
     @Mapping(source = "userId",target = "user.id")
+    @Mapping(target = "createdAt", ignore = true)
     Like requestToLike(LikeRequest likeRequest);
 
     List<LikeResponse> likesToLikeResponses(List<Like> likes);
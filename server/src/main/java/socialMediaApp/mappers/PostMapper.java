@@ -17,6 +17,8 @@ public interface PostMapper {
     PostGetResponse postToGetResponse(Post post);
 
     @Mapping(source = "userId",target = "user.id")
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "deletedAt", ignore = true)
     Post postAddRequestToPost(PostAddRequest postAddRequest);
     List<PostGetResponse> postsToGetResponses(List<Post> posts);
 }
@@ -3,6 +3,8 @@ package socialMediaApp.mappers;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import socialMediaApp.models.*;
+import socialMediaApp.projections.UserProfile;
+import socialMediaApp.projections.UserSummary;
 import socialMediaApp.requests.UserAddRequest;
 import socialMediaApp.responses.user.*;
 
@@ -19,13 +21,17 @@ public interface UserMapper {
     @Mapping(source = "following.lastName",target = "lastName")
     @Mapping(source = "following.name",target = "name")
     UserFollowingResponse followToFollowingResponse(Follow follow);
-    @Mapping(source = "followers",target = "followers")
-    @Mapping(source = "following",target = "following")
-    UserResponse userToResponse(User user);
+    @Mapping(target = "followerCount", ignore = true)
+    @Mapping(target = "followingCount", ignore = true)
+    UserResponse profileToResponse(UserProfile profile);
 
-    User requestToUser(UserAddRequest userAddRequest);
+    @Mapping(source = "id",target = "userId")
+    UserFollowerResponse summaryToFollowerResponse(UserSummary summary);
+    @Mapping(source = "id",target = "userId")
+    UserFollowingResponse summaryToFollowingResponse(UserSummary summary);
 
-    List<UserResponse> usersToResponses(List<User> users);
+    @Mapping(target = "deletedAt", ignore = true)
+    User requestToUser(UserAddRequest userAddRequest);
 
     List<UserFollowingResponse> followsToFollowingResponses(List<Follow> follows);
 }
@@ -0,0 +1,137 @@
+package socialMediaApp.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count, sum, max and quantiles of non-negative values. Values land in log-linear buckets, eight per power
+ * of two, so a quantile is off by at most 1/16 of its value; recording is three atomic adds and no
+ * allocation, and quantiles are only worked out when the registry is scraped.
+ * <p>
+ * Count and sum run since startup. Quantiles and max cover the last one to two windows: two bucket sets
+ * take turns, and the older one is cleared as it becomes current again. A value recorded while its set
+ * is being cleared may be lost, which quantiles can afford.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    /** Slot after the buckets holding the window's max. */
+    private static final int MAX = BUCKETS;
+
+    private final long windowNanos;
+    private final AtomicLongArray[] windows = {new AtomicLongArray(BUCKETS + 1), new AtomicLongArray(BUCKETS + 1)};
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private volatile int current;
+    private volatile long rotateAt;
+
+    Histogram(long windowNanos) {
+        this.windowNanos = windowNanos;
+        this.rotateAt = System.nanoTime() + windowNanos;
+    }
+
+    public void record(long value) {
+        record(value, System.nanoTime());
+    }
+
+    /** For timers, which have already read the clock. Negative values count as 0. */
+    void record(long value, long nowNanos) {
+        value = Math.max(0, value);
+        count.increment();
+        sum.add(value);
+        AtomicLongArray window = windows[rotate(nowNanos)];
+        window.incrementAndGet(bucket(value));
+        long max;
+        while (value > (max = window.get(MAX)) && !window.compareAndSet(MAX, max, value)) {
+            // Lost to a concurrent max; try again against the new one.
+        }
+    }
+
+    /** Nanoseconds since {@code startNanos}, recorded as a duration. */
+    public void recordSince(long startNanos) {
+        long now = System.nanoTime();
+        record(now - startNanos, now);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /** The values at each quantile in {@code quantiles} (ascending), then the max, over the recent windows. */
+    long[] snapshot(double[] quantiles) {
+        int newer = rotate(System.nanoTime());
+        AtomicLongArray older = windows[1 - newer];
+        AtomicLongArray latest = windows[newer];
+        long[] buckets = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = older.get(i) + latest.get(i);
+            total += buckets[i];
+        }
+        long max = Math.max(older.get(MAX), latest.get(MAX));
+        long[] values = new long[quantiles.length + 1];
+        int bucket = 0;
+        long seen = 0;
+        for (int q = 0; q < quantiles.length && total > 0; q++) {
+            long rank = Math.max(1, (long) Math.ceil(quantiles[q] * total));
+            while (seen + buckets[bucket] < rank) {
+                seen += buckets[bucket++];
+            }
+            values[q] = Math.min(max, midpoint(bucket));
+        }
+        values[quantiles.length] = max;
+        return values;
+    }
+
+    /** The index of the current window, after rotating if its time is up. */
+    private int rotate(long nowNanos) {
+        int index = current;
+        if (nowNanos - rotateAt < 0) {
+            return index;
+        }
+        synchronized (this) {
+            if (nowNanos - rotateAt >= 0) {
+                int next = 1 - current;
+                AtomicLongArray window = windows[next];
+                for (int i = 0; i <= BUCKETS; i++) {
+                    window.set(i, 0);
+                }
+                // Idle for more than a window: the current set is stale too.
+                if (nowNanos - rotateAt >= windowNanos) {
+                    AtomicLongArray stale = windows[current];
+                    for (int i = 0; i <= BUCKETS; i++) {
+                        stale.set(i, 0);
+                    }
+                }
+                current = next;
+                rotateAt = nowNanos + windowNanos;
+            }
+            return current;
+        }
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /** The middle of the values {@link #bucket} puts in {@code bucket}. */
+    static long midpoint(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + ((1L << shift) >>> 1);
+    }
+}
@@ -0,0 +1,33 @@
+package socialMediaApp.metrics;
+
+import org.springframework.stereotype.Component;
+import socialMediaApp.utils.ImageUtil;
+
+/**
+ * Compresses images for storage with {@link ImageUtil#compressImage}, recording their size before and
+ * after into {@code image_bytes} and the CPU time it took into {@code image_compression_cpu_seconds}.
+ */
+@Component
+public class ImageMetrics {
+
+    private final Histogram originalBytes;
+    private final Histogram compressedBytes;
+    private final Histogram compressionCpu;
+
+    public ImageMetrics(MetricsRegistry registry) {
+        this.originalBytes = registry.histogram("image_bytes", "Size of stored images before and after compression.",
+                "stage", "original");
+        this.compressedBytes = registry.histogram("image_bytes", "Size of stored images before and after compression.",
+                "stage", "compressed");
+        this.compressionCpu = registry.timer("image_compression_cpu_seconds", "CPU time spent compressing images.");
+    }
+
+    public byte[] compress(byte[] image) {
+        long cpu = MetricsRegistry.threadCpuNanos();
+        byte[] compressed = ImageUtil.compressImage(image);
+        compressionCpu.record(MetricsRegistry.threadCpuNanos() - cpu);
+        originalBytes.record(image.length);
+        compressedBytes.record(compressed.length);
+        return compressed;
+    }
+}
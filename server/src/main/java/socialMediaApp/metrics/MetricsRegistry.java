@@ -0,0 +1,108 @@
+package socialMediaApp.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The application's histograms, by name and labels, written out in the Prometheus text format by
+ * {@link #scrape()}. Each is exported as a summary (quantiles over the last {@code app.metrics.window-ms}
+ * or two, count and sum since startup) plus a {@code _max} gauge. Timers record nanoseconds and export
+ * seconds. Looking a histogram up builds its label string, so callers on hot paths keep theirs.
+ */
+@Component
+public class MetricsRegistry {
+
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported();
+
+    private final long windowNanos;
+    private final ConcurrentMap<String, Family> families = new ConcurrentSkipListMap<>();
+
+    public MetricsRegistry(@Value("${app.metrics.window-ms:60000}") long windowMillis) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+    }
+
+    /** A histogram of durations in nanoseconds; {@code name} should end in {@code _seconds}. */
+    public Histogram timer(String name, String help, String... labels) {
+        return histogram(name, help, 1e-9, labels);
+    }
+
+    /** A histogram of amounts (bytes, statements) exported as recorded. {@code labels} alternate names and values. */
+    public Histogram histogram(String name, String help, String... labels) {
+        return histogram(name, help, 1, labels);
+    }
+
+    private Histogram histogram(String name, String help, double scale, String... labels) {
+        Family family = families.computeIfAbsent(name, key -> new Family(help, scale));
+        return family.histograms.computeIfAbsent(labels(labels), key -> new Histogram(windowNanos));
+    }
+
+    /** CPU time the current thread has used, in nanoseconds; wall time where the JVM cannot tell. */
+    public static long threadCpuNanos() {
+        return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    /** Every histogram, in the Prometheus text exposition format (version 0.0.4). */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(8192);
+        for (Map.Entry<String, Family> entry : families.entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            StringBuilder max = new StringBuilder();
+            out.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(name).append(" summary\n");
+            for (Map.Entry<String, Histogram> histogram : family.histograms.entrySet()) {
+                String labels = histogram.getKey();
+                long[] values = histogram.getValue().snapshot(QUANTILES);
+                for (int q = 0; q < QUANTILES.length; q++) {
+                    out.append(name).append('{').append(labels).append(labels.isEmpty() ? "" : ",")
+                            .append("quantile=\"").append(QUANTILES[q]).append("\"} ")
+                            .append(values[q] * family.scale).append('\n');
+                }
+                String braced = labels.isEmpty() ? "" : "{" + labels + "}";
+                out.append(name).append("_count").append(braced).append(' ').append(histogram.getValue().getCount()).append('\n');
+                out.append(name).append("_sum").append(braced).append(' ').append(histogram.getValue().getSum() * family.scale).append('\n');
+                max.append(name).append("_max").append(braced).append(' ').append(values[QUANTILES.length] * family.scale).append('\n');
+            }
+            out.append("# HELP ").append(name).append("_max Largest value in the last window or two.\n");
+            out.append("# TYPE ").append(name).append("_max gauge\n");
+            out.append(max);
+        }
+        return out.toString();
+    }
+
+    private static String labels(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("labels must come in name/value pairs");
+        }
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(labels[i]).append("=\"").append(labels[i + 1]
+                    .replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")).append('"');
+        }
+        return out.toString();
+    }
+
+    private static final class Family {
+
+        final String help;
+        final double scale;
+        final ConcurrentMap<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+
+        Family(String help, double scale) {
+            this.help = help;
+            this.scale = scale;
+        }
+    }
+}
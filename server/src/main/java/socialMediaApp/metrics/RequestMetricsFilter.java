@@ -0,0 +1,80 @@
+package socialMediaApp.metrics;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Times each request into {@code http_server_requests_seconds}, by method, route and status, and counts
+ * the statements Hibernate prepared for it into {@code http_server_requests_jpa_statements}. Runs ahead
+ * of the security filters, so the token check is part of both. Asynchronous requests are timed until they
+ * complete, but only the statements run on the request thread are counted.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private final MetricsRegistry registry;
+
+    public RequestMetricsFilter(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        RequestStatements.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int statements = RequestStatements.stop();
+            registry.histogram("http_server_requests_jpa_statements", "SQL statements Hibernate prepared per request.",
+                    "method", request.getMethod(), "uri", route(request)).record(statements);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, response, start);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                record(request, response, start);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, long start) {
+        registry.timer("http_server_requests_seconds", "Time spent serving requests.",
+                "method", request.getMethod(), "uri", route(request), "status", Integer.toString(response.getStatus()))
+                .recordSince(start);
+    }
+
+    /** The handler's path pattern, so that every post's URL counts under one route. */
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? "UNMATCHED" : pattern.toString();
+    }
+}
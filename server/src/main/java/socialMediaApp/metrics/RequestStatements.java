@@ -0,0 +1,38 @@
+package socialMediaApp.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a request is being counted,
+ * then hands each statement on to the inspector configured before it, if any.
+ */
+public class RequestStatements implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    private final StatementInspector next;
+
+    public RequestStatements(StatementInspector next) {
+        this.next = next;
+    }
+
+    static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    /** Statements prepared on this thread since {@link #start()}. */
+    static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return next == null ? sql : next.inspect(sql);
+    }
+}
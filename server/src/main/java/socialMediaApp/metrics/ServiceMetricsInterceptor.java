@@ -0,0 +1,59 @@
+package socialMediaApp.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Times service methods into {@code service_method_seconds}, by class, method and outcome. A method that
+ * returns a {@link CompletionStage} is timed until the stage completes, not until it returns; one that
+ * returns a stream is timed until the stream is built.
+ */
+public class ServiceMetricsInterceptor implements MethodInterceptor {
+
+    private final MetricsRegistry registry;
+    private final ConcurrentMap<Method, Histogram[]> timers = new ConcurrentHashMap<>();
+
+    public ServiceMetricsInterceptor(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Histogram[] timer = timers.get(invocation.getMethod());
+        if (timer == null) {
+            timer = timers.computeIfAbsent(invocation.getMethod(), method -> timers(invocation));
+        }
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            timer[1].recordSince(start);
+            throw e;
+        }
+        if (result instanceof CompletionStage) {
+            Histogram[] stageTimer = timer;
+            ((CompletionStage<?>) result).whenComplete((value, e) -> stageTimer[e == null ? 0 : 1].recordSince(start));
+        } else {
+            timer[0].recordSince(start);
+        }
+        return result;
+    }
+
+    /** Success, then error. */
+    private Histogram[] timers(MethodInvocation invocation) {
+        String service = AopUtils.getTargetClass(invocation.getThis()).getSimpleName();
+        String method = invocation.getMethod().getName();
+        return new Histogram[]{
+                registry.timer("service_method_seconds", "Time spent in service methods.",
+                        "class", service, "method", method, "outcome", "success"),
+                registry.timer("service_method_seconds", "Time spent in service methods.",
+                        "class", service, "method", method, "outcome", "error")};
+    }
+}
@@ -12,7 +12,7 @@ import javax.validation.constraints.NotNull;
 @Getter
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "follows")
+@Table(name = "follows", uniqueConstraints = @UniqueConstraint(name = "uk_follows_user_following", columnNames = {"user_id", "user_following_id"}))
 public class Follow {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -2,14 +2,22 @@ package socialMediaApp.models;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Where;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
+import java.time.Instant;
 import java.util.Set;
 
 @Setter
 @Getter
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Where(clause = "deleted_at IS NULL")
 @Table(name = "posts")
 public class Post {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,6 +32,14 @@ public class Post {
     @JoinColumn(name = "user_id")
     User user;
 
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private Instant createdAt;
+
+    /** Set when the post is deleted; the row stays, hidden, until DeletionService purges it. */
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
+
     @OneToMany(mappedBy = "post",cascade = CascadeType.ALL)
     Set<Like> likes;
 
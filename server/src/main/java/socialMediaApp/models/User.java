@@ -4,10 +4,16 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.Where;
 
 import javax.persistence.*;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotNull;
+import java.time.Instant;
 import java.util.Set;
 
 @AllArgsConstructor
@@ -15,6 +21,10 @@ import java.util.Set;
 @Getter
 @Setter
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Where(clause = "deleted_at IS NULL")
+@NaturalIdCache
 @Table(name = "users")
 public class User {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -27,6 +37,7 @@ public class User {
     private String name;
 
     @NotNull
+    @NaturalId
     @Column(name = "email")
     @Email
     private String email;
@@ -39,6 +50,10 @@ public class User {
     @Column(name = "password")
     private String password;
 
+    /** Set when the user is deleted; the row stays, hidden, until DeletionService purges it. */
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
+
     @OneToMany(mappedBy = "user",cascade = CascadeType.ALL)
     Set<Follow> following;
     @OneToMany(mappedBy = "following",cascade = CascadeType.ALL)
@@ -0,0 +1,7 @@
+package socialMediaApp.projections;
+
+/** Row count and highest id of {@code follows}, read in one statement so the two agree. */
+public interface FollowWatermark {
+    long getCount();
+    Integer getMaxId();
+}
@@ -0,0 +1,5 @@
+package socialMediaApp.projections;
+
+public interface UserProfile extends UserSummary {
+    String getEmail();
+}
@@ -0,0 +1,8 @@
+package socialMediaApp.projections;
+
+/** The columns needed to show a user in a list: no password, no collections. */
+public interface UserSummary {
+    int getId();
+    String getName();
+    String getLastName();
+}
@@ -1,12 +1,48 @@
 package socialMediaApp.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import socialMediaApp.models.Comment;
 
+import javax.persistence.QueryHint;
+import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 public interface CommentRepository extends JpaRepository<Comment, Integer> {
     void deleteById(int id);
-    List<Comment> findAllByUser_Id(int userId);
-    List<Comment> findAllByPost_Id(int postId);
+    // Filter on the foreign keys, which the derived queries would not, and skip comments whose post or
+    // author is deleted but not yet purged.
+    @Query("SELECT c FROM Comment c WHERE c.user.id = :userId AND c.user.deletedAt IS NULL AND c.post.deletedAt IS NULL")
+    List<Comment> findAllByUser_Id(@Param("userId") int userId);
+    @Query("SELECT c FROM Comment c WHERE c.post.id = :postId AND c.post.deletedAt IS NULL AND c.user.deletedAt IS NULL")
+    List<Comment> findAllByPost_Id(@Param("postId") int postId);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user u JOIN FETCH c.post p JOIN FETCH p.user"
+            + " WHERE u.deletedAt IS NULL AND p.deletedAt IS NULL")
+    Stream<Comment> streamAll();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT c.post.id, c.createdAt FROM Comment c WHERE c.createdAt >= :since")
+    Stream<Object[]> streamPostIdsAndTimesSince(@Param("since") Instant since);
+
+    @Query("SELECT c.id FROM Comment c WHERE c.post.id = :postId")
+    List<Integer> findIdsByPostId(@Param("postId") int postId);
+
+    @Query("SELECT c.id FROM Comment c WHERE c.user.id = :userId")
+    List<Integer> findIdsByUserId(@Param("userId") int userId);
+
+    /** Comments left on the user's posts. Kept apart from {@link #findIdsByUserId} so each side can use an index. */
+    @Query("SELECT c.id FROM Comment c WHERE c.post.user.id = :userId")
+    List<Integer> findIdsByPostAuthor(@Param("userId") int userId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT c.id, c.description FROM Comment c")
+    Stream<Object[]> streamIdsAndDescriptions();
 }
\ No newline at end of file
@@ -1,12 +1,64 @@
 package socialMediaApp.repositories;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import socialMediaApp.models.Follow;
+import socialMediaApp.projections.FollowWatermark;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface FollowRepository extends JpaRepository<Follow, Integer> {
-    List<Follow> findAllByUser_Id(int userId);
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+public interface FollowRepository extends JpaRepository<Follow, Integer>, FollowRepositoryCustom {
+    @EntityGraph(attributePaths = "following")
+    @Query("SELECT f FROM Follow f WHERE f.user.id = :userId AND f.following.deletedAt IS NULL")
+    List<Follow> findAllByUser_Id(@Param("userId") int userId);
     Optional<Follow> findByUser_IdAndFollowing_Id(int userId,int followingId);
-}
\ No newline at end of file
+    long countByFollowing_Id(int followingId);
+    long countByUser_Id(int userId);
+
+    @Query("SELECT f.following.id FROM Follow f WHERE f.user.id = :userId AND f.following.id IN :followingIds")
+    List<Integer> findFollowedIds(@Param("userId") int userId, @Param("followingIds") Collection<Integer> followingIds);
+
+    // Fallbacks for the follow graph while it loads; ascending, as the graph returns them.
+    @Query("SELECT f.following.id FROM Follow f WHERE f.user.id = :userId ORDER BY f.following.id")
+    List<Integer> findFollowingIds(@Param("userId") int userId, Pageable pageable);
+
+    @Query("SELECT f.user.id FROM Follow f WHERE f.following.id = :userId ORDER BY f.user.id")
+    List<Integer> findFollowerIds(@Param("userId") int userId, Pageable pageable);
+
+    @Query("SELECT f.following.id FROM Follow f WHERE f.user.id = :userId AND EXISTS"
+            + " (SELECT b.id FROM Follow b WHERE b.user.id = f.following.id AND b.following.id = :userId)"
+            + " ORDER BY f.following.id")
+    List<Integer> findMutualIds(@Param("userId") int userId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Follow f WHERE f.user.id = :userId AND f.following.id = :followingId")
+    int deleteByUserIdAndFollowingId(@Param("userId") int userId, @Param("followingId") int followingId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT f.user.id, f.following.id FROM Follow f")
+    Stream<Object[]> streamUserAndFollowingIds();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT f.following.id, COUNT(f) FROM Follow f GROUP BY f.following.id")
+    Stream<Object[]> streamFollowerCounts();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT f.user.id, COUNT(f) FROM Follow f GROUP BY f.user.id")
+    Stream<Object[]> streamFollowingCounts();
+
+    @Query("SELECT COUNT(f) AS count, MAX(f.id) AS maxId FROM Follow f")
+    FollowWatermark findWatermark();
+}
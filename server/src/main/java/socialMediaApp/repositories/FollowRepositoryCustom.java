@@ -0,0 +1,7 @@
+package socialMediaApp.repositories;
+
+public interface FollowRepositoryCustom {
+
+    /** Inserts the follow unless the pair exists; returns the number of rows inserted. */
+    int insertIfAbsent(int userId, int followingId);
+}
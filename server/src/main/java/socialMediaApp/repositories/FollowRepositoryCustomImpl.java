@@ -0,0 +1,31 @@
+package socialMediaApp.repositories;
+
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Transactional;
+import socialMediaApp.models.Follow;
+
+import javax.persistence.EntityManager;
+
+public class FollowRepositoryCustomImpl implements FollowRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    public FollowRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Native, for ON CONFLICT. Hibernate cannot tell which tables a native statement touches and would
+     * evict every second-level cache region after it, so the query declares that it only writes follows.
+     */
+    @Override
+    @Transactional
+    public int insertIfAbsent(int userId, int followingId) {
+        return entityManager.createNativeQuery("INSERT INTO follows (user_id, user_following_id) VALUES (:userId, :followingId) ON CONFLICT DO NOTHING")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Follow.class)
+                .setParameter("userId", userId)
+                .setParameter("followingId", followingId)
+                .executeUpdate();
+    }
+}
@@ -1,14 +1,45 @@
 package socialMediaApp.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import socialMediaApp.models.Like;
 
+import javax.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface LikeRepository extends JpaRepository<Like, Integer> {
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+public interface LikeRepository extends JpaRepository<Like, Integer>, LikeRepositoryCustom {
     void deleteLikeById(int id);
-    List<Like> findAllByPost_Id(int postId);
-    List<Like> findAllByUser_Id(int userId);
-    Optional<Like> findByUser_IdAndPost_Id(int userId,int postId);
-}
\ No newline at end of file
+    // Filter on the foreign keys, which the derived queries would not, and skip likes whose post or
+    // user is deleted but not yet purged.
+    @Query("SELECT l FROM Like l WHERE l.post.id = :postId AND l.post.deletedAt IS NULL AND l.user.deletedAt IS NULL")
+    List<Like> findAllByPost_Id(@Param("postId") int postId);
+    @Query("SELECT l FROM Like l WHERE l.user.id = :userId AND l.user.deletedAt IS NULL AND l.post.deletedAt IS NULL")
+    List<Like> findAllByUser_Id(@Param("userId") int userId);
+    // Filters on the foreign keys, which the derived query would not.
+    @Query("SELECT l FROM Like l WHERE l.user.id = :userId AND l.post.id = :postId")
+    Optional<Like> findByUser_IdAndPost_Id(@Param("userId") int userId, @Param("postId") int postId);
+    long countByPost_Id(int postId);
+
+    @Query("SELECT l.post.id FROM Like l WHERE l.user.id = :userId AND l.post.id IN :postIds")
+    List<Integer> findLikedPostIds(@Param("userId") int userId, @Param("postIds") Collection<Integer> postIds);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT l.post.id, l.user.id FROM Like l")
+    Stream<Object[]> streamPostAndUserIds();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT l.user.id, l.post.user.id, COUNT(l) FROM Like l GROUP BY l.user.id, l.post.user.id")
+    Stream<Object[]> streamLikeCountsByUserAndAuthor();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT l.post.id, l.createdAt FROM Like l WHERE l.createdAt >= :since")
+    Stream<Object[]> streamPostIdsAndTimesSince(@Param("since") Instant since);
+}
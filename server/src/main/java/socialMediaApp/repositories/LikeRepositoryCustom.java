@@ -0,0 +1,16 @@
+package socialMediaApp.repositories;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface LikeRepositoryCustom {
+
+    /** Inserts the like unless the (user, post) pair exists; returns its creation time, or null when nothing was inserted. */
+    Instant insertIfAbsent(int userId, int postId);
+
+    /**
+     * Deletes the (user, post) like in one statement and returns the creation time of each row deleted: empty
+     * when there was no like, a null time for a like from before the column existed.
+     */
+    List<Instant> deleteReturningCreatedAt(int userId, int postId);
+}
@@ -0,0 +1,68 @@
+package socialMediaApp.repositories;
+
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LikeRepositoryCustomImpl implements LikeRepositoryCustom {
+
+    private static final String INSERT =
+            "INSERT INTO likes (user_id, post_id, created_at) VALUES (?, ?, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING";
+    private static final String DELETE_RETURNING =
+            "DELETE FROM likes WHERE user_id = ? AND post_id = ? RETURNING created_at";
+    // H2 has no DELETE ... RETURNING; its data change delta table gives the same single statement.
+    private static final String DELETE_RETURNING_H2 =
+            "SELECT created_at FROM OLD TABLE (DELETE FROM likes WHERE user_id = ? AND post_id = ?)";
+
+    private final EntityManager entityManager;
+
+    public LikeRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Plain JDBC on the transaction's connection, for ON CONFLICT and the generated created_at. Likes are not in
+     * the second-level cache, so there is nothing for Hibernate to evict.
+     */
+    @Override
+    @Transactional
+    public Instant insertIfAbsent(int userId, int postId) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT, new String[]{"created_at"})) {
+                statement.setInt(1, userId);
+                statement.setInt(2, postId);
+                statement.executeUpdate();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    return keys.next() ? keys.getTimestamp(1).toInstant() : null;
+                }
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public List<Instant> deleteReturningCreatedAt(int userId, int postId) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            String sql = connection.getMetaData().getDatabaseProductName().equals("H2") ? DELETE_RETURNING_H2 : DELETE_RETURNING;
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setInt(1, userId);
+                statement.setInt(2, postId);
+                List<Instant> deleted = new ArrayList<>(1);
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        Timestamp createdAt = rows.getTimestamp(1);
+                        deleted.add(createdAt == null ? null : createdAt.toInstant());
+                    }
+                }
+                return deleted;
+            }
+        });
+    }
+}
@@ -1,11 +1,14 @@
 package socialMediaApp.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import socialMediaApp.models.Post;
 import socialMediaApp.models.PostImage;
 
 import java.util.Optional;
 
 public interface PostImageRepository extends JpaRepository<PostImage, Integer> {
-    Optional<PostImage> findPostImageByPost_Id(int postId);
+    @Query("SELECT i FROM PostImage i WHERE i.post.id = :postId")
+    Optional<PostImage> findPostImageByPost_Id(@Param("postId") int postId);
 }
\ No newline at end of file
@@ -1,11 +1,44 @@
 package socialMediaApp.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import socialMediaApp.models.Post;
 
+import javax.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 public interface PostRepository extends JpaRepository<Post, Integer> {
-    List<Post> findAllByUser_IdOrderByIdDesc(int userId);
+    // Filters on the foreign key: the derived query joins users first and cannot use idx_posts_user_id.
+    @Query("SELECT p FROM Post p WHERE p.user.id = :userId ORDER BY p.id DESC")
+    List<Post> findAllByUser_IdOrderByIdDesc(@Param("userId") int userId);
     void deleteById(int id);
+
+    @Query("SELECT p FROM Post p JOIN FETCH p.user WHERE p.id IN :ids")
+    List<Post> findAllWithUserByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("SELECT p FROM Post p JOIN FETCH p.user")
+    Stream<Post> streamAll();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT p.id, p.createdAt FROM Post p WHERE p.createdAt >= :since")
+    Stream<Object[]> streamIdsAndTimesSince(@Param("since") Instant since);
+
+    @Query("SELECT p.id FROM Post p WHERE p.id IN :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT p.id FROM Post p WHERE p.user.id = :userId")
+    List<Integer> findIdsByUserId(@Param("userId") int userId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT p.id, p.description FROM Post p")
+    Stream<Object[]> streamIdsAndDescriptions();
 }
\ No newline at end of file
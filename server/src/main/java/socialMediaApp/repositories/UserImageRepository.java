@@ -1,11 +1,14 @@
 package socialMediaApp.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import socialMediaApp.models.User;
 import socialMediaApp.models.UserImage;
 
 import java.util.Optional;
 
 public interface UserImageRepository extends JpaRepository<UserImage, Integer> {
-    Optional<UserImage> findByUser_Id(int userId);
+    @Query("SELECT i FROM UserImage i WHERE i.user.id = :userId")
+    Optional<UserImage> findByUser_Id(@Param("userId") int userId);
 }
\ No newline at end of file
@@ -1,10 +1,51 @@
 package socialMediaApp.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import socialMediaApp.models.User;
+import socialMediaApp.projections.UserProfile;
+import socialMediaApp.projections.UserSummary;
 
-public interface UserRepository extends JpaRepository<User, Integer> {
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+public interface UserRepository extends JpaRepository<User, Integer>, UserRepositoryCustom {
     void deleteById(int id);
-    User findByEmail(String email);
-    
+
+    @Query("SELECT u.id FROM User u")
+    List<Integer> findAllIds();
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT u.id AS id, u.name AS name, u.lastName AS lastName, u.email AS email FROM User u WHERE u.id = :id")
+    Optional<UserProfile> findProfileById(@Param("id") int id);
+
+    @Query("SELECT u.id AS id, u.name AS name, u.lastName AS lastName, u.email AS email FROM User u WHERE u.email = :email")
+    Optional<UserProfile> findProfileByEmail(@Param("email") String email);
+
+    @Query("SELECT u.id AS id, u.name AS name, u.lastName AS lastName, u.email AS email FROM User u WHERE u.id IN :ids")
+    List<UserProfile> findProfilesByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT u.id AS id, u.name AS name, u.lastName AS lastName FROM User u WHERE u.id IN :ids")
+    List<UserSummary> findSummariesByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.id AS id, u.name AS name, u.lastName AS lastName, u.email AS email FROM User u")
+    Stream<UserProfile> streamProfiles();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT u.id, u.name, u.lastName FROM User u")
+    Stream<Object[]> streamIdsAndNames();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT u.id FROM User u")
+    Stream<Integer> streamIds();
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package socialMediaApp.repositories;
+
+import socialMediaApp.models.User;
+
+public interface UserRepositoryCustom {
+
+    /** Looks the user up through the natural-id cache; null when there is no such user. */
+    User findByEmail(String email);
+}
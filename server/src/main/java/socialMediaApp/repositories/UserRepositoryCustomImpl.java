@@ -0,0 +1,22 @@
+package socialMediaApp.repositories;
+
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+import socialMediaApp.models.User;
+
+import javax.persistence.EntityManager;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    public UserRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public User findByEmail(String email) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(User.class).load(email);
+    }
+}
@@ -0,0 +1,25 @@
+package socialMediaApp.responses.auth;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoginStatsResponse {
+    private int hashThreads;
+    /** Logins and registrations waiting for a hashing thread. */
+    private int queued;
+    private int queueCapacity;
+    /** Counted since startup. */
+    private long hashes;
+    private double meanHashMillis;
+    private long maxHashMillis;
+    /** Turned away because the queue was full. */
+    private long rejected;
+    /** Turned away by the per-email or per-address limit. */
+    private long rateLimited;
+    /** Emails and addresses whose attempts have not refilled yet. */
+    private int trackedKeys;
+}
@@ -0,0 +1,19 @@
+package socialMediaApp.responses.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheRegionStatsResponse {
+    private String region;
+    private long hits;
+    private long misses;
+    private long puts;
+    /** Hits over lookups, 0 before the first lookup. */
+    private double hitRate;
+    /** Entries held in memory, null when the cache provider does not report it. */
+    private Long entries;
+}
@@ -0,0 +1,24 @@
+package socialMediaApp.responses.datasource;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DataSourcePoolStatsResponse {
+    private String pool;
+    /** "primary" or "replica". */
+    private String role;
+    /** Whether the pool currently takes reads; the primary always does. */
+    private boolean available;
+    /** Replica lag from the last probe, null for the primary and for replicas that did not answer. */
+    private Long lagMillis;
+    /** Transactions sent to this pool since startup. */
+    private long routed;
+    private int activeConnections;
+    private int idleConnections;
+    private int totalConnections;
+    private int threadsAwaitingConnection;
+}
@@ -0,0 +1,25 @@
+package socialMediaApp.responses.deletion;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PurgeJobResponse {
+    private long id;
+    /** "user" or "post". */
+    private String type;
+    private int targetId;
+    /** QUEUED, RUNNING, DONE or FAILED; failed purges are retried by the next sweep. */
+    private String state;
+    private Instant queuedAt;
+    private Instant finishedAt;
+    /** Rows deleted so far, per table, in purge order. */
+    private Map<String, Long> deletedRows;
+    private String error;
+}
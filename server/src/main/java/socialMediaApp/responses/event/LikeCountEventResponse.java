@@ -0,0 +1,13 @@
+package socialMediaApp.responses.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LikeCountEventResponse {
+    private int postId;
+    private long likeCount;
+}
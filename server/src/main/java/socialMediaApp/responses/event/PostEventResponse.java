@@ -0,0 +1,14 @@
+package socialMediaApp.responses.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostEventResponse {
+    private int postId;
+    private int userId;
+    private String description;
+}
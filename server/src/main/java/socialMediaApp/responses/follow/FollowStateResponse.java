@@ -0,0 +1,13 @@
+package socialMediaApp.responses.follow;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FollowStateResponse {
+    private boolean following;
+    private long followerCount;
+}
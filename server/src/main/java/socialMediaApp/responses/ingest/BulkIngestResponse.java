@@ -0,0 +1,19 @@
+package socialMediaApp.responses.ingest;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkIngestResponse {
+    private long received;
+    private long inserted;
+    /** Rows pointing at missing users or posts, or otherwise invalid. */
+    private long rejected;
+    /** Rows that already existed. */
+    private long duplicates;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+}
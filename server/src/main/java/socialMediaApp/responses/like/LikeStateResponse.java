@@ -0,0 +1,13 @@
+package socialMediaApp.responses.like;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LikeStateResponse {
+    private boolean liked;
+    private long likeCount;
+}
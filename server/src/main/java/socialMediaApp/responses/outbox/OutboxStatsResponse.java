@@ -0,0 +1,24 @@
+package socialMediaApp.responses.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxStatsResponse {
+    /** Events waiting for delivery, retries included. */
+    private long pending;
+    /** Events that reached the attempt limit and are no longer delivered. */
+    private long deadLettered;
+    /** Age of the oldest pending event, null when there is none. */
+    private Long oldestPendingMillis;
+    /** Counted since startup. */
+    private long delivered;
+    private long failedAttempts;
+    /** Time from the write to its delivery, over the events delivered since startup. */
+    private long lastLagMillis;
+    private double meanLagMillis;
+    private long maxLagMillis;
+}
@@ -0,0 +1,17 @@
+package socialMediaApp.responses.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchHitResponse {
+    private String type;
+    private int id;
+    private Integer postId;
+    private int userId;
+    private String text;
+    private double score;
+}
@@ -0,0 +1,19 @@
+package socialMediaApp.responses.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchResponse {
+    private String query;
+    private int page;
+    private int size;
+    private long totalHits;
+    private long tookMicros;
+    private List<SearchHitResponse> hits;
+}
@@ -0,0 +1,17 @@
+package socialMediaApp.responses.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchStatsResponse {
+    private long queryCount;
+    private long p50Micros;
+    private long p99Micros;
+    private long maxMicros;
+    private long docCount;
+    private int segmentCount;
+}
@@ -3,9 +3,6 @@ package socialMediaApp.responses.user;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import socialMediaApp.responses.user.*;
-
-import java.util.List;
 
 @Data
 @AllArgsConstructor
@@ -15,6 +12,6 @@ public class UserResponse {
     private String name;
     private String lastName;
     private String email;
-    private List<UserFollowerResponse> followers;
-    private List<UserFollowingResponse> following;
+    private int followerCount;
+    private int followingCount;
 }
@@ -0,0 +1,15 @@
+package socialMediaApp.responses.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserSuggestionResponse {
+    private int userId;
+    private String name;
+    private String lastName;
+    private int sharedFollowCount;
+}
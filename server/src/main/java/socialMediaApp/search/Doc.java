@@ -0,0 +1,28 @@
+package socialMediaApp.search;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** A tokenized document waiting in the in-memory buffer to be flushed into a segment. */
+final class Doc {
+
+    final long key;
+    final Map<String, Integer> termFreqs;
+    final int length;
+
+    private Doc(long key, Map<String, Integer> termFreqs, int length) {
+        this.key = key;
+        this.termFreqs = termFreqs;
+        this.length = length;
+    }
+
+    static Doc of(long key, String text) {
+        List<String> tokens = Tokenizer.tokenize(text);
+        Map<String, Integer> termFreqs = new HashMap<>();
+        for (String token : tokens) {
+            termFreqs.merge(token, 1, Integer::sum);
+        }
+        return new Doc(key, termFreqs, tokens.size());
+    }
+}
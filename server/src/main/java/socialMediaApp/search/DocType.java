@@ -0,0 +1,25 @@
+package socialMediaApp.search;
+
+/**
+ * Kinds of documents in the search index. A document is identified by its type and the entity id, packed
+ * into one {@code long} key by {@link #key(int)}.
+ */
+public enum DocType {
+    POST,
+    COMMENT,
+    USER;
+
+    private static final DocType[] VALUES = values();
+
+    public long key(int id) {
+        return ((long) ordinal() << 32) | (id & 0xffffffffL);
+    }
+
+    public static DocType typeOf(long key) {
+        return VALUES[(int) (key >>> 32)];
+    }
+
+    public static int idOf(long key) {
+        return (int) key;
+    }
+}
@@ -0,0 +1,404 @@
+package socialMediaApp.search;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Log-structured full-text index with BM25 ranking.
+ * <p>
+ * New documents go to an in-memory buffer that is written out as an immutable {@link Segment} once it
+ * holds {@code flushThreshold} documents. Updates and deletes only flag the old copy; a background thread
+ * merges the smallest segments whenever there are more than {@code mergeFactor} of them, which is where
+ * deleted documents are finally dropped. A manifest is written on {@link #close()} only, so segments are
+ * reused after a clean shutdown and rebuilt from the database after a crash.
+ */
+public class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final String MANIFEST = "segments.manifest";
+
+    private final Path directory;
+    private final int flushThreshold;
+    private final int mergeFactor;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean merging = new AtomicBoolean();
+    private final ExecutorService merger = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-index-merger");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private List<Segment> segments = new ArrayList<>();
+    private final Map<Long, Doc> buffer = new LinkedHashMap<>();
+    private long liveDocs;
+    private long totalLength;
+    private int nextSegment;
+
+    public InvertedIndex(Path directory, int flushThreshold, int mergeFactor) {
+        this.directory = directory;
+        this.flushThreshold = flushThreshold;
+        this.mergeFactor = mergeFactor;
+    }
+
+    /**
+     * Loads the segments left by a clean {@link #close()}. Returns false, with the index empty and the
+     * directory wiped, if there was no clean shutdown and the caller has to re-add every document.
+     */
+    public boolean open() throws IOException {
+        Files.createDirectories(directory);
+        Path manifest = directory.resolve(MANIFEST);
+        lock.writeLock().lock();
+        try {
+            if (Files.exists(manifest)) {
+                List<String> lines = Files.readAllLines(manifest);
+                List<Segment> loaded = new ArrayList<>();
+                try {
+                    nextSegment = Integer.parseInt(lines.get(0));
+                    for (String name : lines.subList(1, lines.size())) {
+                        loaded.add(Segment.read(directory, name));
+                    }
+                } catch (IOException | RuntimeException e) {
+                    loaded.clear();
+                }
+                // From here on the files only describe a clean state again once close() rewrites the manifest.
+                Files.delete(manifest);
+                if (!loaded.isEmpty() || lines.size() == 1) {
+                    segments = loaded;
+                    for (Segment segment : segments) {
+                        liveDocs += segment.liveDocCount();
+                        totalLength += segment.liveLength();
+                    }
+                    return true;
+                }
+            }
+            clearLocked();
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Flushes the buffer and records the current segments as a clean state. */
+    public void close() throws IOException {
+        merger.shutdown();
+        try {
+            merger.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.writeLock().lock();
+        try {
+            flushLocked();
+            StringBuilder manifest = new StringBuilder().append(nextSegment).append('\n');
+            for (Segment segment : segments) {
+                segment.writeDeletes(directory);
+                manifest.append(segment.name()).append('\n');
+            }
+            Files.writeString(directory.resolve(MANIFEST), manifest);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Adds the document, replacing any earlier version with the same key. */
+    public void add(long key, String text) {
+        Doc doc = Doc.of(key, text);
+        boolean flushed;
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            buffer.put(key, doc);
+            liveDocs++;
+            totalLength += doc.length;
+            flushed = buffer.size() >= flushThreshold && flushLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (flushed) {
+            scheduleMerge();
+        }
+    }
+
+    public void delete(long key) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Writes the buffered documents to a new segment. */
+    public void flush() {
+        boolean flushed;
+        lock.writeLock().lock();
+        try {
+            flushed = flushLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (flushed) {
+            scheduleMerge();
+        }
+    }
+
+    /**
+     * Ranks the live documents matching any term of {@code query} by BM25, optionally restricted to one
+     * type, and returns the hits in {@code [offset, offset + limit)}.
+     */
+    public SearchResult search(String query, DocType type, int offset, int limit) {
+        Set<String> terms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            if (terms.isEmpty() || liveDocs == 0) {
+                return new SearchResult(0, Collections.emptyList());
+            }
+            double averageLength = Math.max(1.0, (double) totalLength / liveDocs);
+            List<BitSet> deletions = new ArrayList<>(segments.size());
+            for (Segment segment : segments) {
+                deletions.add(segment.deletedSnapshot());
+            }
+            for (String term : terms) {
+                int docFreq = 0;
+                int[] termIndexes = new int[segments.size()];
+                for (int s = 0; s < segments.size(); s++) {
+                    termIndexes[s] = segments.get(s).termIndex(term);
+                    if (termIndexes[s] >= 0) {
+                        docFreq += segments.get(s).docFreq(termIndexes[s]);
+                    }
+                }
+                for (Doc doc : buffer.values()) {
+                    if (doc.termFreqs.containsKey(term)) {
+                        docFreq++;
+                    }
+                }
+                if (docFreq == 0) {
+                    continue;
+                }
+                double idf = Math.log(1 + (liveDocs - docFreq + 0.5) / (docFreq + 0.5));
+                for (int s = 0; s < segments.size(); s++) {
+                    if (termIndexes[s] < 0) {
+                        continue;
+                    }
+                    Segment segment = segments.get(s);
+                    BitSet deleted = deletions.get(s);
+                    Segment.PostingsReader postings = segment.postings(termIndexes[s]);
+                    while (postings.next()) {
+                        long key = segment.docKey(postings.ordinal);
+                        if (!deleted.get(postings.ordinal) && (type == null || DocType.typeOf(key) == type)) {
+                            scores.merge(key, bm25(idf, postings.termFreq, segment.docLength(postings.ordinal),
+                                    averageLength), Double::sum);
+                        }
+                    }
+                }
+                for (Doc doc : buffer.values()) {
+                    Integer termFreq = doc.termFreqs.get(term);
+                    if (termFreq != null && (type == null || DocType.typeOf(doc.key) == type)) {
+                        scores.merge(doc.key, bm25(idf, termFreq, doc.length, averageLength), Double::sum);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return topHits(scores, offset, limit);
+    }
+
+    public long docCount() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int segmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static double bm25(double idf, int termFreq, int docLength, double averageLength) {
+        return idf * termFreq * (K1 + 1) / (termFreq + K1 * (1 - B + B * docLength / averageLength));
+    }
+
+    /** Picks the requested page with a bounded min-heap instead of sorting every match. */
+    private static SearchResult topHits(Map<Long, Double> scores, int offset, int limit) {
+        int wanted = offset + limit;
+        Comparator<SearchHit> byRank = Comparator.comparingDouble(SearchHit::getScore)
+                .thenComparing(SearchHit::getKey, Comparator.reverseOrder());
+        PriorityQueue<SearchHit> heap = new PriorityQueue<>(Math.max(1, wanted), byRank);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            SearchHit hit = new SearchHit(entry.getKey(), entry.getValue());
+            if (heap.size() < wanted) {
+                heap.add(hit);
+            } else if (wanted > 0 && byRank.compare(hit, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(hit);
+            }
+        }
+        List<SearchHit> ranked = new ArrayList<>(heap);
+        ranked.sort(byRank.reversed());
+        List<SearchHit> page = offset >= ranked.size() ? Collections.emptyList() : ranked.subList(offset, ranked.size());
+        return new SearchResult(scores.size(), page);
+    }
+
+    private void removeLocked(long key) {
+        Doc buffered = buffer.remove(key);
+        if (buffered != null) {
+            liveDocs--;
+            totalLength -= buffered.length;
+            return;
+        }
+        for (Segment segment : segments) {
+            int length = segment.delete(key);
+            if (length >= 0) {
+                liveDocs--;
+                totalLength -= length;
+                return;
+            }
+        }
+    }
+
+    private boolean flushLocked() {
+        if (buffer.isEmpty()) {
+            return false;
+        }
+        Segment segment = Segment.build(newSegmentName(), buffer.values());
+        try {
+            segment.write(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<Segment> updated = new ArrayList<>(segments);
+        updated.add(segment);
+        segments = updated;
+        buffer.clear();
+        return true;
+    }
+
+    private void clearLocked() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.{seg,del,tmp}")) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        segments = new ArrayList<>();
+        buffer.clear();
+        liveDocs = 0;
+        totalLength = 0;
+        nextSegment = 0;
+    }
+
+    private String newSegmentName() {
+        return String.format("segment-%06d", nextSegment++);
+    }
+
+    private void scheduleMerge() {
+        if (merging.compareAndSet(false, true)) {
+            try {
+                merger.execute(this::mergeSmallest);
+            } catch (RuntimeException e) {
+                merging.set(false);
+            }
+        }
+    }
+
+    /**
+     * Merges the {@code mergeFactor} smallest segments until no more than {@code mergeFactor} are left.
+     * Building the merged segment happens without the lock; deletes that land meanwhile are carried over
+     * to it before it replaces its sources.
+     */
+    private void mergeSmallest() {
+        try {
+            while (true) {
+                List<Segment> sources;
+                String name;
+                lock.readLock().lock();
+                try {
+                    if (segments.size() <= mergeFactor) {
+                        return;
+                    }
+                    sources = new ArrayList<>(segments);
+                    sources.sort(Comparator.comparingInt(Segment::docCount));
+                    sources = sources.subList(0, mergeFactor);
+                } finally {
+                    lock.readLock().unlock();
+                }
+                lock.writeLock().lock();
+                try {
+                    name = newSegmentName();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                List<BitSet> deletions = new ArrayList<>(sources.size());
+                for (Segment source : sources) {
+                    deletions.add(source.deletedSnapshot());
+                }
+                Segment merged = Segment.merge(name, sources, deletions);
+                merged.write(directory);
+
+                lock.writeLock().lock();
+                try {
+                    for (int i = 0; i < sources.size(); i++) {
+                        Segment source = sources.get(i);
+                        BitSet deletedSince = source.deletedSnapshot();
+                        deletedSince.andNot(deletions.get(i));
+                        for (int ordinal = deletedSince.nextSetBit(0); ordinal >= 0;
+                             ordinal = deletedSince.nextSetBit(ordinal + 1)) {
+                            merged.delete(source.docKey(ordinal));
+                        }
+                    }
+                    List<Segment> updated = new ArrayList<>(segments);
+                    updated.removeAll(sources);
+                    updated.add(merged);
+                    segments = updated;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                for (Segment source : sources) {
+                    source.deleteFiles(directory);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            merging.set(false);
+        }
+    }
+
+    /** A page of hits plus the total number of matching documents. */
+    public static final class SearchResult {
+        private final long totalHits;
+        private final List<SearchHit> hits;
+
+        SearchResult(long totalHits, List<SearchHit> hits) {
+            this.totalHits = totalHits;
+            this.hits = hits;
+        }
+
+        public long getTotalHits() {
+            return totalHits;
+        }
+
+        public List<SearchHit> getHits() {
+            return hits;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package socialMediaApp.search;
+
+/** A matching document and its BM25 score. */
+public final class SearchHit {
+
+    private final long key;
+    private final double score;
+
+    SearchHit(long key, double score) {
+        this.key = key;
+        this.score = score;
+    }
+
+    public DocType getType() {
+        return DocType.typeOf(key);
+    }
+
+    public int getId() {
+        return DocType.idOf(key);
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    long getKey() {
+        return key;
+    }
+}
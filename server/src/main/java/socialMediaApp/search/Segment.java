@@ -0,0 +1,300 @@
+package socialMediaApp.search;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Immutable, file-backed slice of the inverted index. Documents are numbered 0..n-1 inside the segment;
+ * each term's postings are a byte array of varint-encoded (ordinal delta, term frequency) pairs.
+ * Deleted documents are only flagged in a bitset and dropped when segments are merged.
+ */
+final class Segment {
+
+    private static final int MAGIC = 0x53454731;
+
+    private final String name;
+    private final long[] docKeys;
+    private final int[] docLengths;
+    private final String[] terms;
+    private final int[] docFreqs;
+    private final int[] postingStarts;
+    private final byte[] postings;
+    private final Map<Long, Integer> ordinalsByKey;
+    private final BitSet deleted;
+
+    private Segment(String name, long[] docKeys, int[] docLengths, String[] terms, int[] docFreqs,
+                    int[] postingStarts, byte[] postings, BitSet deleted) {
+        this.name = name;
+        this.docKeys = docKeys;
+        this.docLengths = docLengths;
+        this.terms = terms;
+        this.docFreqs = docFreqs;
+        this.postingStarts = postingStarts;
+        this.postings = postings;
+        this.deleted = deleted;
+        this.ordinalsByKey = new HashMap<>(docKeys.length * 2);
+        for (int ordinal = 0; ordinal < docKeys.length; ordinal++) {
+            ordinalsByKey.put(docKeys[ordinal], ordinal);
+        }
+    }
+
+    static Segment build(String name, Collection<Doc> docs) {
+        SortedMap<String, PostingsBuilder> builders = new TreeMap<>();
+        long[] docKeys = new long[docs.size()];
+        int[] docLengths = new int[docs.size()];
+        int ordinal = 0;
+        for (Doc doc : docs) {
+            docKeys[ordinal] = doc.key;
+            docLengths[ordinal] = doc.length;
+            for (Map.Entry<String, Integer> term : doc.termFreqs.entrySet()) {
+                builders.computeIfAbsent(term.getKey(), t -> new PostingsBuilder()).add(ordinal, term.getValue());
+            }
+            ordinal++;
+        }
+        return fromBuilders(name, docKeys, docLengths, builders);
+    }
+
+    /**
+     * Builds one segment holding the documents of {@code segments} that are not set in the matching
+     * {@code deletions} snapshot, in order.
+     */
+    static Segment merge(String name, List<Segment> segments, List<BitSet> deletions) {
+        int liveDocs = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            liveDocs += segments.get(i).docKeys.length - deletions.get(i).cardinality();
+        }
+        long[] docKeys = new long[liveDocs];
+        int[] docLengths = new int[liveDocs];
+        SortedMap<String, PostingsBuilder> builders = new TreeMap<>();
+        int base = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            BitSet deleted = deletions.get(i);
+            int[] remap = new int[segment.docKeys.length];
+            int next = base;
+            for (int ordinal = 0; ordinal < remap.length; ordinal++) {
+                if (deleted.get(ordinal)) {
+                    remap[ordinal] = -1;
+                } else {
+                    remap[ordinal] = next;
+                    docKeys[next] = segment.docKeys[ordinal];
+                    docLengths[next] = segment.docLengths[ordinal];
+                    next++;
+                }
+            }
+            for (int t = 0; t < segment.terms.length; t++) {
+                PostingsBuilder builder = null;
+                PostingsReader reader = segment.postings(t);
+                while (reader.next()) {
+                    int mapped = remap[reader.ordinal];
+                    if (mapped >= 0) {
+                        if (builder == null) {
+                            builder = builders.computeIfAbsent(segment.terms[t], k -> new PostingsBuilder());
+                        }
+                        builder.add(mapped, reader.termFreq);
+                    }
+                }
+            }
+            base = next;
+        }
+        return fromBuilders(name, docKeys, docLengths, builders);
+    }
+
+    private static Segment fromBuilders(String name, long[] docKeys, int[] docLengths,
+                                        SortedMap<String, PostingsBuilder> builders) {
+        String[] terms = new String[builders.size()];
+        int[] docFreqs = new int[builders.size()];
+        int[] postingStarts = new int[builders.size() + 1];
+        ByteArrayOutputStream postings = new ByteArrayOutputStream();
+        int t = 0;
+        for (Map.Entry<String, PostingsBuilder> entry : builders.entrySet()) {
+            terms[t] = entry.getKey();
+            docFreqs[t] = entry.getValue().docFreq;
+            postingStarts[t] = postings.size();
+            postings.writeBytes(entry.getValue().bytes.toByteArray());
+            t++;
+        }
+        postingStarts[t] = postings.size();
+        return new Segment(name, docKeys, docLengths, terms, docFreqs, postingStarts, postings.toByteArray(),
+                new BitSet(docKeys.length));
+    }
+
+    static Segment read(Path directory, String name) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(directory.resolve(name + ".seg"))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a segment file: " + name);
+            }
+            int docCount = in.readInt();
+            long[] docKeys = new long[docCount];
+            int[] docLengths = new int[docCount];
+            for (int i = 0; i < docCount; i++) {
+                docKeys[i] = in.readLong();
+                docLengths[i] = in.readInt();
+            }
+            int termCount = in.readInt();
+            String[] terms = new String[termCount];
+            int[] docFreqs = new int[termCount];
+            int[] postingStarts = new int[termCount + 1];
+            for (int t = 0; t < termCount; t++) {
+                terms[t] = in.readUTF();
+                docFreqs[t] = in.readInt();
+                postingStarts[t + 1] = postingStarts[t] + in.readInt();
+            }
+            byte[] postings = new byte[postingStarts[termCount]];
+            in.readFully(postings);
+            BitSet deleted = new BitSet(docCount);
+            Path deletes = directory.resolve(name + ".del");
+            if (Files.exists(deletes)) {
+                deleted = BitSet.valueOf(Files.readAllBytes(deletes));
+            }
+            return new Segment(name, docKeys, docLengths, terms, docFreqs, postingStarts, postings, deleted);
+        }
+    }
+
+    void write(Path directory) throws IOException {
+        Path temp = directory.resolve(name + ".seg.tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(docKeys.length);
+            for (int i = 0; i < docKeys.length; i++) {
+                out.writeLong(docKeys[i]);
+                out.writeInt(docLengths[i]);
+            }
+            out.writeInt(terms.length);
+            for (int t = 0; t < terms.length; t++) {
+                out.writeUTF(terms[t]);
+                out.writeInt(docFreqs[t]);
+                out.writeInt(postingStarts[t + 1] - postingStarts[t]);
+            }
+            out.write(postings);
+        }
+        Files.move(temp, directory.resolve(name + ".seg"), java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    void writeDeletes(Path directory) throws IOException {
+        Files.write(directory.resolve(name + ".del"), deletedSnapshot().toByteArray());
+    }
+
+    void deleteFiles(Path directory) throws IOException {
+        Files.deleteIfExists(directory.resolve(name + ".seg"));
+        Files.deleteIfExists(directory.resolve(name + ".del"));
+    }
+
+    String name() {
+        return name;
+    }
+
+    int docCount() {
+        return docKeys.length;
+    }
+
+    synchronized int liveDocCount() {
+        return docKeys.length - deleted.cardinality();
+    }
+
+    synchronized long liveLength() {
+        long total = 0;
+        for (int ordinal = 0; ordinal < docKeys.length; ordinal++) {
+            if (!deleted.get(ordinal)) {
+                total += docLengths[ordinal];
+            }
+        }
+        return total;
+    }
+
+    /** Flags the document as deleted; returns its length, or -1 if it is not live in this segment. */
+    synchronized int delete(long docKey) {
+        Integer ordinal = ordinalsByKey.get(docKey);
+        if (ordinal == null || deleted.get(ordinal)) {
+            return -1;
+        }
+        deleted.set(ordinal);
+        return docLengths[ordinal];
+    }
+
+    synchronized BitSet deletedSnapshot() {
+        return (BitSet) deleted.clone();
+    }
+
+    long docKey(int ordinal) {
+        return docKeys[ordinal];
+    }
+
+    int docLength(int ordinal) {
+        return docLengths[ordinal];
+    }
+
+    /** Index of the term, or -1. */
+    int termIndex(String term) {
+        int index = Arrays.binarySearch(terms, term);
+        return index >= 0 ? index : -1;
+    }
+
+    int docFreq(int termIndex) {
+        return docFreqs[termIndex];
+    }
+
+    PostingsReader postings(int termIndex) {
+        return new PostingsReader(postings, postingStarts[termIndex], postingStarts[termIndex + 1]);
+    }
+
+    /** Sequential decoder over one term's postings. */
+    static final class PostingsReader {
+        private final byte[] bytes;
+        private final int end;
+        private int position;
+        int ordinal = -1;
+        int termFreq;
+
+        PostingsReader(byte[] bytes, int start, int end) {
+            this.bytes = bytes;
+            this.position = start;
+            this.end = end;
+        }
+
+        boolean next() {
+            if (position >= end) {
+                return false;
+            }
+            ordinal += readVarInt() + (ordinal < 0 ? 1 : 0);
+            termFreq = readVarInt();
+            return true;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                value |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    private static final class PostingsBuilder {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private int lastOrdinal = -1;
+        private int docFreq;
+
+        void add(int ordinal, int termFreq) {
+            writeVarInt(ordinal - lastOrdinal - (lastOrdinal < 0 ? 1 : 0));
+            writeVarInt(termFreq);
+            lastOrdinal = ordinal;
+            docFreq++;
+        }
+
+        private void writeVarInt(int value) {
+            while ((value & ~0x7f) != 0) {
+                bytes.write((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            bytes.write(value);
+        }
+    }
+}
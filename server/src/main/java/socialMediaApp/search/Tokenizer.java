@@ -0,0 +1,54 @@
+package socialMediaApp.search;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text into lower-cased, accent-free terms on anything that is not a letter or digit, dropping a
+ * small set of English and French stop words.
+ */
+public final class Tokenizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it", "of", "on", "or",
+            "the", "to", "was", "with", "au", "aux", "ce", "de", "des", "du", "en", "et", "il", "la", "le", "les",
+            "un", "une", "ou", "sur", "pour", "par", "est"));
+
+    private Tokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        return split(text, true);
+    }
+
+    /** The words of {@code text}, lower-cased and accent-free, joined by single spaces; nothing is dropped. */
+    public static String normalize(String text) {
+        return String.join(" ", split(text, false));
+    }
+
+    private static List<String> split(String text, boolean dropStopWords) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String normalized = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = normalized.substring(start, i);
+                if (!dropStopWords || !STOP_WORDS.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
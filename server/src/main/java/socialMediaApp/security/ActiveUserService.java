@@ -0,0 +1,93 @@
+package socialMediaApp.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import socialMediaApp.events.DomainEvent;
+import socialMediaApp.events.DomainEventSubscriber;
+import socialMediaApp.events.DomainEventType;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.utils.IntBitmap;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Whether a token's user still exists, answered from memory so that authenticating a request needs no
+ * query. The ids of all users are loaded at startup and reloaded every
+ * {@code app.auth.active-users-refresh-ms}, which picks up deletions made by other instances. Deletions
+ * made here arrive as USER_DELETED events. An id missing from the snapshot, such as a user registered
+ * since the last load, is checked against the database once and remembered either way. A found id is
+ * remembered until a load that started after the check, which either has it or saw it deleted.
+ * <p>
+ * Reads are lock-free: the snapshot is never modified after it is published, and changes since it was
+ * built sit in two concurrent sets. Removals win over everything else, as ids are never reused.
+ */
+@Service
+public class ActiveUserService implements DomainEventSubscriber {
+
+    private final UserRepository userRepository;
+
+    private volatile IntBitmap snapshot = new IntBitmap();
+    private volatile boolean ready;
+    /** Ids found in the database since the snapshot, with the {@link System#nanoTime()} of the check. */
+    private final Map<Integer, Long> added = new ConcurrentHashMap<>();
+    private final Set<Integer> removed = ConcurrentHashMap.newKeySet();
+
+    public ActiveUserService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.auth.active-users-refresh-ms:300000}",
+            fixedDelayString = "${app.auth.active-users-refresh-ms:300000}")
+    @Transactional(readOnly = true)
+    public void load() {
+        long started = System.nanoTime();
+        IntBitmap users = new IntBitmap();
+        try (Stream<Integer> ids = userRepository.streamIds()) {
+            ids.forEach(users::add);
+        }
+        for (int userId : removed) {
+            users.remove(userId);
+        }
+        snapshot = users;
+        // Checked before this load started: the snapshot has the id, or the user was deleted since.
+        added.values().removeIf(checkedAt -> checkedAt - started < 0);
+        added.keySet().removeIf(users::contains);
+        ready = true;
+    }
+
+    public boolean isActive(int userId) {
+        if (removed.contains(userId)) {
+            return false;
+        }
+        if (ready && (snapshot.contains(userId) || added.containsKey(userId))) {
+            return true;
+        }
+        long checkedAt = System.nanoTime();
+        if (userRepository.existsById(userId)) {
+            added.put(userId, checkedAt);
+            return true;
+        }
+        removed.add(userId);
+        return false;
+    }
+
+    public void remove(int userId) {
+        removed.add(userId);
+        added.remove(userId);
+    }
+
+    @Override
+    public void onEvent(DomainEvent event) {
+        if (event.getType() == DomainEventType.USER_DELETED) {
+            remove(event.getAggregateId());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package socialMediaApp.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collections;
+
+/**
+ * Lets import jobs call {@code /api/ingest/*}, which writes rows for any user, with
+ * {@code Authorization: Bearer <app.ingest.token>} by granting the request {@link #INGEST_AUTHORITY}, which no
+ * user token carries. With no token configured nobody can ingest.
+ */
+@Component
+public class IngestTokenFilter extends OncePerRequestFilter {
+
+    public static final String INGEST_AUTHORITY = "BULK_INGEST";
+
+    @Value("${app.ingest.token:}")
+    private String ingestToken;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/ingest/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String authorizationHeader = request.getHeader("Authorization");
+        if (!ingestToken.isEmpty() && authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && MessageDigest.isEqual(authorizationHeader.substring(7).getBytes(StandardCharsets.UTF_8),
+                ingestToken.getBytes(StandardCharsets.UTF_8))) {
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("ingest-job",
+                    null, Collections.singletonList(new SimpleGrantedAuthority(INGEST_AUTHORITY))));
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,12 @@
+package socialMediaApp.security;
+
+import lombok.Value;
+
+/** A short-lived access token and the refresh token that renews it. */
+@Value
+public class IssuedTokens {
+    String accessToken;
+    String refreshToken;
+    /** Epoch millis after which the refresh token is rejected. */
+    long refreshExpiresAt;
+}
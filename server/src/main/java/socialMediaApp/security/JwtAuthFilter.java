@@ -2,55 +2,93 @@ package socialMediaApp.security;
 
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import socialMediaApp.metrics.Histogram;
+import socialMediaApp.metrics.MetricsRegistry;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Collections;
 
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private JwtVerifier jwtVerifier;
     @Autowired
     private CustomUserDetailsService service;
+    @Autowired
+    private ActiveUserService activeUserService;
+    @Autowired
+    private RevocationService revocationService;
+    /** Build the principal from the token's claims instead of loading the user on every request. */
+    @Value("${app.auth.stateless:true}")
+    private boolean stateless;
+    /** Time spent on the token, by outcome, excluding the rest of the chain. */
+    private Histogram anonymousTime;
+    private Histogram authenticatedTime;
+    private Histogram rejectedTime;
 
+    @Autowired
+    void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        String help = "Time the JWT filter spends checking the request's token.";
+        anonymousTime = metricsRegistry.timer("jwt_filter_seconds", help, "outcome", "anonymous");
+        authenticatedTime = metricsRegistry.timer("jwt_filter_seconds", help, "outcome", "authenticated");
+        rejectedTime = metricsRegistry.timer("jwt_filter_seconds", help, "outcome", "rejected");
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse, FilterChain filterChain) throws ServletException, IOException {
-
+        long start = System.nanoTime();
         String authorizationHeader = httpServletRequest.getHeader("Authorization");
 
         String token = null;
-        String userName = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
             token = authorizationHeader.substring(7);
-            userName = jwtUtil.extractUsername(token);
+        } else if (httpServletRequest.getRequestURI().startsWith("/api/events/")) {
+            // EventSource cannot send headers, so the event stream takes the token as a parameter.
+            token = httpServletRequest.getParameter("access_token");
         }
 
-        if (userName != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-
-            UserDetails userDetails = service.loadUserByUsername(userName);
-
-            if (jwtUtil.validateToken(token, userDetails)) {
-
-                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                usernamePasswordAuthenticationToken
-                        .setDetails(new WebAuthenticationDetailsSource().buildDetails(httpServletRequest));
-                SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            VerifiedToken verifiedToken = jwtVerifier.verify(token);
+            if (verifiedToken != null && !revocationService.isRevoked(verifiedToken)) {
+                authenticate(verifiedToken.getPrincipal(), httpServletRequest);
             }
+            (SecurityContextHolder.getContext().getAuthentication() == null ? rejectedTime : authenticatedTime).recordSince(start);
+        } else {
+            anonymousTime.recordSince(start);
         }
         filterChain.doFilter(httpServletRequest, httpServletResponse);
     }
+
+    /**
+     * Stateless: an in-memory check that the user still exists, no query. Otherwise the user is loaded. The
+     * principal is the token's either way, so controllers can take the caller's id from it.
+     */
+    private void authenticate(JwtPrincipal principal, HttpServletRequest httpServletRequest) {
+        UsernamePasswordAuthenticationToken authentication;
+        if (stateless) {
+            if (!activeUserService.isActive(principal.getId())) {
+                return;
+            }
+            authentication = new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList());
+        } else {
+            UserDetails userDetails = service.loadUserByUsername(principal.getEmail());
+            authentication = new UsernamePasswordAuthenticationToken(principal, null, userDetails.getAuthorities());
+        }
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(httpServletRequest));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
 }
@@ -0,0 +1,17 @@
+package socialMediaApp.security;
+
+import lombok.Value;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/** The user a verified token was issued to, as carried by its claims; its name is the email. */
+@Value
+public class JwtPrincipal implements AuthenticatedPrincipal {
+    int id;
+    String email;
+    String fullName;
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
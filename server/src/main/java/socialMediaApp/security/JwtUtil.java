@@ -1,44 +1,35 @@
 package socialMediaApp.security;
 
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
-import socialMediaApp.requests.RegisterRequest;
 import socialMediaApp.responses.user.UserJwtResponse;
 
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
+/**
+ * Issues access tokens, valid for {@code app.auth.access-token-ttl-ms} and each with its own {@code jti};
+ * {@link JwtVerifier} checks them and {@link RefreshTokenService} renews them.
+ */
 @Service
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final byte[] signingKey;
+    private final long ttlMillis;
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    public JwtUtil(@Value("${jwt.secret}") String secret, @Value("${app.auth.access-token-ttl-ms:900000}") long ttlMillis) {
+        this.signingKey = signingKey(secret);
+        this.ttlMillis = ttlMillis;
     }
 
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /** The HMAC key behind {@code jwt.secret}, which is Base64 text, decoded once. */
+    static byte[] signingKey(String secret) {
+        return TextCodec.BASE64.decode(secret);
     }
 
     public String generateToken(String username,int userId,String fullName) {
@@ -53,13 +44,9 @@ public class JwtUtil {
 
     private String createToken(Map<String, Object> claims, String subject) {
 
-        return Jwts.builder().setClaims(claims).setSubject(subject).setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10))
-                .signWith(SignatureAlgorithm.HS256, secret).compact();
-    }
-
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        long now = System.currentTimeMillis();
+        return Jwts.builder().setClaims(claims).setId(UUID.randomUUID().toString()).setSubject(subject).setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + ttlMillis))
+                .signWith(SignatureAlgorithm.HS256, signingKey).compact();
     }
 }
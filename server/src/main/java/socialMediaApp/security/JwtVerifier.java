@@ -0,0 +1,102 @@
+package socialMediaApp.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verifies tokens with one parser built at startup: a token's signature and expiry are checked, and its
+ * claims parsed, once. The result is cached under the SHA-256 of the token until the token expires, so
+ * a client sending the same token again costs a hash and a lookup. The cache holds at most
+ * {@code app.auth.token-cache-size} tokens (0 turns it off); when full, expired entries go first and then
+ * an arbitrary eighth of the rest.
+ */
+@Component
+public class JwtVerifier {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final JwtParser parser;
+    private final int cacheSize;
+    /** Keyed by the token's SHA-256, wrapped so that equal digests are equal keys. */
+    private final Map<ByteBuffer, VerifiedToken> cache = new ConcurrentHashMap<>();
+
+    public JwtVerifier(@Value("${jwt.secret}") String secret,
+                       @Value("${app.auth.token-cache-size:10000}") int cacheSize) {
+        this.parser = Jwts.parser().setSigningKey(JwtUtil.signingKey(secret));
+        this.cacheSize = cacheSize;
+    }
+
+    /** The token's claims when its signature is valid and it has not expired, else null. */
+    public VerifiedToken verify(String token) {
+        if (cacheSize == 0) {
+            return parse(token);
+        }
+        long now = System.currentTimeMillis();
+        ByteBuffer key = ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+        VerifiedToken cached = cache.get(key);
+        if (cached != null) {
+            if (cached.getExpiresAt() > now) {
+                return cached;
+            }
+            cache.remove(key);
+            return null;
+        }
+        VerifiedToken verified = parse(token);
+        if (verified != null) {
+            if (cache.size() >= cacheSize) {
+                evict(now);
+            }
+            cache.put(key, verified);
+        }
+        return verified;
+    }
+
+    private VerifiedToken parse(String token) {
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            Map<?, ?> user = claims.get("user", Map.class);
+            if (user == null || !(user.get("id") instanceof Number)) {
+                return null;
+            }
+            Date expiration = claims.getExpiration();
+            return new VerifiedToken(claims.getId(),
+                    new JwtPrincipal(((Number) user.get("id")).intValue(), claims.getSubject(), (String) user.get("fullName")),
+                    expiration == null ? Long.MAX_VALUE : expiration.getTime());
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    int cachedTokens() {
+        return cache.size();
+    }
+
+    private void evict(long now) {
+        cache.values().removeIf(verified -> verified.getExpiresAt() <= now);
+        int excess = cache.size() - cacheSize + cacheSize / 8;
+        Iterator<ByteBuffer> keys = cache.keySet().iterator();
+        while (excess-- > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
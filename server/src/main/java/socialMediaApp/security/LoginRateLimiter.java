@@ -0,0 +1,102 @@
+package socialMediaApp.security;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Token buckets keyed by string: each key may spend {@code burst} attempts at once, refilled at
+ * {@code perMinute}. Buckets are spread over independently locked stripes by key hash, so attempts for
+ * different keys rarely wait on each other. A bucket that has refilled to capacity is the same as no
+ * bucket, and {@link #sweep} drops it.
+ */
+public class LoginRateLimiter {
+
+    private static final int STRIPES = 64;
+
+    private final double burst;
+    private final double tokensPerMilli;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public LoginRateLimiter(int burst, int perMinute) {
+        this.burst = burst;
+        this.tokensPerMilli = perMinute / 60_000.0;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /** Takes a token from {@code key}'s bucket; false when it is empty. */
+    public boolean tryAcquire(String key) {
+        return tryAcquire(key, System.currentTimeMillis());
+    }
+
+    boolean tryAcquire(String key, long now) {
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.computeIfAbsent(key, k -> new Bucket(burst, now));
+            bucket.refill(now);
+            if (bucket.tokens < 1) {
+                return false;
+            }
+            bucket.tokens--;
+            return true;
+        }
+    }
+
+    /** Drops the buckets that have refilled, one stripe at a time. */
+    public void sweep() {
+        sweep(System.currentTimeMillis());
+    }
+
+    void sweep(long now) {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Iterator<Bucket> buckets = stripe.buckets.values().iterator();
+                while (buckets.hasNext()) {
+                    Bucket bucket = buckets.next();
+                    bucket.refill(now);
+                    if (bucket.tokens >= burst) {
+                        buckets.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.buckets.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripe(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static final class Stripe {
+        final Map<String, Bucket> buckets = new HashMap<>();
+    }
+
+    private final class Bucket {
+        double tokens;
+        long refilledAt;
+
+        Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+
+        void refill(long now) {
+            if (now > refilledAt) {
+                tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerMilli);
+                refilledAt = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package socialMediaApp.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.requests.LoginRequest;
+import socialMediaApp.requests.RegisterRequest;
+import socialMediaApp.responses.auth.LoginStatsResponse;
+import socialMediaApp.services.UserService;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Logins and registrations, whose BCrypt hashing runs on its own pool of {@code app.auth.hash-threads}
+ * (half the cores by default) so that a burst of them cannot take every core from the rest of the API.
+ * At most {@code app.auth.hash-queue-size} wait for a thread; past that they are rejected at once
+ * rather than queued behind work their clients will have given up on.
+ * <p>
+ * Attempts are limited per email and per client address with {@link LoginRateLimiter}s. A login reads
+ * the user once and starts the session from that row; an unknown email is still checked against a hash,
+ * so it takes as long to answer as a wrong password.
+ */
+@Service
+public class LoginService {
+
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final PasswordEncoder passwordEncoder;
+    private final RefreshTokenService refreshTokenService;
+    private final ThreadPoolExecutor hasher;
+    private final int queueCapacity;
+    private final LoginRateLimiter emailLimiter;
+    private final LoginRateLimiter addressLimiter;
+    private final String unknownUserHash;
+
+    private final AtomicLong hashes = new AtomicLong();
+    private final AtomicLong totalHashNanos = new AtomicLong();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+
+    public LoginService(UserRepository userRepository, UserService userService, PasswordEncoder passwordEncoder,
+                        RefreshTokenService refreshTokenService,
+                        @Value("${app.auth.hash-threads:0}") int hashThreads,
+                        @Value("${app.auth.hash-queue-size:100}") int queueCapacity,
+                        @Value("${app.auth.email-attempts-burst:5}") int emailBurst,
+                        @Value("${app.auth.email-attempts-per-minute:5}") int emailPerMinute,
+                        @Value("${app.auth.address-attempts-burst:30}") int addressBurst,
+                        @Value("${app.auth.address-attempts-per-minute:60}") int addressPerMinute) {
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.passwordEncoder = passwordEncoder;
+        this.refreshTokenService = refreshTokenService;
+        int threads = hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.hasher = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "login-hasher");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.queueCapacity = queueCapacity;
+        this.emailLimiter = new LoginRateLimiter(emailBurst, emailPerMinute);
+        this.addressLimiter = new LoginRateLimiter(addressBurst, addressPerMinute);
+        this.unknownUserHash = passwordEncoder.encode("unknown-user");
+    }
+
+    @PreDestroy
+    public void close() {
+        hasher.shutdownNow();
+    }
+
+    /** Takes an attempt from both the email's and the address's allowance; false when either is spent. */
+    public boolean tryAcquire(String email, String clientAddress) {
+        // The address goes first: an address over its limit should not use up the emails it tries.
+        if (addressLimiter.tryAcquire(clientAddress) && emailLimiter.tryAcquire(String.valueOf(email).toLowerCase())) {
+            return true;
+        }
+        rateLimited.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * A new session's tokens, or null when the email or password is wrong. Throws {@link RejectedExecutionException}
+     * when the hashing queue is full.
+     */
+    public CompletableFuture<IssuedTokens> login(LoginRequest request) {
+        if (request.getEmail() == null || request.getPassword() == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return submit(() -> {
+            User user = userRepository.findByEmail(request.getEmail());
+            boolean matches = timed(() -> passwordEncoder.matches(request.getPassword(),
+                    user == null ? unknownUserHash : user.getPassword()));
+            if (user == null || !matches) {
+                return null;
+            }
+            return refreshTokenService.issue(user);
+        });
+    }
+
+    /**
+     * The new user's first session, or null when the email is taken. Throws {@link RejectedExecutionException}
+     * when the hashing queue is full.
+     */
+    public CompletableFuture<IssuedTokens> register(RegisterRequest request) {
+        return submit(() -> {
+            if (userRepository.findByEmail(request.getEmail()) != null) {
+                return null;
+            }
+            User user = new User();
+            user.setEmail(request.getEmail());
+            user.setName(request.getName());
+            user.setLastName(request.getLastName());
+            user.setPassword(timed(() -> passwordEncoder.encode(request.getPassword())));
+            userService.save(user);
+            return refreshTokenService.issue(user);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.rate-limit-sweep-ms:60000}")
+    public void sweep() {
+        emailLimiter.sweep();
+        addressLimiter.sweep();
+    }
+
+    public LoginStatsResponse getStats() {
+        long count = hashes.get();
+        return new LoginStatsResponse(hasher.getMaximumPoolSize(), hasher.getQueue().size(), queueCapacity, count,
+                count == 0 ? 0 : totalHashNanos.get() / 1e6 / count, TimeUnit.NANOSECONDS.toMillis(maxHashNanos.get()),
+                rejected.get(), rateLimited.get(), emailLimiter.size() + addressLimiter.size());
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, hasher);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw e;
+        }
+    }
+
+    private <T> T timed(Supplier<T> hash) {
+        long start = System.nanoTime();
+        try {
+            return hash.get();
+        } finally {
+            long nanos = System.nanoTime() - start;
+            hashes.incrementAndGet();
+            totalHashNanos.addAndGet(nanos);
+            maxHashNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package socialMediaApp.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collections;
+
+/**
+ * Lets Prometheus read {@code /api/metrics} with {@code Authorization: Bearer <app.metrics.scrape-token>}
+ * by granting the request {@link #SCRAPE_AUTHORITY}, which no user token carries. With no token
+ * configured nobody can scrape.
+ */
+@Component
+public class MetricsScrapeFilter extends OncePerRequestFilter {
+
+    public static final String SCRAPE_AUTHORITY = "METRICS_SCRAPE";
+
+    @Value("${app.metrics.scrape-token:}")
+    private String scrapeToken;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().equals("/api/metrics");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String authorizationHeader = request.getHeader("Authorization");
+        if (!scrapeToken.isEmpty() && authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && MessageDigest.isEqual(authorizationHeader.substring(7).getBytes(StandardCharsets.UTF_8),
+                scrapeToken.getBytes(StandardCharsets.UTF_8))) {
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("metrics-scraper",
+                    null, Collections.singletonList(new SimpleGrantedAuthority(SCRAPE_AUTHORITY))));
+        }
+        filterChain.doFilter(request, response);
+    }
+}
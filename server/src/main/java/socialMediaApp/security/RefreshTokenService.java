@@ -0,0 +1,145 @@
+package socialMediaApp.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import socialMediaApp.events.DomainEvent;
+import socialMediaApp.events.DomainEventSubscriber;
+import socialMediaApp.events.DomainEventType;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sessions: a short-lived access token plus an opaque refresh token, valid for
+ * {@code app.auth.refresh-token-ttl-ms}, which trades for a new pair once. The tokens of a session form a
+ * family. A refresh token presented a second time means two holders, one of them not the user, so the
+ * whole family is revoked, access tokens included. Only hashes of refresh tokens are stored.
+ */
+@Service
+public class RefreshTokenService implements DomainEventSubscriber {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final ActiveUserService activeUserService;
+    private final JwtUtil jwtUtil;
+    private final JwtVerifier jwtVerifier;
+    private final RevocationService revocationService;
+    private final long ttlMillis;
+
+    public RefreshTokenService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, UserRepository userRepository,
+                               ActiveUserService activeUserService, JwtUtil jwtUtil, JwtVerifier jwtVerifier,
+                               RevocationService revocationService,
+                               @Value("${app.auth.refresh-token-ttl-ms:1209600000}") long ttlMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.userRepository = userRepository;
+        this.activeUserService = activeUserService;
+        this.jwtUtil = jwtUtil;
+        this.jwtVerifier = jwtVerifier;
+        this.revocationService = revocationService;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /** Starts a session for a user who has just proven who they are. */
+    public IssuedTokens issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * The next pair of the refresh token's session; null when the token is unknown, expired or already
+     * used, or its user is gone.
+     */
+    public IssuedTokens rotate(String refreshToken) {
+        String tokenHash = hash(refreshToken);
+        return transactionTemplate.execute(status -> {
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            // Marking the token used is what claims it: of two concurrent refreshes, one updates the row.
+            if (jdbcTemplate.update("UPDATE refresh_tokens SET used_at = ? WHERE token_hash = ? AND used_at IS NULL AND expires_at > ?",
+                    now, tokenHash, now) == 0) {
+                List<String> reused = jdbcTemplate.queryForList(
+                        "SELECT family_id FROM refresh_tokens WHERE token_hash = ? AND used_at IS NOT NULL", String.class, tokenHash);
+                reused.forEach(this::revokeFamily);
+                return null;
+            }
+            Map<String, Object> row = jdbcTemplate.queryForMap("SELECT family_id, user_id FROM refresh_tokens WHERE token_hash = ?", tokenHash);
+            String familyId = (String) row.get("family_id");
+            int userId = ((Number) row.get("user_id")).intValue();
+            User user = activeUserService.isActive(userId) ? userRepository.findById(userId).orElse(null) : null;
+            if (user == null) {
+                revokeFamily(familyId);
+                return null;
+            }
+            return issue(user, familyId);
+        });
+    }
+
+    /** Ends the session of either token; each may be null or invalid. */
+    public void logout(String accessToken, String refreshToken) {
+        VerifiedToken verified = accessToken == null ? null : jwtVerifier.verify(accessToken);
+        if (verified != null) {
+            revocationService.revoke(verified.getId(), verified.getExpiresAt());
+        }
+        if (refreshToken != null) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.queryForList(
+                    "SELECT family_id FROM refresh_tokens WHERE token_hash = ?", String.class, hash(refreshToken))
+                    .forEach(this::revokeFamily));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.refresh-token-purge-ms:3600000}")
+    public void purgeExpired() {
+        jdbcTemplate.update("DELETE FROM refresh_tokens WHERE expires_at <= ?", new Timestamp(System.currentTimeMillis()));
+    }
+
+    @Override
+    public void onEvent(DomainEvent event) {
+        if (event.getType() == DomainEventType.USER_DELETED) {
+            jdbcTemplate.update("DELETE FROM refresh_tokens WHERE user_id = ?", event.getAggregateId());
+        }
+    }
+
+    private IssuedTokens issue(User user, String familyId) {
+        String accessToken = jwtUtil.generateToken(user.getEmail(), user.getId(), user.getName() + " " + user.getLastName());
+        VerifiedToken access = jwtVerifier.verify(accessToken);
+        byte[] secret = new byte[32];
+        RANDOM.nextBytes(secret);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        jdbcTemplate.update("INSERT INTO refresh_tokens (token_hash, family_id, user_id, expires_at, access_token_id, access_expires_at)"
+                        + " VALUES (?, ?, ?, ?, ?, ?)", hash(refreshToken), familyId, user.getId(), new Timestamp(expiresAt),
+                access.getId(), new Timestamp(access.getExpiresAt()));
+        return new IssuedTokens(accessToken, refreshToken, expiresAt);
+    }
+
+    private void revokeFamily(String familyId) {
+        jdbcTemplate.query("SELECT access_token_id, access_expires_at FROM refresh_tokens WHERE family_id = ? AND access_expires_at > ?",
+                (RowCallbackHandler) resultSet -> revocationService.revoke(resultSet.getString("access_token_id"),
+                        resultSet.getTimestamp("access_expires_at").getTime()), familyId, new Timestamp(System.currentTimeMillis()));
+        jdbcTemplate.update("DELETE FROM refresh_tokens WHERE family_id = ?", familyId);
+    }
+
+    private static String hash(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package socialMediaApp.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import socialMediaApp.utils.BloomFilter;
+
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Access tokens revoked before their expiry, answered from memory so that authenticating a request needs
+ * no query. Revocations are kept in Bloom filters bucketed by the token's expiry, one bucket per
+ * {@code app.auth.access-token-ttl-ms}: a token is looked up in the one bucket its expiry falls in, and
+ * a bucket is dropped whole once every token in it has expired. Only when the filter answers "maybe"
+ * is the table asked, and the answer is remembered in the bucket.
+ * <p>
+ * The filters are loaded from the table at startup and follow it every {@code app.auth.revocation-refresh-ms},
+ * which picks up revocations made by other instances; those made here take effect at once.
+ */
+@Service
+public class RevocationService {
+
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+    /** Re-read this far behind the newest revocation seen, for rows committed out of order. */
+    private static final long REFRESH_OVERLAP_MILLIS = 30_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long bucketMillis;
+    private final int revocationsPerBucket;
+
+    private final Map<Long, Bucket> buckets = new ConcurrentHashMap<>();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile boolean ready;
+    private Timestamp newestSeen = new Timestamp(0);
+
+    public RevocationService(JdbcTemplate jdbcTemplate,
+                             @Value("${app.auth.access-token-ttl-ms:900000}") long bucketMillis,
+                             @Value("${app.auth.revocations-per-bucket:100000}") int revocationsPerBucket) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bucketMillis = bucketMillis;
+        this.revocationsPerBucket = revocationsPerBucket;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.auth.revocation-refresh-ms:5000}",
+            fixedDelayString = "${app.auth.revocation-refresh-ms:5000}")
+    public void refresh() {
+        // A lock rather than synchronized: a virtual thread blocked on the query inside a monitor pins its carrier.
+        refreshLock.lock();
+        try {
+            refreshLocked();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void refreshLocked() {
+        long now = System.currentTimeMillis();
+        Timestamp since = new Timestamp(newestSeen.getTime() - REFRESH_OVERLAP_MILLIS);
+        jdbcTemplate.query("SELECT token_id, expires_at, revoked_at FROM revoked_tokens WHERE revoked_at > ? AND expires_at > ?",
+                resultSet -> {
+                    add(resultSet.getString("token_id"), resultSet.getTimestamp("expires_at").getTime());
+                    Timestamp revokedAt = resultSet.getTimestamp("revoked_at");
+                    if (revokedAt.after(newestSeen)) {
+                        newestSeen = revokedAt;
+                    }
+                }, since, new Timestamp(now));
+        buckets.keySet().removeIf(bucket -> (bucket + 1) * bucketMillis <= now);
+        jdbcTemplate.update("DELETE FROM revoked_tokens WHERE expires_at <= ?", new Timestamp(now));
+        ready = true;
+    }
+
+    /** Rejects the token with this {@code jti} until {@code expiresAt}, on every instance. */
+    public void revoke(String tokenId, long expiresAt) {
+        if (tokenId == null || expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO revoked_tokens (token_id, expires_at) VALUES (?, ?)", tokenId, new Timestamp(expiresAt));
+        } catch (DuplicateKeyException e) {
+            // Already revoked.
+        }
+        add(tokenId, expiresAt);
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        String tokenId = token.getId();
+        if (tokenId == null) {
+            return false;
+        }
+        Bucket bucket = buckets.get(token.getExpiresAt() / bucketMillis);
+        if (ready && (bucket == null || !bucket.filter.mightContain(tokenId))) {
+            return false;
+        }
+        Boolean known = bucket == null ? null : bucket.checked.get(tokenId);
+        if (known != null) {
+            return known;
+        }
+        boolean revoked = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM revoked_tokens WHERE token_id = ?", Integer.class, tokenId) > 0;
+        if (bucket != null) {
+            // A revocation landing meanwhile has already stored true, which must not be overwritten.
+            bucket.checked.putIfAbsent(tokenId, revoked);
+        }
+        return revoked;
+    }
+
+    private void add(String tokenId, long expiresAt) {
+        Bucket bucket = buckets.computeIfAbsent(expiresAt / bucketMillis, index -> new Bucket(revocationsPerBucket));
+        bucket.filter.add(tokenId);
+        bucket.checked.put(tokenId, true);
+    }
+
+    private static final class Bucket {
+        final BloomFilter filter;
+        /** Table answers for ids the filter could not rule out. */
+        final Map<String, Boolean> checked = new ConcurrentHashMap<>();
+
+        Bucket(int expectedInsertions) {
+            this.filter = new BloomFilter(expectedInsertions, FALSE_POSITIVE_RATE);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package socialMediaApp.security;
+
+import lombok.Value;
+
+/** What a token says once its signature has been checked; shared between requests by {@link JwtVerifier}. */
+@Value
+public class VerifiedToken {
+    /** The token's {@code jti}, which {@link RevocationService} tracks; null on tokens issued without one. */
+    String id;
+    JwtPrincipal principal;
+    /** Epoch millis after which the token is rejected. */
+    long expiresAt;
+}
@@ -0,0 +1,311 @@
+package socialMediaApp.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import socialMediaApp.events.DomainEventType;
+import socialMediaApp.repositories.PostRepository;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.requests.CommentAddRequest;
+import socialMediaApp.requests.FollowRequest;
+import socialMediaApp.requests.LikeRequest;
+import socialMediaApp.responses.ingest.BulkIngestResponse;
+import socialMediaApp.utils.IdBatches;
+import socialMediaApp.utils.IntBitmap;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Writes likes, comments and follows in bulk, for imports, migrations and load tests. Rows are read
+ * lazily and written {@code app.ingest.batch-size} at a time: the users and posts a batch refers to are
+ * checked with one IN query each (ids already seen are remembered for the rest of the run), and the
+ * valid rows go out as a single JDBC batch in their own transaction.
+ * <p>
+ * Ids stay database-generated: the rows are plain batched INSERTs, which need no ids up front, and the
+ * like and follow inserts skip existing pairs the same way the single-row endpoints do. Each batch hands
+ * back, as generated keys, the new comments' ids and the like and follow pairs it actually wrote, so the
+ * in-memory indexes are updated after it with exactly those rows, whatever other writers do meanwhile. The
+ * batch holds its pairs' stripes of {@link LikeService} or {@link FollowService} from the insert until the
+ * index has the rows, so a concurrent unlike or unfollow of the same pair reaches the index in commit order.
+ * Those rows are also written to the outbox in the batch's transaction, as the single-row endpoints do.
+ * New follows reach suggestions on their next scheduled refresh, and nothing is pushed to connected
+ * clients.
+ */
+@Service
+public class BulkIngestService {
+
+    private static final String INSERT_LIKE =
+            "INSERT INTO likes (user_id, post_id, created_at) VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+    private static final String INSERT_FOLLOW =
+            "INSERT INTO follows (user_id, user_following_id) VALUES (?, ?) ON CONFLICT DO NOTHING";
+    private static final String INSERT_COMMENT =
+            "INSERT INTO comments (description, created_at, post_id, user_id) VALUES (?, CURRENT_TIMESTAMP, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final LikeIndexService likeIndexService;
+    private final LikeService likeService;
+    private final FollowGraphService followGraphService;
+    private final FollowService followService;
+    private final TrendingService trendingService;
+    private final SearchService searchService;
+    private final TypeaheadService typeaheadService;
+    private final VersionService versionService;
+    private final OutboxService outboxService;
+    private final int batchSize;
+
+    public BulkIngestService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             UserRepository userRepository, PostRepository postRepository,
+                             LikeIndexService likeIndexService, LikeService likeService,
+                             FollowGraphService followGraphService, FollowService followService,
+                             TrendingService trendingService,
+                             SearchService searchService, TypeaheadService typeaheadService,
+                             VersionService versionService, OutboxService outboxService,
+                             @Value("${app.ingest.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.userRepository = userRepository;
+        this.postRepository = postRepository;
+        this.likeIndexService = likeIndexService;
+        this.likeService = likeService;
+        this.followGraphService = followGraphService;
+        this.followService = followService;
+        this.trendingService = trendingService;
+        this.searchService = searchService;
+        this.typeaheadService = typeaheadService;
+        this.versionService = versionService;
+        this.outboxService = outboxService;
+        this.batchSize = batchSize;
+    }
+
+    public BulkIngestResponse ingestLikes(Iterator<LikeRequest> rows) {
+        Run run = new Run();
+        return run.ingest(rows, batch -> {
+            run.resolveUsers(batch, LikeRequest::getUserId);
+            run.resolvePosts(batch, LikeRequest::getPostId);
+            Set<Long> seen = new HashSet<>();
+            List<LikeRequest> valid = new ArrayList<>(batch.size());
+            for (LikeRequest like : batch) {
+                if (!run.users.contains(like.getUserId()) || !run.posts.contains(like.getPostId())) {
+                    run.rejected++;
+                } else if (!seen.add(pair(like.getUserId(), like.getPostId()))
+                        || likeIndexService.isReady() && likeIndexService.isLiked(like.getUserId(), like.getPostId())) {
+                    run.duplicates++;
+                } else {
+                    valid.add(like);
+                }
+            }
+            // One time for the batch, stored and given to trending alike, so an unlike takes back what was added.
+            Instant likedAt = Instant.now();
+            List<int[]> inserted = likeService.withStripes(valid, () -> {
+                List<int[]> written = transactionTemplate.execute(status -> {
+                    List<int[]> rowsWritten = insert(INSERT_LIKE, valid,
+                            like -> new Object[]{like.getUserId(), like.getPostId(), Timestamp.from(likedAt)}, "user_id", "post_id");
+                    publish(DomainEventType.LIKE_ADDED, rowsWritten, like -> like[1],
+                            like -> Map.of("userId", like[0], "postId", like[1]));
+                    return rowsWritten;
+                });
+                for (int[] like : written) {
+                    likeIndexService.add(like[0], like[1]);
+                }
+                return written;
+            });
+            run.inserted += inserted.size();
+            run.duplicates += valid.size() - inserted.size();
+            for (int[] like : inserted) {
+                trendingService.onLiked(like[1], likedAt);
+                versionService.likesChanged(like[1]);
+            }
+        });
+    }
+
+    public BulkIngestResponse ingestFollows(Iterator<FollowRequest> rows) {
+        Run run = new Run();
+        return run.ingest(rows, batch -> {
+            run.resolveUsers(batch, FollowRequest::getUserId);
+            run.resolveUsers(batch, FollowRequest::getFollowingId);
+            Set<Long> seen = new HashSet<>();
+            List<FollowRequest> valid = new ArrayList<>(batch.size());
+            for (FollowRequest follow : batch) {
+                if (follow.getUserId() == follow.getFollowingId()
+                        || !run.users.contains(follow.getUserId()) || !run.users.contains(follow.getFollowingId())) {
+                    run.rejected++;
+                } else if (!seen.add(pair(follow.getUserId(), follow.getFollowingId()))
+                        || followGraphService.isReady() && followGraphService.isFollowing(follow.getUserId(), follow.getFollowingId())) {
+                    run.duplicates++;
+                } else {
+                    valid.add(follow);
+                }
+            }
+            List<int[]> inserted = followService.withStripes(valid, () -> {
+                List<int[]> written = transactionTemplate.execute(status -> {
+                    List<int[]> rowsWritten = insert(INSERT_FOLLOW, valid,
+                            follow -> new Object[]{follow.getUserId(), follow.getFollowingId()}, "user_id", "user_following_id");
+                    publish(DomainEventType.FOLLOW_ADDED, rowsWritten, follow -> follow[0],
+                            follow -> Map.of("userId", follow[0], "followingId", follow[1]));
+                    return rowsWritten;
+                });
+                for (int[] follow : written) {
+                    followGraphService.follow(follow[0], follow[1]);
+                }
+                return written;
+            });
+            run.inserted += inserted.size();
+            run.duplicates += valid.size() - inserted.size();
+            Set<Integer> followed = new HashSet<>();
+            for (int[] follow : inserted) {
+                versionService.followChanged(follow[0], follow[1]);
+                followed.add(follow[1]);
+            }
+            if (followGraphService.isReady()) {
+                for (int userId : followed) {
+                    typeaheadService.onFollowerCountChanged(userId, followGraphService.countFollowers(userId));
+                }
+            }
+        });
+    }
+
+    public BulkIngestResponse ingestComments(Iterator<CommentAddRequest> rows) {
+        Run run = new Run();
+        return run.ingest(rows, batch -> {
+            run.resolveUsers(batch, CommentAddRequest::getUserId);
+            run.resolvePosts(batch, CommentAddRequest::getPostId);
+            List<CommentAddRequest> valid = new ArrayList<>(batch.size());
+            for (CommentAddRequest comment : batch) {
+                if (comment.getDescription() == null
+                        || !run.users.contains(comment.getUserId()) || !run.posts.contains(comment.getPostId())) {
+                    run.rejected++;
+                } else {
+                    valid.add(comment);
+                }
+            }
+            // Every row is written, so the ids come back in the order of the rows.
+            List<int[]> ids = transactionTemplate.execute(status -> {
+                List<int[]> written = insert(INSERT_COMMENT, valid,
+                        comment -> new Object[]{comment.getDescription(), comment.getPostId(), comment.getUserId()},
+                        "id", "post_id");
+                publish(DomainEventType.COMMENT_ADDED, written, comment -> comment[1],
+                        comment -> Map.of("commentId", comment[0], "postId", comment[1]));
+                return written;
+            });
+            run.inserted += ids.size();
+            for (int i = 0; i < ids.size(); i++) {
+                CommentAddRequest comment = valid.get(i);
+                searchService.indexComment(ids.get(i)[0], comment.getDescription());
+                trendingService.onCommented(comment.getPostId());
+                versionService.commentsChanged(comment.getPostId());
+            }
+        });
+    }
+
+    /**
+     * Runs one JDBC batch and returns {@code columns} of each row it wrote, in order, read back as
+     * generated keys; rows the insert skipped have none.
+     */
+    private <T> List<int[]> insert(String sql, List<T> rows, Function<T, Object[]> toArgs, String... columns) {
+        if (rows.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.execute(
+                (PreparedStatementCreator) connection -> connection.prepareStatement(sql, columns),
+                statement -> {
+                    for (T row : rows) {
+                        new ArgumentPreparedStatementSetter(toArgs.apply(row)).setValues(statement);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    List<int[]> written = new ArrayList<>(rows.size());
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        while (keys.next()) {
+                            int[] key = new int[columns.length];
+                            for (int i = 0; i < key.length; i++) {
+                                key[i] = keys.getInt(i + 1);
+                            }
+                            written.add(key);
+                        }
+                    }
+                    return written;
+                });
+    }
+
+    /** Writes a {@code type} event for each written row, with the payload the single-row endpoints use. */
+    private void publish(DomainEventType type, List<int[]> written, ToIntFunction<int[]> aggregateId,
+                         Function<int[], Map<String, Object>> payload) {
+        List<Integer> aggregateIds = new ArrayList<>(written.size());
+        List<Map<String, Object>> payloads = new ArrayList<>(written.size());
+        for (int[] row : written) {
+            aggregateIds.add(aggregateId.applyAsInt(row));
+            payloads.add(payload.apply(row));
+        }
+        outboxService.publishAll(type, aggregateIds, payloads);
+    }
+
+    private static long pair(int first, int second) {
+        return (long) first << 32 | (second & 0xffffffffL);
+    }
+
+    /** Counters and known ids of one ingestion. */
+    private final class Run {
+        private final IntBitmap users = new IntBitmap();
+        private final IntBitmap posts = new IntBitmap();
+        private long received;
+        private long inserted;
+        private long rejected;
+        private long duplicates;
+
+        <T> BulkIngestResponse ingest(Iterator<T> rows, Consumer<List<T>> writer) {
+            long start = System.nanoTime();
+            List<T> batch = new ArrayList<>(batchSize);
+            while (rows.hasNext()) {
+                batch.add(rows.next());
+                received++;
+                if (batch.size() == batchSize) {
+                    writer.accept(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                writer.accept(batch);
+            }
+            long elapsedNanos = Math.max(1, System.nanoTime() - start);
+            return new BulkIngestResponse(received, inserted, rejected, duplicates,
+                    elapsedNanos / 1_000_000, inserted * 1e9 / elapsedNanos);
+        }
+
+        <T> void resolveUsers(List<T> batch, Function<T, Integer> userId) {
+            resolve(batch, userId, users, userRepository::findExistingIds);
+        }
+
+        <T> void resolvePosts(List<T> batch, Function<T, Integer> postId) {
+            resolve(batch, postId, posts, postRepository::findExistingIds);
+        }
+
+        /** Adds the ids of {@code batch} that exist in the database to {@code known}, querying only unseen ones. */
+        private <T> void resolve(List<T> batch, Function<T, Integer> id, IntBitmap known,
+                                 Function<List<Integer>, List<Integer>> findExisting) {
+            Set<Integer> unseen = new HashSet<>();
+            for (T row : batch) {
+                int value = id.apply(row);
+                if (value >= 0 && !known.contains(value)) {
+                    unseen.add(value);
+                }
+            }
+            if (!unseen.isEmpty()) {
+                for (int existing : IdBatches.query(unseen, findExisting)) {
+                    known.add(existing);
+                }
+            }
+        }
+    }
+}
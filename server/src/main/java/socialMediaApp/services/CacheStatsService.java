@@ -0,0 +1,49 @@
+package socialMediaApp.services;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+import socialMediaApp.responses.cache.CacheRegionStatsResponse;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/** Hit rates of the Hibernate second-level cache regions, counted since startup. */
+@Service
+public class CacheStatsService {
+
+    private static final String NATURAL_ID_SUFFIX = "##NaturalId";
+
+    private final Statistics statistics;
+
+    public CacheStatsService(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public List<CacheRegionStatsResponse> getRegionStats() {
+        // Natural-id regions are not listed with the entity regions, so each entity region brings its own.
+        Set<String> regions = new TreeSet<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            regions.add(region);
+            regions.add(region + NATURAL_ID_SUFFIX);
+        }
+        List<CacheRegionStatsResponse> responses = new ArrayList<>(regions.size());
+        for (String region : regions) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics == null) {
+                continue;
+            }
+            long hits = regionStatistics.getHitCount();
+            long lookups = hits + regionStatistics.getMissCount();
+            long entries = regionStatistics.getElementCountInMemory();
+            responses.add(new CacheRegionStatsResponse(region, hits, regionStatistics.getMissCount(),
+                    regionStatistics.getPutCount(), lookups == 0 ? 0 : (double) hits / lookups,
+                    entries < 0 ? null : entries));
+        }
+        return responses;
+    }
+}
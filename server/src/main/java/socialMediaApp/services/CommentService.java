@@ -1,45 +1,81 @@
 package socialMediaApp.services;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import socialMediaApp.events.DomainEventType;
 import socialMediaApp.mappers.CommentMapper;
 import socialMediaApp.models.Comment;
 import socialMediaApp.repositories.CommentRepository;
 import socialMediaApp.requests.CommentAddRequest;
 import socialMediaApp.requests.CommentUpdateRequest;
 import socialMediaApp.responses.comment.CommentGetResponse;
+import socialMediaApp.utils.EntityStreams;
 
+import javax.persistence.EntityManager;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 public class CommentService {
     private final CommentRepository commentRepository;
     private final CommentMapper commentMapper;
+    private final TrendingService trendingService;
+    private final SearchService searchService;
+    private final PushService pushService;
+    private final VersionService versionService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
 
-    public CommentService(CommentRepository commentRepository, CommentMapper commentMapper) {
+    public CommentService(CommentRepository commentRepository, CommentMapper commentMapper, TrendingService trendingService,
+                          SearchService searchService, PushService pushService, VersionService versionService,
+                          OutboxService outboxService, TransactionTemplate transactionTemplate,
+                          EntityManager entityManager) {
         this.commentRepository = commentRepository;
         this.commentMapper = commentMapper;
+        this.trendingService = trendingService;
+        this.searchService = searchService;
+        this.pushService = pushService;
+        this.versionService = versionService;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
     }
 
     public void add(CommentAddRequest commentAddRequest){
         Comment comment = commentMapper.addRequestToComment(commentAddRequest);
-        commentRepository.save(comment);
+        transactionTemplate.executeWithoutResult(status -> {
+            commentRepository.save(comment);
+            publish(DomainEventType.COMMENT_ADDED, comment.getId(), commentAddRequest.getPostId());
+        });
+        versionService.commentsChanged(commentAddRequest.getPostId());
+        trendingService.onCommented(commentAddRequest.getPostId());
+        searchService.indexComment(comment.getId(), comment.getDescription());
+        pushService.onCommentAdded(commentAddRequest.getPostId(), comment.getId(), commentAddRequest.getUserId());
     }
 
-    public List<CommentGetResponse> getAll(){
-        List<Comment> comments = commentRepository.findAll();
-        return commentMapper.commentsToResponses(comments);
+    /** Maps every comment, one row at a time, into {@code sink}. */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<CommentGetResponse> sink){
+        EntityStreams.forEach(entityManager, commentRepository.streamAll(),
+                comment -> sink.accept(commentMapper.commentToResponse(comment)));
     }
 
+    @Transactional(readOnly = true)
     public CommentGetResponse getById(int id){
         Comment comment = commentRepository.findById(id).orElse(null);
         return  commentMapper.commentToResponse(comment);
     }
 
+    @Transactional(readOnly = true)
     public List<CommentGetResponse> getAllByPost(int postId){
         List<Comment> comments = commentRepository.findAllByPost_Id(postId);
         return commentMapper.commentsToResponses(comments);
     }
 
+    @Transactional(readOnly = true)
     public List<CommentGetResponse> getAllByUser(int userId){
         List<Comment> comments = commentRepository.findAllByUser_Id(userId);
         return commentMapper.commentsToResponses(comments);
@@ -48,10 +84,29 @@ public class CommentService {
         Comment commentToUpdate = commentRepository.findById(id).orElse(null);
         if (commentToUpdate!=null){
             commentToUpdate.setDescription(commentUpdateRequest.getDescription());
+            transactionTemplate.executeWithoutResult(status -> {
+                commentRepository.save(commentToUpdate);
+                publish(DomainEventType.COMMENT_UPDATED, id, commentToUpdate.getPost().getId());
+            });
+            versionService.commentsChanged(commentToUpdate.getPost().getId());
+            searchService.indexComment(id, commentToUpdate.getDescription());
         }
     }
 
     public void delete(int id){
-        commentRepository.deleteById(id);
+        Comment comment = commentRepository.findById(id).orElse(null);
+        if (comment == null){
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            commentRepository.delete(comment);
+            publish(DomainEventType.COMMENT_DELETED, id, comment.getPost().getId());
+        });
+        versionService.commentsChanged(comment.getPost().getId());
+        searchService.removeComment(id);
+    }
+
+    private void publish(DomainEventType type, int commentId, int postId){
+        outboxService.publish(type, postId, Map.of("commentId", commentId, "postId", postId));
     }
 }
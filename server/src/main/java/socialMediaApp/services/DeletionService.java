@@ -0,0 +1,254 @@
+package socialMediaApp.services;
+
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import socialMediaApp.events.DomainEventType;
+import socialMediaApp.models.Post;
+import socialMediaApp.models.User;
+import socialMediaApp.responses.deletion.PurgeJobResponse;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes users and posts in two steps. The row is first marked with {@code deleted_at}, which hides it
+ * from every entity query (the {@code @Where} on {@link User} and {@link Post}). Its comments, likes,
+ * images and follows are then purged on a background thread, then the row itself. Each purge statement
+ * removes at most {@code app.purge.batch-size} rows and runs in its own transaction, so no lock is held
+ * for long.
+ * <p>
+ * Marks are the source of truth: a periodic sweep re-queues marked rows whose purge failed or was cut
+ * short by a restart. Deleting a user marks their posts too, and the user's purge removes them.
+ */
+@Service
+public class DeletionService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeletionService.class);
+    private static final int MAX_JOBS_KEPT = 1000;
+    private static final String OF_USERS_POSTS = "post_id IN (SELECT id FROM posts WHERE user_id = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final OutboxService outboxService;
+    private final int batchSize;
+
+    private final ExecutorService purger = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "purger");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong jobIds = new AtomicLong();
+    private final Map<Long, PurgeJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, PurgeJob> eldest) {
+            return size() > MAX_JOBS_KEPT;
+        }
+    };
+    /** Targets with a queued or running job, so sweeps and repeated deletes do not queue them twice. */
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public DeletionService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                           EntityManagerFactory entityManagerFactory, OutboxService outboxService,
+                           @Value("${app.purge.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.outboxService = outboxService;
+        this.batchSize = batchSize;
+    }
+
+    /** Hides the post and queues its purge; returns false when there was no visible post to delete. */
+    public boolean deletePost(int postId) {
+        boolean marked = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update("UPDATE posts SET deleted_at = CURRENT_TIMESTAMP WHERE id = ? AND deleted_at IS NULL", postId) == 0) {
+                return false;
+            }
+            outboxService.publish(DomainEventType.POST_DELETED, postId, Map.of("postId", postId));
+            return true;
+        }));
+        entityManagerFactory.getCache().evict(Post.class, postId);
+        if (!marked) {
+            return false;
+        }
+        enqueue(Target.POST, postId);
+        return true;
+    }
+
+    /** Hides the user and their posts and queues the purge; returns false when there was no visible user. */
+    public boolean deleteUser(int userId) {
+        List<Integer> postIds = transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update("UPDATE users SET deleted_at = CURRENT_TIMESTAMP WHERE id = ? AND deleted_at IS NULL", userId) == 0) {
+                return null;
+            }
+            List<Integer> ids = jdbcTemplate.queryForList("SELECT id FROM posts WHERE user_id = ? AND deleted_at IS NULL", Integer.class, userId);
+            jdbcTemplate.update("UPDATE posts SET deleted_at = CURRENT_TIMESTAMP WHERE user_id = ? AND deleted_at IS NULL", userId);
+            for (int postId : ids) {
+                outboxService.publish(DomainEventType.POST_DELETED, postId, Map.of("postId", postId));
+            }
+            outboxService.publish(DomainEventType.USER_DELETED, userId, Map.of("userId", userId));
+            return ids;
+        });
+        // Evicted after commit: the next load goes to the database, where the @Where hides the rows.
+        entityManagerFactory.getCache().evict(User.class, userId);
+        if (postIds == null) {
+            return false;
+        }
+        for (int postId : postIds) {
+            entityManagerFactory.getCache().evict(Post.class, postId);
+        }
+        enqueue(Target.USER, userId);
+        return true;
+    }
+
+    public List<PurgeJobResponse> getJobs() {
+        List<PurgeJobResponse> responses = new ArrayList<>();
+        synchronized (jobs) {
+            for (PurgeJob job : jobs.values()) {
+                responses.add(job.toResponse());
+            }
+        }
+        Collections.reverse(responses);
+        return responses;
+    }
+
+    public PurgeJobResponse getJob(long id) {
+        synchronized (jobs) {
+            PurgeJob job = jobs.get(id);
+            return job == null ? null : job.toResponse();
+        }
+    }
+
+    /** Queues a purge for every marked row without one; posts of marked users are left to the user's purge. */
+    @Scheduled(fixedDelayString = "${app.purge.sweep-interval-ms:60000}")
+    public void sweep() {
+        for (int userId : jdbcTemplate.queryForList("SELECT id FROM users WHERE deleted_at IS NOT NULL", Integer.class)) {
+            enqueue(Target.USER, userId);
+        }
+        for (int postId : jdbcTemplate.queryForList("SELECT p.id FROM posts p JOIN users u ON u.id = p.user_id"
+                + " WHERE p.deleted_at IS NOT NULL AND u.deleted_at IS NULL", Integer.class)) {
+            enqueue(Target.POST, postId);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        purger.shutdownNow();
+    }
+
+    private void enqueue(Target target, int targetId) {
+        if (!pending.add(target.key(targetId))) {
+            return;
+        }
+        PurgeJob job = new PurgeJob(jobIds.incrementAndGet(), target, targetId);
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+        }
+        purger.execute(() -> run(job));
+    }
+
+    private void run(PurgeJob job) {
+        job.state = "RUNNING";
+        try {
+            if (job.target == Target.POST) {
+                purgePost(job);
+            } else {
+                purgeUser(job);
+            }
+            job.state = "DONE";
+        } catch (RuntimeException e) {
+            log.warn("Purge of {} {} failed; the next sweep retries it", job.target.name, job.targetId, e);
+            job.error = e.getMessage();
+            job.state = "FAILED";
+        } finally {
+            job.finishedAt = Instant.now();
+            pending.remove(job.target.key(job.targetId));
+        }
+    }
+
+    private void purgePost(PurgeJob job) {
+        int postId = job.targetId;
+        purge(job, "comments", "post_id = ?", postId);
+        purge(job, "likes", "post_id = ?", postId);
+        purge(job, "post_image", "post_id = ?", postId);
+        purge(job, "posts", "id = ? AND deleted_at IS NOT NULL", postId);
+    }
+
+    private void purgeUser(PurgeJob job) {
+        int userId = job.targetId;
+        purge(job, "comments", OF_USERS_POSTS, userId);
+        purge(job, "likes", OF_USERS_POSTS, userId);
+        purge(job, "post_image", OF_USERS_POSTS, userId);
+        purge(job, "posts", "user_id = ?", userId);
+        purge(job, "comments", "user_id = ?", userId);
+        purge(job, "likes", "user_id = ?", userId);
+        purge(job, "follows", "user_id = ?", userId);
+        purge(job, "follows", "user_following_id = ?", userId);
+        purge(job, "user_images", "user_id = ?", userId);
+        purge(job, "users", "id = ? AND deleted_at IS NOT NULL", userId);
+        // The email is free again: drop the cached email-to-id mapping so it resolves to whoever takes it next.
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictNaturalIdData(User.class);
+    }
+
+    /** Deletes the rows of {@code table} matching {@code condition}, at most one batch per statement. */
+    private void purge(PurgeJob job, String table, String condition, int id) {
+        String sql = "DELETE FROM " + table + " WHERE id IN (SELECT id FROM " + table + " WHERE " + condition + " LIMIT ?)";
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> jdbcTemplate.update(sql, id, batchSize));
+            job.deleted(table, deleted);
+        } while (deleted == batchSize);
+    }
+
+    private enum Target {
+        USER("user"), POST("post");
+
+        private final String name;
+
+        Target(String name) {
+            this.name = name;
+        }
+
+        String key(int id) {
+            return name + ":" + id;
+        }
+    }
+
+    private static final class PurgeJob {
+        private final long id;
+        private final Target target;
+        private final int targetId;
+        private final Instant queuedAt = Instant.now();
+        private final Map<String, Long> deletedRows = new LinkedHashMap<>();
+        private volatile String state = "QUEUED";
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        PurgeJob(long id, Target target, int targetId) {
+            this.id = id;
+            this.target = target;
+            this.targetId = targetId;
+        }
+
+        synchronized void deleted(String table, int rows) {
+            deletedRows.merge(table, (long) rows, Long::sum);
+        }
+
+        synchronized PurgeJobResponse toResponse() {
+            return new PurgeJobResponse(id, target.name, targetId, state, queuedAt, finishedAt,
+                    new LinkedHashMap<>(deletedRows), error);
+        }
+    }
+}
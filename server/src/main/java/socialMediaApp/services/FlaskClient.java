@@ -0,0 +1,134 @@
+package socialMediaApp.services;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import socialMediaApp.metrics.MetricsRegistry;
+import socialMediaApp.utils.VirtualThreads;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Non-blocking client for the Flask detection service at {@code app.flask.base-url}. Requests go out
+ * on the JDK's asynchronous HTTP client, so no thread waits while Flask runs its models; the returned
+ * futures complete on the client's threads, virtual ones with {@code app.threads.virtual}, and the rest
+ * of the upload pipeline (compression, the insert) runs there. Uploaded files are streamed into the
+ * multipart body from the request's part rather than copied into memory first. Each exchange is timed
+ * into {@code flask_request_seconds} by endpoint and outcome.
+ */
+@Service
+public class FlaskClient {
+
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final URI baseUrl;
+    private final Duration timeout;
+    private final HttpClient httpClient;
+    private final MetricsRegistry metricsRegistry;
+
+    public FlaskClient(ObjectMapper objectMapper,
+                       @Value("${app.flask.base-url:http://localhost:5000}") String baseUrl,
+                       @Value("${app.flask.timeout-ms:60000}") long timeoutMillis,
+                       @Value("${app.threads.virtual:false}") boolean virtualThreads,
+                       MetricsRegistry metricsRegistry) {
+        this.objectMapper = objectMapper;
+        this.metricsRegistry = metricsRegistry;
+        this.baseUrl = URI.create(baseUrl.endsWith("/") ? baseUrl : baseUrl + "/");
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5));
+        if (virtualThreads && VirtualThreads.isSupported()) {
+            builder.executor(VirtualThreads.newPerTaskExecutor("flask-"));
+        }
+        this.httpClient = builder.build();
+    }
+
+    /** Flask's steganography and AI-generation verdicts on the image, as it sent them. */
+    public CompletableFuture<Map<String, Object>> detect(MultipartFile file) {
+        return postMultipart("upload", file, Map.of());
+    }
+
+    /** The image with {@code signature} hidden in it by Flask, downloaded from where Flask left it. */
+    public CompletableFuture<byte[]> addSignature(MultipartFile file, String signature) {
+        return postMultipart("add_steganography", file, Map.of("signature", signature)).thenCompose(response -> {
+            if (!(response.get("image_url") instanceof String)) {
+                throw new CompletionException(new IOException("Flask Steganography API failed to return a valid image URL."));
+            }
+            HttpRequest request = HttpRequest.newBuilder(baseUrl.resolve((String) response.get("image_url")))
+                    .timeout(timeout).GET().build();
+            return send("download", request)
+                    .thenApply(download -> {
+                        if (download.statusCode() != 200) {
+                            throw new CompletionException(new IOException(
+                                    "Failed to download image from Flask. Status: " + download.statusCode()));
+                        }
+                        return download.body();
+                    });
+        });
+    }
+
+    private CompletableFuture<Map<String, Object>> postMultipart(String path, MultipartFile file, Map<String, String> fields) {
+        String boundary = UUID.randomUUID().toString();
+        StringBuilder head = new StringBuilder();
+        fields.forEach((name, value) -> head.append("--").append(boundary).append("\r\n")
+                .append("Content-Disposition: form-data; name=\"").append(name).append("\"\r\n\r\n")
+                .append(value).append("\r\n"));
+        head.append("--").append(boundary).append("\r\n")
+                .append("Content-Disposition: form-data; name=\"file\"; filename=\"")
+                .append(file.getOriginalFilename() == null ? "file" : file.getOriginalFilename().replace("\"", "")).append("\"\r\n")
+                .append("Content-Type: application/octet-stream\r\n\r\n");
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.concat(
+                HttpRequest.BodyPublishers.ofString(head.toString(), StandardCharsets.UTF_8),
+                HttpRequest.BodyPublishers.ofInputStream(() -> {
+                    try {
+                        return file.getInputStream();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }),
+                HttpRequest.BodyPublishers.ofString("\r\n--" + boundary + "--\r\n", StandardCharsets.UTF_8));
+        HttpRequest request = HttpRequest.newBuilder(baseUrl.resolve(path))
+                .timeout(timeout)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(body)
+                .build();
+        return send(path, request).thenApply(response -> {
+            if (response.statusCode() != 200) {
+                throw new CompletionException(new IOException("Flask API error: status " + response.statusCode()));
+            }
+            try {
+                return objectMapper.readValue(response.body(), JSON_OBJECT);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /** Sends {@code request}, timing it under {@code endpoint}: a non-200 answer is an {@code http_error}. */
+    private CompletableFuture<HttpResponse<byte[]>> send(String endpoint, HttpRequest request) {
+        long start = System.nanoTime();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).whenComplete((response, e) -> {
+            String outcome = e == null ? (response.statusCode() == 200 ? "success" : "http_error")
+                    : e instanceof HttpTimeoutException || e.getCause() instanceof HttpTimeoutException ? "timeout" : "io_error";
+            metricsRegistry.timer("flask_request_seconds", "Time spent on calls to the Flask service.",
+                    "endpoint", endpoint, "outcome", outcome).recordSince(start);
+        });
+    }
+}
@@ -0,0 +1,524 @@
+package socialMediaApp.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import socialMediaApp.projections.FollowWatermark;
+import socialMediaApp.repositories.FollowRepository;
+import socialMediaApp.utils.CsrGraph;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory follow graph. Outgoing (following) and incoming (followers) adjacency live in immutable
+ * {@link CsrGraph}s; follows and unfollows since the last compaction are kept in a small delta layer
+ * and folded into new CSR arrays in the background once it grows past a threshold.
+ * <p>
+ * The graph is snapshotted to a memory-mapped file on shutdown. On startup the snapshot is used when
+ * its watermark (row count and max id of {@code follows}) still matches the table, otherwise the
+ * graph is rebuilt from the table and a new snapshot is written. Requests are already served while it
+ * loads, so the follows and unfollows recorded meanwhile are replayed over whichever graph gets installed.
+ */
+@Service
+public class FollowGraphService {
+
+    private static final Logger log = LoggerFactory.getLogger(FollowGraphService.class);
+    private static final int SNAPSHOT_MAGIC = 0x46474350;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_HEADER_BYTES = 24;
+
+    private final FollowRepository followRepository;
+    private final Path snapshotPath;
+    private final int compactionThreshold;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "follow-graph-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    private CsrGraph outgoing = CsrGraph.EMPTY;
+    private CsrGraph incoming = CsrGraph.EMPTY;
+    private Delta frozen;
+    private Delta active = new Delta();
+    /** While loading: the latest follow (true) or unfollow (false) recorded for each pair, keyed as in {@link #pair}. */
+    private Map<Long, Boolean> pending;
+    private volatile boolean ready;
+
+    public FollowGraphService(FollowRepository followRepository,
+                              @Value("${app.follow-graph.snapshot-path:${java.io.tmpdir}/socialMediaApp/follow-graph.bin}") String snapshotPath,
+                              @Value("${app.follow-graph.compaction-threshold:10000}") int compactionThreshold) {
+        this.followRepository = followRepository;
+        this.snapshotPath = Paths.get(snapshotPath);
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            pending = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // Taken before the rebuild: rows that change during it only make the next start rebuild again.
+        FollowWatermark watermark = followRepository.findWatermark();
+        long maxFollowId = Optional.ofNullable(watermark.getMaxId()).orElse(0);
+        if (!loadSnapshot(watermark.getCount(), maxFollowId)) {
+            rebuild();
+            writeSnapshot(watermark.getCount(), maxFollowId);
+        }
+        ready = true;
+    }
+
+    @PreDestroy
+    public void close() {
+        compactor.shutdownNow();
+        if (!ready) {
+            return;
+        }
+        try {
+            compact();
+            FollowWatermark watermark = followRepository.findWatermark();
+            writeSnapshot(watermark.getCount(), Optional.ofNullable(watermark.getMaxId()).orElse(0));
+        } catch (RuntimeException e) {
+            log.warn("Could not snapshot follow graph on shutdown", e);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** Records a follow; returns false when it already existed. */
+    public boolean follow(int userId, int followingId) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.put(pair(userId, followingId), true);
+            }
+            if (isFollowingLocked(userId, followingId)) {
+                return false;
+            }
+            active.add(userId, followingId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        compactIfNeeded();
+        return true;
+    }
+
+    /** Records an unfollow; returns false when there was nothing to remove. */
+    public boolean unfollow(int userId, int followingId) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.put(pair(userId, followingId), false);
+            }
+            if (!isFollowingLocked(userId, followingId)) {
+                return false;
+            }
+            active.remove(userId, followingId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        compactIfNeeded();
+        return true;
+    }
+
+    /** Drops every edge touching the user. */
+    public void removeUser(int userId) {
+        for (int followingId : getFollowing(userId)) {
+            unfollow(userId, followingId);
+        }
+        for (int followerId : getFollowers(userId)) {
+            unfollow(followerId, userId);
+        }
+    }
+
+    public boolean isFollowing(int userId, int followingId) {
+        lock.readLock().lock();
+        try {
+            return isFollowingLocked(userId, followingId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Ids the user follows, ascending. */
+    public int[] getFollowing(int userId) {
+        lock.readLock().lock();
+        try {
+            int[] ids = outgoing.neighbors(userId);
+            if (frozen != null) {
+                ids = frozen.applyOut(userId, ids);
+            }
+            return active.applyOut(userId, ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Ids following the user, ascending. */
+    public int[] getFollowers(int userId) {
+        lock.readLock().lock();
+        try {
+            int[] ids = incoming.neighbors(userId);
+            if (frozen != null) {
+                ids = frozen.applyIn(userId, ids);
+            }
+            return active.applyIn(userId, ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int[] getFollowingPage(int userId, int page, int size) {
+        return page(getFollowing(userId), page, size);
+    }
+
+    public int[] getFollowersPage(int userId, int page, int size) {
+        return page(getFollowers(userId), page, size);
+    }
+
+    public int countFollowing(int userId) {
+        lock.readLock().lock();
+        try {
+            int count = outgoing.degree(userId) + active.outDelta(userId);
+            return frozen != null ? count + frozen.outDelta(userId) : count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int countFollowers(int userId) {
+        lock.readLock().lock();
+        try {
+            int count = incoming.degree(userId) + active.inDelta(userId);
+            return frozen != null ? count + frozen.inDelta(userId) : count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Ids that both follow the user and are followed back, ascending. */
+    public int[] getMutuals(int userId) {
+        int[] following = getFollowing(userId);
+        int[] followers = getFollowers(userId);
+        int[] mutuals = new int[Math.min(following.length, followers.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < following.length && j < followers.length; ) {
+            if (following[i] < followers[j]) {
+                i++;
+            } else if (following[i] > followers[j]) {
+                j++;
+            } else {
+                mutuals[count++] = following[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(mutuals, count);
+    }
+
+    private boolean isFollowingLocked(int userId, int followingId) {
+        int state = active.state(userId, followingId);
+        if (state == 0 && frozen != null) {
+            state = frozen.state(userId, followingId);
+        }
+        return state == 0 ? outgoing.hasEdge(userId, followingId) : state > 0;
+    }
+
+    private void rebuild() {
+        EdgeBuffer edges = new EdgeBuffer();
+        try (Stream<Object[]> rows = followRepository.streamUserAndFollowingIds()) {
+            rows.forEach(row -> edges.add((Integer) row[0], (Integer) row[1]));
+        }
+        install(CsrGraph.fromEdges(edges.sources, edges.destinations, edges.size),
+                CsrGraph.fromEdges(edges.destinations, edges.sources, edges.size));
+    }
+
+    /**
+     * Swaps in a loaded graph and replays over it what was recorded since loading began. The table read
+     * may or may not include those changes, and each pair's latest one holds either way.
+     */
+    private void install(CsrGraph newOutgoing, CsrGraph newIncoming) {
+        lock.writeLock().lock();
+        try {
+            outgoing = newOutgoing;
+            incoming = newIncoming;
+            frozen = null;
+            active = new Delta();
+            if (pending != null) {
+                pending.forEach((pair, following) -> {
+                    int userId = (int) (pair >>> 32);
+                    int followingId = (int) (long) pair;
+                    if (following && !outgoing.hasEdge(userId, followingId)) {
+                        active.add(userId, followingId);
+                    } else if (!following && outgoing.hasEdge(userId, followingId)) {
+                        active.remove(userId, followingId);
+                    }
+                });
+                pending = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (active.size >= compactionThreshold && compacting.compareAndSet(false, true)) {
+            compactor.execute(() -> {
+                try {
+                    compact();
+                } finally {
+                    compacting.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Freezes the current delta, folds it into fresh CSR arrays without blocking readers, then swaps
+     * the new arrays in.
+     */
+    private void compact() {
+        CsrGraph base;
+        Delta toFold;
+        lock.writeLock().lock();
+        try {
+            if (frozen != null || active.size == 0) {
+                return;
+            }
+            frozen = active;
+            active = new Delta();
+            base = outgoing;
+            toFold = frozen;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        EdgeBuffer edges = new EdgeBuffer();
+        int nodeCount = Math.max(base.nodeCount(), toFold.maxNode + 1);
+        for (int node = 0; node < nodeCount; node++) {
+            for (int target : toFold.applyOut(node, base.neighbors(node))) {
+                edges.add(node, target);
+            }
+        }
+        CsrGraph newOutgoing = CsrGraph.fromEdges(edges.sources, edges.destinations, edges.size);
+        CsrGraph newIncoming = CsrGraph.fromEdges(edges.destinations, edges.sources, edges.size);
+
+        lock.writeLock().lock();
+        try {
+            // A load that installed a graph meanwhile has already dropped the frozen delta.
+            if (outgoing == base) {
+                outgoing = newOutgoing;
+                incoming = newIncoming;
+                frozen = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean loadSnapshot(long followCount, long maxFollowId) {
+        if (!Files.isRegularFile(snapshotPath)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_VERSION
+                    || buffer.getLong() != followCount || buffer.getLong() != maxFollowId) {
+                return false;
+            }
+            IntBuffer ints = buffer.asIntBuffer();
+            CsrGraph newOutgoing = CsrGraph.readFrom(ints);
+            install(newOutgoing, CsrGraph.readFrom(ints));
+            log.info("Loaded follow graph snapshot with {} edges from {}", newOutgoing.edgeCount(), snapshotPath);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable follow graph snapshot {}", snapshotPath, e);
+            return false;
+        }
+    }
+
+    private void writeSnapshot(long followCount, long maxFollowId) {
+        CsrGraph out;
+        CsrGraph in;
+        lock.readLock().lock();
+        try {
+            if (frozen != null || active.size > 0) {
+                return;
+            }
+            out = outgoing;
+            in = incoming;
+        } finally {
+            lock.readLock().unlock();
+        }
+        try {
+            Files.createDirectories(snapshotPath.getParent());
+            Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            long bytes = SNAPSHOT_HEADER_BYTES + 4L * (out.serializedInts() + in.serializedInts());
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+                buffer.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putLong(followCount).putLong(maxFollowId);
+                IntBuffer ints = buffer.asIntBuffer();
+                out.writeTo(ints);
+                in.writeTo(ints);
+                buffer.force();
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write follow graph snapshot {}", snapshotPath, e);
+        }
+    }
+
+    private static long pair(int userId, int followingId) {
+        return (long) userId << 32 | (followingId & 0xffffffffL);
+    }
+
+    private static int[] page(int[] ids, int page, int size) {
+        int from = (int) Math.min((long) page * size, ids.length);
+        return Arrays.copyOfRange(ids, from, Math.min(from + size, ids.length));
+    }
+
+    /**
+     * Follows and unfollows relative to the CSR arrays underneath. An edge is only recorded as added when
+     * it was absent below and as removed when it was present, so degrees can be adjusted by set sizes.
+     */
+    private static final class Delta {
+        private final Map<Integer, Set<Integer>> addedOut = new HashMap<>();
+        private final Map<Integer, Set<Integer>> removedOut = new HashMap<>();
+        private final Map<Integer, Set<Integer>> addedIn = new HashMap<>();
+        private final Map<Integer, Set<Integer>> removedIn = new HashMap<>();
+        private int size;
+        private int maxNode = -1;
+
+        void add(int source, int destination) {
+            if (!removeEdge(removedOut, removedIn, source, destination)) {
+                addEdge(addedOut, addedIn, source, destination);
+            }
+        }
+
+        void remove(int source, int destination) {
+            if (!removeEdge(addedOut, addedIn, source, destination)) {
+                addEdge(removedOut, removedIn, source, destination);
+            }
+        }
+
+        /** 1 if added here, -1 if removed here, 0 if this layer says nothing about the edge. */
+        int state(int source, int destination) {
+            if (addedOut.getOrDefault(source, Collections.emptySet()).contains(destination)) {
+                return 1;
+            }
+            return removedOut.getOrDefault(source, Collections.emptySet()).contains(destination) ? -1 : 0;
+        }
+
+        int outDelta(int node) {
+            return sizeOf(addedOut, node) - sizeOf(removedOut, node);
+        }
+
+        int inDelta(int node) {
+            return sizeOf(addedIn, node) - sizeOf(removedIn, node);
+        }
+
+        int[] applyOut(int node, int[] sorted) {
+            return apply(sorted, addedOut.get(node), removedOut.get(node));
+        }
+
+        int[] applyIn(int node, int[] sorted) {
+            return apply(sorted, addedIn.get(node), removedIn.get(node));
+        }
+
+        private void addEdge(Map<Integer, Set<Integer>> out, Map<Integer, Set<Integer>> in, int source, int destination) {
+            out.computeIfAbsent(source, k -> new HashSet<>()).add(destination);
+            in.computeIfAbsent(destination, k -> new HashSet<>()).add(source);
+            maxNode = Math.max(maxNode, Math.max(source, destination));
+            size++;
+        }
+
+        private boolean removeEdge(Map<Integer, Set<Integer>> out, Map<Integer, Set<Integer>> in, int source, int destination) {
+            Set<Integer> targets = out.get(source);
+            if (targets == null || !targets.remove(destination)) {
+                return false;
+            }
+            if (targets.isEmpty()) {
+                out.remove(source);
+            }
+            Set<Integer> sources = in.get(destination);
+            sources.remove(source);
+            if (sources.isEmpty()) {
+                in.remove(destination);
+            }
+            size--;
+            return true;
+        }
+
+        private static int sizeOf(Map<Integer, Set<Integer>> map, int node) {
+            Set<Integer> set = map.get(node);
+            return set == null ? 0 : set.size();
+        }
+
+        private static int[] apply(int[] sorted, Set<Integer> added, Set<Integer> removed) {
+            if (added == null && removed == null) {
+                return sorted;
+            }
+            int[] result = new int[sorted.length + (added == null ? 0 : added.size())];
+            int count = 0;
+            for (int id : sorted) {
+                if (removed == null || !removed.contains(id)) {
+                    result[count++] = id;
+                }
+            }
+            if (added != null) {
+                for (int id : added) {
+                    result[count++] = id;
+                }
+            }
+            result = Arrays.copyOf(result, count);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+
+    /** Growable parallel int arrays of edges. */
+    private static final class EdgeBuffer {
+        private int[] sources = new int[1024];
+        private int[] destinations = new int[1024];
+        private int size;
+
+        void add(int source, int destination) {
+            if (size == sources.length) {
+                sources = Arrays.copyOf(sources, size * 2);
+                destinations = Arrays.copyOf(destinations, size * 2);
+            }
+            sources[size] = source;
+            destinations[size] = destination;
+            size++;
+        }
+    }
+}
@@ -1,36 +1,109 @@
 package socialMediaApp.services;
 
 import org.springframework.stereotype.Service;
-import socialMediaApp.mappers.FollowMapper;
-import socialMediaApp.models.Follow;
+import org.springframework.transaction.support.TransactionTemplate;
+import socialMediaApp.events.DomainEventType;
 import socialMediaApp.repositories.FollowRepository;
 import socialMediaApp.requests.FollowRequest;
+import socialMediaApp.responses.follow.FollowStateResponse;
+import socialMediaApp.utils.PairLocks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 
 @Service
 public class FollowService {
     private final FollowRepository followRepository;
-    private final FollowMapper followMapper;
-    private final UserService userService;
+    private final FollowGraphService followGraphService;
+    private final RecommendationService recommendationService;
+    private final TypeaheadService typeaheadService;
+    private final VersionService versionService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    /** Striped by pair, so the graph sees a pair's follows and unfollows in commit order, as in {@link LikeService}. */
+    private final PairLocks stripes = new PairLocks(64);
 
-    public FollowService(FollowRepository followRepository, FollowMapper followMapper, UserService userService) {
+    public FollowService(FollowRepository followRepository, FollowGraphService followGraphService,
+                         RecommendationService recommendationService, TypeaheadService typeaheadService,
+                         VersionService versionService, OutboxService outboxService,
+                         TransactionTemplate transactionTemplate) {
         this.followRepository = followRepository;
-        this.followMapper = followMapper;
-        this.userService = userService;
+        this.followGraphService = followGraphService;
+        this.recommendationService = recommendationService;
+        this.typeaheadService = typeaheadService;
+        this.versionService = versionService;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
     }
 
-    public void add(FollowRequest followAddRequest){
-        if (userService.isFollowing(followAddRequest.getUserId(), followAddRequest.getFollowingId())){
-            return;
+    /**
+     * Idempotent follow: a single insert that is a no-op when the pair already exists.
+     */
+    public FollowStateResponse add(FollowRequest followAddRequest){
+        ReentrantLock stripe = stripe(followAddRequest);
+        stripe.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (followRepository.insertIfAbsent(followAddRequest.getUserId(), followAddRequest.getFollowingId()) > 0){
+                    publish(DomainEventType.FOLLOW_ADDED, followAddRequest);
+                }
+            });
+            followGraphService.follow(followAddRequest.getUserId(), followAddRequest.getFollowingId());
+        } finally {
+            stripe.unlock();
         }
-        followRepository.save(followMapper.addRequestToFollow(followAddRequest));
+        versionService.followChanged(followAddRequest.getUserId(), followAddRequest.getFollowingId());
+        recommendationService.onFollowChanged(followAddRequest.getUserId(), followAddRequest.getFollowingId());
+        long followerCount = countFollowers(followAddRequest.getFollowingId());
+        typeaheadService.onFollowerCountChanged(followAddRequest.getFollowingId(), (int) followerCount);
+        return new FollowStateResponse(true, followerCount);
+    }
+
+    /**
+     * Idempotent unfollow: a single delete by pair, removing nothing when the follow is missing.
+     */
+    public FollowStateResponse delete(FollowRequest followRequest){
+        ReentrantLock stripe = stripe(followRequest);
+        stripe.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (followRepository.deleteByUserIdAndFollowingId(followRequest.getUserId(), followRequest.getFollowingId()) > 0){
+                    publish(DomainEventType.FOLLOW_REMOVED, followRequest);
+                }
+            });
+            followGraphService.unfollow(followRequest.getUserId(), followRequest.getFollowingId());
+        } finally {
+            stripe.unlock();
+        }
+        versionService.followChanged(followRequest.getUserId(), followRequest.getFollowingId());
+        recommendationService.onFollowChanged(followRequest.getUserId(), followRequest.getFollowingId());
+        long followerCount = countFollowers(followRequest.getFollowingId());
+        typeaheadService.onFollowerCountChanged(followRequest.getFollowingId(), (int) followerCount);
+        return new FollowStateResponse(false, followerCount);
+    }
+
+    /** Runs {@code work} holding the stripes of all the given follows, for writers of many at once (bulk ingestion). */
+    public <T> T withStripes(List<FollowRequest> followRequests, Supplier<T> work){
+        return stripes.withAll(followRequests, FollowRequest::getUserId, FollowRequest::getFollowingId, work);
+    }
+
+    private ReentrantLock stripe(FollowRequest followRequest){
+        return stripes.get(followRequest.getUserId(), followRequest.getFollowingId());
     }
 
-    public  void delete(FollowRequest followRequest){
-      Follow follow
-                = followRepository.findByUser_IdAndFollowing_Id(followRequest.getUserId(), followRequest.getFollowingId()).orElse(null);
-        followRepository.delete(follow);
+    private void publish(DomainEventType type, FollowRequest followRequest){
+        outboxService.publish(type, followRequest.getUserId(),
+                Map.of("userId", followRequest.getUserId(), "followingId", followRequest.getFollowingId()));
     }
 
+    private long countFollowers(int userId){
+        if (followGraphService.isReady()){
+            return followGraphService.countFollowers(userId);
+        }
+        return followRepository.countByFollowing_Id(userId);
+    }
 
 }
@@ -0,0 +1,199 @@
+package socialMediaApp.services;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import socialMediaApp.repositories.LikeRepository;
+import socialMediaApp.utils.IntBitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of post id -> bitmap of the ids of users who liked it, so isLiked checks and like
+ * counts never touch the likes table. Built once at startup and kept current by {@link LikeService}.
+ * <p>
+ * A rebuild reads the table into a new index while the old one keeps taking changes; those changes are
+ * also recorded and replayed over the new index before it is swapped in, so none is lost to a stale row.
+ */
+@Service
+public class LikeIndexService {
+
+    private final LikeRepository likeRepository;
+    private volatile Map<Integer, IntBitmap> likersByPost = new ConcurrentHashMap<>();
+    /** Changes hold the read lock; starting and finishing a rebuild hold the write lock. */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /** While rebuilding: the latest like (true) or unlike (false) of each (user, post) pair, and the removed posts. */
+    private Map<Long, Boolean> pendingLikes;
+    private Set<Integer> pendingRemovedPosts;
+    private volatile boolean ready;
+
+    public LikeIndexService(LikeRepository likeRepository) {
+        this.likeRepository = likeRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        ready = false;
+        lock.writeLock().lock();
+        try {
+            pendingLikes = new ConcurrentHashMap<>();
+            pendingRemovedPosts = ConcurrentHashMap.newKeySet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Map<Integer, IntBitmap> rebuilt = new ConcurrentHashMap<>();
+        try (Stream<Object[]> rows = likeRepository.streamPostAndUserIds()) {
+            rows.forEach(row -> add(rebuilt, (Integer) row[1], (Integer) row[0]));
+        }
+        lock.writeLock().lock();
+        try {
+            pendingLikes.forEach((pair, liked) -> {
+                int userId = (int) (pair >>> 32);
+                int postId = (int) (long) pair;
+                if (liked) {
+                    add(rebuilt, userId, postId);
+                } else {
+                    remove(rebuilt, userId, postId);
+                }
+            });
+            pendingRemovedPosts.forEach(rebuilt::remove);
+            likersByPost = rebuilt;
+            pendingLikes = null;
+            pendingRemovedPosts = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void add(int userId, int postId) {
+        lock.readLock().lock();
+        try {
+            if (pendingLikes != null) {
+                pendingLikes.put(pair(userId, postId), true);
+            }
+            add(likersByPost, userId, postId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void remove(int userId, int postId) {
+        lock.readLock().lock();
+        try {
+            if (pendingLikes != null) {
+                pendingLikes.put(pair(userId, postId), false);
+            }
+            remove(likersByPost, userId, postId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void removePost(int postId) {
+        lock.readLock().lock();
+        try {
+            if (pendingRemovedPosts != null) {
+                pendingRemovedPosts.add(postId);
+            }
+            likersByPost.remove(postId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void removeUser(int userId) {
+        for (Integer postId : likersByPost.keySet()) {
+            remove(userId, postId);
+        }
+    }
+
+    public boolean isLiked(int userId, int postId) {
+        IntBitmap likers = likersByPost.get(postId);
+        if (likers == null) {
+            return false;
+        }
+        synchronized (likers) {
+            return likers.contains(userId);
+        }
+    }
+
+    public int countLikes(int postId) {
+        IntBitmap likers = likersByPost.get(postId);
+        if (likers == null) {
+            return 0;
+        }
+        synchronized (likers) {
+            return likers.cardinality();
+        }
+    }
+
+    public int[] getLikers(int postId) {
+        IntBitmap likers = likersByPost.get(postId);
+        if (likers == null) {
+            return new int[0];
+        }
+        synchronized (likers) {
+            return likers.toArray();
+        }
+    }
+
+    /**
+     * Returns the subset of {@code postIds} liked by the user, in the given order.
+     */
+    public List<Integer> likedAmong(int userId, List<Integer> postIds) {
+        List<Integer> liked = new ArrayList<>();
+        for (Integer postId : postIds) {
+            if (isLiked(userId, postId)) {
+                liked.add(postId);
+            }
+        }
+        return liked;
+    }
+
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (IntBitmap likers : likersByPost.values()) {
+            synchronized (likers) {
+                bytes += likers.sizeInBytes();
+            }
+        }
+        return bytes;
+    }
+
+    private static void add(Map<Integer, IntBitmap> index, int userId, int postId) {
+        index.compute(postId, (id, likers) -> {
+            IntBitmap target = likers != null ? likers : new IntBitmap();
+            synchronized (target) {
+                target.add(userId);
+            }
+            return target;
+        });
+    }
+
+    private static void remove(Map<Integer, IntBitmap> index, int userId, int postId) {
+        index.computeIfPresent(postId, (id, likers) -> {
+            synchronized (likers) {
+                likers.remove(userId);
+                return likers.isEmpty() ? null : likers;
+            }
+        });
+    }
+
+    private static long pair(int userId, int postId) {
+        return (long) userId << 32 | (postId & 0xffffffffL);
+    }
+}
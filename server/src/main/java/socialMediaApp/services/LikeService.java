@@ -1,52 +1,166 @@
 package socialMediaApp.services;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import socialMediaApp.events.DomainEventType;
 import socialMediaApp.mappers.LikeMapper;
 import socialMediaApp.models.Like;
 import socialMediaApp.repositories.LikeRepository;
 import socialMediaApp.requests.LikeRequest;
 import socialMediaApp.responses.like.LikeResponse;
+import socialMediaApp.responses.like.LikeStateResponse;
+import socialMediaApp.utils.IdBatches;
+import socialMediaApp.utils.PairLocks;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 @Service
 public class LikeService {
 
     private final LikeRepository likeRepository;
     private final LikeMapper likeMapper;
+    private final LikeIndexService likeIndexService;
+    private final TrendingService trendingService;
+    private final PushService pushService;
+    private final VersionService versionService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    /**
+     * Striped by (user, post): a like or unlike holds its stripe from the write until the index has it, so
+     * the index sees the pair's changes in commit order.
+     */
+    private final PairLocks stripes = new PairLocks(64);
 
-    public LikeService(LikeRepository likeRepository, LikeMapper likeMapper) {
+    public LikeService(LikeRepository likeRepository, LikeMapper likeMapper, LikeIndexService likeIndexService,
+                       TrendingService trendingService, PushService pushService, VersionService versionService,
+                       OutboxService outboxService, TransactionTemplate transactionTemplate) {
         this.likeRepository = likeRepository;
         this.likeMapper = likeMapper;
+        this.likeIndexService = likeIndexService;
+        this.trendingService = trendingService;
+        this.pushService = pushService;
+        this.versionService = versionService;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
     }
 
+    @Transactional(readOnly = true)
     public List<LikeResponse> getAllByPost(int postId){
         List<Like> likes = likeRepository.findAllByPost_Id(postId);
         return likeMapper.likesToLikeResponses(likes);
     }
 
+    @Transactional(readOnly = true)
     public List<LikeResponse> getAllByUser(int userId){
         List<Like> likes = likeRepository.findAllByUser_Id(userId);
         return likeMapper.likesToLikeResponses(likes);
     }
 
     public boolean isLiked(int userId,int postId){
+        if (likeIndexService.isReady()){
+            return likeIndexService.isLiked(userId,postId);
+        }
         Optional<Like> like = likeRepository.findByUser_IdAndPost_Id(userId,postId);
         return like.isPresent();
     }
 
-    public void add(LikeRequest likeRequest){
-        if (isLiked(likeRequest.getUserId(), likeRequest.getPostId())){
-            return;
+    public List<Integer> getLikedPostIds(int userId, List<Integer> postIds){
+        if (likeIndexService.isReady()){
+            return likeIndexService.likedAmong(userId,postIds);
+        }
+        return IdBatches.query(postIds, batch -> likeRepository.findLikedPostIds(userId, batch));
+    }
+
+    public long countByPost(int postId){
+        if (likeIndexService.isReady()){
+            return likeIndexService.countLikes(postId);
+        }
+        return likeRepository.countByPost_Id(postId);
+    }
+
+    /**
+     * Idempotent like: a single insert that is a no-op when the (user, post) pair already exists,
+     * so concurrent clicks can neither create duplicates nor fail. A new like commits together with its
+     * LIKE_ADDED event, and reaches trending at the time it was stored with.
+     */
+    public LikeStateResponse add(LikeRequest likeRequest){
+        Instant likedAt;
+        ReentrantLock stripe = stripe(likeRequest);
+        stripe.lock();
+        try {
+            likedAt = transactionTemplate.execute(status -> {
+                Instant createdAt = likeRepository.insertIfAbsent(likeRequest.getUserId(), likeRequest.getPostId());
+                if (createdAt != null){
+                    publish(DomainEventType.LIKE_ADDED, likeRequest);
+                }
+                return createdAt;
+            });
+            likeIndexService.add(likeRequest.getUserId(), likeRequest.getPostId());
+        } finally {
+            stripe.unlock();
+        }
+        boolean inserted = likedAt != null;
+        if (inserted){
+            versionService.likesChanged(likeRequest.getPostId());
+            trendingService.onLiked(likeRequest.getPostId(), likedAt);
+        }
+        long likeCount = countByPost(likeRequest.getPostId());
+        if (inserted){
+            pushService.onLikeCountChanged(likeRequest.getPostId(), likeCount);
+        }
+        return new LikeStateResponse(true, likeCount);
+    }
+
+    /**
+     * Idempotent unlike: a single delete by (user, post) returning the like's time, removing nothing when the
+     * like is missing. Trending takes back only what the like still adds as of that time.
+     */
+    public LikeStateResponse delete(LikeRequest likeRequest){
+        List<Instant> likedAt;
+        ReentrantLock stripe = stripe(likeRequest);
+        stripe.lock();
+        try {
+            likedAt = transactionTemplate.execute(status -> {
+                List<Instant> createdAt = likeRepository.deleteReturningCreatedAt(likeRequest.getUserId(), likeRequest.getPostId());
+                if (!createdAt.isEmpty()){
+                    publish(DomainEventType.LIKE_REMOVED, likeRequest);
+                }
+                return createdAt;
+            });
+            likeIndexService.remove(likeRequest.getUserId(), likeRequest.getPostId());
+        } finally {
+            stripe.unlock();
+        }
+        boolean deleted = !likedAt.isEmpty();
+        if (deleted){
+            versionService.likesChanged(likeRequest.getPostId());
+            trendingService.onUnliked(likeRequest.getPostId(), likedAt.get(0));
+        }
+        long likeCount = countByPost(likeRequest.getPostId());
+        if (deleted){
+            pushService.onLikeCountChanged(likeRequest.getPostId(), likeCount);
         }
-        Like like = likeMapper.requestToLike(likeRequest);
-        likeRepository.save(like);
+        return new LikeStateResponse(false, likeCount);
+    }
+
+    /** Runs {@code work} holding the stripes of all the given likes, for writers of many at once (bulk ingestion). */
+    public <T> T withStripes(List<LikeRequest> likeRequests, Supplier<T> work){
+        return stripes.withAll(likeRequests, LikeRequest::getUserId, LikeRequest::getPostId, work);
+    }
+
+    private ReentrantLock stripe(LikeRequest likeRequest){
+        return stripes.get(likeRequest.getUserId(), likeRequest.getPostId());
     }
 
-    public void delete(LikeRequest likeRequest){
-        Optional<Like> like = likeRepository.findByUser_IdAndPost_Id(likeRequest.getUserId(),likeRequest.getPostId());
-       likeRepository.delete(like.get());
+    private void publish(DomainEventType type, LikeRequest likeRequest){
+        outboxService.publish(type, likeRequest.getPostId(),
+                Map.of("userId", likeRequest.getUserId(), "postId", likeRequest.getPostId()));
     }
 
 }
@@ -0,0 +1,260 @@
+package socialMediaApp.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import socialMediaApp.events.DomainEvent;
+import socialMediaApp.events.DomainEventSubscriber;
+import socialMediaApp.events.DomainEventType;
+import socialMediaApp.responses.outbox.OutboxStatsResponse;
+
+import javax.annotation.PreDestroy;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers outbox events to every {@link DomainEventSubscriber} bean. A single poller pages through the
+ * pending events in id order, {@code app.outbox.batch-size} at a time, groups each page by aggregate and
+ * hands each group to the dispatch pool, so aggregates are delivered in parallel and each one in order.
+ * Events every subscriber took are then deleted in one batch. Paging goes on past aggregates held back
+ * after a failure, so a backlog of theirs never delays the others. The poller wakes after each commit that wrote events, and every
+ * {@code app.outbox.poll-interval-ms} for retries.
+ * <p>
+ * When a subscriber throws, the event's attempts are counted in its row and its aggregate is held back,
+ * later events included, for a backoff that doubles with each attempt. After {@code app.outbox.max-attempts}
+ * the event is dead-lettered: it stays in the table with its last error and the aggregate moves on, so
+ * its later events are delivered without it and per-aggregate ordering is broken from that event on.
+ * <p>
+ * Events are deleted once delivered, so one application instance consumes the table.
+ */
+@Service
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+    private static final long MAX_BACKOFF_MILLIS = 60_000;
+    private static final TypeReference<Map<String, Object>> PAYLOAD = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<DomainEventSubscriber> subscribers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+
+    private final ExecutorService poller = Executors.newSingleThreadExecutor(daemon("outbox-poller"));
+    private final ExecutorService workers;
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+    /** Aggregates waiting out a failed delivery, by "TYPE:id", until the given epoch millis. */
+    private final Map<String, Long> heldUntil = new ConcurrentHashMap<>();
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private final AtomicLong totalLagMillis = new AtomicLong();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+
+    public OutboxDispatcher(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                            ObjectProvider<DomainEventSubscriber> subscribers,
+                            @Value("${app.outbox.batch-size:500}") int batchSize,
+                            @Value("${app.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${app.outbox.retry-backoff-ms:1000}") long retryBackoffMillis,
+                            @Value("${app.outbox.dispatch-threads:4}") int dispatchThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.subscribers = subscribers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.workers = Executors.newFixedThreadPool(dispatchThreads, daemon("outbox-dispatcher"));
+    }
+
+    @PreDestroy
+    public void close() {
+        poller.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /** Queues a drain unless one is already queued; called after every commit that wrote events. */
+    public void wakeUp() {
+        if (!poller.isShutdown() && drainQueued.compareAndSet(false, true)) {
+            poller.execute(this::drain);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    public OutboxStatsResponse getStats() {
+        OutboxStatsResponse stats = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) AS pending, MIN(created_at) AS oldest FROM outbox_events WHERE attempts < ?",
+                (resultSet, rowNum) -> {
+                    Timestamp oldest = resultSet.getTimestamp("oldest");
+                    OutboxStatsResponse response = new OutboxStatsResponse();
+                    response.setPending(resultSet.getLong("pending"));
+                    response.setOldestPendingMillis(oldest == null ? null : System.currentTimeMillis() - oldest.getTime());
+                    return response;
+                }, maxAttempts);
+        stats.setDeadLettered(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events WHERE attempts >= ?",
+                Long.class, maxAttempts));
+        long deliveredCount = delivered.get();
+        stats.setDelivered(deliveredCount);
+        stats.setFailedAttempts(failedAttempts.get());
+        stats.setLastLagMillis(lastLagMillis.get());
+        stats.setMeanLagMillis(deliveredCount == 0 ? 0 : (double) totalLagMillis.get() / deliveredCount);
+        stats.setMaxLagMillis(maxLagMillis.get());
+        return stats;
+    }
+
+    private void drain() {
+        drainQueued.set(false);
+        try {
+            Set<String> passedOver = new HashSet<>();
+            long afterId = 0;
+            List<DomainEvent> batch;
+            do {
+                batch = jdbcTemplate.query("SELECT id, aggregate_id, event_type, payload, created_at, attempts"
+                                + " FROM outbox_events WHERE attempts < ? AND id > ? ORDER BY id LIMIT ?",
+                        this::toEvent, maxAttempts, afterId, batchSize);
+                if (batch.isEmpty()) {
+                    return;
+                }
+                afterId = batch.get(batch.size() - 1).getId();
+                dispatch(batch, passedOver);
+            } while (batch.size() == batchSize && !Thread.currentThread().isInterrupted());
+        } catch (RuntimeException e) {
+            log.warn("Outbox drain failed; the next poll retries it", e);
+        }
+    }
+
+    /**
+     * Delivers {@code batch} and deletes what was delivered. Aggregates in {@code passedOver} are skipped, and
+     * any aggregate held back or left undelivered here is added to it, so later pages of the same drain never
+     * deliver an aggregate's events ahead of an earlier one that is still pending.
+     */
+    private void dispatch(List<DomainEvent> batch, Set<String> passedOver) {
+        long now = System.currentTimeMillis();
+        Map<String, List<DomainEvent>> byAggregate = new LinkedHashMap<>();
+        for (DomainEvent event : batch) {
+            String aggregate = aggregateKey(event);
+            Long until = heldUntil.get(aggregate);
+            if (passedOver.contains(aggregate) || (until != null && until > now)) {
+                passedOver.add(aggregate);
+            } else {
+                byAggregate.computeIfAbsent(aggregate, key -> new ArrayList<>()).add(event);
+            }
+        }
+        if (byAggregate.isEmpty()) {
+            return;
+        }
+        List<DomainEventSubscriber> targets = subscribers.orderedStream().collect(Collectors.toList());
+        List<Callable<List<Long>>> tasks = new ArrayList<>(byAggregate.size());
+        byAggregate.forEach((aggregate, events) -> tasks.add(() -> deliver(aggregate, events, targets)));
+        List<Object[]> acknowledged = new ArrayList<>(batch.size());
+        try {
+            Iterator<Map.Entry<String, List<DomainEvent>>> groups = byAggregate.entrySet().iterator();
+            for (Future<List<Long>> delivery : workers.invokeAll(tasks)) {
+                Map.Entry<String, List<DomainEvent>> group = groups.next();
+                List<Long> deliveredIds = delivery.get();
+                if (deliveredIds.size() < group.getValue().size()) {
+                    passedOver.add(group.getKey());
+                }
+                for (long id : deliveredIds) {
+                    acknowledged.add(new Object[]{id});
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        if (!acknowledged.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate("DELETE FROM outbox_events WHERE id = ?", acknowledged));
+        }
+    }
+
+    /** Delivers one aggregate's events in order, stopping at the first failure; returns the delivered ids. */
+    private List<Long> deliver(String aggregate, List<DomainEvent> events, List<DomainEventSubscriber> targets) {
+        List<Long> deliveredIds = new ArrayList<>(events.size());
+        for (DomainEvent event : events) {
+            try {
+                for (DomainEventSubscriber subscriber : targets) {
+                    subscriber.onEvent(event);
+                }
+            } catch (RuntimeException e) {
+                failed(aggregate, event, e);
+                break;
+            }
+            heldUntil.remove(aggregate);
+            deliveredIds.add(event.getId());
+            long lag = Math.max(0, System.currentTimeMillis() - event.getCreatedAt().toEpochMilli());
+            delivered.incrementAndGet();
+            totalLagMillis.addAndGet(lag);
+            lastLagMillis.set(lag);
+            maxLagMillis.accumulateAndGet(lag, Math::max);
+        }
+        return deliveredIds;
+    }
+
+    private void failed(String aggregate, DomainEvent event, RuntimeException e) {
+        failedAttempts.incrementAndGet();
+        int attempts = event.getAttempts() + 1;
+        String error = String.valueOf(e);
+        jdbcTemplate.update("UPDATE outbox_events SET attempts = ?, last_error = ? WHERE id = ?",
+                attempts, error.length() > 1000 ? error.substring(0, 1000) : error, event.getId());
+        if (attempts >= maxAttempts) {
+            log.error("Dead-lettered outbox event {} ({} of {}) after {} attempts",
+                    event.getId(), event.getType(), aggregate, attempts, e);
+            heldUntil.remove(aggregate);
+        } else {
+            log.warn("Delivery of outbox event {} failed (attempt {}), retrying", event.getId(), attempts, e);
+            long backoff = Math.min(MAX_BACKOFF_MILLIS, retryBackoffMillis << Math.min(attempts - 1, 20));
+            heldUntil.put(aggregate, System.currentTimeMillis() + backoff);
+        }
+    }
+
+    private DomainEvent toEvent(ResultSet resultSet, int rowNum) throws SQLException {
+        DomainEventType type = DomainEventType.valueOf(resultSet.getString("event_type"));
+        Map<String, Object> payload;
+        try {
+            payload = objectMapper.readValue(resultSet.getString("payload"), PAYLOAD);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new DomainEvent(resultSet.getLong("id"), type, resultSet.getInt("aggregate_id"), payload,
+                resultSet.getTimestamp("created_at").toInstant(), resultSet.getInt("attempts"));
+    }
+
+    private static String aggregateKey(DomainEvent event) {
+        return event.getType().getAggregateType() + ":" + event.getAggregateId();
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
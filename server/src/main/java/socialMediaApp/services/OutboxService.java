@@ -0,0 +1,88 @@
+package socialMediaApp.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import socialMediaApp.events.DomainEventType;
+
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes domain events to the outbox table. An event is written in the transaction of the change it
+ * describes, so it exists exactly when the change does; {@link OutboxDispatcher} delivers it once that
+ * transaction commits. Payloads carry ids only: subscribers load whatever else they need.
+ * <p>
+ * So far only user deletions are consumed, by {@code ActiveUserService} and {@code RefreshTokenService}.
+ * The like index, trending, search, versions and push are still updated in line by the services that
+ * write, so every other event is a change log kept for subscribers to come and deleted undelivered.
+ */
+@Service
+public class OutboxService {
+
+    private static final String INSERT_EVENT = "INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload, created_at)"
+            + " VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final OutboxDispatcher outboxDispatcher;
+
+    public OutboxService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, OutboxDispatcher outboxDispatcher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.outboxDispatcher = outboxDispatcher;
+    }
+
+    /** Records {@code type} for the post or user {@code aggregateId}; must run inside the write's transaction. */
+    public void publish(DomainEventType type, int aggregateId, Map<String, Object> payload) {
+        requireTransaction();
+        jdbcTemplate.update(INSERT_EVENT, type.getAggregateType().name(), aggregateId, type.name(), toJson(payload),
+                Timestamp.from(Instant.now()));
+        wakeUpAfterCommit();
+    }
+
+    /** {@link #publish} for many events of one type, written as one JDBC batch; the lists run in parallel. */
+    public void publishAll(DomainEventType type, List<Integer> aggregateIds, List<Map<String, Object>> payloads) {
+        if (aggregateIds.isEmpty()) {
+            return;
+        }
+        requireTransaction();
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(aggregateIds.size());
+        for (int i = 0; i < aggregateIds.size(); i++) {
+            rows.add(new Object[]{type.getAggregateType().name(), aggregateIds.get(i), type.name(), toJson(payloads.get(i)), now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT, rows);
+        wakeUpAfterCommit();
+    }
+
+    private static void requireTransaction() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Domain events must be published in the transaction of their write");
+        }
+    }
+
+    private void wakeUpAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxDispatcher.wakeUp();
+            }
+        });
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
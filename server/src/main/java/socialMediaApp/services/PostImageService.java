@@ -1,22 +1,26 @@
 package socialMediaApp.services;
 
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.http.*;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import socialMediaApp.events.DomainEventType;
 import socialMediaApp.mappers.PostImageMapper;
+import socialMediaApp.metrics.ImageMetrics;
 import socialMediaApp.models.PostImage;
 import socialMediaApp.repositories.PostImageRepository;
 import socialMediaApp.responses.postImage.PostImageResponse;
 import socialMediaApp.utils.ImageUtil;
+import socialMediaApp.utils.VirtualThreads;
 
-import java.io.IOException;
+import javax.annotation.PreDestroy;
 import java.time.Instant;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service
 public class PostImageService {
@@ -24,68 +28,74 @@ public class PostImageService {
     private final PostImageRepository postImageRepository;
     private final PostService postService;
     private final PostImageMapper postImageMapper;
-    private final RestTemplate restTemplate;
-
-    private static final String FLASK_API_URL = "http://localhost:5000/upload"; // Flask detection API
-    private static final String FLASK_STEGANO_URL = "http://localhost:5000/add_steganography"; // Flask stegano API
+    private final FlaskClient flaskClient;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final ImageMetrics imageMetrics;
+    private final ExecutorService storer;
 
     public PostImageService(PostImageRepository postImageRepository, PostService postService,
-                            PostImageMapper postImageMapper, RestTemplate restTemplate) {
+                            PostImageMapper postImageMapper, FlaskClient flaskClient,
+                            OutboxService outboxService, TransactionTemplate transactionTemplate,
+                            ImageMetrics imageMetrics,
+                            @Value("${app.images.store-threads:4}") int storeThreads,
+                            @Value("${app.threads.virtual:false}") boolean virtualThreads) {
         this.postImageRepository = postImageRepository;
         this.postService = postService;
         this.postImageMapper = postImageMapper;
-        this.restTemplate = restTemplate;
+        this.flaskClient = flaskClient;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.imageMetrics = imageMetrics;
+        this.storer = virtualThreads && VirtualThreads.isSupported()
+                ? VirtualThreads.newPerTaskExecutor("image-store-")
+                : Executors.newFixedThreadPool(storeThreads, runnable -> {
+                    Thread thread = new Thread(runnable, "image-store");
+                    thread.setDaemon(true);
+                    return thread;
+                });
     }
 
-    public PostImageResponse upload(MultipartFile file, int postId) throws IOException {
-        // 🔹 Step 1: Validate image with Flask
-        Map<String, Object> validationResponse = validateImageWithFlask(file);
-
-        if (validationResponse.containsKey("error")) {
-            throw new IllegalArgumentException(validationResponse.get("error").toString());
-        }
-
-        // 🔹 Step 2: If clean, add steganography (hidden timestamp)
-        byte[] finalImageData = file.getBytes();
-        if (validationResponse.containsKey("valid") && (boolean) validationResponse.get("valid")) {
-            String timestampSignature = Instant.now().toString();
-            finalImageData = addSteganography(file, timestampSignature);
-        }
-
-        // 🔹 Step 3: Save the image in the database
-        PostImage postImage = new PostImage();
-        postImage.setName(file.getOriginalFilename());
-        postImage.setType(file.getContentType());
-        postImage.setData(ImageUtil.compressImage(finalImageData));
-        postImage.setPost(postService.getById(postId));
-        postImageRepository.save(postImage);
-
-        return postImageMapper.imageToResponse(postImage);
+    @PreDestroy
+    public void close() {
+        storer.shutdownNow();
     }
 
     /**
-     * Calls the Flask API to check for steganography & AI-generated detection.
+     * Checks the image with Flask, signs it with the upload time if it is clean, and saves it. No thread
+     * waits on Flask meanwhile. Compressing and saving run on {@code app.images.store-threads} threads of
+     * their own rather than the HTTP client's, whose pool grows without bound while they block. Fails with
+     * {@link IllegalArgumentException} when the image is rejected.
      */
-    private Map<String, Object> validateImageWithFlask(MultipartFile file) throws IOException {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
-
-        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-        body.add("file", new ByteArrayResource(file.getBytes()) {
-            @Override
-            public String getFilename() {
-                return file.getOriginalFilename();
+    public CompletableFuture<PostImageResponse> upload(MultipartFile file, int postId) {
+        // 🔹 Step 1: Validate image with Flask
+        return flaskClient.detect(file).thenCompose(detection -> {
+            String error = rejection(detection);
+            if (error != null) {
+                throw new IllegalArgumentException(error);
             }
-        });
-
-        HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
-        ResponseEntity<Map> response = restTemplate.exchange(FLASK_API_URL, HttpMethod.POST, requestEntity, Map.class);
-
-        if (response.getStatusCode() != HttpStatus.OK || response.getBody() == null) {
-            return Map.of("error", "Flask API error: No response received.");
-        }
+            // 🔹 Step 2: If clean, add steganography (hidden timestamp)
+            return flaskClient.addSignature(file, Instant.now().toString());
+        }).thenApplyAsync(finalImageData -> {
+            // 🔹 Step 3: Save the image in the database
+            PostImage postImage = new PostImage();
+            postImage.setName(file.getOriginalFilename());
+            postImage.setType(file.getContentType());
+            postImage.setData(imageMetrics.compress(finalImageData));
+            transactionTemplate.executeWithoutResult(status -> {
+                postImage.setPost(postService.getById(postId));
+                postImageRepository.save(postImage);
+                outboxService.publish(DomainEventType.POST_IMAGE_UPLOADED, postId,
+                        Map.of("imageId", postImage.getId(), "postId", postId));
+            });
+            return postImageMapper.imageToResponse(postImage);
+        }, storer);
+    }
 
-        Map<String, Object> result = response.getBody();
+    /**
+     * Why Flask's steganography & AI-generated detection rules the image out, or null when it is clean.
+     */
+    private static String rejection(Map<String, Object> result) {
         Map<String, Object> steganography = (Map<String, Object>) result.get("steganography");
         Map<String, Object> aiDetection = (Map<String, Object>) result.get("ai_detection");
 
@@ -96,62 +106,18 @@ public class PostImageService {
                 && Boolean.TRUE.equals(aiDetection.get("is_ai_generated"));
 
         if (containsSteganography) {
-            return Map.of("error", "Image contains hidden steganography data.");
+            return "Image contains hidden steganography data.";
         }
 
         if (isAIGenerated) {
-            return Map.of("error", "AI-generated images are not allowed.");
+            return "AI-generated images are not allowed.";
         }
 
-        return Map.of("valid", true);
-    }
-
-    /**
-     * Calls the Flask API to add a steganography signature.
-     */
-    private byte[] addSteganography(MultipartFile file, String signature) throws IOException {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
-
-        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-        body.add("file", new ByteArrayResource(file.getBytes()) {
-            @Override
-            public String getFilename() {
-                return file.getOriginalFilename();
-            }
-        });
-        body.add("signature", signature);
-
-        HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
-        ResponseEntity<Map> response = restTemplate.exchange(FLASK_STEGANO_URL, HttpMethod.POST, requestEntity, Map.class);
-
-        if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-            Object imageUrlObj = response.getBody().get("image_url");
-            if (imageUrlObj instanceof String) {
-                return downloadImageFromFlask((String) imageUrlObj);
-            }
-        }
-
-        throw new IOException("Flask Steganography API failed to return a valid image URL.");
-    }
-
-    /**
-     * Downloads the processed image from Flask after steganography.
-     */
-    private byte[] downloadImageFromFlask(String imageUrl) throws IOException {
-        try {
-            ResponseEntity<byte[]> response = restTemplate.getForEntity(imageUrl, byte[].class);
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                return response.getBody();
-            } else {
-                throw new IOException("Failed to download image from Flask. Status: " + response.getStatusCode());
-            }
-        } catch (Exception e) {
-            throw new IOException("Error fetching image from Flask: " + e.getMessage(), e);
-        }
+        return null;
     }
 
 
+    @Transactional(readOnly = true)
     public byte[] download(int id) {
         Optional<PostImage> postImage = postImageRepository.findPostImageByPost_Id(id);
         return postImage.map(image -> ImageUtil.decompressImage(image.getData())).orElse(null);
@@ -1,14 +1,22 @@
 package socialMediaApp.services;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import socialMediaApp.events.DomainEventType;
 import socialMediaApp.mappers.PostMapper;
 import socialMediaApp.models.Post;
+import socialMediaApp.repositories.CommentRepository;
 import socialMediaApp.repositories.PostRepository;
 import socialMediaApp.requests.PostAddRequest;
 import socialMediaApp.responses.post.PostGetResponse;
 import socialMediaApp.responses.user.UserFollowingResponse;
+import socialMediaApp.utils.EntityStreams;
+import socialMediaApp.utils.IdBatches;
 
+import javax.persistence.EntityManager;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Service
 public class PostService {
@@ -16,18 +24,45 @@ public class PostService {
     private final PostRepository postRepository;
     private final PostMapper postMapper;
     private final UserService userService;
+    private final LikeIndexService likeIndexService;
+    private final TrendingService trendingService;
+    private final SearchService searchService;
+    private final PushService pushService;
+    private final VersionService versionService;
+    private final CommentRepository commentRepository;
+    private final DeletionService deletionService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
 
-    public PostService(PostRepository postRepository, PostMapper postMapper, UserService userService) {
+    public PostService(PostRepository postRepository, PostMapper postMapper, UserService userService,
+                       LikeIndexService likeIndexService, TrendingService trendingService,
+                       SearchService searchService, PushService pushService, VersionService versionService,
+                       CommentRepository commentRepository, DeletionService deletionService,
+                       OutboxService outboxService, TransactionTemplate transactionTemplate,
+                       EntityManager entityManager) {
         this.postRepository = postRepository;
         this.postMapper = postMapper;
         this.userService = userService;
+        this.likeIndexService = likeIndexService;
+        this.trendingService = trendingService;
+        this.searchService = searchService;
+        this.pushService = pushService;
+        this.versionService = versionService;
+        this.commentRepository = commentRepository;
+        this.deletionService = deletionService;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
     }
 
-    public List<PostGetResponse> getAll(){
-       List<Post> posts = postRepository.findAll();
-       return  postMapper.postsToGetResponses(posts);
+    /** Maps every post, one row at a time, into {@code sink}. */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<PostGetResponse> sink){
+        EntityStreams.forEach(entityManager, postRepository.streamAll(), post -> sink.accept(postMapper.postToGetResponse(post)));
     }
 
+    @Transactional(readOnly = true)
     public PostGetResponse getResponseById(int id){
         Post post = postRepository.findById(id).orElse(null);
         return postMapper.postToGetResponse(post);
@@ -37,11 +72,13 @@ public class PostService {
         return postRepository.findById(id).get();
     }
 
+    @Transactional(readOnly = true)
     public List<PostGetResponse> getAllByUser(int userId){
         List<Post> userPosts = postRepository.findAllByUser_IdOrderByIdDesc(userId);
         return postMapper.postsToGetResponses(userPosts);
     }
 
+    @Transactional(readOnly = true)
     public List<PostGetResponse> getByUserFollowing(int userId){
         List<UserFollowingResponse> follows = userService.getUserFollowing(userId);
         List<Post> set = new ArrayList<>();
@@ -55,13 +92,58 @@ public class PostService {
         return postMapper.postsToGetResponses(set);
     }
 
+    @Transactional(readOnly = true)
+    public List<PostGetResponse> getTrending(int page, int size){
+        return getResponsesByIds(trendingService.getPage(page, size));
+    }
+
+    /** The posts with the given ids, in the order asked for; missing ids are skipped. */
+    @Transactional(readOnly = true)
+    public List<PostGetResponse> getResponsesByIds(Collection<Integer> ids){
+        Set<Integer> postIds = new LinkedHashSet<>(ids);
+        Map<Integer, Post> postsById = new HashMap<>();
+        for (Post post : IdBatches.query(postIds, postRepository::findAllWithUserByIdIn)){
+            postsById.put(post.getId(), post);
+        }
+        List<Post> posts = new ArrayList<>(postsById.size());
+        for (Integer postId : postIds){
+            Post post = postsById.get(postId);
+            if (post != null){
+                posts.add(post);
+            }
+        }
+        return postMapper.postsToGetResponses(posts);
+    }
+
     public int add(PostAddRequest postAddRequest){
         Post post =  postMapper.postAddRequestToPost(postAddRequest);
-        postRepository.save(post);
+        transactionTemplate.executeWithoutResult(status -> {
+            postRepository.save(post);
+            outboxService.publish(DomainEventType.POST_CREATED, post.getId(),
+                    Map.of("postId", post.getId(), "userId", post.getUser().getId()));
+        });
+        versionService.postChanged(post.getId(), post.getUser().getId());
+        trendingService.onPostAdded(post.getId());
+        searchService.indexPost(post.getId(), post.getDescription());
+        pushService.onPostAdded(post.getId(), post.getUser().getId(), post.getDescription());
         return post.getId();
     }
 
+    /** Hides the post at once; its likes, comments and image are purged in the background. */
     public void delete(int id){
-        postRepository.deleteById(id);
+        Post post = postRepository.findById(id).orElse(null);
+        if (post == null){
+            return;
+        }
+        List<Integer> commentIds = commentRepository.findIdsByPostId(id);
+        if (!deletionService.deletePost(id)){
+            return;
+        }
+        versionService.postChanged(id, post.getUser().getId());
+        versionService.commentsChanged(id);
+        versionService.likesChanged(id);
+        likeIndexService.removePost(id);
+        trendingService.removePost(id);
+        searchService.removePost(id, commentIds);
     }
 }
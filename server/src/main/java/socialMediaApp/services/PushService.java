@@ -0,0 +1,264 @@
+package socialMediaApp.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import socialMediaApp.responses.event.CommentEventResponse;
+import socialMediaApp.responses.event.LikeCountEventResponse;
+import socialMediaApp.responses.event.PostEventResponse;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes activity to connected clients over Server-Sent Events. A connection belongs to a user, who
+ * gets new posts from accounts they follow, and watches a set of posts, whose like counts and new
+ * comments it gets.
+ * <p>
+ * Events are queued per connection and written by a small dispatcher pool, a short while after the first
+ * one arrives so that bursts go out together. Like counts for the same post replace each other in the
+ * queue. The queue is bounded; when a slow client overflows it the oldest events are dropped and the
+ * client is sent a {@code resync} event instead. Idle connections get a heartbeat comment, which is also
+ * how dead ones are found and dropped.
+ */
+@Service
+public class PushService {
+
+    private final FollowGraphService followGraphService;
+    private final long timeoutMillis;
+    private final int bufferSize;
+    private final long coalesceMillis;
+    private final long heartbeatMillis;
+    private final ScheduledExecutorService dispatcher;
+
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Connection>> connectionsByUser = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Connection>> connectionsByPost = new ConcurrentHashMap<>();
+
+    public PushService(FollowGraphService followGraphService,
+                       @Value("${app.push.timeout-ms:1800000}") long timeoutMillis,
+                       @Value("${app.push.buffer-size:256}") int bufferSize,
+                       @Value("${app.push.coalesce-ms:250}") long coalesceMillis,
+                       @Value("${app.push.heartbeat-ms:15000}") long heartbeatMillis,
+                       @Value("${app.push.dispatch-threads:4}") int dispatchThreads) {
+        this.followGraphService = followGraphService;
+        this.timeoutMillis = timeoutMillis;
+        this.bufferSize = bufferSize;
+        this.coalesceMillis = coalesceMillis;
+        this.heartbeatMillis = heartbeatMillis;
+        this.dispatcher = Executors.newScheduledThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "push-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        dispatcher.shutdownNow();
+        for (Connection connection : connections.values()) {
+            connection.emitter.complete();
+        }
+    }
+
+    /**
+     * Opens a connection; its first event, {@code connected}, carries the id used by {@link #watch}. The id
+     * is random, so only the client holding the stream can change what it watches.
+     */
+    public SseEmitter subscribe(int userId, Collection<Integer> postIds) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Connection connection = new Connection(UUID.randomUUID().toString(), userId, emitter);
+        emitter.onCompletion(() -> unregister(connection));
+        emitter.onTimeout(() -> unregister(connection));
+        emitter.onError(e -> unregister(connection));
+        connections.put(connection.id, connection);
+        connectionsByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(connection);
+        watch(connection, postIds);
+        connection.offer(null, "connected", connection.id);
+        return emitter;
+    }
+
+    /** Replaces the posts a connection watches; returns false if the connection is gone. */
+    public boolean watch(String connectionId, Collection<Integer> postIds) {
+        Connection connection = connections.get(connectionId);
+        if (connection == null) {
+            return false;
+        }
+        watch(connection, postIds);
+        return true;
+    }
+
+    public int connectionCount() {
+        return connections.size();
+    }
+
+    /** Tells the followers of the author about a new post. */
+    public void onPostAdded(int postId, int authorId, String description) {
+        PostEventResponse event = new PostEventResponse(postId, authorId, description);
+        // Walk whichever side is smaller: the author's followers or the connected users.
+        if (followGraphService.countFollowers(authorId) <= connectionsByUser.size()) {
+            for (int followerId : followGraphService.getFollowers(authorId)) {
+                for (Connection connection : connectionsByUser.getOrDefault(followerId, Collections.emptySet())) {
+                    connection.offer(null, "post", event);
+                }
+            }
+        } else {
+            for (Map.Entry<Integer, Set<Connection>> entry : connectionsByUser.entrySet()) {
+                if (followGraphService.isFollowing(entry.getKey(), authorId)) {
+                    for (Connection connection : entry.getValue()) {
+                        connection.offer(null, "post", event);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Like counts coalesce: a client only ever gets the latest count of a post. */
+    public void onLikeCountChanged(int postId, long likeCount) {
+        LikeCountEventResponse event = new LikeCountEventResponse(postId, likeCount);
+        for (Connection connection : connectionsByPost.getOrDefault(postId, Collections.emptySet())) {
+            connection.offer("likes:" + postId, "likes", event);
+        }
+    }
+
+    public void onCommentAdded(int postId, int commentId, int userId) {
+        CommentEventResponse event = new CommentEventResponse(postId, commentId, userId);
+        for (Connection connection : connectionsByPost.getOrDefault(postId, Collections.emptySet())) {
+            connection.offer(null, "comment", event);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.push.heartbeat-ms:15000}")
+    public void heartbeat() {
+        long idleSince = System.currentTimeMillis() - heartbeatMillis;
+        for (Connection connection : connections.values()) {
+            if (connection.lastSentMillis < idleSince) {
+                connection.offer("heartbeat", null, null);
+            }
+        }
+    }
+
+    private void watch(Connection connection, Collection<Integer> postIds) {
+        Set<Integer> watched = new HashSet<>(postIds);
+        synchronized (connection) {
+            for (Integer postId : connection.postIds) {
+                if (!watched.contains(postId)) {
+                    removeFrom(connectionsByPost, postId, connection);
+                }
+            }
+            for (Integer postId : watched) {
+                connectionsByPost.computeIfAbsent(postId, id -> ConcurrentHashMap.newKeySet()).add(connection);
+            }
+            connection.postIds = watched;
+        }
+    }
+
+    private void unregister(Connection connection) {
+        if (connections.remove(connection.id) == null) {
+            return;
+        }
+        removeFrom(connectionsByUser, connection.userId, connection);
+        synchronized (connection) {
+            for (Integer postId : connection.postIds) {
+                removeFrom(connectionsByPost, postId, connection);
+            }
+            connection.postIds = Collections.emptySet();
+            connection.pending.clear();
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Connection>> index, K key, Connection connection) {
+        index.computeIfPresent(key, (k, set) -> {
+            set.remove(connection);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private final class Connection {
+        private final String id;
+        private final int userId;
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile long lastSentMillis = System.currentTimeMillis();
+        /** Guarded by this. */
+        private Set<Integer> postIds = Collections.emptySet();
+        /** Queued events by coalescing key, oldest first; guarded by this. */
+        private final LinkedHashMap<Object, Event> pending = new LinkedHashMap<>();
+        private long sequence;
+        private boolean overflowed;
+
+        Connection(String id, int userId, SseEmitter emitter) {
+            this.id = id;
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        /** Queues an event; a null {@code name} is a heartbeat comment. */
+        void offer(String coalesceKey, String name, Object data) {
+            synchronized (this) {
+                pending.put(coalesceKey != null ? coalesceKey : sequence++, new Event(name, data));
+                if (pending.size() > bufferSize) {
+                    Iterator<Event> oldest = pending.values().iterator();
+                    oldest.next();
+                    oldest.remove();
+                    overflowed = true;
+                }
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    dispatcher.schedule(this::drain, coalesceMillis, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    List<Event> batch;
+                    boolean resync;
+                    synchronized (this) {
+                        if (pending.isEmpty()) {
+                            scheduled.set(false);
+                            return;
+                        }
+                        batch = new ArrayList<>(pending.values());
+                        pending.clear();
+                        resync = overflowed;
+                        overflowed = false;
+                    }
+                    if (resync) {
+                        emitter.send(SseEmitter.event().name("resync").data(""));
+                    }
+                    for (Event event : batch) {
+                        emitter.send(event.name == null
+                                ? SseEmitter.event().comment("heartbeat")
+                                : SseEmitter.event().name(event.name).data(event.data, MediaType.APPLICATION_JSON));
+                    }
+                    lastSentMillis = System.currentTimeMillis();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away; the emitter callbacks may not fire for a broken pipe.
+                scheduled.set(false);
+                unregister(this);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private static final class Event {
+        private final String name;
+        private final Object data;
+
+        Event(String name, Object data) {
+            this.name = name;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package socialMediaApp.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.LikeRepository;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.responses.user.UserSuggestionResponse;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+
+/**
+ * "Who to follow" suggestions. A candidate is scored by how many of the accounts a user follows also
+ * follow it (a two-hop walk over {@link FollowGraphService}) plus how often the user liked its posts.
+ * <p>
+ * Suggestions for every user are recomputed on a schedule, in parallel over partitions of the user id
+ * space, and cached per user. A follow or unfollow drops the affected entry immediately and refreshes
+ * that user's suggestions in the background; users further away pick the change up on the next run.
+ */
+@Service
+public class RecommendationService {
+
+    private static final double SHARED_FOLLOW_WEIGHT = 1.0;
+    private static final double LIKE_WEIGHT = 0.5;
+    private static final int LEAF_PARTITION_SIZE = 256;
+
+    private final FollowGraphService followGraphService;
+    private final LikeRepository likeRepository;
+    private final UserRepository userRepository;
+    private final int maxSuggestions;
+    private final ForkJoinPool pool;
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "suggestions-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<Integer, Suggestion[]> suggestionsByUser = new ConcurrentHashMap<>();
+    private volatile Map<Integer, Map<Integer, Integer>> likesByAuthorByUser = Collections.emptyMap();
+
+    public RecommendationService(FollowGraphService followGraphService, LikeRepository likeRepository,
+                                 UserRepository userRepository,
+                                 @Value("${app.suggestions.max-per-user:50}") int maxSuggestions,
+                                 @Value("${app.suggestions.parallelism:0}") int parallelism) {
+        this.followGraphService = followGraphService;
+        this.likeRepository = likeRepository;
+        this.userRepository = userRepository;
+        this.maxSuggestions = maxSuggestions;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void close() {
+        refresher.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    @Scheduled(initialDelayString = "${app.suggestions.initial-delay-ms:30000}",
+            fixedDelayString = "${app.suggestions.refresh-interval-ms:600000}")
+    @Transactional(readOnly = true)
+    public void refreshAll() {
+        if (!followGraphService.isReady()) {
+            return;
+        }
+        likesByAuthorByUser = loadLikesByAuthor();
+        List<Integer> ids = userRepository.findAllIds();
+        int[] userIds = ids.stream().mapToInt(Integer::intValue).toArray();
+        pool.invoke(new Partition(userIds, 0, userIds.length));
+        suggestionsByUser.keySet().retainAll(new HashSet<>(ids));
+    }
+
+    public List<UserSuggestionResponse> getSuggestions(int userId, int limit) {
+        Suggestion[] suggestions = suggestionsByUser.get(userId);
+        if (suggestions == null) {
+            // Computed outside the map, so users in the same bin do not wait on it.
+            suggestions = compute(userId);
+            if (followGraphService.isReady()) {
+                Suggestion[] raced = suggestionsByUser.putIfAbsent(userId, suggestions);
+                suggestions = raced != null ? raced : suggestions;
+            }
+        }
+        int count = Math.min(limit, suggestions.length);
+        List<Integer> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(suggestions[i].userId);
+        }
+        Map<Integer, User> usersById = new HashMap<>();
+        for (User user : userRepository.findAllById(ids)) {
+            usersById.put(user.getId(), user);
+        }
+        List<UserSuggestionResponse> responses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = usersById.get(suggestions[i].userId);
+            if (user != null) {
+                responses.add(new UserSuggestionResponse(user.getId(), user.getName(), user.getLastName(),
+                        suggestions[i].sharedFollowCount));
+            }
+        }
+        return responses;
+    }
+
+    /** Called after a follow or unfollow has been written. */
+    public void onFollowChanged(int userId, int followingId) {
+        suggestionsByUser.computeIfPresent(userId, (id, suggestions) -> Arrays.stream(suggestions)
+                .filter(suggestion -> suggestion.userId != followingId)
+                .toArray(Suggestion[]::new));
+        refresher.execute(() -> {
+            if (followGraphService.isReady()) {
+                suggestionsByUser.put(userId, compute(userId));
+            }
+        });
+    }
+
+    public void removeUser(int userId) {
+        suggestionsByUser.remove(userId);
+    }
+
+    /** Empty until the follow graph has loaded; not cached then. */
+    private Suggestion[] compute(int userId) {
+        if (!followGraphService.isReady()) {
+            return new Suggestion[0];
+        }
+        int[] following = followGraphService.getFollowing(userId);
+        Map<Integer, Candidate> candidates = new HashMap<>();
+        for (int followed : following) {
+            for (int candidate : followGraphService.getFollowing(followed)) {
+                candidates.computeIfAbsent(candidate, Candidate::new).sharedFollows++;
+            }
+        }
+        Map<Integer, Integer> likesByAuthor = likesByAuthorByUser.getOrDefault(userId, Collections.emptyMap());
+        for (Map.Entry<Integer, Integer> entry : likesByAuthor.entrySet()) {
+            candidates.computeIfAbsent(entry.getKey(), Candidate::new).likes += entry.getValue();
+        }
+        candidates.remove(userId);
+        for (int followed : following) {
+            candidates.remove(followed);
+        }
+        return candidates.values().stream()
+                .sorted(Comparator.comparingDouble(Candidate::score).reversed().thenComparingInt(c -> c.userId))
+                .limit(maxSuggestions)
+                .map(c -> new Suggestion(c.userId, c.sharedFollows))
+                .toArray(Suggestion[]::new);
+    }
+
+    private Map<Integer, Map<Integer, Integer>> loadLikesByAuthor() {
+        Map<Integer, Map<Integer, Integer>> likesByAuthor = new HashMap<>();
+        try (Stream<Object[]> rows = likeRepository.streamLikeCountsByUserAndAuthor()) {
+            rows.forEach(row -> likesByAuthor
+                    .computeIfAbsent((Integer) row[0], id -> new HashMap<>())
+                    .put((Integer) row[1], ((Number) row[2]).intValue()));
+        }
+        return likesByAuthor;
+    }
+
+    /** Recomputes suggestions for {@code userIds[from, to)}, splitting until partitions are small. */
+    private final class Partition extends RecursiveAction {
+        private final int[] userIds;
+        private final int from;
+        private final int to;
+
+        Partition(int[] userIds, int from, int to) {
+            this.userIds = userIds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_PARTITION_SIZE) {
+                for (int i = from; i < to; i++) {
+                    suggestionsByUser.put(userIds[i], RecommendationService.this.compute(userIds[i]));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Partition(userIds, from, middle), new Partition(userIds, middle, to));
+        }
+    }
+
+    private static final class Candidate {
+        private final int userId;
+        private int sharedFollows;
+        private int likes;
+
+        Candidate(int userId) {
+            this.userId = userId;
+        }
+
+        double score() {
+            return SHARED_FOLLOW_WEIGHT * sharedFollows + LIKE_WEIGHT * likes;
+        }
+    }
+
+    private static final class Suggestion {
+        private final int userId;
+        private final int sharedFollowCount;
+
+        Suggestion(int userId, int sharedFollowCount) {
+            this.userId = userId;
+            this.sharedFollowCount = sharedFollowCount;
+        }
+    }
+}
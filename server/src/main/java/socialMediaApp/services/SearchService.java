@@ -0,0 +1,229 @@
+package socialMediaApp.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import socialMediaApp.models.Comment;
+import socialMediaApp.models.Post;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.CommentRepository;
+import socialMediaApp.repositories.PostRepository;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.responses.search.SearchHitResponse;
+import socialMediaApp.responses.search.SearchResponse;
+import socialMediaApp.responses.search.SearchStatsResponse;
+import socialMediaApp.search.DocType;
+import socialMediaApp.search.InvertedIndex;
+import socialMediaApp.search.SearchHit;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Full-text search over post descriptions, comment descriptions and user names, backed by an
+ * {@link InvertedIndex} that the post, comment and user services keep up to date after each write.
+ * <p>
+ * The index is reopened from its segment files after a clean shutdown and rebuilt from the tables
+ * otherwise. Hits whose row has disappeared in the meantime are dropped from the response and the index.
+ */
+@Service
+public class SearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+    private static final int LATENCY_SAMPLES = 1024;
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final UserRepository userRepository;
+    private final InvertedIndex index;
+    private volatile boolean ready;
+
+    /** Ring buffer of the most recent query latencies, in nanoseconds. */
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private final AtomicLong queryCount = new AtomicLong();
+
+    public SearchService(PostRepository postRepository, CommentRepository commentRepository, UserRepository userRepository,
+                         @Value("${app.search.index-dir:${java.io.tmpdir}/socialMediaApp/search-index}") String indexDir,
+                         @Value("${app.search.flush-docs:1000}") int flushDocs,
+                         @Value("${app.search.merge-factor:10}") int mergeFactor) {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.userRepository = userRepository;
+        this.index = new InvertedIndex(Paths.get(indexDir), flushDocs, mergeFactor);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        try {
+            if (!index.open()) {
+                rebuild();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ready = true;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!ready) {
+            return;
+        }
+        try {
+            index.close();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not close search index; it will be rebuilt on the next start", e);
+        }
+    }
+
+    /** Bounds how long recent documents sit in the unsorted buffer, which every query scans. */
+    @Scheduled(fixedDelayString = "${app.search.flush-interval-ms:30000}")
+    public void flush() {
+        if (ready) {
+            index.flush();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void indexPost(int postId, String description) {
+        index.add(DocType.POST.key(postId), description);
+    }
+
+    public void indexComment(int commentId, String description) {
+        index.add(DocType.COMMENT.key(commentId), description);
+    }
+
+    public void indexUser(int userId, String name, String lastName) {
+        index.add(DocType.USER.key(userId), name + " " + lastName);
+    }
+
+    public void removeComment(int commentId) {
+        index.delete(DocType.COMMENT.key(commentId));
+    }
+
+    /** Removes the post and the comments that were deleted along with it. */
+    public void removePost(int postId, Collection<Integer> commentIds) {
+        index.delete(DocType.POST.key(postId));
+        for (int commentId : commentIds) {
+            removeComment(commentId);
+        }
+    }
+
+    /** Removes the user and the posts and comments that were deleted along with them. */
+    public void removeUser(int userId, Collection<Integer> postIds, Collection<Integer> commentIds) {
+        index.delete(DocType.USER.key(userId));
+        for (int postId : postIds) {
+            index.delete(DocType.POST.key(postId));
+        }
+        for (int commentId : commentIds) {
+            removeComment(commentId);
+        }
+    }
+
+    /**
+     * Ranked search; {@code type} is null for all document types.
+     *
+     * @throws IllegalArgumentException if {@code type} is not a {@link DocType}
+     */
+    public SearchResponse search(String query, String type, int page, int size) {
+        long start = System.nanoTime();
+        DocType docType = type == null || type.isEmpty() ? null : DocType.valueOf(type.toUpperCase(Locale.ROOT));
+        InvertedIndex.SearchResult result = index.search(query, docType, page * size, size);
+        List<SearchHitResponse> hits = resolve(result.getHits());
+        long tookNanos = System.nanoTime() - start;
+        latencies[(int) (queryCount.getAndIncrement() % LATENCY_SAMPLES)] = tookNanos;
+        return new SearchResponse(query, page, size, result.getTotalHits(), tookNanos / 1000, hits);
+    }
+
+    /** Latency percentiles over the last {@value #LATENCY_SAMPLES} queries. */
+    public SearchStatsResponse getStats() {
+        long count = queryCount.get();
+        long[] samples = Arrays.copyOf(latencies, (int) Math.min(count, LATENCY_SAMPLES));
+        Arrays.sort(samples);
+        return new SearchStatsResponse(count, percentileMicros(samples, 0.50), percentileMicros(samples, 0.99),
+                samples.length == 0 ? 0 : samples[samples.length - 1] / 1000, index.docCount(), index.segmentCount());
+    }
+
+    private void rebuild() {
+        try (Stream<Object[]> rows = postRepository.streamIdsAndDescriptions()) {
+            rows.forEach(row -> indexPost((Integer) row[0], (String) row[1]));
+        }
+        try (Stream<Object[]> rows = commentRepository.streamIdsAndDescriptions()) {
+            rows.forEach(row -> indexComment((Integer) row[0], (String) row[1]));
+        }
+        try (Stream<Object[]> rows = userRepository.streamIdsAndNames()) {
+            rows.forEach(row -> indexUser((Integer) row[0], (String) row[1], (String) row[2]));
+        }
+        index.flush();
+        log.info("Rebuilt search index with {} documents", index.docCount());
+    }
+
+    /** Loads the entities behind the hits with one query per type, keeping the ranking order. */
+    private List<SearchHitResponse> resolve(List<SearchHit> hits) {
+        Map<DocType, List<Integer>> idsByType = new EnumMap<>(DocType.class);
+        for (SearchHit hit : hits) {
+            idsByType.computeIfAbsent(hit.getType(), t -> new ArrayList<>()).add(hit.getId());
+        }
+        Map<Integer, Post> posts = new HashMap<>();
+        Map<Integer, Comment> comments = new HashMap<>();
+        Map<Integer, User> users = new HashMap<>();
+        if (idsByType.containsKey(DocType.POST)) {
+            postRepository.findAllById(idsByType.get(DocType.POST)).forEach(post -> posts.put(post.getId(), post));
+        }
+        if (idsByType.containsKey(DocType.COMMENT)) {
+            commentRepository.findAllById(idsByType.get(DocType.COMMENT)).forEach(comment -> comments.put(comment.getId(), comment));
+        }
+        if (idsByType.containsKey(DocType.USER)) {
+            userRepository.findAllById(idsByType.get(DocType.USER)).forEach(user -> users.put(user.getId(), user));
+        }
+        List<SearchHitResponse> responses = new ArrayList<>(hits.size());
+        for (SearchHit hit : hits) {
+            SearchHitResponse response = toResponse(hit, posts, comments, users);
+            if (response != null) {
+                responses.add(response);
+            } else {
+                index.delete(hit.getType().key(hit.getId()));
+            }
+        }
+        return responses;
+    }
+
+    private static SearchHitResponse toResponse(SearchHit hit, Map<Integer, Post> posts, Map<Integer, Comment> comments,
+                                                Map<Integer, User> users) {
+        switch (hit.getType()) {
+            case POST:
+                Post post = posts.get(hit.getId());
+                return post == null ? null : new SearchHitResponse(hit.getType().name(), post.getId(), post.getId(),
+                        post.getUser().getId(), post.getDescription(), hit.getScore());
+            case COMMENT:
+                Comment comment = comments.get(hit.getId());
+                return comment == null ? null : new SearchHitResponse(hit.getType().name(), comment.getId(),
+                        comment.getPost().getId(), comment.getUser().getId(), comment.getDescription(), hit.getScore());
+            default:
+                User user = users.get(hit.getId());
+                return user == null ? null : new SearchHitResponse(hit.getType().name(), user.getId(), null,
+                        user.getId(), user.getName() + " " + user.getLastName(), hit.getScore());
+        }
+    }
+
+    private static long percentileMicros(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.ceil(percentile * sorted.length) - 1] / 1000;
+    }
+}
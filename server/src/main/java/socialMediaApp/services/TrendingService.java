@@ -0,0 +1,235 @@
+package socialMediaApp.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import socialMediaApp.repositories.CommentRepository;
+import socialMediaApp.repositories.LikeRepository;
+import socialMediaApp.repositories.PostRepository;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Ranks posts by likes and comments with exponential time decay, updated incrementally on every write.
+ * <p>
+ * A score is stored as {@code sum(weight * e^(lambda * (t - epoch)))} over the post's events. Decaying every
+ * score by the same factor does not change the ordering, so scores never need to be recomputed as time
+ * passes; the epoch is only moved forward now and then to keep the numbers in range. Only the top
+ * {@code app.trending.window-size} posts are kept, in a skip-list ordered by score.
+ */
+@Service
+public class TrendingService {
+
+    static final double POST_WEIGHT = 1.0;
+    static final double LIKE_WEIGHT = 1.0;
+    static final double COMMENT_WEIGHT = 2.0;
+    /** Move the epoch forward before e^(lambda * age) gets anywhere near overflowing. */
+    private static final double MAX_EXPONENT = 50;
+
+    private final PostRepository postRepository;
+    private final LikeRepository likeRepository;
+    private final CommentRepository commentRepository;
+    private final Clock clock;
+    private final double lambdaPerMilli;
+    private final Duration rebuildWindow;
+    private final int windowSize;
+
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>();
+    private final Map<Integer, Entry> entriesByPost = new ConcurrentHashMap<>();
+    /** Increments hold the read lock; moving the epoch or rebuilding holds the write lock. */
+    private final ReadWriteLock epochLock = new ReentrantReadWriteLock();
+    private volatile long epochMillis;
+
+    public TrendingService(PostRepository postRepository, LikeRepository likeRepository, CommentRepository commentRepository,
+                           Clock clock,
+                           @Value("${app.trending.half-life-hours:6}") double halfLifeHours,
+                           @Value("${app.trending.window-size:1000}") int windowSize) {
+        this.postRepository = postRepository;
+        this.likeRepository = likeRepository;
+        this.commentRepository = commentRepository;
+        this.clock = clock;
+        this.lambdaPerMilli = Math.log(2) / (halfLifeHours * 3_600_000);
+        this.rebuildWindow = Duration.ofMillis((long) (halfLifeHours * 3_600_000 * 10));
+        this.windowSize = windowSize;
+        this.epochMillis = clock.millis();
+    }
+
+    /** Rebuilds the ranking from posts, likes and comments younger than ten half-lives. */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long epoch = clock.millis();
+        Instant since = Instant.ofEpochMilli(epoch).minus(rebuildWindow);
+        Map<Integer, Double> scores = new HashMap<>();
+        try (Stream<Object[]> rows = postRepository.streamIdsAndTimesSince(since)) {
+            rows.forEach(row -> scores.merge((Integer) row[0], contribution(POST_WEIGHT, row[1], epoch), Double::sum));
+        }
+        try (Stream<Object[]> rows = likeRepository.streamPostIdsAndTimesSince(since)) {
+            rows.forEach(row -> scores.merge((Integer) row[0], contribution(LIKE_WEIGHT, row[1], epoch), Double::sum));
+        }
+        try (Stream<Object[]> rows = commentRepository.streamPostIdsAndTimesSince(since)) {
+            rows.forEach(row -> scores.merge((Integer) row[0], contribution(COMMENT_WEIGHT, row[1], epoch), Double::sum));
+        }
+        List<Entry> top = new ArrayList<>(scores.size());
+        scores.forEach((postId, score) -> top.add(new Entry(postId, score)));
+        top.sort(null);
+
+        epochLock.writeLock().lock();
+        try {
+            ranking.clear();
+            entriesByPost.clear();
+            epochMillis = epoch;
+            for (Entry entry : top.subList(0, Math.min(windowSize, top.size()))) {
+                entriesByPost.put(entry.postId, entry);
+                ranking.add(entry);
+            }
+        } finally {
+            epochLock.writeLock().unlock();
+        }
+    }
+
+    /** Moves the epoch forward by rescaling every score, which keeps the ordering. */
+    @Scheduled(fixedDelayString = "${app.trending.rebase-interval-ms:3600000}")
+    public void rebase() {
+        epochLock.writeLock().lock();
+        try {
+            long now = clock.millis();
+            double factor = Math.exp(-lambdaPerMilli * (now - epochMillis));
+            List<Entry> rescaled = new ArrayList<>(entriesByPost.size());
+            for (Entry entry : entriesByPost.values()) {
+                rescaled.add(new Entry(entry.postId, entry.score * factor));
+            }
+            ranking.clear();
+            entriesByPost.clear();
+            for (Entry entry : rescaled) {
+                entriesByPost.put(entry.postId, entry);
+                ranking.add(entry);
+            }
+            epochMillis = now;
+        } finally {
+            epochLock.writeLock().unlock();
+        }
+    }
+
+    public void onPostAdded(int postId) {
+        adjust(postId, POST_WEIGHT, clock.millis());
+    }
+
+    /** Adds the like as of {@code likedAt}, its stored time, so that an unlike takes back exactly this weight. */
+    public void onLiked(int postId, Instant likedAt) {
+        adjust(postId, LIKE_WEIGHT, likedAt.toEpochMilli());
+    }
+
+    /**
+     * An unlike takes back what the like still adds: its weight decayed from {@code likedAt}, never below
+     * zero. A like without a time was never counted, so there is nothing to take back.
+     */
+    public void onUnliked(int postId, Instant likedAt) {
+        if (likedAt != null) {
+            adjust(postId, -LIKE_WEIGHT, likedAt.toEpochMilli());
+        }
+    }
+
+    public void onCommented(int postId) {
+        adjust(postId, COMMENT_WEIGHT, clock.millis());
+    }
+
+    public void removePost(int postId) {
+        entriesByPost.computeIfPresent(postId, (id, entry) -> {
+            ranking.remove(entry);
+            return null;
+        });
+    }
+
+    /** Post ids of the requested page, highest score first. */
+    public List<Integer> getPage(int page, int size) {
+        List<Integer> postIds = new ArrayList<>(size);
+        long skip = (long) page * size;
+        epochLock.readLock().lock();
+        try {
+            for (Entry entry : ranking) {
+                if (skip-- > 0) {
+                    continue;
+                }
+                if (postIds.size() == size) {
+                    break;
+                }
+                postIds.add(entry.postId);
+            }
+        } finally {
+            epochLock.readLock().unlock();
+        }
+        return postIds;
+    }
+
+    /** Adds {@code weight} as of {@code atMillis}. */
+    private void adjust(int postId, double weight, long atMillis) {
+        if (lambdaPerMilli * (clock.millis() - epochMillis) > MAX_EXPONENT) {
+            rebase();
+        }
+        epochLock.readLock().lock();
+        try {
+            double delta = weight * Math.exp(lambdaPerMilli * (atMillis - epochMillis));
+            entriesByPost.compute(postId, (id, entry) -> {
+                double score = Math.max(0, (entry == null ? 0 : entry.score) + delta);
+                if (entry != null) {
+                    ranking.remove(entry);
+                }
+                if (score == 0) {
+                    return null;
+                }
+                Entry updated = new Entry(id, score);
+                ranking.add(updated);
+                return updated;
+            });
+            trim();
+        } finally {
+            epochLock.readLock().unlock();
+        }
+    }
+
+    /** Evicts the lowest-ranked posts once the window is over its bound. */
+    private void trim() {
+        while (entriesByPost.size() > windowSize) {
+            Entry lowest = ranking.pollLast();
+            if (lowest == null) {
+                return;
+            }
+            entriesByPost.remove(lowest.postId, lowest);
+        }
+    }
+
+    private double contribution(double weight, Object time, long epoch) {
+        long millis = time instanceof Timestamp ? ((Timestamp) time).getTime() : ((Instant) time).toEpochMilli();
+        return weight * Math.exp(lambdaPerMilli * (millis - epoch));
+    }
+
+    /** Ordered by score descending, then by post id descending so newer posts win ties. */
+    private static final class Entry implements Comparable<Entry> {
+        private final int postId;
+        private final double score;
+
+        Entry(int postId, double score) {
+            this.postId = postId;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byScore = Double.compare(other.score, score);
+            return byScore != 0 ? byScore : Integer.compare(other.postId, postId);
+        }
+    }
+}
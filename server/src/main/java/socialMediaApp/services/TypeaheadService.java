@@ -0,0 +1,250 @@
+package socialMediaApp.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import socialMediaApp.repositories.FollowRepository;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.responses.user.UserTypeaheadResponse;
+import socialMediaApp.search.Tokenizer;
+import socialMediaApp.utils.PrefixIndex;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * User name typeahead. Every user is indexed under "name lastname" and "lastname name", normalized by
+ * {@link Tokenizer#normalize(String)}, in a {@link PrefixIndex} scored by follower count.
+ * <p>
+ * Users registered since the index was built sit in a small sorted map and deleted users in a set; both
+ * are folded into a fresh index in the background once the map grows past
+ * {@code app.typeahead.rebuild-threshold}, and on a schedule to pick up follower counts that drifted.
+ */
+@Service
+public class TypeaheadService {
+
+    private static final int MAX_LIMIT = 50;
+
+    private final UserRepository userRepository;
+    private final FollowRepository followRepository;
+    private final FollowGraphService followGraphService;
+    private final int rebuildThreshold;
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "typeahead-rebuilder");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private volatile Snapshot snapshot = new Snapshot(new Entry[0], new PrefixIndex(new String[0], new int[0], new int[0]));
+    /** Keyed by normalized name, a NUL and the user id, so equal names do not collide. */
+    private final ConcurrentSkipListMap<String, Entry> recent = new ConcurrentSkipListMap<>();
+    private final Set<Integer> removed = ConcurrentHashMap.newKeySet();
+    /** Follower counts reported while a rebuild is running, replayed onto the new index; guarded by this. */
+    private Map<Integer, Integer> pendingCounts;
+    private volatile boolean ready;
+
+    public TypeaheadService(UserRepository userRepository, FollowRepository followRepository,
+                            FollowGraphService followGraphService,
+                            @Value("${app.typeahead.rebuild-threshold:1000}") int rebuildThreshold) {
+        this.userRepository = userRepository;
+        this.followRepository = followRepository;
+        this.followGraphService = followGraphService;
+        this.rebuildThreshold = rebuildThreshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        Map<Integer, Integer> followerCounts = new HashMap<>();
+        try (Stream<Object[]> rows = followRepository.streamFollowerCounts()) {
+            rows.forEach(row -> followerCounts.put((Integer) row[0], ((Number) row[1]).intValue()));
+        }
+        List<Entry> entries = new ArrayList<>();
+        try (Stream<Object[]> rows = userRepository.streamIdsAndNames()) {
+            rows.forEach(row -> addEntries(entries, (Integer) row[0], (String) row[1], (String) row[2],
+                    followerCounts.getOrDefault((Integer) row[0], 0)));
+        }
+        install(entries, null);
+        ready = true;
+    }
+
+    @PreDestroy
+    public void close() {
+        rebuilder.shutdownNow();
+    }
+
+    /** Folds recent registrations and deletions into a new index with current follower counts. */
+    @Scheduled(initialDelayString = "${app.typeahead.rebuild-interval-ms:600000}",
+            fixedDelayString = "${app.typeahead.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        if (!ready || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            synchronized (this) {
+                pendingCounts = new HashMap<>();
+            }
+            Set<Integer> removedNow = new HashSet<>(removed);
+            Map<String, Entry> recentNow = new HashMap<>(recent);
+            Set<Integer> kept = new HashSet<>();
+            List<Entry> entries = new ArrayList<>();
+            Snapshot current = snapshot;
+            for (int position = 0; position < current.entries.length; position++) {
+                Entry entry = current.entries[position];
+                if (!removedNow.contains(entry.userId)) {
+                    entries.add(entry.withFollowers(followerCount(entry.userId, current.index.score(position))));
+                    kept.add(entry.userId);
+                }
+            }
+            for (Entry entry : recentNow.values()) {
+                if (!removedNow.contains(entry.userId) && !kept.contains(entry.userId)) {
+                    entries.add(entry.withFollowers(followerCount(entry.userId, entry.followers)));
+                }
+            }
+            install(entries, recentNow);
+            removed.removeAll(removedNow);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    public void addUser(int userId, String name, String lastName) {
+        List<Entry> entries = new ArrayList<>(2);
+        addEntries(entries, userId, name, lastName, 0);
+        for (Entry entry : entries) {
+            recent.put(entry.key + '\0' + userId, entry);
+        }
+        if (recent.size() > rebuildThreshold && !rebuilding.get()) {
+            rebuilder.execute(this::rebuild);
+        }
+    }
+
+    public void removeUser(int userId) {
+        removed.add(userId);
+        recent.values().removeIf(entry -> entry.userId == userId);
+    }
+
+    /** Called after a follow or unfollow with the followed user's new follower count. */
+    public synchronized void onFollowerCountChanged(int userId, int followerCount) {
+        snapshot.index.setScore(userId, followerCount);
+        for (Entry entry : recent.values()) {
+            if (entry.userId == userId) {
+                entry.followers = followerCount;
+            }
+        }
+        if (pendingCounts != null) {
+            pendingCounts.put(userId, followerCount);
+        }
+    }
+
+    /** Up to {@code limit} users whose name or last name starts with {@code query}, most followed first. */
+    public List<UserTypeaheadResponse> search(String query, int limit) {
+        String prefix = Tokenizer.normalize(query);
+        int max = Math.min(Math.max(limit, 0), MAX_LIMIT);
+        if (prefix.isEmpty() || max == 0) {
+            return Collections.emptyList();
+        }
+        Map<Integer, UserTypeaheadResponse> matches = new LinkedHashMap<>();
+        Snapshot current = snapshot;
+        int[] range = current.index.range(prefix);
+        current.index.forEachByScore(range[0], range[1], position -> {
+            Entry entry = current.entries[position];
+            if (!removed.contains(entry.userId)) {
+                matches.putIfAbsent(entry.userId, entry.toResponse(current.index.score(position)));
+            }
+            return matches.size() < max;
+        });
+        for (Entry entry : recent.subMap(prefix, prefix + Character.MAX_VALUE).values()) {
+            if (!removed.contains(entry.userId)) {
+                matches.putIfAbsent(entry.userId, entry.toResponse(entry.followers));
+            }
+        }
+        List<UserTypeaheadResponse> responses = new ArrayList<>(matches.values());
+        responses.sort(Comparator.comparingInt(UserTypeaheadResponse::getFollowerCount).reversed());
+        return responses.size() > max ? responses.subList(0, max) : responses;
+    }
+
+    private void install(List<Entry> entries, Map<String, Entry> folded) {
+        entries.sort(Comparator.comparing(entry -> entry.key));
+        Entry[] sorted = entries.toArray(new Entry[0]);
+        String[] keys = new String[sorted.length];
+        int[] ids = new int[sorted.length];
+        int[] scores = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            keys[i] = sorted[i].key;
+            ids[i] = sorted[i].userId;
+            scores[i] = sorted[i].followers;
+        }
+        Snapshot next = new Snapshot(sorted, new PrefixIndex(keys, ids, scores));
+        synchronized (this) {
+            if (pendingCounts != null) {
+                pendingCounts.forEach(next.index::setScore);
+                pendingCounts = null;
+            }
+            snapshot = next;
+        }
+        if (folded != null) {
+            folded.forEach(recent::remove);
+        }
+    }
+
+    private int followerCount(int userId, int fallback) {
+        return followGraphService.isReady() ? followGraphService.countFollowers(userId) : fallback;
+    }
+
+    private static void addEntries(List<Entry> entries, int userId, String name, String lastName, int followers) {
+        String forward = Tokenizer.normalize(name + " " + lastName);
+        String reverse = Tokenizer.normalize(lastName + " " + name);
+        if (!forward.isEmpty()) {
+            entries.add(new Entry(forward, userId, name, lastName, followers));
+        }
+        if (!reverse.equals(forward)) {
+            entries.add(new Entry(reverse, userId, name, lastName, followers));
+        }
+    }
+
+    private static final class Snapshot {
+        private final Entry[] entries;
+        private final PrefixIndex index;
+
+        Snapshot(Entry[] entries, PrefixIndex index) {
+            this.entries = entries;
+            this.index = index;
+        }
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final int userId;
+        private final String name;
+        private final String lastName;
+        /** Only maintained for recent entries; indexed entries keep their count in the index. */
+        private volatile int followers;
+
+        Entry(String key, int userId, String name, String lastName, int followers) {
+            this.key = key;
+            this.userId = userId;
+            this.name = name;
+            this.lastName = lastName;
+            this.followers = followers;
+        }
+
+        Entry withFollowers(int followers) {
+            return new Entry(key, userId, name, lastName, followers);
+        }
+
+        UserTypeaheadResponse toResponse(int followerCount) {
+            return new UserTypeaheadResponse(userId, name, lastName, followerCount);
+        }
+    }
+}
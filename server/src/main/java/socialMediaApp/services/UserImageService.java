@@ -1,14 +1,19 @@
 package socialMediaApp.services;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import socialMediaApp.events.DomainEventType;
 import socialMediaApp.mappers.UserImageMapper;
+import socialMediaApp.metrics.ImageMetrics;
 import socialMediaApp.models.UserImage;
 import socialMediaApp.repositories.UserImageRepository;
 import socialMediaApp.responses.userImage.UserImageResponse;
 import socialMediaApp.utils.ImageUtil;
 
 import java.io.IOException;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -17,23 +22,35 @@ public class UserImageService {
     private final UserImageRepository userImageRepository;
     private final UserService userService;
     private final UserImageMapper userImageMapper;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final ImageMetrics imageMetrics;
 
-    public UserImageService(UserImageRepository userImageRepository, UserService userService, UserImageMapper userImageMapper) {
+    public UserImageService(UserImageRepository userImageRepository, UserService userService, UserImageMapper userImageMapper,
+                            OutboxService outboxService, TransactionTemplate transactionTemplate, ImageMetrics imageMetrics) {
         this.userImageRepository = userImageRepository;
         this.userService = userService;
         this.userImageMapper = userImageMapper;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.imageMetrics = imageMetrics;
     }
 
     public UserImageResponse upload(MultipartFile file,int userId) throws IOException {
         UserImage userImage = new UserImage();
-        userImage.setData(ImageUtil.compressImage(file.getBytes()));
+        userImage.setData(imageMetrics.compress(file.getBytes()));
         userImage.setName(file.getOriginalFilename());
         userImage.setType(file.getContentType());
         userImage.setUser(userService.getById(userId));
-        userImageRepository.save(userImage);
+        transactionTemplate.executeWithoutResult(status -> {
+            userImageRepository.save(userImage);
+            outboxService.publish(DomainEventType.USER_IMAGE_UPLOADED, userId,
+                    Map.of("imageId", userImage.getId(), "userId", userId));
+        });
         return userImageMapper.userImageToResponse(userImage);
     }
 
+    @Transactional(readOnly = true)
     public byte[] download(int id){
         Optional<UserImage> userImage = userImageRepository.findByUser_Id(id);
         return ImageUtil.decompressImage(userImage.get().getData());
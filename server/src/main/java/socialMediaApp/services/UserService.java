@@ -1,62 +1,286 @@
 package socialMediaApp.services;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import socialMediaApp.mappers.UserMapper;
 import socialMediaApp.models.Follow;
 import socialMediaApp.models.User;
+import socialMediaApp.projections.UserProfile;
+import socialMediaApp.projections.UserSummary;
+import socialMediaApp.repositories.CommentRepository;
 import socialMediaApp.repositories.FollowRepository;
+import socialMediaApp.repositories.PostRepository;
 import socialMediaApp.repositories.UserRepository;
 import socialMediaApp.requests.UserAddRequest;
+import socialMediaApp.responses.user.UserFollowerResponse;
 import socialMediaApp.responses.user.UserFollowingResponse;
 import socialMediaApp.responses.user.UserResponse;
+import socialMediaApp.responses.user.UserSuggestionResponse;
+import socialMediaApp.responses.user.UserTypeaheadResponse;
+import socialMediaApp.utils.IdBatches;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
    private final UserMapper userMapper;
    private final UserRepository userRepository;
    private final FollowRepository followRepository;
+   private final LikeIndexService likeIndexService;
+   private final FollowGraphService followGraphService;
+   private final RecommendationService recommendationService;
+   private final SearchService searchService;
+   private final TypeaheadService typeaheadService;
+   private final VersionService versionService;
+   private final PostRepository postRepository;
+   private final CommentRepository commentRepository;
+   private final TrendingService trendingService;
+   private final DeletionService deletionService;
 
-    public UserService(UserMapper userMapper, UserRepository userRepository, FollowRepository followRepository) {
+    public UserService(UserMapper userMapper, UserRepository userRepository, FollowRepository followRepository,
+                       LikeIndexService likeIndexService, FollowGraphService followGraphService,
+                       RecommendationService recommendationService, SearchService searchService,
+                       TypeaheadService typeaheadService, VersionService versionService, PostRepository postRepository,
+                       CommentRepository commentRepository, TrendingService trendingService,
+                       DeletionService deletionService) {
         this.userMapper = userMapper;
         this.userRepository = userRepository;
         this.followRepository = followRepository;
+        this.likeIndexService = likeIndexService;
+        this.followGraphService = followGraphService;
+        this.recommendationService = recommendationService;
+        this.searchService = searchService;
+        this.typeaheadService = typeaheadService;
+        this.versionService = versionService;
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.trendingService = trendingService;
+        this.deletionService = deletionService;
     }
 
-    public List<UserResponse> getAll(){
-
-        return userMapper.usersToResponses(userRepository.findAll());
+    /**
+     * Maps every user into {@code sink}, one projected row at a time. Follow counts come from the follow
+     * graph, or from two grouped queries while it is still loading.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<UserResponse> sink){
+        IntUnaryOperator followerCounts = this::countFollowers;
+        IntUnaryOperator followingCounts = this::countFollowing;
+        if (!followGraphService.isReady()){
+            Map<Integer, Integer> followers = toCounts(followRepository.streamFollowerCounts());
+            Map<Integer, Integer> following = toCounts(followRepository.streamFollowingCounts());
+            followerCounts = id -> followers.getOrDefault(id, 0);
+            followingCounts = id -> following.getOrDefault(id, 0);
+        }
+        try (Stream<UserProfile> profiles = userRepository.streamProfiles()){
+            Iterator<UserProfile> iterator = profiles.iterator();
+            while (iterator.hasNext()){
+                sink.accept(toResponse(iterator.next(), followerCounts, followingCounts));
+            }
+        }
     }
+
+    @Transactional(readOnly = true)
     public UserResponse getResponseById(int id){
-        User user = userRepository.findById(id).orElse(null);
-        return userMapper.userToResponse(user);
+        return userRepository.findProfileById(id)
+                .map(profile -> toResponse(profile, this::countFollowers, this::countFollowing))
+                .orElse(null);
+    }
+
+    /** The users with the given ids, in the order asked for. */
+    @Transactional(readOnly = true)
+    public List<UserResponse> getResponsesByIds(Collection<Integer> ids){
+        Set<Integer> userIds = new LinkedHashSet<>(ids);
+        Map<Integer, UserProfile> profilesById = new HashMap<>();
+        for (UserProfile profile : IdBatches.query(userIds, userRepository::findProfilesByIdIn)){
+            profilesById.put(profile.getId(), profile);
+        }
+        List<UserResponse> responses = new ArrayList<>(profilesById.size());
+        for (Integer userId : userIds){
+            UserProfile profile = profilesById.get(userId);
+            if (profile != null){
+                responses.add(toResponse(profile, this::countFollowers, this::countFollowing));
+            }
+        }
+        return responses;
     }
 
     public UserResponse getByEmail(String email){
-        User user = userRepository.findByEmail(email);
-        return userMapper.userToResponse(user);
+        return userRepository.findProfileByEmail(email)
+                .map(profile -> toResponse(profile, this::countFollowers, this::countFollowing))
+                .orElse(null);
     }
 
     public List<UserFollowingResponse> getUserFollowing(int userId){
-        return userMapper.followsToFollowingResponses(followRepository.findAllByUser_Id(userId));
+        if (!followGraphService.isReady()){
+            return userMapper.followsToFollowingResponses(followRepository.findAllByUser_Id(userId));
+        }
+        return toFollowingResponses(loadSummaries(followGraphService.getFollowing(userId)));
+    }
+
+    public List<UserFollowingResponse> getFollowingPage(int userId, int page, int size){
+        if (!followGraphService.isReady()){
+            return toFollowingResponses(loadSummaries(page < 0 || size < 1 ? new int[0]
+                    : toArray(followRepository.findFollowingIds(userId, PageRequest.of(page, size)))));
+        }
+        return toFollowingResponses(loadSummaries(followGraphService.getFollowingPage(userId, page, size)));
+    }
+
+    public List<UserFollowerResponse> getFollowersPage(int userId, int page, int size){
+        if (!followGraphService.isReady()){
+            return toFollowerResponses(loadSummaries(page < 0 || size < 1 ? new int[0]
+                    : toArray(followRepository.findFollowerIds(userId, PageRequest.of(page, size)))));
+        }
+        return toFollowerResponses(loadSummaries(followGraphService.getFollowersPage(userId, page, size)));
+    }
+
+    public List<UserFollowingResponse> getMutuals(int userId){
+        if (!followGraphService.isReady()){
+            return toFollowingResponses(loadSummaries(toArray(followRepository.findMutualIds(userId))));
+        }
+        return toFollowingResponses(loadSummaries(followGraphService.getMutuals(userId)));
+    }
+
+    public List<UserSuggestionResponse> getSuggestions(int userId, int limit){
+        return recommendationService.getSuggestions(userId, limit);
+    }
+
+    public List<UserTypeaheadResponse> typeahead(String query, int limit){
+        return typeaheadService.search(query, limit);
     }
 
     public boolean isFollowing(int userId,int followingId){
+        if (followGraphService.isReady()){
+            return followGraphService.isFollowing(userId,followingId);
+        }
        Optional<Follow> follow = followRepository.findByUser_IdAndFollowing_Id(userId,followingId);
        return follow.isPresent();
     }
 
+    /** Which of {@code followingIds} the user follows. */
+    public List<Integer> getFollowedAmong(int userId, List<Integer> followingIds){
+        if (followGraphService.isReady()){
+            List<Integer> followed = new ArrayList<>();
+            for (Integer followingId : followingIds){
+                if (followGraphService.isFollowing(userId, followingId)){
+                    followed.add(followingId);
+                }
+            }
+            return followed;
+        }
+        return IdBatches.query(followingIds, batch -> followRepository.findFollowedIds(userId, batch));
+    }
+
     public User getById(int id){
         return userRepository.findById(id).get();
     }
     public void add(UserAddRequest userAddRequest){
-        User user = userMapper.requestToUser(userAddRequest);
+        save(userMapper.requestToUser(userAddRequest));
+    }
+
+    /** Inserts a new user and makes them findable by search and typeahead. */
+    public User save(User user){
         userRepository.save(user);
+        versionService.userChanged(user.getId());
+        searchService.indexUser(user.getId(), user.getName(), user.getLastName());
+        typeaheadService.addUser(user.getId(), user.getName(), user.getLastName());
+        return user;
     }
 
+    /** Hides the user and their posts at once; everything they own is purged in the background. */
     public void delete(int id){
-        userRepository.deleteById(id);
+        List<Integer> postIds = postRepository.findIdsByUserId(id);
+        // Everything deleting the user removes: their comments and the comments on their posts.
+        Set<Integer> commentIds = new HashSet<>(commentRepository.findIdsByUserId(id));
+        commentIds.addAll(commentRepository.findIdsByPostAuthor(id));
+        if (!deletionService.deleteUser(id)){
+            return;
+        }
+        versionService.userDeleted();
+        likeIndexService.removeUser(id);
+        for (int postId : postIds){
+            likeIndexService.removePost(postId);
+            trendingService.removePost(postId);
+        }
+        followGraphService.removeUser(id);
+        recommendationService.removeUser(id);
+        searchService.removeUser(id, postIds, commentIds);
+        typeaheadService.removeUser(id);
+    }
+
+    private UserResponse toResponse(UserProfile profile, IntUnaryOperator followerCounts, IntUnaryOperator followingCounts){
+        UserResponse response = userMapper.profileToResponse(profile);
+        response.setFollowerCount(followerCounts.applyAsInt(profile.getId()));
+        response.setFollowingCount(followingCounts.applyAsInt(profile.getId()));
+        return response;
+    }
+
+    private int countFollowers(int userId){
+        if (followGraphService.isReady()){
+            return followGraphService.countFollowers(userId);
+        }
+        return (int) followRepository.countByFollowing_Id(userId);
+    }
+
+    private int countFollowing(int userId){
+        if (followGraphService.isReady()){
+            return followGraphService.countFollowing(userId);
+        }
+        return (int) followRepository.countByUser_Id(userId);
+    }
+
+    private static Map<Integer, Integer> toCounts(Stream<Object[]> rows){
+        Map<Integer, Integer> counts = new HashMap<>();
+        try (rows){
+            rows.forEach(row -> counts.put((Integer) row[0], ((Number) row[1]).intValue()));
+        }
+        return counts;
+    }
+
+    private static int[] toArray(List<Integer> ids){
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /** Loads the names of the users with the given ids, keeping the order of {@code ids}. */
+    private List<UserSummary> loadSummaries(int[] ids){
+        if (ids.length == 0){
+            return Collections.emptyList();
+        }
+        List<Integer> idList = new ArrayList<>(ids.length);
+        for (int id : ids){
+            idList.add(id);
+        }
+        Map<Integer, UserSummary> summariesById = new HashMap<>();
+        for (UserSummary summary : IdBatches.query(idList, userRepository::findSummariesByIdIn)){
+            summariesById.put(summary.getId(), summary);
+        }
+        List<UserSummary> summaries = new ArrayList<>(ids.length);
+        for (int id : ids){
+            UserSummary summary = summariesById.get(id);
+            if (summary != null){
+                summaries.add(summary);
+            }
+        }
+        return summaries;
+    }
+
+    private List<UserFollowerResponse> toFollowerResponses(List<UserSummary> users){
+        List<UserFollowerResponse> responses = new ArrayList<>(users.size());
+        for (UserSummary user : users){
+            responses.add(userMapper.summaryToFollowerResponse(user));
+        }
+        return responses;
+    }
+
+    private List<UserFollowingResponse> toFollowingResponses(List<UserSummary> users){
+        List<UserFollowingResponse> responses = new ArrayList<>(users.size());
+        for (UserSummary user : users){
+            responses.add(userMapper.summaryToFollowingResponse(user));
+        }
+        return responses;
     }
 }
@@ -0,0 +1,108 @@
+package socialMediaApp.services;
+
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory version counters, bumped by the services after each write and composed into ETags so that
+ * a conditional GET can be answered with 304 without touching the database.
+ * <p>
+ * Counters start at zero on every boot, so each ETag also carries a random boot id. Deleting a user
+ * cascades into posts, comments, likes and follows all over the place, so it bumps a global version
+ * that is part of every ETag instead of tracking each affected entity.
+ */
+@Service
+public class VersionService {
+
+    private static final long POST = 1L << 32;
+    private static final long POSTS_BY_USER = 2L << 32;
+    private static final long COMMENTS = 3L << 32;
+    private static final long LIKES = 4L << 32;
+    private static final long USER = 5L << 32;
+
+    private final String bootId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final AtomicLong global = new AtomicLong();
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    private final FollowGraphService followGraphService;
+
+    public VersionService(FollowGraphService followGraphService) {
+        this.followGraphService = followGraphService;
+    }
+
+    /** A post was added or deleted. */
+    public void postChanged(int postId, int authorId) {
+        bump(POST, postId);
+        bump(POSTS_BY_USER, authorId);
+    }
+
+    public void commentsChanged(int postId) {
+        bump(COMMENTS, postId);
+    }
+
+    public void likesChanged(int postId) {
+        bump(LIKES, postId);
+    }
+
+    public void userChanged(int userId) {
+        bump(USER, userId);
+    }
+
+    /** A follow between the two users was added or removed; both users' follower/following lists change. */
+    public void followChanged(int userId, int followingId) {
+        bump(USER, userId);
+        bump(USER, followingId);
+    }
+
+    public void userDeleted() {
+        global.incrementAndGet();
+    }
+
+    public String postEtag(int postId) {
+        return etag(version(POST, postId));
+    }
+
+    public String commentsEtag(int postId) {
+        return etag(version(COMMENTS, postId));
+    }
+
+    public String likesEtag(int postId) {
+        return etag(version(LIKES, postId));
+    }
+
+    public String userEtag(int userId) {
+        return etag(version(USER, userId));
+    }
+
+    /**
+     * The feed of a user is the posts of everyone they follow, so its version combines their own follow
+     * version with the post-list version of each followed user. Null while the follow graph is loading.
+     */
+    public String feedEtag(int userId) {
+        if (!followGraphService.isReady()) {
+            return null;
+        }
+        long hash = version(USER, userId);
+        for (int followingId : followGraphService.getFollowing(userId)) {
+            hash = hash * 31 + followingId;
+            hash = hash * 31 + version(POSTS_BY_USER, followingId);
+        }
+        return etag(hash);
+    }
+
+    private void bump(long scope, int id) {
+        versions.merge(scope | (id & 0xffffffffL), 1L, Long::sum);
+    }
+
+    private long version(long scope, int id) {
+        return versions.getOrDefault(scope | (id & 0xffffffffL), 0L);
+    }
+
+    private String etag(long version) {
+        return "\"" + bootId + "-" + global.get() + "-" + Long.toHexString(version) + "\"";
+    }
+}
@@ -0,0 +1,39 @@
+package socialMediaApp.utils;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import socialMediaApp.config.ReplicaRoutingDataSource;
+
+import java.util.function.Supplier;
+
+/**
+ * Conditional GETs against an ETag computed before anything is loaded: a matching {@code If-None-Match}
+ * gets an empty 304 and the loader is never called. The ETags come from in-memory versions that move
+ * when a write commits on the primary, so the body is read there too; a replica could still be serving
+ * the previous version, which clients would then keep under the new ETag.
+ */
+public class ConditionalGets {
+
+    private ConditionalGets() {
+    }
+
+    /**
+     * Responses are marked private and must-revalidate; Spring Security would otherwise send
+     * {@code no-store}, and browsers would never keep the body around to send the ETag back.
+     *
+     * @param etag   the current ETag, or null to always load
+     * @param loader produces the body when the client's copy is stale
+     */
+    public static <T> ResponseEntity<T> respond(WebRequest request, String etag, Supplier<T> loader) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(CacheControl.noCache().cachePrivate());
+        if (etag != null && request.checkNotModified(etag)) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        T body = etag == null ? loader.get() : ReplicaRoutingDataSource.readFromPrimary(loader);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,117 @@
+package socialMediaApp.utils;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Immutable directed graph over int node ids in compressed sparse row form: the neighbours of node
+ * {@code n} are {@code targets[offsets[n] .. offsets[n + 1])}, sorted ascending.
+ */
+public class CsrGraph {
+
+    public static final CsrGraph EMPTY = new CsrGraph(new int[]{0}, new int[0]);
+
+    private final int[] offsets;
+    private final int[] targets;
+
+    private CsrGraph(int[] offsets, int[] targets) {
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * Builds the graph from parallel edge arrays; only the first {@code edgeCount} entries are used.
+     * Duplicate edges are dropped.
+     */
+    public static CsrGraph fromEdges(int[] sources, int[] destinations, int edgeCount) {
+        int nodeCount = 0;
+        for (int i = 0; i < edgeCount; i++) {
+            nodeCount = Math.max(nodeCount, sources[i] + 1);
+        }
+        int[] offsets = new int[nodeCount + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            offsets[sources[i] + 1]++;
+        }
+        for (int n = 0; n < nodeCount; n++) {
+            offsets[n + 1] += offsets[n];
+        }
+        int[] cursor = Arrays.copyOf(offsets, nodeCount);
+        int[] targets = new int[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            targets[cursor[sources[i]]++] = destinations[i];
+        }
+        return compact(offsets, targets);
+    }
+
+    /** Sorts every row and squeezes out duplicate edges. */
+    private static CsrGraph compact(int[] offsets, int[] targets) {
+        int nodeCount = offsets.length - 1;
+        int write = 0;
+        int rowStart = 0;
+        for (int n = 0; n < nodeCount; n++) {
+            int from = rowStart;
+            int to = offsets[n + 1];
+            Arrays.sort(targets, from, to);
+            offsets[n] = write;
+            for (int i = from; i < to; i++) {
+                if (i == from || targets[i] != targets[i - 1]) {
+                    targets[write++] = targets[i];
+                }
+            }
+            rowStart = to;
+        }
+        offsets[nodeCount] = write;
+        return new CsrGraph(offsets, write == targets.length ? targets : Arrays.copyOf(targets, write));
+    }
+
+    /** Reads a graph previously written with {@link #writeTo(IntBuffer)}. */
+    public static CsrGraph readFrom(IntBuffer buffer) {
+        int[] offsets = new int[buffer.get()];
+        int[] targets = new int[buffer.get()];
+        buffer.get(offsets);
+        buffer.get(targets);
+        return new CsrGraph(offsets, targets);
+    }
+
+    public void writeTo(IntBuffer buffer) {
+        buffer.put(offsets.length);
+        buffer.put(targets.length);
+        buffer.put(offsets);
+        buffer.put(targets);
+    }
+
+    /** Number of ints {@link #writeTo(IntBuffer)} needs. */
+    public int serializedInts() {
+        return 2 + offsets.length + targets.length;
+    }
+
+    public int nodeCount() {
+        return offsets.length - 1;
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    public int degree(int node) {
+        if (node < 0 || node >= nodeCount()) {
+            return 0;
+        }
+        return offsets[node + 1] - offsets[node];
+    }
+
+    public boolean hasEdge(int source, int destination) {
+        if (source < 0 || source >= nodeCount()) {
+            return false;
+        }
+        return Arrays.binarySearch(targets, offsets[source], offsets[source + 1], destination) >= 0;
+    }
+
+    /** Returns a sorted copy of the neighbours of {@code node}. */
+    public int[] neighbors(int node) {
+        if (node < 0 || node >= nodeCount()) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(targets, offsets[node], offsets[node + 1]);
+    }
+}
@@ -0,0 +1,31 @@
+package socialMediaApp.utils;
+
+import javax.persistence.EntityManager;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Walks a streamed JPA query while keeping the persistence context small, so the memory used does not
+ * grow with the number of rows.
+ */
+public class EntityStreams {
+
+    private static final int CLEAR_EVERY = 1000;
+
+    private EntityStreams() {
+    }
+
+    /** Passes each row to {@code action}, then detaches everything loaded every {@value #CLEAR_EVERY} rows. */
+    public static <E> void forEach(EntityManager entityManager, Stream<E> rows, Consumer<E> action) {
+        try (rows) {
+            int count = 0;
+            for (Iterator<E> iterator = rows.iterator(); iterator.hasNext(); ) {
+                action.accept(iterator.next());
+                if (++count % CLEAR_EVERY == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package socialMediaApp.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Runs an {@code IN (:ids)} query over any number of ids, one query per {@value #MAX_IDS_PER_QUERY}
+ * ids, keeping IN lists within driver limits and the statement cache small.
+ */
+public class IdBatches {
+
+    public static final int MAX_IDS_PER_QUERY = 1000;
+
+    private IdBatches() {
+    }
+
+    public static <R> List<R> query(Collection<Integer> ids, Function<List<Integer>, ? extends Collection<R>> query) {
+        List<Integer> idList = ids instanceof List ? (List<Integer>) ids : new ArrayList<>(ids);
+        List<R> results = new ArrayList<>();
+        for (int from = 0; from < idList.size(); from += MAX_IDS_PER_QUERY) {
+            results.addAll(query.apply(idList.subList(from, Math.min(idList.size(), from + MAX_IDS_PER_QUERY))));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,224 @@
+package socialMediaApp.utils;
+
+import java.util.Arrays;
+
+/**
+ * Compressed set of non-negative ints, organised like a roaring bitmap: values are split on their
+ * high 16 bits into chunks, and each chunk stores its low 16 bits either as a sorted {@code char[]}
+ * (sparse chunks) or as a 65536-bit {@code long[]} (dense chunks).
+ * <p>
+ * Not thread-safe; callers synchronise on the instance.
+ */
+public class IntBitmap {
+
+    /** A chunk switches from a sorted array to a bitset once it holds this many values. */
+    static final int ARRAY_MAX = 4096;
+    private static final int BITSET_WORDS = 1 << 10;
+
+    private char[] keys = new char[0];
+    private Object[] containers = new Object[0];
+    private int[] cardinalities = new int[0];
+    private int size;
+    private int cardinality;
+
+    public boolean add(int value) {
+        checkValue(value);
+        char key = (char) (value >>> 16);
+        char low = (char) value;
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index < 0) {
+            index = -index - 1;
+            insertChunk(index, key);
+        }
+        boolean added = containers[index] instanceof char[]
+                ? addToArray(index, low)
+                : addToBitset((long[]) containers[index], low);
+        if (added) {
+            cardinalities[index]++;
+            cardinality++;
+        }
+        return added;
+    }
+
+    public boolean remove(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        if (index < 0) {
+            return false;
+        }
+        char low = (char) value;
+        boolean removed = containers[index] instanceof char[]
+                ? removeFromArray(index, low)
+                : removeFromBitset(index, low);
+        if (removed) {
+            cardinality--;
+            if (--cardinalities[index] == 0) {
+                removeChunk(index);
+            }
+        }
+        return removed;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        if (index < 0) {
+            return false;
+        }
+        char low = (char) value;
+        Object container = containers[index];
+        if (container instanceof char[]) {
+            return Arrays.binarySearch((char[]) container, 0, cardinalities[index], low) >= 0;
+        }
+        return (((long[]) container)[low >>> 6] & (1L << low)) != 0;
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * Approximate retained size in bytes, counting array payloads and headers but not JVM padding.
+     */
+    public long sizeInBytes() {
+        long bytes = 16 + 3 * 16 + keys.length * 2L + containers.length * 4L + cardinalities.length * 4L;
+        for (int i = 0; i < size; i++) {
+            Object container = containers[i];
+            bytes += container instanceof char[] ? 16 + ((char[]) container).length * 2L : 16 + BITSET_WORDS * 8L;
+        }
+        return bytes;
+    }
+
+    public int[] toArray() {
+        int[] values = new int[cardinality];
+        int position = 0;
+        for (int i = 0; i < size; i++) {
+            int high = keys[i] << 16;
+            Object container = containers[i];
+            if (container instanceof char[]) {
+                char[] array = (char[]) container;
+                for (int j = 0; j < cardinalities[i]; j++) {
+                    values[position++] = high | array[j];
+                }
+            } else {
+                long[] words = (long[]) container;
+                for (int w = 0; w < BITSET_WORDS; w++) {
+                    long word = words[w];
+                    while (word != 0) {
+                        values[position++] = high | (w << 6) | Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    private boolean addToArray(int index, char low) {
+        char[] array = (char[]) containers[index];
+        int count = cardinalities[index];
+        int position = Arrays.binarySearch(array, 0, count, low);
+        if (position >= 0) {
+            return false;
+        }
+        position = -position - 1;
+        if (count == ARRAY_MAX) {
+            long[] words = new long[BITSET_WORDS];
+            for (int i = 0; i < count; i++) {
+                words[array[i] >>> 6] |= 1L << array[i];
+            }
+            words[low >>> 6] |= 1L << low;
+            containers[index] = words;
+            return true;
+        }
+        if (count == array.length) {
+            array = Arrays.copyOf(array, Math.min(ARRAY_MAX, Math.max(4, count + (count >>> 1))));
+            containers[index] = array;
+        }
+        System.arraycopy(array, position, array, position + 1, count - position);
+        array[position] = low;
+        return true;
+    }
+
+    private static boolean addToBitset(long[] words, char low) {
+        long mask = 1L << low;
+        long word = words[low >>> 6];
+        if ((word & mask) != 0) {
+            return false;
+        }
+        words[low >>> 6] = word | mask;
+        return true;
+    }
+
+    private boolean removeFromArray(int index, char low) {
+        char[] array = (char[]) containers[index];
+        int count = cardinalities[index];
+        int position = Arrays.binarySearch(array, 0, count, low);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(array, position + 1, array, position, count - position - 1);
+        return true;
+    }
+
+    private boolean removeFromBitset(int index, char low) {
+        long[] words = (long[]) containers[index];
+        long mask = 1L << low;
+        if ((words[low >>> 6] & mask) == 0) {
+            return false;
+        }
+        words[low >>> 6] &= ~mask;
+        int remaining = cardinalities[index] - 1;
+        if (remaining == ARRAY_MAX) {
+            char[] array = new char[ARRAY_MAX];
+            int position = 0;
+            for (int w = 0; w < BITSET_WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    array[position++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            containers[index] = array;
+        }
+        return true;
+    }
+
+    private void insertChunk(int index, char key) {
+        if (size == keys.length) {
+            int capacity = Math.max(2, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+            cardinalities = Arrays.copyOf(cardinalities, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        System.arraycopy(cardinalities, index, cardinalities, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = new char[4];
+        cardinalities[index] = 0;
+        size++;
+    }
+
+    private void removeChunk(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        System.arraycopy(cardinalities, index + 1, cardinalities, index, size - index - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("IntBitmap only stores non-negative values: " + value);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package socialMediaApp.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes a sequence of objects straight to the response as they are produced, either as one JSON array
+ * or, when the client accepts {@code application/x-ndjson}, as one JSON document per line. Nothing but
+ * the current object is held in memory.
+ */
+public class JsonStreams {
+
+    private JsonStreams() {
+    }
+
+    /**
+     * @param accept   the request's {@code Accept} header, may be null
+     * @param producer called on a request-processing thread with a sink that serializes each object
+     */
+    public static <T> ResponseEntity<StreamingResponseBody> stream(ObjectMapper objectMapper, String accept,
+                                                                   Consumer<Consumer<T>> producer) {
+        boolean ndjson = acceptsNdjson(accept);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                if (!ndjson) {
+                    generator.writeStartArray();
+                }
+                producer.accept(item -> {
+                    try {
+                        generator.writeObject(item);
+                        if (ndjson) {
+                            generator.writeRaw('\n');
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                if (!ndjson) {
+                    generator.writeEndArray();
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    private static boolean acceptsNdjson(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        try {
+            for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+                if (mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_NDJSON)) {
+                    return true;
+                }
+            }
+        } catch (InvalidMediaTypeException ignored) {
+        }
+        return false;
+    }
+}
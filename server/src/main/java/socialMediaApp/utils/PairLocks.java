@@ -0,0 +1,59 @@
+package socialMediaApp.utils;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Locks striped by an (int, int) pair, for writers whose changes to a pair must reach an in-memory index in
+ * commit order: each holds the pair's stripe from the write until the index has it. Locks rather than
+ * monitors, since the write blocks.
+ */
+public class PairLocks {
+
+    private final ReentrantLock[] stripes;
+
+    /** @param stripeCount a power of two */
+    public PairLocks(int stripeCount) {
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public ReentrantLock get(int first, int second) {
+        return stripes[index(first, second)];
+    }
+
+    /**
+     * Runs {@code work} holding the stripes of all the given pairs, for writers of many pairs at once. The
+     * stripes are taken in order, so two such writers cannot deadlock, and single-pair writers hold only one.
+     */
+    public <P, T> T withAll(List<P> pairs, ToIntFunction<P> first, ToIntFunction<P> second, Supplier<T> work) {
+        boolean[] needed = new boolean[stripes.length];
+        for (P pair : pairs) {
+            needed[index(first.applyAsInt(pair), second.applyAsInt(pair))] = true;
+        }
+        int locked = 0;
+        try {
+            for (; locked < stripes.length; locked++) {
+                if (needed[locked]) {
+                    stripes[locked].lock();
+                }
+            }
+            return work.get();
+        } finally {
+            while (--locked >= 0) {
+                if (needed[locked]) {
+                    stripes[locked].unlock();
+                }
+            }
+        }
+    }
+
+    private int index(int first, int second) {
+        int hash = first * 31 + second;
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+}
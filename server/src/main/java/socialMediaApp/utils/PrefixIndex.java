@@ -0,0 +1,140 @@
+package socialMediaApp.utils;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.function.IntPredicate;
+
+/**
+ * Sorted string keys, each with an int id and an int score, answering "highest-scoring keys starting
+ * with a prefix". The prefix range is found by binary search and walked best-first through a max segment
+ * tree over the scores, so a query touches O(limit * log n) entries no matter how many keys match.
+ * <p>
+ * Keys and ids are immutable; scores can be updated in place. Updates are serialized, while readers may
+ * see an update half-propagated, which only affects the order of that one query.
+ */
+public class PrefixIndex {
+
+    private final String[] keys;
+    private final int[] ids;
+    /** Positions sorted by id, to find the entries of an id. */
+    private final int[] positionsById;
+    /** 1-based heap layout: node n covers children 2n and 2n + 1; leaves start at {@code leafBase}. */
+    private final int[] tree;
+    private final int leafBase;
+
+    /** {@code keys} must be sorted; the arrays are taken over, not copied. */
+    public PrefixIndex(String[] keys, int[] ids, int[] scores) {
+        this.keys = keys;
+        this.ids = ids;
+        int leaves = 1;
+        while (leaves < keys.length) {
+            leaves <<= 1;
+        }
+        this.leafBase = leaves;
+        this.tree = new int[2 * leaves];
+        Arrays.fill(tree, Integer.MIN_VALUE);
+        System.arraycopy(scores, 0, tree, leaves, keys.length);
+        for (int node = leaves - 1; node > 0; node--) {
+            tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+        }
+        Integer[] order = new Integer[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(ids[a], ids[b]));
+        this.positionsById = Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public String key(int position) {
+        return keys[position];
+    }
+
+    public int id(int position) {
+        return ids[position];
+    }
+
+    public int score(int position) {
+        return tree[leafBase + position];
+    }
+
+    /** Positions {@code [from, to)} of the keys starting with {@code prefix}. */
+    public int[] range(String prefix) {
+        return new int[]{lowerBound(prefix), lowerBound(prefix + Character.MAX_VALUE)};
+    }
+
+    /** Sets the score of every entry with the given id. */
+    public synchronized void setScore(int id, int score) {
+        int from = lowerBoundById(id);
+        for (int i = from; i < positionsById.length && ids[positionsById[i]] == id; i++) {
+            int node = leafBase + positionsById[i];
+            tree[node] = score;
+            for (node >>= 1; node > 0; node >>= 1) {
+                tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+            }
+        }
+    }
+
+    /**
+     * Visits the positions in {@code [from, to)} from highest to lowest score until {@code visitor}
+     * returns false.
+     */
+    public void forEachByScore(int from, int to, IntPredicate visitor) {
+        PriorityQueue<Long> queue = new PriorityQueue<>((a, b) -> Long.compare(b, a));
+        for (int left = from + leafBase, right = to + leafBase; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                queue.add(pack(left++));
+            }
+            if ((right & 1) == 1) {
+                queue.add(pack(--right));
+            }
+        }
+        while (!queue.isEmpty()) {
+            int node = ~(int) queue.poll().longValue();
+            if (node >= leafBase) {
+                if (!visitor.test(node - leafBase)) {
+                    return;
+                }
+            } else {
+                queue.add(pack(2 * node));
+                queue.add(pack(2 * node + 1));
+            }
+        }
+    }
+
+    /** Orders nodes by score, then by lower node index, which favours earlier keys on ties. */
+    private long pack(int node) {
+        return ((long) tree[node] << 32) | (~node & 0xffffffffL);
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int lowerBoundById(int id) {
+        int low = 0;
+        int high = positionsById.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ids[positionsById[middle]] < id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,25 @@
+-- What the entities gained before migrations took over, which ddl-auto=update may or may not have
+-- applied to a database baselined at V1: creation times, and one row per like, follow and email.
+
+-- Rows from before these columns existed keep a null time, so they never count as recent.
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS created_at TIMESTAMP;
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS created_at TIMESTAMP;
+ALTER TABLE likes ADD COLUMN IF NOT EXISTS created_at TIMESTAMP;
+
+-- Repeated likes and follows were never meaningful: keep the oldest row of each pair.
+DELETE FROM likes WHERE id IN (
+    SELECT l.id FROM likes l JOIN likes k ON k.user_id = l.user_id AND k.post_id = l.post_id AND k.id < l.id);
+DELETE FROM follows WHERE id IN (
+    SELECT f.id FROM follows f JOIN follows k
+        ON k.user_id = f.user_id AND k.user_following_id = f.user_following_id AND k.id < f.id);
+
+-- A repeated email could not log in (the lookup found two users). The oldest account keeps it; the
+-- others are renamed, not deleted, so their content survives and the address can be sorted out by hand.
+UPDATE users SET email = CONCAT('duplicate-', id, '-', email) WHERE id IN (
+    SELECT u.id FROM users u JOIN users o ON o.email = u.email AND o.id < u.id);
+
+-- Indexes rather than constraints so that IF NOT EXISTS skips databases where ddl-auto already made
+-- them; ON CONFLICT DO NOTHING works with either.
+CREATE UNIQUE INDEX IF NOT EXISTS uk_likes_user_post ON likes (user_id, post_id);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_follows_user_following ON follows (user_id, user_following_id);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_users_email ON users (email);
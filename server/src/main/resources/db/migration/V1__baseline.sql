@@ -0,0 +1,60 @@
+-- The schema as Hibernate generated it before migrations took over. Databases that already have it
+-- are baselined at this version (spring.flyway.baseline-on-migrate) and only run what comes after.
+
+CREATE TABLE users (
+    id        INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email     VARCHAR(255),
+    last_name VARCHAR(255),
+    name      VARCHAR(255),
+    password  VARCHAR(255)
+);
+
+CREATE TABLE posts (
+    id          INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    description VARCHAR(255),
+    user_id     INTEGER,
+    CONSTRAINT fk_posts_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE comments (
+    id          INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    description VARCHAR(255),
+    post_id     INTEGER,
+    user_id     INTEGER,
+    CONSTRAINT fk_comments_post FOREIGN KEY (post_id) REFERENCES posts (id),
+    CONSTRAINT fk_comments_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE likes (
+    id      INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    post_id INTEGER,
+    user_id INTEGER,
+    CONSTRAINT fk_likes_post FOREIGN KEY (post_id) REFERENCES posts (id),
+    CONSTRAINT fk_likes_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE follows (
+    id                INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id           INTEGER,
+    user_following_id INTEGER,
+    CONSTRAINT fk_follows_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_follows_following FOREIGN KEY (user_following_id) REFERENCES users (id)
+);
+
+CREATE TABLE post_image (
+    id      INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    data    BYTEA,
+    name    VARCHAR(255),
+    type    VARCHAR(255),
+    post_id INTEGER,
+    CONSTRAINT fk_post_image_post FOREIGN KEY (post_id) REFERENCES posts (id)
+);
+
+CREATE TABLE user_images (
+    id      INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    data    BYTEA,
+    name    VARCHAR(255),
+    type    VARCHAR(255),
+    user_id INTEGER,
+    CONSTRAINT fk_user_images_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
@@ -0,0 +1,22 @@
+-- One index per repository filter that had none. likes(user_id, post_id), follows(user_id,
+-- user_following_id) and users(email) are already served by the unique indexes of V1_1.
+-- IF NOT EXISTS because databases baselined at V1 may have some of these from ddl-auto.
+
+-- A user's posts, newest first, and the post-author join when deleting a user.
+CREATE INDEX IF NOT EXISTS idx_posts_user_id ON posts (user_id, id);
+-- Trending window on startup.
+CREATE INDEX IF NOT EXISTS idx_posts_created_at ON posts (created_at);
+
+-- Likes of a post and like counts.
+CREATE INDEX IF NOT EXISTS idx_likes_post_id ON likes (post_id);
+CREATE INDEX IF NOT EXISTS idx_likes_created_at ON likes (created_at);
+
+-- Followers of a user and follower counts.
+CREATE INDEX IF NOT EXISTS idx_follows_user_following_id ON follows (user_following_id);
+
+CREATE INDEX IF NOT EXISTS idx_comments_post_id ON comments (post_id);
+CREATE INDEX IF NOT EXISTS idx_comments_user_id ON comments (user_id);
+CREATE INDEX IF NOT EXISTS idx_comments_created_at ON comments (created_at);
+
+CREATE INDEX IF NOT EXISTS idx_post_image_post_id ON post_image (post_id);
+CREATE INDEX IF NOT EXISTS idx_user_images_user_id ON user_images (user_id);
@@ -0,0 +1,7 @@
+-- Deleted users and posts are marked first and purged in the background (DeletionService).
+ALTER TABLE users ADD COLUMN deleted_at TIMESTAMP;
+ALTER TABLE posts ADD COLUMN deleted_at TIMESTAMP;
+
+-- The purge sweep looks for marked rows; nearly all rows are unmarked, so the index stays small in use.
+CREATE INDEX idx_users_deleted_at ON users (deleted_at);
+CREATE INDEX idx_posts_deleted_at ON posts (deleted_at);
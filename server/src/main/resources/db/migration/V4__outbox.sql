@@ -0,0 +1,13 @@
+-- Domain events written in the same transaction as the change they describe (OutboxService) and
+-- deleted once every subscriber has taken them (OutboxDispatcher). Rows that reach the attempt limit
+-- stay behind, with their last error, for inspection.
+CREATE TABLE outbox_events (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    aggregate_type VARCHAR(16)  NOT NULL,
+    aggregate_id   INTEGER      NOT NULL,
+    event_type     VARCHAR(32)  NOT NULL,
+    payload        VARCHAR      NOT NULL,
+    created_at     TIMESTAMP    NOT NULL,
+    attempts       INTEGER      NOT NULL DEFAULT 0,
+    last_error     VARCHAR(1000)
+);
@@ -0,0 +1,25 @@
+-- Refresh tokens are stored as the SHA-256 of the opaque value handed to the client, with the access
+-- token issued alongside. Each refresh marks its token used and issues the next one in the same family;
+-- presenting a used token again revokes the whole family (RefreshTokenService).
+CREATE TABLE refresh_tokens (
+    token_hash        VARCHAR(64) PRIMARY KEY,
+    family_id         VARCHAR(36) NOT NULL,
+    user_id           INTEGER     NOT NULL,
+    expires_at        TIMESTAMP   NOT NULL,
+    used_at           TIMESTAMP,
+    access_token_id   VARCHAR(36) NOT NULL,
+    access_expires_at TIMESTAMP   NOT NULL
+);
+CREATE INDEX idx_refresh_tokens_family_id ON refresh_tokens (family_id);
+CREATE INDEX idx_refresh_tokens_user_id ON refresh_tokens (user_id);
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
+
+-- Access tokens revoked before they expire, kept until they would have expired. Every instance
+-- follows the table by revoked_at into its in-memory filter (RevocationService).
+CREATE TABLE revoked_tokens (
+    token_id   VARCHAR(36) PRIMARY KEY,
+    expires_at TIMESTAMP   NOT NULL,
+    revoked_at TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
@@ -0,0 +1,89 @@
+package socialMediaApp;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stands in for the Flask detection service: every call takes {@code latencyMillis}, images whose bytes
+ * contain {@link #AI_MARKER} are reported as AI-generated, and signing answers with {@link #SIGNED_IMAGE}.
+ */
+public class FakeFlaskServer implements AutoCloseable {
+
+    public static final String AI_MARKER = "generated-by-a-model";
+    public static final byte[] SIGNED_IMAGE = "signed-image".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "fake-flask");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final long latencyMillis;
+    private final AtomicInteger detections = new AtomicInteger();
+    private volatile String lastUpload = "";
+
+    public FakeFlaskServer(long latencyMillis) throws IOException {
+        this.latencyMillis = latencyMillis;
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.setExecutor(executor);
+        server.createContext("/upload", exchange -> {
+            String body = read(exchange);
+            lastUpload = body;
+            detections.incrementAndGet();
+            boolean generated = body.contains(AI_MARKER);
+            respond(exchange, "application/json", ("{\"steganography\": {\"signature_detected\": false},"
+                    + " \"ai_detection\": {\"is_ai_generated\": " + generated + "}}").getBytes(StandardCharsets.UTF_8));
+        });
+        server.createContext("/add_steganography", exchange -> {
+            read(exchange);
+            respond(exchange, "application/json", ("{\"image_url\": \"" + getBaseUrl() + "/processed/signed.png\"}")
+                    .getBytes(StandardCharsets.UTF_8));
+        });
+        server.createContext("/processed/", exchange -> respond(exchange, "image/png", SIGNED_IMAGE));
+        server.start();
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public int getDetections() {
+        return detections.get();
+    }
+
+    /** The last multipart body sent for detection, as text. */
+    public String getLastUpload() {
+        return lastUpload;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private String read(HttpExchange exchange) throws IOException {
+        return new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.ISO_8859_1);
+    }
+
+    private void respond(HttpExchange exchange, String contentType, byte[] body) throws IOException {
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
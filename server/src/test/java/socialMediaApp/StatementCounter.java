@@ -0,0 +1,50 @@
+package socialMediaApp;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between {@link #start()} and
+ * {@link #stop()}, or records them for {@link #capture}; other threads (schedulers, index loaders) are
+ * not counted.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+    public static void start() {
+        STATEMENTS.set(new ArrayList<>());
+    }
+
+    public static int stop() {
+        return drain().size();
+    }
+
+    /** Runs {@code action} and returns the SQL it prepared on this thread. */
+    public static List<String> capture(Runnable action) {
+        start();
+        try {
+            action.run();
+            return drain();
+        } finally {
+            STATEMENTS.remove();
+        }
+    }
+
+    private static List<String> drain() {
+        List<String> statements = STATEMENTS.get();
+        STATEMENTS.remove();
+        return statements == null ? List.of() : statements;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = STATEMENTS.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,86 @@
+package socialMediaApp.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import socialMediaApp.requests.LoginRequest;
+import socialMediaApp.requests.RegisterRequest;
+import socialMediaApp.security.JwtPrincipal;
+import socialMediaApp.security.JwtVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Every request here comes from the same address, so only the per-email limit is in play.
+@SpringBootTest(properties = "app.auth.address-attempts-burst=1000")
+@AutoConfigureMockMvc
+class AuthControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JwtVerifier jwtVerifier;
+
+    @Test
+    void registerThenLoginWithOneHashEach() throws Exception {
+        String email = "login-" + System.nanoTime() + "@test.com";
+        MvcResult registered = post("/api/auth/register", new RegisterRequest("Login", "User", email, "secret"));
+        assertEquals(200, registered.getResponse().getStatus());
+        String token = registered.getResponse().getContentAsString();
+        JwtPrincipal principal = jwtVerifier.verify(token).getPrincipal();
+        assertEquals(email, principal.getEmail());
+        assertEquals("Login User", principal.getFullName());
+        assertEquals(400, post("/api/auth/register", new RegisterRequest("Login", "Again", email, "other")).getResponse().getStatus());
+
+        long hashesBefore = stats(token).get("hashes").asLong();
+        MvcResult loggedIn = post("/api/auth/login", new LoginRequest(email, "secret"));
+        assertEquals(200, loggedIn.getResponse().getStatus());
+        assertEquals(principal, jwtVerifier.verify(loggedIn.getResponse().getContentAsString()).getPrincipal());
+        assertEquals(401, post("/api/auth/login", new LoginRequest(email, "wrong")).getResponse().getStatus());
+        assertEquals(401, post("/api/auth/login", new LoginRequest("nobody-" + email, "secret")).getResponse().getStatus());
+
+        // The unknown email is checked against a hash too, so it answers no faster than a wrong password.
+        JsonNode stats = stats(token);
+        assertEquals(hashesBefore + 3, stats.get("hashes").asLong());
+        assertTrue(stats.get("hashThreads").asInt() >= 1);
+    }
+
+    @Test
+    void attemptsPerEmailAreLimited() throws Exception {
+        String email = "limited-" + System.nanoTime() + "@test.com";
+        for (int i = 0; i < 5; i++) {
+            assertEquals(401, post("/api/auth/login", new LoginRequest(email, "guess" + i)).getResponse().getStatus());
+        }
+        assertEquals(429, post("/api/auth/login", new LoginRequest(email, "guess")).getResponse().getStatus());
+        assertEquals(429, post("/api/auth/login", new LoginRequest(email.toUpperCase(), "guess")).getResponse().getStatus());
+        assertEquals(401, post("/api/auth/login", new LoginRequest("other-" + email, "guess")).getResponse().getStatus());
+    }
+
+    @Test
+    void statsNeedAToken() throws Exception {
+        assertEquals(403, mockMvc.perform(get("/api/auth/stats")).andReturn().getResponse().getStatus());
+    }
+
+    private JsonNode stats(String token) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get("/api/auth/stats").header("Authorization", "Bearer " + token))
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private MvcResult post(String path, Object body) throws Exception {
+        RequestBuilder request = MockMvcRequestBuilders.post(path)
+                .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(body));
+        MvcResult started = mockMvc.perform(request).andReturn();
+        return started.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(started)).andReturn() : started;
+    }
+}
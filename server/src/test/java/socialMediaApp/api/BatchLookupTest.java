@@ -0,0 +1,123 @@
+package socialMediaApp.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import socialMediaApp.models.Post;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.LikeRepository;
+import socialMediaApp.repositories.PostRepository;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.requests.FollowRequest;
+import socialMediaApp.requests.LikeRequest;
+import socialMediaApp.services.FollowService;
+import socialMediaApp.services.LikeService;
+import socialMediaApp.utils.IdBatches;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class BatchLookupTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private LikeRepository likeRepository;
+    @Autowired
+    private LikeService likeService;
+    @Autowired
+    private FollowService followService;
+
+    @Test
+    void postsAndLikesAcrossSeveralInLists() throws Exception {
+        User user = newUser("batch");
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < 2_500; i++) {
+            Post post = new Post();
+            post.setDescription("batch " + i);
+            post.setUser(user);
+            posts.add(post);
+        }
+        postRepository.saveAll(posts);
+        Set<Integer> liked = new HashSet<>();
+        for (int i = 0; i < posts.size(); i += 7) {
+            likeService.add(new LikeRequest(posts.get(i).getId(), user.getId()));
+            liked.add(posts.get(i).getId());
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (int i = posts.size() - 1; i >= 0; i--) {
+            ids.add(posts.get(i).getId());
+        }
+        ids.add(-1);
+
+        JsonNode found = fetch("/api/posts/getbyids?ids=" + join(ids));
+        assertEquals(posts.size(), found.size());
+        assertEquals(ids.get(0).intValue(), found.get(0).get("id").asInt());
+        assertEquals("batch", found.get(0).get("userName").asText());
+
+        JsonNode likedIds = fetch("/api/likes/isliked/batch?userId=" + user.getId() + "&postIds=" + join(ids));
+        Set<Integer> returned = new HashSet<>();
+        likedIds.forEach(id -> returned.add(id.asInt()));
+        assertEquals(liked, returned);
+        // The query the service falls back to while the like index is loading.
+        assertEquals(liked, new HashSet<>(IdBatches.query(ids, batch -> likeRepository.findLikedPostIds(user.getId(), batch))));
+    }
+
+    @Test
+    void usersAndFollows() throws Exception {
+        User follower = newUser("fan");
+        User first = newUser("first");
+        User second = newUser("second");
+        followService.add(new FollowRequest(follower.getId(), second.getId()));
+
+        JsonNode users = fetch("/api/users/getbyids?ids=" + join(List.of(second.getId(), first.getId(), second.getId())));
+        assertEquals(2, users.size());
+        assertEquals(second.getId(), users.get(0).get("id").asInt());
+        assertEquals(1, users.get(0).get("followerCount").asInt());
+
+        JsonNode followed = fetch("/api/users/isfollowing/batch?userId=" + follower.getId()
+                + "&followingIds=" + join(List.of(first.getId(), second.getId())));
+        assertEquals(1, followed.size());
+        assertEquals(second.getId(), followed.get(0).asInt());
+    }
+
+    private JsonNode fetch(String url) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private static String join(List<Integer> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    private User newUser(String name) {
+        User user = new User();
+        user.setEmail(name + "-" + System.nanoTime() + "@test.com");
+        user.setName(name);
+        user.setLastName("Batch");
+        user.setPassword("secret");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,155 @@
+package socialMediaApp.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import socialMediaApp.models.Post;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.CommentRepository;
+import socialMediaApp.repositories.FollowRepository;
+import socialMediaApp.repositories.LikeRepository;
+import socialMediaApp.repositories.PostRepository;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.services.FollowGraphService;
+import socialMediaApp.services.LikeIndexService;
+import socialMediaApp.services.SearchService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BulkIngestTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private LikeRepository likeRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private FollowRepository followRepository;
+    @Autowired
+    private LikeIndexService likeIndexService;
+    @Autowired
+    private FollowGraphService followGraphService;
+    @Autowired
+    private SearchService searchService;
+
+    @Test
+    void likesAcrossSeveralBatchesSkipDuplicatesAndRejectMissingPosts() throws Exception {
+        List<User> users = newUsers(50);
+        Post post = newPost(users.get(0));
+        Post other = newPost(users.get(0));
+        StringBuilder ndjson = new StringBuilder();
+        for (User user : users) {
+            ndjson.append(like(user, post)).append(like(user, other)).append(like(user, post));
+        }
+        for (int i = 0; i < 2_000; i++) {
+            ndjson.append("{\"userId\":").append(users.get(i % users.size()).getId()).append(",\"postId\":-7}\n");
+        }
+        long before = likeRepository.count();
+
+        JsonNode result = ingest("/api/ingest/likes", ndjson.toString());
+
+        assertEquals(2_150, result.get("received").asLong());
+        assertEquals(100, result.get("inserted").asLong());
+        assertEquals(50, result.get("duplicates").asLong());
+        assertEquals(2_000, result.get("rejected").asLong());
+        assertTrue(result.get("rowsPerSecond").asDouble() > 0);
+        assertEquals(before + 100, likeRepository.count());
+        assertEquals(50, likeIndexService.countLikes(post.getId()));
+    }
+
+    @Test
+    void followsAndCommentsFromJsonArrays() throws Exception {
+        List<User> users = newUsers(3);
+        Post post = newPost(users.get(0));
+        String follows = "[" + follow(users.get(0), users.get(1)) + "," + follow(users.get(1), users.get(2)) + ","
+                + follow(users.get(2), users.get(2)) + "]";
+        long followsBefore = followRepository.count();
+
+        JsonNode followResult = ingest("/api/ingest/follows", follows);
+        assertEquals(2, followResult.get("inserted").asLong());
+        assertEquals(1, followResult.get("rejected").asLong());
+        assertEquals(followsBefore + 2, followRepository.count());
+        assertTrue(followGraphService.isFollowing(users.get(1).getId(), users.get(2).getId()));
+
+        String comments = "[{\"postId\":" + post.getId() + ",\"userId\":" + users.get(1).getId() + ",\"description\":\"bulkloaded walrus\"},"
+                + "{\"postId\":" + post.getId() + ",\"userId\":" + users.get(2).getId() + ",\"description\":\"another bulkloaded walrus\"},"
+                + "{\"postId\":" + post.getId() + ",\"userId\":" + users.get(2).getId() + "}]";
+        JsonNode commentResult = ingest("/api/ingest/comments", comments);
+        assertEquals(2, commentResult.get("inserted").asLong());
+        assertEquals(1, commentResult.get("rejected").asLong());
+        assertEquals(2, commentRepository.findAllByPost_Id(post.getId()).size());
+        assertEquals(2, searchService.search("bulkloaded walrus", "comment", 0, 10).getTotalHits());
+    }
+
+    @Test
+    void onlyTheIngestTokenMayIngest() throws Exception {
+        List<User> users = newUsers(2);
+        String follow = follow(users.get(0), users.get(1));
+        long followsBefore = followRepository.count();
+
+        mockMvc.perform(post("/api/ingest/follows").contentType(MediaType.APPLICATION_NDJSON).content(follow)
+                        .with(user(users.get(0).getEmail())))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/ingest/follows").contentType(MediaType.APPLICATION_NDJSON).content(follow)
+                        .header("Authorization", "Bearer wrong-ingest-token"))
+                .andExpect(status().isForbidden());
+
+        assertEquals(followsBefore, followRepository.count());
+    }
+
+    private JsonNode ingest(String url, String body) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(post(url).contentType(MediaType.APPLICATION_NDJSON).content(body)
+                        .header("Authorization", "Bearer test-ingest-token"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private static String like(User user, Post post) {
+        return "{\"userId\":" + user.getId() + ",\"postId\":" + post.getId() + "}\n";
+    }
+
+    private static String follow(User user, User following) {
+        return "{\"userId\":" + user.getId() + ",\"followingId\":" + following.getId() + "}";
+    }
+
+    private List<User> newUsers(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setEmail("bulk-" + i + "-" + System.nanoTime() + "@test.com");
+            user.setName("Bulk" + i);
+            user.setLastName("Ingest");
+            user.setPassword("secret");
+            users.add(user);
+        }
+        return userRepository.saveAll(users);
+    }
+
+    private Post newPost(User user) {
+        Post post = new Post();
+        post.setDescription("bulk target");
+        post.setUser(user);
+        return postRepository.save(post);
+    }
+}
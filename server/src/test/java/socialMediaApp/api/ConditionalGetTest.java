@@ -0,0 +1,91 @@
+package socialMediaApp.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import socialMediaApp.models.Post;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.PostRepository;
+import socialMediaApp.requests.CommentAddRequest;
+import socialMediaApp.requests.FollowRequest;
+import socialMediaApp.services.CommentService;
+import socialMediaApp.services.FollowService;
+import socialMediaApp.services.UserService;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private FollowService followService;
+    @Autowired
+    private CommentService commentService;
+    @Autowired
+    private PostRepository postRepository;
+
+    @Test
+    void matchingEtagIsNotModifiedUntilTheCommentsChange() throws Exception {
+        User author = newUser("author");
+        Post post = new Post();
+        post.setDescription("etag me");
+        post.setUser(author);
+        postRepository.save(post);
+        String url = "/api/comments/getallbypost/" + post.getId();
+
+        String etag = fetch(url);
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        commentService.add(new CommentAddRequest(post.getId(), author.getId(), "first"));
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].description").value("first"));
+    }
+
+    @Test
+    void userEtagChangesOnFollow() throws Exception {
+        User follower = newUser("follower");
+        User followed = newUser("followed");
+        String url = "/api/users/getbyid/" + followed.getId();
+
+        String etag = fetch(url);
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        followService.add(new FollowRequest(follower.getId(), followed.getId()));
+        assertNotEquals(etag, fetch(url));
+    }
+
+    private String fetch(String url) throws Exception {
+        String etag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+
+    private User newUser(String name) {
+        User user = new User();
+        user.setEmail(name + "-" + System.nanoTime() + "@test.com");
+        user.setName(name);
+        user.setLastName("Etag");
+        user.setPassword("secret");
+        return userService.save(user);
+    }
+}
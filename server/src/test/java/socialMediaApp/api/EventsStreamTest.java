@@ -0,0 +1,102 @@
+package socialMediaApp.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import socialMediaApp.security.JwtPrincipal;
+import socialMediaApp.services.FollowGraphService;
+import socialMediaApp.services.PushService;
+
+import java.util.Collections;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class EventsStreamTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private PushService pushService;
+    @Autowired
+    private FollowGraphService followGraphService;
+
+    @Test
+    void routesEventsToFollowersAndWatchersAndCoalescesLikeCounts() throws Exception {
+        followGraphService.follow(900_001, 900_002);
+        MockHttpServletResponse follower = subscribe(900_001, "7001");
+        MockHttpServletResponse stranger = subscribe(900_003, "7002");
+
+        pushService.onPostAdded(7003, 900_002, "hello followers");
+        for (int likeCount = 1; likeCount <= 50; likeCount++) {
+            pushService.onLikeCountChanged(7001, likeCount);
+        }
+        pushService.onCommentAdded(7002, 1, 900_001);
+
+        String followerEvents = awaitContent(follower, "event:likes");
+        assertTrue(followerEvents.contains("event:post"));
+        assertTrue(followerEvents.contains("\"description\":\"hello followers\""));
+        assertEquals(1, count(followerEvents, "event:likes"));
+        assertTrue(followerEvents.contains("\"likeCount\":50"));
+        assertFalse(followerEvents.contains("event:comment"));
+
+        String strangerEvents = awaitContent(stranger, "event:comment");
+        assertFalse(strangerEvents.contains("event:post"));
+        assertFalse(strangerEvents.contains("event:likes"));
+    }
+
+    @Test
+    void onlyTheConnectionsOwnIdChangesWhatItWatches() throws Exception {
+        MockHttpServletResponse watcher = subscribe(900_004, "7004");
+        Matcher connected = Pattern.compile("event:connected\\s*data:(\\S+)")
+                .matcher(awaitContent(watcher, "event:connected"));
+        assertTrue(connected.find());
+
+        mockMvc.perform(put("/api/events/watch").param("connectionId", "1").param("postIds", "7005"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(put("/api/events/watch").param("connectionId", connected.group(1)).param("postIds", "7005"))
+                .andExpect(status().isOk());
+
+        pushService.onLikeCountChanged(7005, 3);
+        assertTrue(awaitContent(watcher, "\"likeCount\":3").contains("\"postId\":7005"));
+    }
+
+    private MockHttpServletResponse subscribe(int userId, String postIds) throws Exception {
+        JwtPrincipal principal = new JwtPrincipal(userId, "user" + userId + "@test.com", "Test User");
+        return mockMvc.perform(get("/api/events/subscribe").param("postIds", postIds)
+                        .with(authentication(new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList()))))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!response.getContentAsString().contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        return response.getContentAsString();
+    }
+
+    private static int count(String text, String needle) {
+        Matcher matcher = Pattern.compile(Pattern.quote(needle)).matcher(text);
+        int count = 0;
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,57 @@
+package socialMediaApp.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.security.JwtUtil;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MetricsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void requestsAreMeasuredAndScrapedWithTheScrapeToken() throws Exception {
+        User user = new User();
+        user.setEmail("metrics-" + System.nanoTime() + "@test.com");
+        user.setName("Metrics");
+        user.setLastName("User");
+        user.setPassword("secret");
+        user = userRepository.save(user);
+        String token = jwtUtil.generateToken(user.getEmail(), user.getId(), "Metrics User");
+
+        mockMvc.perform(get("/api/users/getbyid/" + user.getId()).header("Authorization", "Bearer " + token));
+
+        assertEquals(403, mockMvc.perform(get("/api/metrics")).andReturn().getResponse().getStatus());
+        assertEquals(403, mockMvc.perform(get("/api/metrics").header("Authorization", "Bearer " + token))
+                .andReturn().getResponse().getStatus());
+        assertEquals(403, mockMvc.perform(get("/api/metrics").header("Authorization", "Bearer wrong-scrape-token"))
+                .andReturn().getResponse().getStatus());
+
+        MvcResult scraped = mockMvc.perform(get("/api/metrics").header("Authorization", "Bearer test-scrape-token"))
+                .andReturn();
+        assertEquals(200, scraped.getResponse().getStatus());
+        assertTrue(scraped.getResponse().getContentType().startsWith("text/plain;version=0.0.4"),
+                scraped.getResponse().getContentType());
+        String metrics = scraped.getResponse().getContentAsString();
+        assertTrue(metrics.contains("service_method_seconds_count{class=\"UserService\",method=\"getResponseById\",outcome=\"success\"}"));
+        assertTrue(metrics.contains("jwt_filter_seconds_count{outcome=\"authenticated\"}"));
+        assertTrue(metrics.contains("jwt_filter_seconds_count{outcome=\"anonymous\"}"));
+        assertTrue(metrics.contains("http_server_requests_seconds_count{method=\"GET\",uri=\"/api/users/getbyid/{id}\",status=\"200\"}"));
+        assertTrue(metrics.contains("http_server_requests_jpa_statements_count{method=\"GET\",uri=\"/api/users/getbyid/{id}\"}"));
+    }
+}
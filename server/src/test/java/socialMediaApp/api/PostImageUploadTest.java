@@ -0,0 +1,116 @@
+package socialMediaApp.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import socialMediaApp.FakeFlaskServer;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.requests.PostAddRequest;
+import socialMediaApp.services.PostService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class PostImageUploadTest {
+
+    private static final FakeFlaskServer FLASK;
+
+    static {
+        try {
+            FLASK = new FakeFlaskServer(50);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @DynamicPropertySource
+    static void flask(DynamicPropertyRegistry registry) {
+        registry.add("app.flask.base-url", FLASK::getBaseUrl);
+    }
+
+    @AfterAll
+    static void stopFlask() {
+        FLASK.close();
+    }
+
+    @Test
+    void cleanImagesAreSignedAndStored() throws Exception {
+        int postId = newPost();
+        MvcResult uploaded = upload(postId, "a photo of a cat");
+        assertEquals(200, uploaded.getResponse().getStatus());
+        JsonNode image = objectMapper.readTree(uploaded.getResponse().getContentAsString());
+        assertEquals(postId, image.get("postId").asInt());
+        assertEquals("cat.png", image.get("name").asText());
+        // The file went out whole, streamed into the multipart body.
+        assertTrue(FLASK.getLastUpload().contains("filename=\"cat.png\""));
+        assertTrue(FLASK.getLastUpload().contains("a photo of a cat"));
+
+        byte[] stored = mockMvc.perform(get("/api/postimages/download/" + postId)).andReturn().getResponse().getContentAsByteArray();
+        assertArrayEquals(FakeFlaskServer.SIGNED_IMAGE, stored);
+
+        String metrics = mockMvc.perform(get("/api/metrics").header("Authorization", "Bearer test-scrape-token"))
+                .andReturn().getResponse().getContentAsString();
+        for (String endpoint : new String[]{"upload", "add_steganography", "download"}) {
+            assertTrue(metrics.contains("flask_request_seconds_count{endpoint=\"" + endpoint + "\",outcome=\"success\"}"), endpoint);
+        }
+        assertTrue(metrics.contains("image_bytes_count{stage=\"compressed\"}"));
+        assertTrue(metrics.contains("image_compression_cpu_seconds_count"));
+    }
+
+    @Test
+    void rejectedImagesAreNotStored() throws Exception {
+        int postId = newPost();
+        MvcResult uploaded = upload(postId, "pixels " + FakeFlaskServer.AI_MARKER);
+
+        assertEquals(400, uploaded.getResponse().getStatus());
+        assertEquals("AI-generated images are not allowed.",
+                objectMapper.readTree(uploaded.getResponse().getContentAsString()).get("error").asText());
+        assertEquals(404, mockMvc.perform(get("/api/postimages/download/" + postId)).andReturn().getResponse().getStatus());
+    }
+
+    private MvcResult upload(int postId, String content) throws Exception {
+        MockMultipartFile file = new MockMultipartFile("image", "cat.png", "image/png", content.getBytes(StandardCharsets.UTF_8));
+        MvcResult started = mockMvc.perform(multipart("/api/postimages/upload").file(file).param("postId", String.valueOf(postId)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started)).andReturn();
+    }
+
+    private int newPost() {
+        User user = new User();
+        user.setEmail("uploader-" + System.nanoTime() + "@test.com");
+        user.setName("Upload");
+        user.setLastName("User");
+        user.setPassword("secret");
+        user = userRepository.save(user);
+        return postService.add(new PostAddRequest(user.getId(), "with an image"));
+    }
+}
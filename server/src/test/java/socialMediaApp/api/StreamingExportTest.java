@@ -0,0 +1,90 @@
+package socialMediaApp.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import socialMediaApp.models.Post;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.PostRepository;
+import socialMediaApp.repositories.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class StreamingExportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void streamsEveryPostAsJsonArrayOrNdjson() throws Exception {
+        User user = new User();
+        user.setEmail("exporter-" + System.nanoTime() + "@test.com");
+        user.setName("Export");
+        user.setLastName("User");
+        user.setPassword("secret");
+        user = userRepository.save(user);
+        // More rows than EntityStreams clears the persistence context after.
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < 2_500; i++) {
+            Post post = new Post();
+            post.setDescription("export " + i);
+            post.setUser(user);
+            posts.add(post);
+        }
+        postRepository.saveAll(posts);
+        long expected = postRepository.count();
+
+        JsonNode array = objectMapper.readTree(export(MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE));
+        assertEquals(expected, array.size());
+        int exported = 0;
+        for (JsonNode post : array) {
+            if (post.get("userId").asInt() == user.getId()) {
+                assertEquals("Export", post.get("userName").asText());
+                exported++;
+            }
+        }
+        assertEquals(2_500, exported);
+
+        String ndjson = export(MediaType.APPLICATION_NDJSON_VALUE + ", application/json;q=0.5",
+                MediaType.APPLICATION_NDJSON_VALUE);
+        String[] lines = ndjson.split("\n");
+        assertEquals(expected, lines.length);
+        for (String line : lines) {
+            assertTrue(objectMapper.readTree(line).has("userId"));
+        }
+    }
+
+    private String export(String accept, String expectedContentType) throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/posts/getall").header(HttpHeaders.ACCEPT, accept))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(expectedContentType))
+                .andReturn().getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,72 @@
+package socialMediaApp.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.requests.FollowRequest;
+import socialMediaApp.services.FollowService;
+import socialMediaApp.services.RecommendationService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class SuggestionsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private FollowService followService;
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Test
+    void suggestsWhoTheFollowedFollow() throws Exception {
+        User user = newUser();
+        User followed = newUser();
+        User suggested = newUser();
+        followService.add(new FollowRequest(user.getId(), followed.getId()));
+        followService.add(new FollowRequest(followed.getId(), suggested.getId()));
+        recommendationService.refreshAll();
+
+        JsonNode suggestions = objectMapper.readTree(mockMvc.perform(get("/api/users/" + user.getId() + "/suggestions"))
+                .andReturn().getResponse().getContentAsString());
+
+        assertEquals(1, suggestions.size());
+        assertEquals(suggested.getId(), suggestions.get(0).get("userId").asInt());
+        assertEquals("Suggested", suggestions.get(0).get("name").asText());
+        assertEquals(1, suggestions.get(0).get("sharedFollowCount").asInt());
+    }
+
+    @Test
+    void limitOutsideOneToAHundredIsRejected() throws Exception {
+        User user = newUser();
+        for (String limit : new String[]{"-1", "0", "101"}) {
+            mockMvc.perform(get("/api/users/" + user.getId() + "/suggestions").param("limit", limit))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    private User newUser() {
+        User user = new User();
+        user.setEmail("suggested-" + System.nanoTime() + "@test.com");
+        user.setName("Suggested");
+        user.setLastName("User");
+        user.setPassword("secret");
+        return userRepository.save(user);
+    }
+}
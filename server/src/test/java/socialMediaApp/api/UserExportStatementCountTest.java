@@ -0,0 +1,86 @@
+package socialMediaApp.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import socialMediaApp.StatementCounter;
+import socialMediaApp.models.User;
+import socialMediaApp.requests.FollowRequest;
+import socialMediaApp.services.FollowService;
+import socialMediaApp.services.UserService;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class UserExportStatementCountTest {
+
+    @Autowired
+    private UsersController usersController;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private FollowService followService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void getAllRunsTheSameStatementsHoweverManyUsersAndFollows() throws Exception {
+        addUsersFollowingEachOther(5);
+        int small = countStatementsOfGetAll();
+
+        addUsersFollowingEachOther(50);
+        int large = countStatementsOfGetAll();
+
+        assertTrue(small > 0);
+        assertEquals(small, large);
+    }
+
+    @Test
+    void getByIdIsOneStatement() throws Exception {
+        User[] users = addUsersFollowingEachOther(3);
+
+        StatementCounter.start();
+        JsonNode user = objectMapper.valueToTree(usersController.getById(users[0].getId(), new ServletWebRequest(new MockHttpServletRequest())).getBody());
+        assertEquals(1, StatementCounter.stop());
+        assertEquals(2, user.get("followerCount").asInt());
+        assertEquals(2, user.get("followingCount").asInt());
+    }
+
+    /** Runs the /api/users/getall body on this thread, so that its statements are the ones counted. */
+    private int countStatementsOfGetAll() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StatementCounter.start();
+        usersController.getAll(MediaType.APPLICATION_JSON_VALUE).getBody().writeTo(out);
+        int statements = StatementCounter.stop();
+        assertTrue(objectMapper.readTree(out.toByteArray()).size() > 0);
+        return statements;
+    }
+
+    private User[] addUsersFollowingEachOther(int count) {
+        User[] users = new User[count];
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setEmail("counted-" + i + "-" + System.nanoTime() + "@test.com");
+            user.setName("Counted" + i);
+            user.setLastName("User");
+            user.setPassword("secret");
+            users[i] = userService.save(user);
+        }
+        for (User follower : users) {
+            for (User followed : users) {
+                if (follower != followed) {
+                    followService.add(new FollowRequest(follower.getId(), followed.getId()));
+                }
+            }
+        }
+        return users;
+    }
+}
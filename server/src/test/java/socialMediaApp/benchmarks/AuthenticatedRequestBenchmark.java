@@ -0,0 +1,88 @@
+package socialMediaApp.benchmarks;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import socialMediaApp.SocialMediaAppApplication;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.security.JwtUtil;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Requests per second through the security filter chain to an endpoint that runs no SQL itself, with
+ * the user loaded per request ({@code stateless=false}) and with the principal built from the token's
+ * claims ({@code stateless=true}).
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AuthenticatedRequestBenchmark {
+
+    @Param({"false", "true"})
+    public boolean stateless;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SocialMediaAppApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties("server.port=0",
+                        "app.auth.stateless=" + stateless,
+                        "spring.datasource.url=jdbc:h2:mem:authBenchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                        "app.follow-graph.snapshot-path=target/follow-graph-benchmark.bin",
+                        "app.search.index-dir=target/search-index-benchmark",
+                        "logging.level.root=WARN")
+                .run();
+        User user = new User();
+        user.setEmail("bench@test.com");
+        user.setName("Bench");
+        user.setLastName("User");
+        user.setPassword("secret");
+        user = context.getBean(UserRepository.class).save(user);
+        authorization = "Bearer " + context.getBean(JwtUtil.class).generateToken(user.getEmail(), user.getId(), "Bench User");
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).apply(springSecurity()).build();
+        try {
+            if (authenticatedGet() != 200) {
+                throw new IllegalStateException("the benchmark request is not authenticated");
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int authenticatedGet() throws Exception {
+        return mockMvc.perform(get("/api/cache/stats").header("Authorization", authorization))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Test
+    void runBenchmarks() throws Exception {
+        // Each fork starts the application, so give the JIT longer than the shared settings do.
+        new Runner(BenchmarkRunner.options(AuthenticatedRequestBenchmark.class)
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .build()).run();
+    }
+}
@@ -0,0 +1,35 @@
+package socialMediaApp.benchmarks;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Collection;
+
+/**
+ * Shared JMH settings for the benchmarks in this package. They are tagged {@code benchmark} and only run
+ * with {@code mvn test -Pbenchmark}.
+ */
+final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    static Collection<RunResult> run(Class<?> benchmark) throws RunnerException {
+        return new Runner(options(benchmark).build()).run();
+    }
+
+    static ChainedOptionsBuilder options(Class<?> benchmark) {
+        return new OptionsBuilder()
+                .include(benchmark.getName() + "\\.")
+                .forks(1)
+                .warmupIterations(2)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(3)
+                .measurementTime(TimeValue.seconds(1))
+                .shouldFailOnError(true);
+    }
+}
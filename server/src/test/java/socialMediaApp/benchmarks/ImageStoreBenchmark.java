@@ -0,0 +1,124 @@
+package socialMediaApp.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import socialMediaApp.FakeFlaskServer;
+import socialMediaApp.mappers.PostImageMapperImpl;
+import socialMediaApp.metrics.ImageMetrics;
+import socialMediaApp.metrics.MetricsRegistry;
+import socialMediaApp.models.Post;
+import socialMediaApp.models.PostImage;
+import socialMediaApp.repositories.PostImageRepository;
+import socialMediaApp.responses.postImage.PostImageResponse;
+import socialMediaApp.services.FlaskClient;
+import socialMediaApp.services.OutboxService;
+import socialMediaApp.services.PostImageService;
+import socialMediaApp.services.PostService;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Batches of {@value #UPLOADS} concurrent uploads through a fake Flask taking {@value #LATENCY_MILLIS} ms
+ * per call, each then saved by a repository that blocks for {@value #SAVE_MILLIS} ms. {@code service}
+ * runs {@link PostImageService#upload}, which stores on {@value #STORE_THREADS} threads of its own;
+ * {@code clientPool} stores on the HTTP client's threads, as the service used to. Each trial ends by
+ * printing the most saves that were blocked at once, which is how many threads storing ties up: at most
+ * {@value #STORE_THREADS} for the service, while the client's pool grows with the uploads waiting to be saved.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ImageStoreBenchmark {
+
+    private static final int UPLOADS = 64;
+    private static final int STORE_THREADS = 8;
+    private static final long LATENCY_MILLIS = 20;
+    private static final long SAVE_MILLIS = 20;
+
+    @Param({"service", "clientPool"})
+    public String pipeline;
+
+    private FakeFlaskServer flask;
+    private FlaskClient flaskClient;
+    private PostImageRepository postImageRepository;
+    private PostImageService postImageService;
+    private ImageMetrics imageMetrics;
+    private MockMultipartFile file;
+    private final AtomicInteger saving = new AtomicInteger();
+    private final AtomicInteger mostSaving = new AtomicInteger();
+
+    @Setup
+    public void setUp() throws IOException {
+        flask = new FakeFlaskServer(LATENCY_MILLIS);
+        MetricsRegistry metricsRegistry = new MetricsRegistry(60_000);
+        flaskClient = new FlaskClient(new ObjectMapper(), flask.getBaseUrl(), 60_000, false, metricsRegistry);
+        postImageRepository = mock(PostImageRepository.class);
+        when(postImageRepository.save(any())).thenAnswer(invocation -> {
+            mostSaving.accumulateAndGet(saving.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(SAVE_MILLIS);
+            } finally {
+                saving.decrementAndGet();
+            }
+            return invocation.getArgument(0);
+        });
+        PostService postService = mock(PostService.class);
+        when(postService.getById(anyInt())).thenAnswer(invocation -> new Post());
+        imageMetrics = new ImageMetrics(metricsRegistry);
+        postImageService = new PostImageService(postImageRepository, postService, new PostImageMapperImpl(),
+                flaskClient, mock(OutboxService.class), new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                imageMetrics, STORE_THREADS, false);
+        file = new MockMultipartFile("image", "photo.png", "image/png", new byte[64 * 1024]);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.println(pipeline + ": at most " + mostSaving.get() + " saves blocked at once");
+        postImageService.close();
+        flask.close();
+    }
+
+    @Benchmark
+    public int uploadBatch() throws Exception {
+        List<CompletableFuture<?>> uploads = new ArrayList<>(UPLOADS);
+        for (int i = 0; i < UPLOADS; i++) {
+            uploads.add(pipeline.equals("service") ? postImageService.upload(file, 1) : uploadOnClientPool());
+        }
+        CompletableFuture.allOf(uploads.toArray(new CompletableFuture[0])).get(1, TimeUnit.MINUTES);
+        return uploads.size();
+    }
+
+    /** The removed pipeline: the save runs on whichever client thread finished the Flask call. */
+    private CompletableFuture<PostImageResponse> uploadOnClientPool() {
+        return flaskClient.detect(file)
+                .thenCompose(detection -> flaskClient.addSignature(file, Instant.now().toString()))
+                .thenApply(data -> {
+                    PostImage postImage = new PostImage();
+                    postImage.setData(imageMetrics.compress(data));
+                    postImageRepository.save(postImage);
+                    return new PostImageResponse();
+                });
+    }
+
+    @Test
+    void runBenchmarks() throws Exception {
+        BenchmarkRunner.run(ImageStoreBenchmark.class);
+    }
+}
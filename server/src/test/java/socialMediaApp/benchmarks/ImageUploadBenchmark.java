@@ -0,0 +1,118 @@
+package socialMediaApp.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+import socialMediaApp.FakeFlaskServer;
+import socialMediaApp.metrics.MetricsRegistry;
+import socialMediaApp.services.FlaskClient;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Batches of {@value #UPLOADS} concurrent detection calls served by a fixed pool of {@value #THREADS}
+ * request threads against a fake Flask that takes {@value #LATENCY_MILLIS} ms per call: with the
+ * blocking {@link RestTemplate} each thread waits out its call ({@code blocking=true}), with
+ * {@link FlaskClient} it hands the call off and is free at once. Detections per second are the score
+ * times {@value #UPLOADS}.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ImageUploadBenchmark {
+
+    private static final int UPLOADS = 64;
+    private static final int THREADS = 8;
+    private static final long LATENCY_MILLIS = 100;
+
+    @Param({"true", "false"})
+    public boolean blocking;
+
+    private FakeFlaskServer flask;
+    private ExecutorService requestThreads;
+    private RestTemplate restTemplate;
+    private FlaskClient flaskClient;
+    private MockMultipartFile file;
+
+    @Setup
+    public void setUp() throws IOException {
+        flask = new FakeFlaskServer(LATENCY_MILLIS);
+        requestThreads = Executors.newFixedThreadPool(THREADS);
+        restTemplate = new RestTemplate();
+        flaskClient = new FlaskClient(new ObjectMapper(), flask.getBaseUrl(), 60_000, false, new MetricsRegistry(60_000));
+        file = new MockMultipartFile("image", "photo.png", "image/png", new byte[64 * 1024]);
+    }
+
+    @TearDown
+    public void tearDown() {
+        requestThreads.shutdownNow();
+        flask.close();
+    }
+
+    @Benchmark
+    public int uploadBatch() throws Exception {
+        List<CompletableFuture<Map<String, Object>>> detections = new ArrayList<>(UPLOADS);
+        for (int i = 0; i < UPLOADS; i++) {
+            CompletableFuture<Map<String, Object>> detection = new CompletableFuture<>();
+            requestThreads.execute(() -> {
+                if (blocking) {
+                    detection.complete(detectBlocking());
+                } else {
+                    flaskClient.detect(file).whenComplete((result, e) -> {
+                        if (e != null) {
+                            detection.completeExceptionally(e);
+                        } else {
+                            detection.complete(result);
+                        }
+                    });
+                }
+            });
+            detections.add(detection);
+        }
+        CompletableFuture.allOf(detections.toArray(new CompletableFuture[0])).get(1, TimeUnit.MINUTES);
+        return detections.size();
+    }
+
+    /** The removed RestTemplate call, as PostImageService made it. */
+    private Map<String, Object> detectBlocking() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        try {
+            body.add("file", new ByteArrayResource(file.getBytes()) {
+                @Override
+                public String getFilename() {
+                    return file.getOriginalFilename();
+                }
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return restTemplate.exchange(flask.getBaseUrl() + "/upload", HttpMethod.POST, new HttpEntity<>(body, headers), Map.class).getBody();
+    }
+
+    @Test
+    void runBenchmarks() throws Exception {
+        // A blocking batch takes most of a second, so measure for longer than the shared settings do.
+        new Runner(BenchmarkRunner.options(ImageUploadBenchmark.class)
+                .measurementTime(TimeValue.seconds(5))
+                .build()).run();
+    }
+}
@@ -0,0 +1,78 @@
+package socialMediaApp.benchmarks;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import socialMediaApp.security.JwtPrincipal;
+import socialMediaApp.security.JwtUtil;
+import socialMediaApp.security.JwtVerifier;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifications per second over a pool of distinct tokens sent round-robin, as each client resends its
+ * own: the filter's old path, which parsed every token three times with a parser and key built per call
+ * ({@code threeParses}), one parse with a prebuilt parser ({@code singleParse}), and one parse cached
+ * until the token expires ({@code cached}).
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "mysupersecretkeymysupersecretkeymysupersecretkey";
+    private static final int TOKENS = 1_000;
+
+    private final String[] tokens = new String[TOKENS];
+    private final JwtVerifier singleParse = new JwtVerifier(SECRET, 0);
+    private final JwtVerifier cached = new JwtVerifier(SECRET, 10_000);
+    private int next;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 600_000);
+        for (int i = 0; i < TOKENS; i++) {
+            tokens[i] = jwtUtil.generateToken("user" + i + "@test.com", i, "User " + i);
+        }
+    }
+
+    @Benchmark
+    public JwtPrincipal threeParses() {
+        String token = nextToken();
+        String subject = claims(token).getSubject();
+        if (!subject.equals(claims(token).getSubject()) || claims(token).getExpiration().before(new Date())) {
+            return null;
+        }
+        Map<?, ?> user = claims(token).get("user", Map.class);
+        return new JwtPrincipal(((Number) user.get("id")).intValue(), subject, (String) user.get("fullName"));
+    }
+
+    @Benchmark
+    public JwtPrincipal singleParse() {
+        return singleParse.verify(nextToken()).getPrincipal();
+    }
+
+    @Benchmark
+    public JwtPrincipal cached() {
+        return cached.verify(nextToken()).getPrincipal();
+    }
+
+    private String nextToken() {
+        next = (next + 1) % TOKENS;
+        return tokens[next];
+    }
+
+    private static Claims claims(String token) {
+        return Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody();
+    }
+
+    @Test
+    void runBenchmarks() throws Exception {
+        BenchmarkRunner.run(JwtVerificationBenchmark.class);
+    }
+}
@@ -0,0 +1,88 @@
+package socialMediaApp.benchmarks;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import socialMediaApp.utils.IntBitmap;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memory per million likes and isLiked lookup latency of the post -> likers bitmaps used by
+ * {@link socialMediaApp.services.LikeIndexService}.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LikeIndexBenchmark {
+
+    private static final int LIKES = 1_000_000;
+    private static final int POSTS = 20_000;
+    private static final int USERS = 500_000;
+
+    private IntBitmap[] likersByPost;
+    private int[] probeUsers;
+    private int[] probePosts;
+    private int probe;
+
+    @Setup
+    public void setUp() {
+        likersByPost = build(new Random(42));
+        Random random = new Random(7);
+        probeUsers = new int[1 << 16];
+        probePosts = new int[1 << 16];
+        for (int i = 0; i < probeUsers.length; i++) {
+            probeUsers[i] = random.nextInt(USERS);
+            probePosts[i] = skewedPost(random);
+        }
+    }
+
+    @Benchmark
+    public boolean isLiked() {
+        int i = probe++ & (probeUsers.length - 1);
+        return likersByPost[probePosts[i]].contains(probeUsers[i]);
+    }
+
+    @Benchmark
+    public int likeCount() {
+        int i = probe++ & (probePosts.length - 1);
+        return likersByPost[probePosts[i]].cardinality();
+    }
+
+    @Test
+    void reportMemoryPerMillionLikes() {
+        IntBitmap[] bitmaps = build(new Random(42));
+        long bytes = 0;
+        long likes = 0;
+        for (IntBitmap bitmap : bitmaps) {
+            bytes += bitmap.sizeInBytes();
+            likes += bitmap.cardinality();
+        }
+        System.out.printf("LikeIndex: %d likes over %d posts, %.1f MiB per million likes (%.2f bytes/like)%n",
+                likes, POSTS, bytes / (1024.0 * 1024.0) * 1_000_000 / likes, (double) bytes / likes);
+    }
+
+    @Test
+    void runBenchmarks() throws Exception {
+        BenchmarkRunner.run(LikeIndexBenchmark.class);
+    }
+
+    private static IntBitmap[] build(Random random) {
+        IntBitmap[] bitmaps = new IntBitmap[POSTS];
+        for (int i = 0; i < POSTS; i++) {
+            bitmaps[i] = new IntBitmap();
+        }
+        for (int i = 0; i < LIKES; i++) {
+            bitmaps[skewedPost(random)].add(random.nextInt(USERS));
+        }
+        return bitmaps;
+    }
+
+    /** A few posts receive most of the likes, as on a real feed. */
+    private static int skewedPost(Random random) {
+        double u = random.nextDouble();
+        return (int) (POSTS * u * u * u);
+    }
+}
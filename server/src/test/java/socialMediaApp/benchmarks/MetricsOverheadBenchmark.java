@@ -0,0 +1,83 @@
+package socialMediaApp.benchmarks;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.framework.ProxyFactory;
+import socialMediaApp.metrics.Histogram;
+import socialMediaApp.metrics.MetricsRegistry;
+import socialMediaApp.metrics.ServiceMetricsInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nanoseconds the instrumentation adds: a cheap service call made directly ({@code direct}), through a
+ * proxy as the transactional services already are ({@code proxied}), and through a proxy that times it
+ * as every service is now ({@code timed}); then recording one value on one thread ({@code record}) and
+ * on eight at once into the same histogram ({@code contendedRecord}).
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsOverheadBenchmark {
+
+    private final MetricsRegistry registry = new MetricsRegistry(60_000);
+    private final Histogram histogram = registry.timer("benchmark_seconds", "Benchmark.");
+    private final Lookup direct = new Lookup();
+    private Lookup proxied;
+    private Lookup timed;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ProxyFactory plain = new ProxyFactory(new Lookup());
+        plain.setProxyTargetClass(true);
+        proxied = (Lookup) plain.getProxy();
+        ProxyFactory withTimer = new ProxyFactory(new Lookup());
+        withTimer.setProxyTargetClass(true);
+        withTimer.addAdvice(new ServiceMetricsInterceptor(registry));
+        timed = (Lookup) withTimer.getProxy();
+    }
+
+    @Benchmark
+    public int direct() {
+        return direct.find(next++);
+    }
+
+    @Benchmark
+    public int proxied() {
+        return proxied.find(next++);
+    }
+
+    @Benchmark
+    public int timed() {
+        return timed.find(next++);
+    }
+
+    @Benchmark
+    public void record() {
+        histogram.record(next++ & 0xFFFFF);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void contendedRecord() {
+        histogram.record(System.nanoTime() & 0xFFFFF);
+    }
+
+    /** Stands in for a service method that answers from memory. */
+    public static class Lookup {
+
+        private final int[] values = new int[1024];
+
+        public int find(int key) {
+            return values[key & 1023] + key;
+        }
+    }
+
+    @Test
+    void runBenchmarks() throws Exception {
+        BenchmarkRunner.run(MetricsOverheadBenchmark.class);
+    }
+}
@@ -0,0 +1,116 @@
+package socialMediaApp.benchmarks;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import socialMediaApp.models.User;
+import socialMediaApp.projections.FollowWatermark;
+import socialMediaApp.repositories.FollowRepository;
+import socialMediaApp.repositories.LikeRepository;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.responses.user.UserSuggestionResponse;
+import socialMediaApp.services.FollowGraphService;
+import socialMediaApp.services.RecommendationService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Latency distribution of a suggestions lookup over {@value #USERS} users who follow {@value #FOLLOWS}
+ * accounts each, skewed towards a few popular ones: served from the cache the scheduled refresh fills
+ * ({@code cached}), and computed on the spot for a user missing from it ({@code cold}). The repositories
+ * are stubs, so the user lookup costs next to nothing here.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RecommendationBenchmark {
+
+    private static final int USERS = 20_000;
+    private static final int FOLLOWS = 40;
+
+    private final Random random = new Random(42);
+    private Path snapshot;
+    private FollowGraphService graph;
+    private RecommendationService recommendations;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Object[]> edges = new ArrayList<>(USERS * FOLLOWS);
+        List<Object[]> likes = new ArrayList<>();
+        for (int user = 1; user <= USERS; user++) {
+            Set<Integer> following = new HashSet<>();
+            while (following.size() < FOLLOWS) {
+                // Squaring a uniform draw favours low ids, which become the popular accounts.
+                double draw = random.nextDouble();
+                int followed = 1 + (int) (draw * draw * USERS);
+                if (followed != user && following.add(followed)) {
+                    edges.add(new Object[]{user, followed});
+                }
+            }
+            likes.add(new Object[]{user, 1 + random.nextInt(USERS), (long) (1 + random.nextInt(5))});
+        }
+        FollowRepository followRepository = mock(FollowRepository.class);
+        FollowWatermark watermark = mock(FollowWatermark.class);
+        when(watermark.getCount()).thenReturn((long) edges.size());
+        when(watermark.getMaxId()).thenReturn(edges.size());
+        when(followRepository.findWatermark()).thenReturn(watermark);
+        when(followRepository.streamUserAndFollowingIds()).thenAnswer(invocation -> edges.stream());
+        LikeRepository likeRepository = mock(LikeRepository.class);
+        when(likeRepository.streamLikeCountsByUserAndAuthor()).thenAnswer(invocation -> likes.stream());
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findAllIds()).thenReturn(IntStream.rangeClosed(1, USERS).boxed().toList());
+        when(userRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<User> users = new ArrayList<>();
+            for (Object id : (Iterable<?>) invocation.getArgument(0)) {
+                User user = new User();
+                user.setId((Integer) id);
+                users.add(user);
+            }
+            return users;
+        });
+
+        snapshot = Files.createTempFile("follow-graph-benchmark", ".bin");
+        Files.delete(snapshot);
+        graph = new FollowGraphService(followRepository, snapshot.toString(), 10_000);
+        graph.load();
+        recommendations = new RecommendationService(graph, likeRepository, userRepository, 50, 0);
+        recommendations.refreshAll();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        recommendations.close();
+        Files.deleteIfExists(snapshot);
+    }
+
+    @Benchmark
+    public List<UserSuggestionResponse> cached() {
+        return recommendations.getSuggestions(1 + random.nextInt(USERS), 10);
+    }
+
+    @Benchmark
+    public List<UserSuggestionResponse> cold() {
+        int userId = 1 + random.nextInt(USERS);
+        recommendations.removeUser(userId);
+        return recommendations.getSuggestions(userId, 10);
+    }
+
+    @Test
+    void runBenchmarks() throws Exception {
+        BenchmarkRunner.run(RecommendationBenchmark.class);
+    }
+}
@@ -0,0 +1,73 @@
+package socialMediaApp.benchmarks;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import socialMediaApp.utils.PrefixIndex;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-10 prefix lookups over a million user names in the {@link PrefixIndex} behind
+ * {@link socialMediaApp.services.TypeaheadService}, for one- to three-letter prefixes.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TypeaheadBenchmark {
+
+    private static final int USERS = 1_000_000;
+    private static final int LIMIT = 10;
+
+    @Param({"1", "2", "3"})
+    public int prefixLength;
+
+    private PrefixIndex index;
+    private String[] prefixes;
+    private int probe;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] keys = new String[USERS];
+        int[] ids = new int[USERS];
+        int[] scores = new int[USERS];
+        for (int i = 0; i < USERS; i++) {
+            keys[i] = word(random, 3 + random.nextInt(6)) + " " + word(random, 3 + random.nextInt(8));
+            ids[i] = i;
+            // Follower counts are heavily skewed: most users have a handful, a few have very many.
+            scores[i] = (int) Math.pow(10, random.nextDouble() * random.nextDouble() * 6);
+        }
+        Arrays.sort(keys);
+        index = new PrefixIndex(keys, ids, scores);
+        prefixes = new String[1 << 12];
+        for (int i = 0; i < prefixes.length; i++) {
+            prefixes[i] = word(random, prefixLength);
+        }
+    }
+
+    @Benchmark
+    public int top10() {
+        String prefix = prefixes[probe++ & (prefixes.length - 1)];
+        int[] range = index.range(prefix);
+        int[] found = new int[1];
+        index.forEachByScore(range[0], range[1], position -> ++found[0] < LIMIT);
+        return found[0];
+    }
+
+    @Test
+    void runBenchmarks() throws Exception {
+        BenchmarkRunner.run(TypeaheadBenchmark.class);
+    }
+
+    private static String word(Random random, int length) {
+        char[] word = new char[length];
+        for (int i = 0; i < length; i++) {
+            word[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(word);
+    }
+}
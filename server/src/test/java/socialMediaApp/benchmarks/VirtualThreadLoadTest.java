@@ -0,0 +1,162 @@
+package socialMediaApp.benchmarks;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import socialMediaApp.FakeFlaskServer;
+import socialMediaApp.SocialMediaAppApplication;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.security.JwtUtil;
+import socialMediaApp.utils.VirtualThreads;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Load test: {@value #CLIENTS} clients send requests back to back to an endpoint that runs a query and
+ * then waits {@value #FLASK_LATENCY_MILLIS} ms on a blocking call to a fake Flask, as request handlers
+ * here do. The app runs once on Tomcat's pool of {@value #TOMCAT_THREADS} threads and once with a
+ * virtual thread per request, and each run prints its throughput and p50/p99 latency. The virtual run
+ * needs a Java 21 runtime and is skipped on older ones.
+ */
+@Tag("benchmark")
+class VirtualThreadLoadTest {
+
+    private static final int CLIENTS = 400;
+    private static final int TOMCAT_THREADS = 50;
+    private static final long FLASK_LATENCY_MILLIS = 50;
+    private static final long WARMUP_MILLIS = 3_000;
+    private static final long MEASURE_MILLIS = 10_000;
+
+    @Test
+    void platformThreadsAgainstVirtualThreads() throws Exception {
+        List<String> rows = new ArrayList<>();
+        try (FakeFlaskServer flask = new FakeFlaskServer(FLASK_LATENCY_MILLIS)) {
+            rows.add(run(false, flask));
+            rows.add(VirtualThreads.isSupported() ? run(true, flask)
+                    : String.format("%-9s skipped: Java %d has no virtual threads", "virtual", Runtime.version().feature()));
+        }
+        System.out.printf("%n%-9s %10s %8s %8s%n", "mode", "req/s", "p50 ms", "p99 ms");
+        rows.forEach(System.out::println);
+    }
+
+    private String run(boolean virtual, FakeFlaskServer flask) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SocialMediaAppApplication.class, BlockingController.class)
+                .web(WebApplicationType.SERVLET)
+                .properties("server.port=0",
+                        "server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "app.threads.virtual=" + virtual,
+                        "app.flask.base-url=" + flask.getBaseUrl(),
+                        "spring.datasource.url=jdbc:h2:mem:load" + virtual + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                        "app.follow-graph.snapshot-path=target/follow-graph-load.bin",
+                        "app.search.index-dir=target/search-index-load-" + virtual,
+                        "logging.level.root=WARN")
+                .run();
+        try {
+            User user = new User();
+            user.setEmail("load@test.com");
+            user.setName("Load");
+            user.setLastName("User");
+            user.setPassword("secret");
+            user = context.getBean(UserRepository.class).save(user);
+            String token = context.getBean(JwtUtil.class).generateToken(user.getEmail(), user.getId(), "Load User");
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/load/blocking"))
+                    .header("Authorization", "Bearer " + token).GET().build();
+
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            assertEquals(200, client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+            load(client, request, WARMUP_MILLIS);
+            List<Long> latencies = load(client, request, MEASURE_MILLIS);
+            Collections.sort(latencies);
+            return String.format("%-9s %10.0f %8.1f %8.1f", virtual ? "virtual" : "platform",
+                    latencies.size() * 1000.0 / MEASURE_MILLIS, percentile(latencies, 0.50), percentile(latencies, 0.99));
+        } finally {
+            context.close();
+        }
+    }
+
+    /** Latencies, in nanoseconds, of the successful requests {@value #CLIENTS} clients got through in {@code millis}. */
+    private static List<Long> load(HttpClient client, HttpRequest request, long millis) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong failures = new AtomicLong();
+        List<CompletableFuture<Void>> clients = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            send(client, request, deadline, latencies, failures, done);
+            clients.add(done);
+        }
+        CompletableFuture.allOf(clients.toArray(new CompletableFuture[0])).get(millis + 60_000, TimeUnit.MILLISECONDS);
+        if (failures.get() > 0) {
+            throw new IllegalStateException(failures.get() + " requests failed");
+        }
+        return new ArrayList<>(latencies);
+    }
+
+    private static void send(HttpClient client, HttpRequest request, long deadline, ConcurrentLinkedQueue<Long> latencies,
+                             AtomicLong failures, CompletableFuture<Void> done) {
+        long start = System.nanoTime();
+        if (start >= deadline) {
+            done.complete(null);
+            return;
+        }
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, e) -> {
+            if (e != null || response.statusCode() != 200) {
+                failures.incrementAndGet();
+            } else {
+                latencies.add(System.nanoTime() - start);
+            }
+            send(client, request, deadline, latencies, failures, done);
+        });
+    }
+
+    private static double percentile(List<Long> sortedNanos, double percentile) {
+        if (sortedNanos.isEmpty()) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.size()) - 1;
+        return sortedNanos.get(Math.max(0, index)) / 1e6;
+    }
+
+    /** A request handler that blocks the way the application's do: on a query, then on Flask. */
+    @RestController
+    static class BlockingController {
+
+        private final JdbcTemplate jdbcTemplate;
+        private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        private final URI flask;
+
+        BlockingController(JdbcTemplate jdbcTemplate, @Value("${app.flask.base-url}") String flaskUrl) {
+            this.jdbcTemplate = jdbcTemplate;
+            this.flask = URI.create(flaskUrl + "/processed/load.png");
+        }
+
+        @GetMapping("/api/load/blocking")
+        public long blocking() throws IOException, InterruptedException {
+            long users = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+            httpClient.send(HttpRequest.newBuilder(flask).GET().build(), HttpResponse.BodyHandlers.discarding());
+            return users;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package socialMediaApp.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionLimitingDataSourceTest {
+
+    private final ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(h2(), 2, 200);
+
+    @Test
+    void connectionsBeyondThePermitsWaitForOneToClose() throws Exception {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        assertEquals(0, dataSource.getAvailable());
+
+        CompletableFuture<Connection> third = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        assertFalse(third.isDone());
+        first.close();
+        // Closing twice gives back one permit, not two.
+        first.close();
+        third.get(1, TimeUnit.SECONDS).close();
+        second.close();
+
+        assertEquals(2, dataSource.getAvailable());
+        assertTrue(first.isClosed());
+    }
+
+    @Test
+    void waitingEndsWithATimeout() throws Exception {
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        }
+        assertEquals(2, dataSource.getAvailable());
+    }
+
+    @Test
+    void connectionsStillWork() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            assertTrue(connection.createStatement().executeQuery("SELECT 1").next());
+            assertFalse(((ConnectionProxy) connection).getTargetConnection() instanceof ConnectionProxy);
+            assertEquals(connection, connection);
+        }
+    }
+
+    private static JdbcDataSource h2() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:connectionLimit;DB_CLOSE_DELAY=-1");
+        return h2;
+    }
+}
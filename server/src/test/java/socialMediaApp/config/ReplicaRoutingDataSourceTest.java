@@ -0,0 +1,183 @@
+package socialMediaApp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import socialMediaApp.models.Post;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.PostRepository;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.requests.CommentAddRequest;
+import socialMediaApp.responses.comment.CommentGetResponse;
+import socialMediaApp.responses.datasource.DataSourcePoolStatsResponse;
+import socialMediaApp.services.CommentService;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** Two in-memory H2 databases stand in for the primary and a replica that the test "replicates" by hand. */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routingPrimary;" + ReplicaRoutingDataSourceTest.H2_OPTIONS,
+        "app.datasource.replica.urls=" + ReplicaRoutingDataSourceTest.REPLICA_URL,
+        "app.datasource.replica.lag-query=SELECT lag_ms FROM replica_lag",
+        "app.datasource.replica.check-interval-ms=3600000",
+        "app.datasource.replica.read-your-writes-ms=60000",
+        "app.follow-graph.snapshot-path=target/follow-graph-routing-test.bin",
+        "app.search.index-dir=target/search-index-routing-test"})
+@AutoConfigureMockMvc
+@DirtiesContext
+class ReplicaRoutingDataSourceTest {
+
+    static final String H2_OPTIONS = "MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routingReplica;" + H2_OPTIONS;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+    @Autowired
+    private HikariDataSource primaryDataSource;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private CommentService commentService;
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    void copySchemaToReplica() {
+        replica.execute("DROP ALL OBJECTS");
+        // With no lag table the probe fails, so every test starts with the replica unprobed as at startup.
+        replicaRoutingDataSource.checkReplicas();
+        for (String statement : new JdbcTemplate(primaryDataSource).queryForList("SCRIPT NODATA", String.class)) {
+            replica.execute(statement);
+        }
+        replica.execute("CREATE TABLE replica_lag (lag_ms BIGINT)");
+        replica.update("INSERT INTO replica_lag VALUES (0)");
+    }
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readsGoToTheReplicaExceptForTheWriter() {
+        User author = newUser("author");
+        Post post = newPost(author);
+        commentService.add(new CommentAddRequest(post.getId(), author.getId(), "fresh"));
+        copyToReplica(author, post, "stale");
+
+        // Not probed yet, so not trusted with reads.
+        assertEquals(List.of("fresh"), comments(post));
+
+        replicaRoutingDataSource.checkReplicas();
+        assertEquals(List.of("stale"), comments(post));
+
+        signIn(author.getEmail());
+        assertEquals(List.of("stale"), comments(post));
+        commentService.add(new CommentAddRequest(post.getId(), author.getId(), "mine"));
+        assertEquals(List.of("fresh", "mine"), comments(post));
+
+        signIn("someone-else@test.com");
+        assertEquals(List.of("stale"), comments(post));
+
+        replica.update("UPDATE replica_lag SET lag_ms = 5000");
+        replicaRoutingDataSource.checkReplicas();
+        assertEquals(List.of("fresh", "mine"), comments(post));
+
+        DataSourcePoolStatsResponse replicaStats = replicaRoutingDataSource.getPoolStats().get(1);
+        assertFalse(replicaStats.isAvailable());
+        assertEquals(5000L, replicaStats.getLagMillis());
+        assertTrue(replicaStats.getRouted() >= 2);
+    }
+
+    @Test
+    void requestThatReadsTheReplicaStillWritesToThePrimary() throws Exception {
+        User author = newUser("deleter");
+        Post post = newPost(author);
+        copyToReplica(author, post, "stale");
+        replicaRoutingDataSource.checkReplicas();
+        long replicaReads = replicaRoutingDataSource.getPoolStats().get(1).getRouted();
+
+        // Post deletion looks up the post's comments (read-only) before deleting, within one open-in-view session.
+        mockMvc.perform(delete("/api/posts/delete").param("postId", String.valueOf(post.getId()))
+                        .with(user(author.getEmail())))
+                .andExpect(status().isOk());
+
+        assertTrue(replicaRoutingDataSource.getPoolStats().get(1).getRouted() > replicaReads);
+        assertEquals(0, new JdbcTemplate(primaryDataSource)
+                .queryForObject("SELECT COUNT(*) FROM posts WHERE id = ? AND deleted_at IS NULL", Integer.class, post.getId()));
+        assertEquals(1, replica.queryForObject("SELECT COUNT(*) FROM posts WHERE id = ?", Integer.class, post.getId()));
+    }
+
+    @Test
+    void bodiesServedUnderAnEtagAreReadFromThePrimary() throws Exception {
+        User author = newUser("etag");
+        Post post = newPost(author);
+        commentService.add(new CommentAddRequest(post.getId(), author.getId(), "fresh"));
+        copyToReplica(author, post, "stale");
+        replicaRoutingDataSource.checkReplicas();
+        assertEquals(List.of("stale"), comments(post));
+
+        // The ETag already counts the new comment, so the body must too, whoever asks.
+        mockMvc.perform(get("/api/comments/getallbypost/" + post.getId()).with(user("reader@test.com")))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$[0].description").value("fresh"));
+    }
+
+    private List<String> comments(Post post) {
+        return commentService.getAllByPost(post.getId()).stream()
+                .map(CommentGetResponse::getDescription).sorted().collect(Collectors.toList());
+    }
+
+    private void copyToReplica(User user, Post post, String comment) {
+        replica.update("INSERT INTO users (id, email, name, last_name, password) VALUES (?, ?, ?, ?, ?)",
+                user.getId(), user.getEmail(), user.getName(), user.getLastName(), user.getPassword());
+        replica.update("INSERT INTO posts (id, description, user_id, created_at) VALUES (?, ?, ?, CURRENT_TIMESTAMP)",
+                post.getId(), post.getDescription(), user.getId());
+        replica.update("INSERT INTO comments (description, post_id, user_id, created_at) VALUES (?, ?, ?, CURRENT_TIMESTAMP)",
+                comment, post.getId(), user.getId());
+    }
+
+    private static void signIn(String email) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(email, null, "USER"));
+    }
+
+    private Post newPost(User author) {
+        Post post = new Post();
+        post.setDescription("routed");
+        post.setUser(author);
+        return postRepository.save(post);
+    }
+
+    private User newUser(String name) {
+        User user = new User();
+        user.setEmail(name + "-" + System.nanoTime() + "@test.com");
+        user.setName(name);
+        user.setLastName("Routing");
+        user.setPassword("secret");
+        return userRepository.save(user);
+    }
+}
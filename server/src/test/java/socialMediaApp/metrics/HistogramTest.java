@@ -0,0 +1,68 @@
+package socialMediaApp.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistogramTest {
+
+    private static final double[] QUANTILES = {0.5, 0.99};
+
+    @Test
+    void quantilesAreWithinABucketOfTheTruth() {
+        for (long value : new long[]{0, 1, 7, 8, 9, 15, 16, 1_000, 123_456_789, Long.MAX_VALUE}) {
+            long estimate = Histogram.midpoint(Histogram.bucket(value));
+            assertTrue(Math.abs(estimate - (double) value) <= value / 16.0 + 1, () -> value + " reads as " + estimate);
+        }
+        Histogram histogram = new Histogram(TimeUnit.MINUTES.toNanos(1));
+        for (long i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1_000);
+        }
+
+        long[] snapshot = histogram.snapshot(QUANTILES);
+        assertEquals(5_000_000, snapshot[0], 5_000_000 / 16.0);
+        assertEquals(9_900_000, snapshot[1], 9_900_000 / 16.0);
+        assertEquals(10_000_000, snapshot[2]);
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(50_005_000_000L, histogram.getSum());
+    }
+
+    @Test
+    void quantilesForgetOldWindowsButTotalsDoNot() {
+        long window = TimeUnit.SECONDS.toNanos(1);
+        Histogram histogram = new Histogram(window);
+        long now = System.nanoTime();
+        histogram.record(1_000_000, now);
+
+        histogram.record(10, now + window);
+        assertEquals(1_000_000, histogram.snapshot(QUANTILES)[2]);
+        histogram.record(10, now + 2 * window + 1);
+        histogram.record(10, now + 3 * window + 2);
+
+        // Only the two latest windows count towards quantiles and max, but counts and sums run since startup.
+        long[] snapshot = histogram.snapshot(QUANTILES);
+        assertEquals(10, snapshot[1]);
+        assertEquals(10, snapshot[2]);
+        assertEquals(4, histogram.getCount());
+        assertEquals(1_000_030, histogram.getSum());
+    }
+
+    @Test
+    void scrapeWritesPrometheusSummaries() {
+        MetricsRegistry registry = new MetricsRegistry(60_000);
+        registry.timer("call_seconds", "Calls.", "endpoint", "say \"hi\"").record(2_000_000_000L);
+        registry.histogram("payload_bytes", "Payloads.").record(512);
+
+        String scrape = registry.scrape();
+
+        assertTrue(scrape.contains("# TYPE call_seconds summary\n"));
+        assertTrue(scrape.contains("call_seconds{endpoint=\"say \\\"hi\\\"\",quantile=\"0.5\"} 1.9"));
+        assertTrue(scrape.contains("call_seconds_count{endpoint=\"say \\\"hi\\\"\"} 1\n"));
+        assertTrue(scrape.contains("call_seconds_sum{endpoint=\"say \\\"hi\\\"\"} 2.0\n"));
+        assertTrue(scrape.contains("# TYPE call_seconds_max gauge\ncall_seconds_max{endpoint=\"say \\\"hi\\\"\"} 2.0\n"));
+        assertTrue(scrape.contains("payload_bytes{quantile=\"0.99\"} 512.0\n"));
+        assertTrue(scrape.contains("payload_bytes_count 1\n"));
+    }
+}
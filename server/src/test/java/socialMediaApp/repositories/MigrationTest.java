@@ -0,0 +1,34 @@
+package socialMediaApp.repositories;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MigrationTest {
+
+    @Test
+    void databaseBaselinedAtV1LosesItsDuplicatesBeforeTheUniqueKeys() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:migration;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).target("1").load().migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("INSERT INTO users (id, email, name, last_name, password) VALUES "
+                + "(1, 'a@test.com', 'A', 'A', 'x'), (2, 'b@test.com', 'B', 'B', 'x'), (3, 'a@test.com', 'C', 'C', 'x')");
+        jdbc.update("INSERT INTO posts (id, description, user_id) VALUES (1, 'post', 1)");
+        jdbc.update("INSERT INTO likes (id, post_id, user_id) VALUES (1, 1, 2), (2, 1, 2), (3, 1, 3)");
+        jdbc.update("INSERT INTO follows (id, user_id, user_following_id) VALUES (1, 2, 1), (2, 2, 1), (3, 3, 1)");
+
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        assertEquals(List.of(1, 3), jdbc.queryForList("SELECT id FROM likes ORDER BY id", Integer.class));
+        assertEquals(List.of(1, 3), jdbc.queryForList("SELECT id FROM follows ORDER BY id", Integer.class));
+        assertEquals(List.of("a@test.com", "b@test.com", "duplicate-3-a@test.com"),
+                jdbc.queryForList("SELECT email FROM users ORDER BY id", String.class));
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM likes WHERE created_at IS NOT NULL", Integer.class));
+    }
+}
@@ -0,0 +1,151 @@
+package socialMediaApp.repositories;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import socialMediaApp.StatementCounter;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs EXPLAIN on the SQL behind every repository finder, against the migrated schema and a seeded
+ * dataset, and fails when a plan scans a whole table. Whole-table streams and aggregates (index
+ * loaders, exports, watermarks) read every row on purpose and are not listed here.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:queryPlans;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class QueryPlanTest {
+
+    private static final List<Integer> IDS = List.of(3, 5, 8, 13, 21);
+
+    private final List<String> scans = new ArrayList<>();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private LikeRepository likeRepository;
+    @Autowired
+    private FollowRepository followRepository;
+    @Autowired
+    private PostImageRepository postImageRepository;
+    @Autowired
+    private UserImageRepository userImageRepository;
+
+    @BeforeEach
+    void seed() {
+        // Cached users would answer the natural-id lookup without SQL.
+        entityManagerFactory.getCache().evictAll();
+        // ANALYZE commits, so the rows outlive the test transaction: seed once per database.
+        if (userRepository.count() > 0) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO users (email, name, last_name, password)"
+                + " SELECT 'user' || n || '@test.com', 'Name' || n, 'Plan', 'secret' FROM SYSTEM_RANGE(1, 2000) r(n)");
+        jdbcTemplate.update("INSERT INTO posts (description, user_id, created_at)"
+                + " SELECT 'post ' || n, MOD(n, 2000) + 1, DATEADD('MINUTE', -n, CURRENT_TIMESTAMP) FROM SYSTEM_RANGE(1, 20000) r(n)");
+        jdbcTemplate.update("INSERT INTO comments (description, post_id, user_id, created_at)"
+                + " SELECT 'comment ' || n, MOD(n * 7, 20000) + 1, MOD(n, 2000) + 1, DATEADD('MINUTE', -n, CURRENT_TIMESTAMP)"
+                + " FROM SYSTEM_RANGE(1, 20000) r(n)");
+        // 20 likes and 10 follows per user, spread over posts and users without repeating a pair.
+        jdbcTemplate.update("INSERT INTO likes (user_id, post_id, created_at)"
+                + " SELECT n / 20 + 1, MOD(n * 1009, 20000) + 1, DATEADD('MINUTE', -n, CURRENT_TIMESTAMP) FROM SYSTEM_RANGE(0, 39999) r(n)");
+        jdbcTemplate.update("INSERT INTO follows (user_id, user_following_id)"
+                + " SELECT n / 10 + 1, MOD(n / 10 + 1 + MOD(n, 10) * 37, 2000) + 1 FROM SYSTEM_RANGE(0, 19999) r(n)");
+        jdbcTemplate.update("INSERT INTO post_image (name, type, post_id) SELECT 'p' || n, 'image/png', n FROM SYSTEM_RANGE(1, 2000) r(n)");
+        jdbcTemplate.update("INSERT INTO user_images (name, type, user_id) SELECT 'u' || n, 'image/png', n FROM SYSTEM_RANGE(1, 2000) r(n)");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterEach
+    void noSequentialScans() {
+        assertTrue(scans.isEmpty(), () -> "Sequential scans in:\n\n" + String.join("\n\n", scans));
+    }
+
+    @Test
+    void userAndPostFinders() {
+        assertIndexed(() -> userRepository.findByEmail("user7@test.com"));
+        assertIndexed(() -> userRepository.findProfileById(7));
+        assertIndexed(() -> userRepository.findProfileByEmail("user7@test.com"));
+        assertIndexed(() -> userRepository.findProfilesByIdIn(IDS));
+        assertIndexed(() -> userRepository.findSummariesByIdIn(IDS));
+        assertIndexed(() -> userRepository.findExistingIds(IDS));
+
+        assertIndexed(() -> postRepository.findAllByUser_IdOrderByIdDesc(7));
+        assertIndexed(() -> postRepository.findAllWithUserByIdIn(IDS));
+        assertIndexed(() -> postRepository.findExistingIds(IDS));
+        assertIndexed(() -> postRepository.findIdsByUserId(7));
+        assertIndexed(() -> drain(postRepository.streamIdsAndTimesSince(Instant.now().minus(1, ChronoUnit.HOURS))));
+
+        assertIndexed(() -> postImageRepository.findPostImageByPost_Id(7));
+        assertIndexed(() -> userImageRepository.findByUser_Id(7));
+    }
+
+    @Test
+    void likeFollowAndCommentFinders() {
+        assertIndexed(() -> likeRepository.findAllByPost_Id(7));
+        assertIndexed(() -> likeRepository.findAllByUser_Id(7));
+        assertIndexed(() -> likeRepository.findByUser_IdAndPost_Id(7, 7));
+        assertIndexed(() -> likeRepository.countByPost_Id(7));
+        assertIndexed(() -> likeRepository.findLikedPostIds(7, IDS));
+        // deleteReturningCreatedAt is plain JDBC, which the statement inspector does not see.
+        assertIndexed("DELETE FROM likes WHERE user_id = 7 AND post_id = 7");
+        assertIndexed(() -> drain(likeRepository.streamPostIdsAndTimesSince(Instant.now().minus(1, ChronoUnit.HOURS))));
+
+        assertIndexed(() -> followRepository.findAllByUser_Id(7));
+        assertIndexed(() -> followRepository.findByUser_IdAndFollowing_Id(7, 8));
+        assertIndexed(() -> followRepository.countByFollowing_Id(7));
+        assertIndexed(() -> followRepository.countByUser_Id(7));
+        assertIndexed(() -> followRepository.findFollowedIds(7, IDS));
+        assertIndexed(() -> followRepository.findFollowingIds(7, PageRequest.of(0, 20)));
+        assertIndexed(() -> followRepository.findFollowerIds(7, PageRequest.of(0, 20)));
+        assertIndexed(() -> followRepository.findMutualIds(7));
+        assertIndexed(() -> followRepository.deleteByUserIdAndFollowingId(7, 8));
+
+        assertIndexed(() -> commentRepository.findAllByPost_Id(7));
+        assertIndexed(() -> commentRepository.findAllByUser_Id(7));
+        assertIndexed(() -> commentRepository.findIdsByPostId(7));
+        assertIndexed(() -> commentRepository.findIdsByUserId(7));
+        assertIndexed(() -> commentRepository.findIdsByPostAuthor(7));
+        assertIndexed(() -> drain(commentRepository.streamPostIdsAndTimesSince(Instant.now().minus(1, ChronoUnit.HOURS))));
+    }
+
+    private void assertIndexed(Runnable query) {
+        List<String> statements = StatementCounter.capture(query);
+        assertFalse(statements.isEmpty(), "the query ran no SQL");
+        statements.forEach(this::assertIndexed);
+    }
+
+    private void assertIndexed(String sql) {
+        String plan = jdbcTemplate.query("EXPLAIN " + sql, resultSet -> resultSet.next() ? resultSet.getString(1) : "");
+        if (plan.contains(".tableScan")) {
+            scans.add(plan);
+        }
+    }
+
+    private static void drain(Stream<?> rows) {
+        try (rows) {
+            rows.forEach(row -> { });
+        }
+    }
+}
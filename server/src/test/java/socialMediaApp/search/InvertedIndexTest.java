@@ -0,0 +1,64 @@
+package socialMediaApp.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void ranksByBm25AndFiltersByType() throws Exception {
+        InvertedIndex index = new InvertedIndex(directory, 2, 10);
+        assertFalse(index.open());
+        index.add(DocType.POST.key(1), "Sunset over the sea");
+        index.add(DocType.POST.key(2), "Sea, sea and more sea");
+        index.add(DocType.COMMENT.key(1), "Nice sea");
+        index.add(DocType.USER.key(1), "Élodie Martin");
+
+        assertEquals(List.of(DocType.POST.key(2), DocType.COMMENT.key(1), DocType.POST.key(1)),
+                keys(index.search("SEA", null, 0, 10)));
+        assertEquals(List.of(DocType.POST.key(2), DocType.POST.key(1)), keys(index.search("sea", DocType.POST, 0, 10)));
+        assertEquals(List.of(DocType.USER.key(1)), keys(index.search("elodie", null, 0, 10)));
+
+        InvertedIndex.SearchResult page = index.search("sea", null, 1, 1);
+        assertEquals(3, page.getTotalHits());
+        assertEquals(List.of(DocType.COMMENT.key(1)), keys(page));
+    }
+
+    @Test
+    void updatesAndDeletesSurviveMergesAndCleanRestart() throws Exception {
+        InvertedIndex index = new InvertedIndex(directory, 10, 2);
+        index.open();
+        for (int id = 0; id < 100; id++) {
+            index.add(DocType.POST.key(id), "post number " + id + (id % 2 == 0 ? " even" : " odd"));
+        }
+        index.flush();
+        for (int id = 0; id < 100; id += 4) {
+            index.delete(DocType.POST.key(id));
+        }
+        index.add(DocType.POST.key(1), "now even");
+        index.close();
+
+        InvertedIndex reopened = new InvertedIndex(directory, 10, 2);
+        assertTrue(reopened.open());
+        assertTrue(reopened.segmentCount() <= 3);
+        assertEquals(75, reopened.docCount());
+        assertEquals(26, reopened.search("even", null, 0, 100).getTotalHits());
+        assertEquals(List.of(DocType.POST.key(2)), keys(reopened.search("2", null, 0, 10)));
+
+        // Without a clean close the next open starts from scratch.
+        assertFalse(new InvertedIndex(directory, 10, 2).open());
+    }
+
+    private static List<Long> keys(InvertedIndex.SearchResult result) {
+        return result.getHits().stream().map(SearchHit::getKey).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,49 @@
+package socialMediaApp.security;
+
+import org.junit.jupiter.api.Test;
+import socialMediaApp.repositories.UserRepository;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ActiveUserServiceTest {
+
+    @Test
+    void userDeletedElsewhereIsForgottenByTheNextLoad() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.streamIds()).thenAnswer(invocation -> Stream.of(1));
+        ActiveUserService activeUsers = new ActiveUserService(userRepository);
+        activeUsers.load();
+
+        // Registered after the load, then deleted by another instance.
+        when(userRepository.existsById(2)).thenReturn(true);
+        assertTrue(activeUsers.isActive(2));
+        when(userRepository.existsById(2)).thenReturn(false);
+        activeUsers.load();
+
+        assertFalse(activeUsers.isActive(2));
+        assertTrue(activeUsers.isActive(1));
+        verify(userRepository, times(2)).existsById(2);
+    }
+
+    @Test
+    void userRegisteredWhileLoadingIsKept() {
+        UserRepository userRepository = mock(UserRepository.class);
+        ActiveUserService activeUsers = new ActiveUserService(userRepository);
+        when(userRepository.streamIds()).thenAnswer(invocation -> Stream.of(1));
+        activeUsers.load();
+
+        // The snapshot is read before user 3 commits, but user 3 authenticates before the load finishes.
+        when(userRepository.existsById(3)).thenReturn(true);
+        when(userRepository.streamIds()).thenAnswer(invocation -> {
+            assertTrue(activeUsers.isActive(3));
+            return Stream.of(1);
+        });
+        activeUsers.load();
+
+        assertTrue(activeUsers.isActive(3));
+        verify(userRepository, times(1)).existsById(3);
+    }
+}
@@ -0,0 +1,83 @@
+package socialMediaApp.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtVerifierTest {
+
+    private static final String SECRET = "mysupersecretkeymysupersecretkeymysupersecretkey";
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 600_000);
+
+    @Test
+    void verifiesOnceAndServesRepeatsFromTheCache() {
+        JwtVerifier verifier = new JwtVerifier(SECRET, 100);
+        String token = jwtUtil.generateToken("verified@test.com", 7, "Verified User");
+
+        VerifiedToken first = verifier.verify(token);
+        assertEquals(new JwtPrincipal(7, "verified@test.com", "Verified User"), first.getPrincipal());
+        assertTrue(first.getExpiresAt() > System.currentTimeMillis());
+        assertSame(first, verifier.verify(token));
+        assertEquals(1, verifier.cachedTokens());
+    }
+
+    @Test
+    void withoutACacheEveryCallParses() {
+        JwtVerifier verifier = new JwtVerifier(SECRET, 0);
+        String token = jwtUtil.generateToken("verified@test.com", 7, "Verified User");
+
+        assertEquals(verifier.verify(token), verifier.verify(token));
+        assertNotSame(verifier.verify(token), verifier.verify(token));
+        assertEquals(0, verifier.cachedTokens());
+    }
+
+    @Test
+    void cachedTokensStillExpire() throws InterruptedException {
+        JwtVerifier verifier = new JwtVerifier(SECRET, 100);
+        String token = token(SECRET, new Date(System.currentTimeMillis() + 1_000));
+
+        assertNotNull(verifier.verify(token));
+        Thread.sleep(1_100);
+        assertNull(verifier.verify(token));
+        assertEquals(0, verifier.cachedTokens());
+    }
+
+    @Test
+    void rejectsForgedExpiredAndMalformedTokens() {
+        JwtVerifier verifier = new JwtVerifier(SECRET, 100);
+        String token = jwtUtil.generateToken("verified@test.com", 7, "Verified User");
+        String payloadSwapped = token.substring(0, token.indexOf('.') + 1)
+                + jwtUtil.generateToken("other@test.com", 8, "Other").split("\\.")[1]
+                + token.substring(token.lastIndexOf('.'));
+
+        assertNull(verifier.verify(payloadSwapped));
+        assertNull(verifier.verify(token("anothersecretkeyanothersecretkeyanothersecretkey", new Date(System.currentTimeMillis() + 60_000))));
+        assertNull(verifier.verify(token(SECRET, new Date(System.currentTimeMillis() - 1_000))));
+        assertNull(verifier.verify("not-a-token"));
+        assertEquals(0, verifier.cachedTokens());
+    }
+
+    @Test
+    void cacheStaysBounded() {
+        JwtVerifier verifier = new JwtVerifier(SECRET, 16);
+        for (int userId = 0; userId < 200; userId++) {
+            String token = jwtUtil.generateToken("user" + userId + "@test.com", userId, "User");
+            assertEquals(userId, verifier.verify(token).getPrincipal().getId());
+            assertTrue(verifier.cachedTokens() <= 16);
+        }
+    }
+
+    private static String token(String secret, Date expiration) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("user", Map.of("id", 7, "email", "verified@test.com", "fullName", "Verified User"));
+        return Jwts.builder().setClaims(claims).setSubject("verified@test.com").setExpiration(expiration)
+                .signWith(SignatureAlgorithm.HS256, JwtUtil.signingKey(secret)).compact();
+    }
+}
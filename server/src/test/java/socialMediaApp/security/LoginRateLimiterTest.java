@@ -0,0 +1,44 @@
+package socialMediaApp.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimiterTest {
+
+    @Test
+    void burstThenRefillAtTheConfiguredRate() {
+        LoginRateLimiter limiter = new LoginRateLimiter(3, 6);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("a@test.com", 0));
+        }
+        assertFalse(limiter.tryAcquire("a@test.com", 0));
+        assertTrue(limiter.tryAcquire("b@test.com", 0));
+
+        // Six a minute is one every ten seconds.
+        assertFalse(limiter.tryAcquire("a@test.com", 9_999));
+        assertTrue(limiter.tryAcquire("a@test.com", 10_000));
+        assertFalse(limiter.tryAcquire("a@test.com", 10_000));
+        // A long pause refills the burst, never more.
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("a@test.com", 3_600_000));
+        }
+        assertFalse(limiter.tryAcquire("a@test.com", 3_600_000));
+    }
+
+    @Test
+    void sweepDropsOnlyRefilledBuckets() {
+        LoginRateLimiter limiter = new LoginRateLimiter(2, 60);
+        for (int key = 0; key < 500; key++) {
+            limiter.tryAcquire("user" + key, 0);
+        }
+        limiter.tryAcquire("busy", 1_000);
+        limiter.tryAcquire("busy", 1_000);
+        assertEquals(501, limiter.size());
+
+        limiter.sweep(1_500);
+
+        assertEquals(1, limiter.size());
+        assertFalse(limiter.tryAcquire("busy", 1_500));
+    }
+}
@@ -0,0 +1,123 @@
+package socialMediaApp.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import socialMediaApp.StatementCounter;
+import socialMediaApp.requests.RegisterRequest;
+
+import javax.servlet.http.Cookie;
+import java.sql.Timestamp;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+@SpringBootTest(properties = "app.auth.address-attempts-burst=1000")
+@AutoConfigureMockMvc
+class RefreshTokenTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JwtVerifier jwtVerifier;
+    @Autowired
+    private RevocationService revocationService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void refreshTokensRotateAndReuseRevokesTheSession() throws Exception {
+        MvcResult session = register();
+        String firstRefresh = refreshCookie(session);
+
+        MvcResult refreshed = refresh(firstRefresh);
+        assertEquals(200, refreshed.getResponse().getStatus());
+        String access = refreshed.getResponse().getContentAsString();
+        String secondRefresh = refreshCookie(refreshed);
+        assertNotEquals(session.getResponse().getContentAsString(), access);
+        assertNotEquals(firstRefresh, secondRefresh);
+        assertEquals(200, status(access));
+
+        // The first token was used already: whoever sends it again ends the session for both holders.
+        assertEquals(401, refresh(firstRefresh).getResponse().getStatus());
+        assertEquals(401, refresh(secondRefresh).getResponse().getStatus());
+        assertEquals(403, status(access));
+        assertEquals(401, mockMvc.perform(post("/api/auth/refresh")).andReturn().getResponse().getStatus());
+    }
+
+    @Test
+    void logoutRevokesBothTokens() throws Exception {
+        MvcResult session = register();
+        String access = session.getResponse().getContentAsString();
+        String refresh = refreshCookie(session);
+        assertEquals(200, status(access));
+
+        MvcResult loggedOut = mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer " + access)
+                .cookie(new Cookie("refresh_token", refresh))).andReturn();
+
+        assertEquals(204, loggedOut.getResponse().getStatus());
+        assertEquals(0, loggedOut.getResponse().getCookie("refresh_token").getMaxAge());
+        assertEquals(403, status(access));
+        assertEquals(401, refresh(refresh).getResponse().getStatus());
+    }
+
+    @Test
+    void revocationsFromOtherInstancesArriveWithTheNextRefresh() throws Exception {
+        String access = register().getResponse().getContentAsString();
+        VerifiedToken verified = jwtVerifier.verify(access);
+        assertEquals(200, status(access));
+
+        jdbcTemplate.update("INSERT INTO revoked_tokens (token_id, expires_at) VALUES (?, ?)",
+                verified.getId(), new Timestamp(verified.getExpiresAt()));
+        revocationService.refresh();
+
+        assertEquals(403, status(access));
+    }
+
+    @Test
+    void tokensThatWereNotRevokedAreCheckedWithoutQueries() throws Exception {
+        String revoked = register().getResponse().getContentAsString();
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer " + revoked));
+        String access = register().getResponse().getContentAsString();
+        status(access);
+
+        StatementCounter.start();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, status(access));
+        }
+        assertEquals(0, StatementCounter.stop());
+    }
+
+    private MvcResult register() throws Exception {
+        RegisterRequest request = new RegisterRequest("Refresh", "User", "refresh-" + System.nanoTime() + "@test.com", "secret");
+        MvcResult started = mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request))).andReturn();
+        MvcResult registered = mockMvc.perform(asyncDispatch(started)).andReturn();
+        assertEquals(200, registered.getResponse().getStatus());
+        return registered;
+    }
+
+    private MvcResult refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/api/auth/refresh").cookie(new Cookie("refresh_token", refreshToken))).andReturn();
+    }
+
+    private static String refreshCookie(MvcResult result) {
+        Cookie cookie = result.getResponse().getCookie("refresh_token");
+        assertTrue(cookie.isHttpOnly());
+        assertEquals("/api/auth", cookie.getPath());
+        return cookie.getValue();
+    }
+
+    private int status(String accessToken) throws Exception {
+        return mockMvc.perform(get("/api/cache/stats").header("Authorization", "Bearer " + accessToken))
+                .andReturn().getResponse().getStatus();
+    }
+}
@@ -0,0 +1,99 @@
+package socialMediaApp.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import socialMediaApp.StatementCounter;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.services.UserService;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StatelessJwtAuthTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private JwtVerifier jwtVerifier;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void authenticatedRequestsRunNoQueries() throws Exception {
+        User user = newUser();
+        String token = jwtUtil.generateToken(user.getEmail(), user.getId(), "Stateless User");
+        // The first request finds the new user missing from the startup snapshot and checks it once.
+        getWith(token).andExpect(status().isOk());
+
+        StatementCounter.start();
+        for (int i = 0; i < 5; i++) {
+            getWith(token).andExpect(status().isOk());
+        }
+        assertEquals(0, StatementCounter.stop());
+    }
+
+    @Test
+    void principalComesFromTheTokenClaims() {
+        JwtPrincipal principal = jwtVerifier.verify(jwtUtil.generateToken("claims@test.com", 42, "Claims User")).getPrincipal();
+
+        assertEquals(new JwtPrincipal(42, "claims@test.com", "Claims User"), principal);
+        assertEquals("claims@test.com", principal.getName());
+    }
+
+    @Test
+    void deletedUsersTokensStopWorking() throws Exception {
+        User user = newUser();
+        String token = jwtUtil.generateToken(user.getEmail(), user.getId(), "Stateless User");
+        getWith(token).andExpect(status().isOk());
+
+        userService.delete(user.getId());
+
+        // Revoked by the USER_DELETED event, which the outbox delivers right after the commit.
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (getWith(token).andReturn().getResponse().getStatus() == 200) {
+            assertTrue(System.currentTimeMillis() < deadline, "token still accepted after the user was deleted");
+            Thread.sleep(20);
+        }
+        getWith(token).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void invalidTokensAreRejected() throws Exception {
+        getWith("not-a-token").andExpect(status().isForbidden());
+        String foreign = Jwts.builder().setClaims(new HashMap<>(Map.of("user", Map.of("id", 1)))).setSubject("someone@test.com")
+                .signWith(SignatureAlgorithm.HS256, "another-secret-another-secret-another-secret").compact();
+        getWith(foreign).andExpect(status().isForbidden());
+        getWith(jwtUtil.generateToken("ghost@test.com", Integer.MAX_VALUE, "Ghost")).andExpect(status().isForbidden());
+        assertNull(jwtVerifier.verify(foreign));
+    }
+
+    private ResultActions getWith(String token) throws Exception {
+        return mockMvc.perform(get("/api/cache/stats").header("Authorization", "Bearer " + token));
+    }
+
+    private User newUser() {
+        User user = new User();
+        user.setEmail("stateless-" + System.nanoTime() + "@test.com");
+        user.setName("Stateless");
+        user.setLastName("User");
+        user.setPassword("secret");
+        return userRepository.save(user);
+    }
+}
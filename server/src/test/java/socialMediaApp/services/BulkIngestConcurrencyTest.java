@@ -0,0 +1,95 @@
+package socialMediaApp.services;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.Invocation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import socialMediaApp.models.Comment;
+import socialMediaApp.models.Post;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.CommentRepository;
+import socialMediaApp.repositories.PostRepository;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.requests.CommentAddRequest;
+import socialMediaApp.responses.ingest.BulkIngestResponse;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+class BulkIngestConcurrencyTest {
+
+    private static final int BULK_COMMENTS = 5_000;
+
+    @Autowired
+    private BulkIngestService bulkIngestService;
+    @Autowired
+    private CommentService commentService;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @SpyBean
+    private SearchService searchService;
+
+    @Test
+    void singleCommentsAddedDuringABulkIngestAreIndexedOnce() throws Exception {
+        User user = new User();
+        user.setEmail("bulk-race-" + System.nanoTime() + "@test.com");
+        user.setName("Bulk");
+        user.setLastName("Race");
+        user.setPassword("secret");
+        user = userRepository.save(user);
+        Post post = new Post();
+        post.setDescription("bulk race");
+        post.setUser(user);
+        post = postRepository.save(post);
+        int userId = user.getId();
+        int postId = post.getId();
+
+        AtomicBoolean ingesting = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Integer> singles = executor.submit(() -> {
+            int added = 0;
+            while (ingesting.get()) {
+                commentService.add(new CommentAddRequest(postId, userId, "single comment " + added++));
+            }
+            return added;
+        });
+        List<CommentAddRequest> rows = new ArrayList<>(BULK_COMMENTS);
+        for (int i = 0; i < BULK_COMMENTS; i++) {
+            rows.add(new CommentAddRequest(postId, userId, "bulk comment " + i));
+        }
+        BulkIngestResponse result;
+        try {
+            result = bulkIngestService.ingestComments(rows.iterator());
+        } finally {
+            ingesting.set(false);
+            executor.shutdown();
+        }
+        int added = singles.get(30, TimeUnit.SECONDS);
+
+        assertEquals(BULK_COMMENTS, result.getInserted());
+        Map<Integer, String> stored = new HashMap<>();
+        for (Comment comment : commentRepository.findAllByPost_Id(postId)) {
+            stored.put(comment.getId(), comment.getDescription());
+        }
+        assertEquals(BULK_COMMENTS + added, stored.size());
+        Map<Integer, String> indexed = new HashMap<>();
+        for (Invocation invocation : Mockito.mockingDetails(searchService).getInvocations()) {
+            if (invocation.getMethod().getName().equals("indexComment") && stored.containsKey((Integer) invocation.getArgument(0))) {
+                String previous = indexed.put(invocation.getArgument(0), invocation.getArgument(1));
+                assertNull(previous, "comment " + invocation.getArgument(0) + " indexed twice");
+            }
+        }
+        assertEquals(stored, indexed);
+    }
+}
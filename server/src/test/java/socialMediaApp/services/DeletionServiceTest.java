@@ -0,0 +1,158 @@
+package socialMediaApp.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.requests.PostAddRequest;
+import socialMediaApp.responses.deletion.PurgeJobResponse;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// A batch size of 2 makes every purge of more than two rows take several statements.
+@SpringBootTest(properties = "app.purge.batch-size=2")
+class DeletionServiceTest {
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private CommentService commentService;
+    @Autowired
+    private LikeService likeService;
+    @Autowired
+    private DeletionService deletionService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void deletedPostIsHiddenAtOnceAndPurgedInBatches() throws InterruptedException {
+        User author = newUser();
+        User reader = newUser();
+        int post = postService.add(new PostAddRequest(author.getId(), "doomed"));
+        int kept = postService.add(new PostAddRequest(author.getId(), "kept"));
+        for (int i = 0; i < 5; i++) {
+            comment(reader, post);
+        }
+        comment(reader, kept);
+        like(reader, post);
+        like(author, post);
+        jdbcTemplate.update("INSERT INTO post_image (name, type, post_id) VALUES ('p', 'image/png', ?)", post);
+        postService.getResponseById(post);
+
+        postService.delete(post);
+
+        assertNull(postService.getResponseById(post));
+        assertEquals(1, postService.getAllByUser(author.getId()).size());
+        assertTrue(commentService.getAllByPost(post).isEmpty());
+        assertEquals(1, commentService.getAllByUser(reader.getId()).size());
+        assertTrue(likeService.getAllByPost(post).isEmpty());
+
+        PurgeJobResponse job = awaitJob("post", post);
+        assertEquals(Map.of("comments", 5L, "likes", 2L, "post_image", 1L, "posts", 1L), job.getDeletedRows());
+        assertEquals(0, count("SELECT COUNT(*) FROM posts WHERE id = ?", post));
+        assertEquals(0, count("SELECT COUNT(*) FROM comments WHERE post_id = ?", post));
+        assertEquals(1, count("SELECT COUNT(*) FROM comments WHERE post_id = ?", kept));
+    }
+
+    @Test
+    void deletedUserIsHiddenAtOnceAndPurgedWithEverythingTheyOwn() throws InterruptedException {
+        User user = newUser();
+        User other = newUser();
+        int post = postService.add(new PostAddRequest(user.getId(), "mine"));
+        int otherPost = postService.add(new PostAddRequest(other.getId(), "theirs"));
+        comment(other, post);
+        comment(user, otherPost);
+        like(other, post);
+        like(user, otherPost);
+        jdbcTemplate.update("INSERT INTO follows (user_id, user_following_id) VALUES (?, ?), (?, ?)",
+                user.getId(), other.getId(), other.getId(), user.getId());
+        jdbcTemplate.update("INSERT INTO user_images (name, type, user_id) VALUES ('u', 'image/png', ?)", user.getId());
+        userRepository.findByEmail(user.getEmail());
+
+        userService.delete(user.getId());
+
+        assertNull(userService.getResponseById(user.getId()));
+        assertNull(userRepository.findByEmail(user.getEmail()));
+        assertNull(postService.getResponseById(post));
+        assertTrue(commentService.getAllByPost(otherPost).isEmpty());
+        assertTrue(likeService.getAllByPost(otherPost).isEmpty());
+        assertTrue(userService.getUserFollowing(other.getId()).isEmpty());
+
+        PurgeJobResponse job = awaitJob("user", user.getId());
+        assertEquals(2L, job.getDeletedRows().get("comments"));
+        assertEquals(2L, job.getDeletedRows().get("likes"));
+        assertEquals(2L, job.getDeletedRows().get("follows"));
+        assertEquals(1L, job.getDeletedRows().get("posts"));
+        assertEquals(1L, job.getDeletedRows().get("users"));
+        assertEquals(0, count("SELECT COUNT(*) FROM users WHERE id = ?", user.getId()));
+        assertEquals(1, count("SELECT COUNT(*) FROM posts WHERE id = ?", otherPost));
+
+        // Once purged, the email can be registered again and resolves to the new account.
+        User again = new User();
+        again.setEmail(user.getEmail());
+        again.setName("Again");
+        again.setLastName("User");
+        again.setPassword("secret");
+        userRepository.save(again);
+        assertEquals(again.getId(), userRepository.findByEmail(user.getEmail()).getId());
+    }
+
+    @Test
+    void sweepRequeuesMarkedRows() throws InterruptedException {
+        User author = newUser();
+        int post = postService.add(new PostAddRequest(author.getId(), "left behind"));
+        jdbcTemplate.update("UPDATE posts SET deleted_at = CURRENT_TIMESTAMP WHERE id = ?", post);
+
+        deletionService.sweep();
+
+        assertEquals(1L, awaitJob("post", post).getDeletedRows().get("posts"));
+        assertEquals(0, count("SELECT COUNT(*) FROM posts WHERE id = ?", post));
+    }
+
+    private PurgeJobResponse awaitJob(String type, int targetId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            PurgeJobResponse job = deletionService.getJobs().stream()
+                    .filter(candidate -> candidate.getType().equals(type) && candidate.getTargetId() == targetId)
+                    .findFirst().orElse(null);
+            if (job != null && job.getState().equals("DONE")) {
+                assertEquals(job, deletionService.getJob(job.getId()));
+                return job;
+            }
+            assertTrue(job == null || !job.getState().equals("FAILED"), () -> "purge failed: " + job.getError());
+            Thread.sleep(20);
+        }
+        return fail("no finished purge of " + type + " " + targetId);
+    }
+
+    private int count(String sql, int id) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, id);
+    }
+
+    private void comment(User user, int postId) {
+        jdbcTemplate.update("INSERT INTO comments (description, post_id, user_id, created_at) VALUES ('c', ?, ?, CURRENT_TIMESTAMP)",
+                postId, user.getId());
+    }
+
+    private void like(User user, int postId) {
+        jdbcTemplate.update("INSERT INTO likes (user_id, post_id, created_at) VALUES (?, ?, CURRENT_TIMESTAMP)",
+                user.getId(), postId);
+    }
+
+    private User newUser() {
+        User user = new User();
+        user.setEmail("deleted-" + System.nanoTime() + "@test.com");
+        user.setName("Deleted");
+        user.setLastName("User");
+        user.setPassword("secret");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,88 @@
+package socialMediaApp.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import socialMediaApp.StatementCounter;
+import socialMediaApp.models.Post;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.LikeRepository;
+import socialMediaApp.repositories.PostRepository;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.responses.cache.CacheRegionStatsResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class EntityCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private LikeRepository likeRepository;
+    @Autowired
+    private CacheStatsService cacheStatsService;
+
+    @Test
+    void repeatedReadsOfUsersAndPostsRunNoSql() {
+        User user = newUser();
+        Post post = new Post();
+        post.setDescription("cached");
+        post.setUser(user);
+        postRepository.save(post);
+        userRepository.findById(user.getId());
+        postRepository.findById(post.getId());
+
+        StatementCounter.start();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(user.getName(), userRepository.findById(user.getId()).get().getName());
+            assertEquals(user.getId(), userRepository.findByEmail(user.getEmail()).getId());
+            assertEquals(user.getLastName(), postRepository.findById(post.getId()).get().getUser().getLastName());
+        }
+        assertEquals(0, StatementCounter.stop());
+
+        // A native like insert only invalidates likes, not the cached users and posts.
+        likeRepository.insertIfAbsent(user.getId(), post.getId());
+        StatementCounter.start();
+        postRepository.findById(post.getId()).get().getUser().getName();
+        assertEquals(0, StatementCounter.stop());
+
+        CacheRegionStatsResponse users = region(User.class.getName());
+        assertTrue(users.getHits() >= 10);
+        assertTrue(users.getHitRate() > 0);
+        assertTrue(region(User.class.getName() + "##NaturalId").getHits() >= 10);
+    }
+
+    @Test
+    void updatesAndDeletesReachTheCache() {
+        User user = newUser();
+        userRepository.findById(user.getId());
+
+        user.setName("Renamed");
+        userRepository.save(user);
+        StatementCounter.start();
+        assertEquals("Renamed", userRepository.findById(user.getId()).get().getName());
+        assertEquals(0, StatementCounter.stop());
+
+        userRepository.deleteById(user.getId());
+        assertTrue(userRepository.findById(user.getId()).isEmpty());
+        assertNull(userRepository.findByEmail(user.getEmail()));
+    }
+
+    private CacheRegionStatsResponse region(String name) {
+        return cacheStatsService.getRegionStats().stream()
+                .filter(region -> region.getRegion().equals(name))
+                .findFirst().orElse(null);
+    }
+
+    private User newUser() {
+        User user = new User();
+        user.setEmail("cached-" + System.nanoTime() + "@test.com");
+        user.setName("Cached");
+        user.setLastName("User");
+        user.setPassword("secret");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,103 @@
+package socialMediaApp.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import socialMediaApp.projections.FollowWatermark;
+import socialMediaApp.repositories.FollowRepository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FollowGraphServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void answersQueriesAcrossBaseDeltaAndCompaction() {
+        FollowRepository repository = repositoryWith(3L, 3, new Object[]{1, 2}, new Object[]{2, 1}, new Object[]{3, 1});
+        FollowGraphService graph = new FollowGraphService(repository, tempDir.resolve("graph.bin").toString(), 2);
+        graph.load();
+
+        assertTrue(graph.isFollowing(1, 2));
+        assertFalse(graph.follow(1, 2));
+        assertTrue(graph.follow(1, 3));
+        assertTrue(graph.unfollow(2, 1));
+        assertFalse(graph.unfollow(2, 1));
+        assertTrue(graph.follow(4, 1));
+
+        assertArrayEquals(new int[]{2, 3}, graph.getFollowing(1));
+        assertArrayEquals(new int[]{3, 4}, graph.getFollowers(1));
+        assertEquals(2, graph.countFollowers(1));
+        assertEquals(0, graph.countFollowing(2));
+        assertArrayEquals(new int[]{3}, graph.getMutuals(1));
+        assertArrayEquals(new int[]{3}, graph.getFollowersPage(1, 0, 1));
+        assertArrayEquals(new int[]{4}, graph.getFollowersPage(1, 1, 1));
+    }
+
+    @Test
+    void restartsFromSnapshotWhenWatermarkMatches() throws Exception {
+        Path snapshot = tempDir.resolve("graph.bin");
+        FollowRepository repository = repositoryWith(2L, 2, new Object[]{1, 2}, new Object[]{2, 3});
+        FollowGraphService graph = new FollowGraphService(repository, snapshot.toString(), 100);
+        graph.load();
+        graph.follow(3, 1);
+        when(repository.findWatermark()).thenReturn(watermark(3L, 3));
+        graph.close();
+        assertTrue(Files.exists(snapshot));
+
+        FollowRepository restarted = mock(FollowRepository.class);
+        when(restarted.findWatermark()).thenReturn(watermark(3L, 3));
+        FollowGraphService reloaded = new FollowGraphService(restarted, snapshot.toString(), 100);
+        reloaded.load();
+
+        verify(restarted, never()).streamUserAndFollowingIds();
+        assertTrue(reloaded.isFollowing(3, 1));
+        assertArrayEquals(new int[]{1}, reloaded.getFollowers(2));
+        assertEquals(0, reloaded.getMutuals(3).length);
+    }
+
+    @Test
+    void changesRecordedWhileLoadingSurviveTheRebuild() {
+        FollowRepository repository = repositoryWith(2L, 2);
+        FollowGraphService graph = new FollowGraphService(repository, tempDir.resolve("graph.bin").toString(), 100);
+        // The stream was read before the unfollow of 1 -> 2 and the follow of 5 -> 1 committed.
+        when(repository.streamUserAndFollowingIds()).thenAnswer(invocation -> {
+            graph.follow(5, 1);
+            graph.unfollow(1, 2);
+            return Stream.of(new Object[]{1, 2}, new Object[]{2, 3});
+        });
+        graph.load();
+
+        assertFalse(graph.isFollowing(1, 2));
+        assertTrue(graph.isFollowing(5, 1));
+        assertTrue(graph.isFollowing(2, 3));
+        assertArrayEquals(new int[]{5}, graph.getFollowers(1));
+        assertEquals(0, graph.countFollowing(1));
+    }
+
+    private static FollowRepository repositoryWith(long count, int maxId, Object[]... edges) {
+        FollowRepository repository = mock(FollowRepository.class);
+        when(repository.findWatermark()).thenReturn(watermark(count, maxId));
+        when(repository.streamUserAndFollowingIds()).thenAnswer(invocation -> Stream.of(edges));
+        return repository;
+    }
+
+    private static FollowWatermark watermark(long count, int maxId) {
+        return new FollowWatermark() {
+            @Override
+            public long getCount() {
+                return count;
+            }
+
+            @Override
+            public Integer getMaxId() {
+                return maxId;
+            }
+        };
+    }
+}
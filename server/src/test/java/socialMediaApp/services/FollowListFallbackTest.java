@@ -0,0 +1,67 @@
+package socialMediaApp.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.requests.FollowRequest;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doReturn;
+
+/** While the follow graph loads, the follow lists come from the follows table and match what the graph says. */
+@SpringBootTest
+class FollowListFallbackTest {
+
+    @SpyBean
+    private FollowGraphService followGraphService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private FollowService followService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void listsMatchTheGraphBeforeItIsReady() {
+        User user = newUser();
+        User mutual = newUser();
+        User followed = newUser();
+        User follower = newUser();
+        followService.add(new FollowRequest(user.getId(), mutual.getId()));
+        followService.add(new FollowRequest(mutual.getId(), user.getId()));
+        followService.add(new FollowRequest(user.getId(), followed.getId()));
+        followService.add(new FollowRequest(follower.getId(), user.getId()));
+
+        assertSameWhileLoading(() -> userService.getFollowingPage(user.getId(), 0, 20), 2);
+        assertSameWhileLoading(() -> userService.getFollowingPage(user.getId(), 1, 1), 1);
+        assertSameWhileLoading(() -> userService.getFollowersPage(user.getId(), 0, 20), 2);
+        assertSameWhileLoading(() -> userService.getMutuals(user.getId()), 1);
+    }
+
+    private void assertSameWhileLoading(Supplier<List<?>> list, int size) {
+        List<?> fromGraph = list.get();
+        doReturn(false).when(followGraphService).isReady();
+        try {
+            assertEquals(fromGraph, list.get());
+        } finally {
+            doCallRealMethod().when(followGraphService).isReady();
+        }
+        assertEquals(size, fromGraph.size());
+    }
+
+    private User newUser() {
+        User user = new User();
+        user.setEmail("fallback-" + System.nanoTime() + "@test.com");
+        user.setName("Fallback");
+        user.setLastName("User");
+        user.setPassword("secret");
+        return userRepository.save(user);
+    }
+}
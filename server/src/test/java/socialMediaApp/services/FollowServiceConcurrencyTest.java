@@ -0,0 +1,85 @@
+package socialMediaApp.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.FollowRepository;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.requests.FollowRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class FollowServiceConcurrencyTest {
+
+    private static final int THREADS = 64;
+
+    @Autowired
+    private FollowService followService;
+    @Autowired
+    private FollowGraphService followGraphService;
+    @Autowired
+    private FollowRepository followRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void graphAgreesWithTheTableAfterConcurrentToggles() throws Exception {
+        int userId = userRepository.save(newUser("follower-" + System.nanoTime() + "@test.com")).getId();
+        int followingId = userRepository.save(newUser("followed-" + System.nanoTime() + "@test.com")).getId();
+        for (int round = 0; round < 20; round++) {
+            int offset = round;
+            runConcurrently(i -> {
+                if ((i + offset) % 2 == 0) {
+                    followService.add(new FollowRequest(userId, followingId));
+                } else {
+                    followService.delete(new FollowRequest(userId, followingId));
+                }
+            });
+            boolean followed = followRepository.findByUser_IdAndFollowing_Id(userId, followingId).isPresent();
+            assertEquals(followed, followGraphService.isFollowing(userId, followingId));
+            assertEquals(followed ? 1 : 0, followGraphService.countFollowers(followingId));
+        }
+    }
+
+    private void runConcurrently(IntTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(index);
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static User newUser(String email) {
+        User user = new User();
+        user.setName("Test");
+        user.setLastName("User");
+        user.setEmail(email);
+        user.setPassword("secret");
+        return user;
+    }
+
+    @FunctionalInterface
+    private interface IntTask {
+        void run(int index);
+    }
+}
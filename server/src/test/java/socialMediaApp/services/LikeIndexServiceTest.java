@@ -0,0 +1,31 @@
+package socialMediaApp.services;
+
+import org.junit.jupiter.api.Test;
+import socialMediaApp.repositories.LikeRepository;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LikeIndexServiceTest {
+
+    @Test
+    void changesMadeWhileRebuildingSurviveTheStaleRows() {
+        LikeRepository likeRepository = mock(LikeRepository.class);
+        LikeIndexService index = new LikeIndexService(likeRepository);
+        // The rows were read before user 1 unliked post 10, user 3 liked it and post 20 was removed.
+        when(likeRepository.streamPostAndUserIds()).thenAnswer(invocation -> {
+            index.remove(1, 10);
+            index.add(3, 10);
+            index.removePost(20);
+            return Stream.of(new Object[]{10, 1}, new Object[]{10, 2}, new Object[]{20, 1});
+        });
+        index.rebuild();
+
+        assertTrue(index.isReady());
+        assertFalse(index.isLiked(1, 10));
+        assertArrayEquals(new int[]{2, 3}, index.getLikers(10));
+        assertEquals(0, index.countLikes(20));
+    }
+}
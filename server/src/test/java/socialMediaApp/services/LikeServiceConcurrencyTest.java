@@ -0,0 +1,129 @@
+package socialMediaApp.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import socialMediaApp.models.Post;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.LikeRepository;
+import socialMediaApp.repositories.PostRepository;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.requests.LikeRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class LikeServiceConcurrencyTest {
+
+    private static final int THREADS = 64;
+
+    @Autowired
+    private LikeService likeService;
+    @Autowired
+    private LikeRepository likeRepository;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private Post post;
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        users.clear();
+        for (int i = 0; i < THREADS; i++) {
+            users.add(userRepository.save(newUser("liker" + i + "-" + System.nanoTime() + "@test.com")));
+        }
+        post = new Post();
+        post.setDescription("hot post");
+        post.setUser(users.get(0));
+        post = postRepository.save(post);
+    }
+
+    @Test
+    void sameUserLikingFromManyThreadsCreatesOneLike() throws Exception {
+        int userId = users.get(0).getId();
+        runConcurrently(i -> likeService.add(new LikeRequest(post.getId(), userId)));
+        assertEquals(1, likeRepository.countByPost_Id(post.getId()));
+    }
+
+    @Test
+    void distinctUsersLikingFromManyThreadsAreAllCounted() throws Exception {
+        runConcurrently(i -> likeService.add(new LikeRequest(post.getId(), users.get(i).getId())));
+        assertEquals(THREADS, likeRepository.countByPost_Id(post.getId()));
+    }
+
+    @Test
+    void togglingFromManyThreadsNeverFails() throws Exception {
+        int userId = users.get(0).getId();
+        runConcurrently(i -> {
+            if (i % 2 == 0) {
+                likeService.add(new LikeRequest(post.getId(), userId));
+            } else {
+                likeService.delete(new LikeRequest(post.getId(), userId));
+            }
+        });
+        likeService.delete(new LikeRequest(post.getId(), userId));
+        assertEquals(0, likeRepository.countByPost_Id(post.getId()));
+    }
+
+    @Test
+    void indexAgreesWithTheTableAfterConcurrentToggles() throws Exception {
+        int userId = users.get(0).getId();
+        for (int round = 0; round < 20; round++) {
+            int offset = round;
+            runConcurrently(i -> {
+                if ((i + offset) % 2 == 0) {
+                    likeService.add(new LikeRequest(post.getId(), userId));
+                } else {
+                    likeService.delete(new LikeRequest(post.getId(), userId));
+                }
+            });
+            long rows = likeRepository.countByPost_Id(post.getId());
+            assertEquals(rows == 1, likeService.isLiked(userId, post.getId()));
+            assertEquals(rows, likeService.countByPost(post.getId()));
+        }
+    }
+
+    private void runConcurrently(IntTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(index);
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static User newUser(String email) {
+        User user = new User();
+        user.setName("Test");
+        user.setLastName("User");
+        user.setEmail(email);
+        user.setPassword("secret");
+        return user;
+    }
+
+    @FunctionalInterface
+    private interface IntTask {
+        void run(int index);
+    }
+}
@@ -0,0 +1,73 @@
+package socialMediaApp.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import socialMediaApp.events.DomainEvent;
+import socialMediaApp.events.DomainEventType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static socialMediaApp.events.DomainEventType.*;
+
+// Pages of two and a backoff far longer than the test, so a held aggregate stays held throughout.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox-paging;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "app.follow-graph.snapshot-path=target/follow-graph-outbox-paging-test.bin",
+        "app.search.index-dir=target/search-index-outbox-paging-test",
+        "app.outbox.poll-interval-ms=50",
+        "app.outbox.retry-backoff-ms=60000",
+        "app.outbox.batch-size=2"})
+@Import(OutboxDispatcherTest.RecordingSubscriber.class)
+@DirtiesContext
+class OutboxDispatcherPagingTest {
+
+    @Autowired
+    private OutboxDispatcherTest.RecordingSubscriber subscriber;
+    @Autowired
+    private OutboxService outboxService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void heldAggregateFillingAPageDoesNotDelayTheNextPage() throws InterruptedException {
+        int failing = 2_000_001;
+        int healthy = 2_000_002;
+        subscriber.behavior = event -> {
+            if (event.getAggregateId() == failing) {
+                throw new IllegalStateException("subscriber down");
+            }
+        };
+        // The failing aggregate's events fill the first page and spill into the second, ahead of the healthy one.
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxService.publish(LIKE_ADDED, failing, Map.of("postId", failing));
+            outboxService.publish(LIKE_REMOVED, failing, Map.of("postId", failing));
+            outboxService.publish(LIKE_ADDED, failing, Map.of("postId", failing));
+            outboxService.publish(LIKE_ADDED, healthy, Map.of("postId", healthy));
+        });
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (received(healthy).isEmpty()) {
+            assertTrue(System.currentTimeMillis() < deadline, "healthy aggregate waited behind the held one");
+            Thread.sleep(20);
+        }
+        assertEquals(List.of(LIKE_ADDED), received(healthy));
+        assertTrue(received(failing).isEmpty());
+    }
+
+    private List<DomainEventType> received(int postId) {
+        synchronized (subscriber.received) {
+            return subscriber.received.stream()
+                    .filter(event -> event.getAggregateId() == postId)
+                    .map(DomainEvent::getType)
+                    .collect(Collectors.toList());
+        }
+    }
+}
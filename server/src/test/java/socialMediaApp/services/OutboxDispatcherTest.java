@@ -0,0 +1,255 @@
+package socialMediaApp.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import socialMediaApp.events.DomainEvent;
+import socialMediaApp.events.DomainEventSubscriber;
+import socialMediaApp.events.DomainEventType;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.requests.*;
+import socialMediaApp.responses.outbox.OutboxStatsResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static socialMediaApp.events.DomainEventType.*;
+
+// Its own database, so no other cached context's dispatcher takes these events, and no second-level
+// cache: the JCache manager is shared by every context, and closing this one would close it.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "app.follow-graph.snapshot-path=target/follow-graph-outbox-test.bin",
+        "app.search.index-dir=target/search-index-outbox-test",
+        "app.outbox.poll-interval-ms=50",
+        "app.outbox.retry-backoff-ms=50",
+        "app.outbox.max-attempts=3"})
+@Import(OutboxDispatcherTest.RecordingSubscriber.class)
+@DirtiesContext
+class OutboxDispatcherTest {
+
+    @Autowired
+    private RecordingSubscriber subscriber;
+    @Autowired
+    private OutboxService outboxService;
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private LikeService likeService;
+    @Autowired
+    private CommentService commentService;
+    @Autowired
+    private FollowService followService;
+    @Autowired
+    private BulkIngestService bulkIngestService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void reset() {
+        subscriber.behavior = event -> { };
+    }
+
+    @Test
+    void writesAreDeliveredInOrderPerAggregate() throws InterruptedException {
+        User author = newUser();
+        User reader = newUser();
+        int post = postService.add(new PostAddRequest(author.getId(), "outbox"));
+        likeService.add(new LikeRequest(post, reader.getId()));
+        likeService.add(new LikeRequest(post, reader.getId()));
+        likeService.delete(new LikeRequest(post, reader.getId()));
+        commentService.add(new CommentAddRequest(post, reader.getId(), "first"));
+        int comment = commentService.getAllByPost(post).get(0).getId();
+        commentService.update(comment, new CommentUpdateRequest("edited"));
+        commentService.delete(comment);
+        followService.add(new FollowRequest(reader.getId(), author.getId()));
+        followService.delete(new FollowRequest(reader.getId(), author.getId()));
+        postService.delete(post);
+
+        await(() -> types(DomainEventType.AggregateType.POST, post).size() == 7
+                && types(DomainEventType.AggregateType.USER, reader.getId()).size() == 2);
+        // The repeated like changed nothing and published nothing.
+        assertEquals(List.of(POST_CREATED, LIKE_ADDED, LIKE_REMOVED, COMMENT_ADDED, COMMENT_UPDATED, COMMENT_DELETED, POST_DELETED),
+                types(DomainEventType.AggregateType.POST, post));
+        assertEquals(List.of(FOLLOW_ADDED, FOLLOW_REMOVED), types(DomainEventType.AggregateType.USER, reader.getId()));
+        DomainEvent commented = events(DomainEventType.AggregateType.POST, post).get(3);
+        assertEquals(comment, commented.getInt("commentId"));
+        assertEquals(post, commented.getInt("postId"));
+        await(() -> outboxDispatcher.getStats().getPending() == 0);
+
+        OutboxStatsResponse stats = outboxDispatcher.getStats();
+        assertTrue(stats.getDelivered() >= 9);
+        assertTrue(stats.getMaxLagMillis() >= stats.getLastLagMillis());
+        assertNull(stats.getOldestPendingMillis());
+    }
+
+    @Test
+    void bulkIngestedRowsPublishWhatTheSingleRowEndpointsDo() throws InterruptedException {
+        User author = newUser();
+        User reader = newUser();
+        int post = postService.add(new PostAddRequest(author.getId(), "bulk outbox"));
+        likeService.add(new LikeRequest(post, author.getId()));
+
+        // The author's like already exists: only the reader's is written, and only it is published.
+        bulkIngestService.ingestLikes(List.of(new LikeRequest(post, author.getId()), new LikeRequest(post, reader.getId())).iterator());
+        bulkIngestService.ingestComments(List.of(new CommentAddRequest(post, reader.getId(), "bulk")).iterator());
+        bulkIngestService.ingestFollows(List.of(new FollowRequest(reader.getId(), author.getId())).iterator());
+
+        await(() -> types(DomainEventType.AggregateType.POST, post).size() == 4
+                && types(DomainEventType.AggregateType.USER, reader.getId()).size() == 1);
+        assertEquals(List.of(POST_CREATED, LIKE_ADDED, LIKE_ADDED, COMMENT_ADDED), types(DomainEventType.AggregateType.POST, post));
+        List<DomainEvent> events = events(DomainEventType.AggregateType.POST, post);
+        assertEquals(reader.getId(), events.get(2).getInt("userId"));
+        assertEquals(commentService.getAllByPost(post).get(0).getId(), events.get(3).getInt("commentId"));
+        assertEquals(author.getId(), events(DomainEventType.AggregateType.USER, reader.getId()).get(0).getInt("followingId"));
+    }
+
+    @Test
+    void eventsExistOnlyWithTheirWrite() {
+        assertThrows(IllegalStateException.class, () -> outboxService.publish(LIKE_ADDED, 1, Map.of()));
+
+        long before = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events", Long.class);
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            outboxService.publish(LIKE_ADDED, 1, Map.of("postId", 1));
+            throw new IllegalStateException("write failed");
+        }));
+        assertEquals(before, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events", Long.class));
+    }
+
+    @Test
+    void failedDeliveryHoldsBackItsAggregateOnly() throws InterruptedException {
+        int failing = 1_000_001;
+        int healthy = 1_000_002;
+        subscriber.behavior = event -> {
+            if (event.getAggregateId() == failing && event.getAttempts() < 2) {
+                throw new IllegalStateException("subscriber down");
+            }
+        };
+        publish(LIKE_ADDED, failing);
+        publish(LIKE_REMOVED, failing);
+        publish(LIKE_ADDED, healthy);
+
+        await(() -> types(DomainEventType.AggregateType.POST, failing).size() == 2);
+        assertEquals(List.of(LIKE_ADDED), types(DomainEventType.AggregateType.POST, healthy));
+        assertEquals(List.of(LIKE_ADDED, LIKE_REMOVED), types(DomainEventType.AggregateType.POST, failing));
+        assertEquals(2, events(DomainEventType.AggregateType.POST, failing).get(0).getAttempts());
+        synchronized (subscriber.received) {
+            assertTrue(subscriber.received.indexOf(events(DomainEventType.AggregateType.POST, healthy).get(0))
+                    < subscriber.received.indexOf(events(DomainEventType.AggregateType.POST, failing).get(0)));
+        }
+        assertTrue(outboxDispatcher.getStats().getFailedAttempts() >= 2);
+    }
+
+    @Test
+    void eventsThatKeepFailingAreDeadLettered() throws InterruptedException {
+        int post = 1_000_003;
+        subscriber.behavior = event -> {
+            if (event.getAggregateId() == post && event.getType() == LIKE_ADDED) {
+                throw new IllegalStateException("poison");
+            }
+        };
+        publish(LIKE_ADDED, post);
+        publish(LIKE_REMOVED, post);
+
+        await(() -> types(DomainEventType.AggregateType.POST, post).equals(List.of(LIKE_REMOVED)));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT attempts FROM outbox_events WHERE aggregate_id = ?", Integer.class, post));
+        assertTrue(jdbcTemplate.queryForObject("SELECT last_error FROM outbox_events WHERE aggregate_id = ?", String.class, post)
+                .contains("poison"));
+        assertTrue(outboxDispatcher.getStats().getDeadLettered() >= 1);
+    }
+
+    @Test
+    void aggregatesAreDeliveredInParallel() throws InterruptedException {
+        int waiting = 1_000_004;
+        int releasing = 1_000_005;
+        CountDownLatch released = new CountDownLatch(1);
+        List<Boolean> waited = new ArrayList<>();
+        subscriber.behavior = event -> {
+            if (event.getAggregateId() == releasing) {
+                released.countDown();
+            } else if (event.getAggregateId() == waiting) {
+                try {
+                    waited.add(released.await(5, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        // One transaction, so both land in the same batch.
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxService.publish(LIKE_ADDED, waiting, Map.of("postId", waiting));
+            outboxService.publish(LIKE_ADDED, releasing, Map.of("postId", releasing));
+        });
+
+        await(() -> !types(DomainEventType.AggregateType.POST, waiting).isEmpty());
+        assertEquals(List.of(true), waited);
+    }
+
+    private void publish(DomainEventType type, int postId) {
+        transactionTemplate.executeWithoutResult(status -> outboxService.publish(type, postId, Map.of("postId", postId)));
+    }
+
+    private List<DomainEvent> events(DomainEventType.AggregateType aggregateType, int aggregateId) {
+        synchronized (subscriber.received) {
+            return subscriber.received.stream()
+                    .filter(event -> event.getType().getAggregateType() == aggregateType && event.getAggregateId() == aggregateId)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private List<DomainEventType> types(DomainEventType.AggregateType aggregateType, int aggregateId) {
+        return events(aggregateType, aggregateId).stream().map(DomainEvent::getType).collect(Collectors.toList());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out waiting for delivery");
+            Thread.sleep(20);
+        }
+    }
+
+    private User newUser() {
+        User user = new User();
+        user.setEmail("outbox-" + System.nanoTime() + "@test.com");
+        user.setName("Outbox");
+        user.setLastName("User");
+        user.setPassword("secret");
+        return userRepository.save(user);
+    }
+
+    /** Records what it took; {@link #behavior} runs first and may throw to fail the delivery. */
+    static class RecordingSubscriber implements DomainEventSubscriber {
+
+        final List<DomainEvent> received = new ArrayList<>();
+        volatile Consumer<DomainEvent> behavior = event -> { };
+
+        @Override
+        public void onEvent(DomainEvent event) {
+            behavior.accept(event);
+            synchronized (received) {
+                received.add(event);
+            }
+        }
+    }
+}
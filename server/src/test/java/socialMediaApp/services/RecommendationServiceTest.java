@@ -0,0 +1,108 @@
+package socialMediaApp.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import socialMediaApp.models.User;
+import socialMediaApp.repositories.LikeRepository;
+import socialMediaApp.repositories.UserRepository;
+import socialMediaApp.responses.user.UserSuggestionResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+class RecommendationServiceTest {
+
+    private final FollowGraphService graph = mock(FollowGraphService.class);
+    private final LikeRepository likeRepository = mock(LikeRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private RecommendationService recommendations;
+
+    @BeforeEach
+    void setUp() {
+        // 1 follows 2 and 3; 2 follows 1, 4 and 5; 3 follows 4. User 1 liked three posts by 5.
+        following(1, 2, 3);
+        following(2, 1, 4, 5);
+        following(3, 4);
+        following(4);
+        following(5);
+        when(graph.isReady()).thenReturn(true);
+        when(likeRepository.streamLikeCountsByUserAndAuthor()).thenAnswer(invocation -> Stream.<Object[]>of(new Object[]{1, 5, 3L}));
+        when(userRepository.findAllIds()).thenReturn(List.of(1, 2, 3, 4, 5));
+        when(userRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<User> users = new ArrayList<>();
+            for (Object id : (Iterable<?>) invocation.getArgument(0)) {
+                User user = new User();
+                user.setId((Integer) id);
+                user.setName("User" + id);
+                user.setLastName("Test");
+                users.add(user);
+            }
+            return users;
+        });
+        recommendations = new RecommendationService(graph, likeRepository, userRepository, 50, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        recommendations.close();
+    }
+
+    @Test
+    void candidatesAreScoredBySharedFollowsAndLikes() {
+        recommendations.refreshAll();
+
+        // 5: one shared follow and three likes (1 + 3 * 0.5) beats 4: two shared follows. Self and followed are left out.
+        List<UserSuggestionResponse> suggestions = recommendations.getSuggestions(1, 10);
+        assertEquals(List.of(5, 4), ids(suggestions));
+        assertEquals(List.of(1, 2), suggestions.stream().map(UserSuggestionResponse::getSharedFollowCount).collect(Collectors.toList()));
+        assertEquals(List.of(5), ids(recommendations.getSuggestions(1, 1)));
+    }
+
+    @Test
+    void followChangesDropTheFollowedUserAtOnceAndRefreshInTheBackground() throws InterruptedException {
+        recommendations.refreshAll();
+        following(1, 2, 3, 5);
+
+        recommendations.onFollowChanged(1, 5);
+
+        assertEquals(List.of(4), ids(recommendations.getSuggestions(1, 10)));
+        following(1, 2);
+        recommendations.onFollowChanged(1, 3);
+        // Only 2's follows are left to walk: 5, with the likes, then 4.
+        await(() -> ids(recommendations.getSuggestions(1, 10)).equals(List.of(5, 4)));
+    }
+
+    @Test
+    void nothingIsCachedBeforeTheGraphIsReady() {
+        when(graph.isReady()).thenReturn(false);
+        assertTrue(recommendations.getSuggestions(1, 10).isEmpty());
+
+        when(graph.isReady()).thenReturn(true);
+        assertEquals(List.of(4, 5), ids(recommendations.getSuggestions(1, 10)));
+    }
+
+    private void following(int userId, int... following) {
+        when(graph.getFollowing(userId)).thenReturn(following);
+    }
+
+    private static List<Integer> ids(List<UserSuggestionResponse> suggestions) {
+        return suggestions.stream().map(UserSuggestionResponse::getUserId).collect(Collectors.toList());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out waiting for the refresh");
+            Thread.sleep(10);
+        }
+    }
+}
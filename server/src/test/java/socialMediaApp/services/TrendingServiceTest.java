@@ -0,0 +1,79 @@
+package socialMediaApp.services;
+
+import org.junit.jupiter.api.Test;
+import socialMediaApp.repositories.CommentRepository;
+import socialMediaApp.repositories.LikeRepository;
+import socialMediaApp.repositories.PostRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TrendingServiceTest {
+
+    @Test
+    void recentEngagementOutranksOlderEngagementAndWindowStaysBounded() {
+        Instant now = Instant.now();
+        PostRepository posts = mock(PostRepository.class);
+        LikeRepository likes = mock(LikeRepository.class);
+        CommentRepository comments = mock(CommentRepository.class);
+        when(posts.streamIdsAndTimesSince(any())).thenAnswer(i -> Stream.empty());
+        // Post 1: three likes a day ago. Post 2: two likes just now.
+        when(likes.streamPostIdsAndTimesSince(any())).thenAnswer(i -> Stream.of(
+                new Object[]{1, now.minus(1, ChronoUnit.DAYS)},
+                new Object[]{1, now.minus(1, ChronoUnit.DAYS)},
+                new Object[]{1, now.minus(1, ChronoUnit.DAYS)},
+                new Object[]{2, now},
+                new Object[]{2, now}));
+        when(comments.streamPostIdsAndTimesSince(any())).thenAnswer(i -> Stream.empty());
+
+        TrendingService trending = new TrendingService(posts, likes, comments, Clock.fixed(now, ZoneOffset.UTC), 6, 2);
+        trending.rebuild();
+        assertEquals(List.of(2, 1), trending.getPage(0, 10));
+
+        trending.onCommented(3);
+        trending.onCommented(3);
+        assertEquals(List.of(3, 2), trending.getPage(0, 10));
+        assertEquals(List.of(2), trending.getPage(1, 1));
+
+        trending.onUnliked(2, now);
+        trending.onUnliked(2, now);
+        assertEquals(List.of(3), trending.getPage(0, 10));
+    }
+
+    @Test
+    void unlikingAnOldLikeTakesBackOnlyItsDecayedWeight() {
+        Instant now = Instant.now();
+        Instant weekAgo = now.minus(Duration.ofDays(7));
+        PostRepository postRepository = mock(PostRepository.class);
+        LikeRepository likeRepository = mock(LikeRepository.class);
+        CommentRepository commentRepository = mock(CommentRepository.class);
+        // Posts 1 and 2 went up together and 3 one half-life earlier; 1 also has a like from a week (28 half-lives) ago.
+        when(postRepository.streamIdsAndTimesSince(any())).thenAnswer(invocation -> Stream.of(
+                new Object[]{1, now}, new Object[]{2, now}, new Object[]{3, now.minus(Duration.ofHours(6))}));
+        when(likeRepository.streamPostIdsAndTimesSince(any())).thenAnswer(invocation -> Stream.<Object[]>of(new Object[]{1, weekAgo}));
+        when(commentRepository.streamPostIdsAndTimesSince(any())).thenAnswer(invocation -> Stream.empty());
+        TrendingService trending = new TrendingService(postRepository, likeRepository, commentRepository,
+                Clock.fixed(now, ZoneOffset.UTC), 6, 100);
+        trending.rebuild();
+        assertEquals(List.of(1, 2, 3), trending.getPage(0, 10));
+
+        trending.onUnliked(1, weekAgo);
+
+        // Back level with post 2 (newer id first on ties), not pushed below 3 by a full like's weight.
+        assertEquals(List.of(2, 1, 3), trending.getPage(0, 10));
+
+        trending.onLiked(1, now);
+        trending.onUnliked(1, now);
+        assertEquals(List.of(2, 1, 3), trending.getPage(0, 10));
+    }
+}
@@ -0,0 +1,46 @@
+package socialMediaApp.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntBitmapTest {
+
+    @Test
+    void matchesReferenceSetAcrossArrayAndBitsetContainers() {
+        IntBitmap bitmap = new IntBitmap();
+        TreeSet<Integer> reference = new TreeSet<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 200_000; i++) {
+            // Mostly one dense chunk so containers cross the array/bitset threshold in both directions.
+            int value = random.nextInt(10) == 0 ? random.nextInt(Integer.MAX_VALUE) : random.nextInt(8_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(value), bitmap.remove(value));
+            } else {
+                assertEquals(reference.add(value), bitmap.add(value));
+            }
+        }
+        assertEquals(reference.size(), bitmap.cardinality());
+        assertArrayEquals(reference.stream().mapToInt(Integer::intValue).toArray(), bitmap.toArray());
+        for (int value = 0; value < 8_000; value++) {
+            assertEquals(reference.contains(value), bitmap.contains(value));
+        }
+    }
+
+    @Test
+    void removingLastValueOfChunkDropsIt() {
+        IntBitmap bitmap = new IntBitmap();
+        bitmap.add(70_000);
+        bitmap.add(3);
+        assertTrue(bitmap.remove(70_000));
+        assertFalse(bitmap.contains(70_000));
+        assertArrayEquals(new int[]{3}, bitmap.toArray());
+        assertTrue(bitmap.remove(3));
+        assertTrue(bitmap.isEmpty());
+        assertEquals(0, Arrays.stream(bitmap.toArray()).count());
+    }
+}
@@ -0,0 +1,68 @@
+package socialMediaApp.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTest {
+
+    @Test
+    void walksPrefixRangeByDescendingScore() {
+        Random random = new Random(3);
+        int size = 5_000;
+        String[] keys = new String[size];
+        int[] ids = new int[size];
+        int[] scores = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = randomWord(random) + " " + randomWord(random);
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < size; i++) {
+            ids[i] = i / 2;
+            scores[i] = random.nextInt(1_000);
+        }
+        PrefixIndex index = new PrefixIndex(keys, ids, scores.clone());
+        index.setScore(7, 5_000);
+
+        for (String prefix : List.of("a", "ab", "ba", "c d", "zzzz", "")) {
+            List<Integer> expected = IntStream.range(0, size)
+                    .filter(i -> keys[i].startsWith(prefix))
+                    .boxed()
+                    .sorted(Comparator.comparingInt(index::score).reversed())
+                    .limit(10)
+                    .map(index::score)
+                    .collect(Collectors.toList());
+            List<Integer> actual = new ArrayList<>();
+            int[] range = index.range(prefix);
+            index.forEachByScore(range[0], range[1], position -> {
+                assertTrue(index.key(position).startsWith(prefix));
+                actual.add(index.score(position));
+                return actual.size() < 10;
+            });
+            assertEquals(expected, actual, prefix);
+        }
+        assertEquals(5_000, index.score(14));
+        assertEquals(5_000, index.score(15));
+    }
+
+    @Test
+    void emptyIndexHasEmptyRanges() {
+        PrefixIndex index = new PrefixIndex(new String[0], new int[0], new int[0]);
+        int[] range = index.range("a");
+        assertEquals(range[0], range[1]);
+        index.forEachByScore(range[0], range[1], position -> fail());
+        index.setScore(1, 1);
+    }
+
+    private static String randomWord(Random random) {
+        char[] word = new char[1 + random.nextInt(5)];
+        for (int i = 0; i < word.length; i++) {
+            word[i] = (char) ('a' + random.nextInt(4));
+        }
+        return new String(word);
+    }
+}